@@ -0,0 +1,50 @@
+package com.voteguard.cache;
+
+import com.voteguard.model.StoredImage;
+
+import java.util.Base64;
+
+/**
+ * Cache entry holding an image together with its ready-to-send encodings.
+ * An entry without an image records that nothing is stored, so repeated lookups for
+ * candidates without a photo or logo do not reach the database either.
+ */
+public final class CachedImage {
+
+    static final CachedImage MISSING = new CachedImage(null);
+
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final StoredImage image;
+    private final String base64;
+    private final long weight;
+
+    private CachedImage(StoredImage image) {
+        this.image = image;
+        this.base64 = image != null ? Base64.getEncoder().encodeToString(image.getData()) : null;
+        this.weight = ENTRY_OVERHEAD_BYTES + (image != null ? image.size() + base64.length() : 0);
+    }
+
+    static CachedImage of(StoredImage image) {
+        return image != null ? new CachedImage(image) : MISSING;
+    }
+
+    public boolean isPresent() {
+        return image != null;
+    }
+
+    public StoredImage getImage() {
+        return image;
+    }
+
+    /**
+     * Base64 of the image bytes, as embedded in the JSON photo and logo responses.
+     */
+    public String getBase64() {
+        return base64;
+    }
+
+    long getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,85 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.CandidateChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Relays {@link CandidateChangedEvent}s between backend nodes through Postgres LISTEN/NOTIFY, so
+ * the image cache, ballot bundles and candidate search of every node follow candidate and media
+ * changes made on any of them. Local events are announced on the candidate_changes channel and
+ * other nodes republish them as remote events. Notifications sent while the listening connection
+ * was down are lost, so every reconnect publishes a remote event for all candidates.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CandidateChangeListener {
+
+    private static final String CHANNEL = "candidate_changes";
+
+    private final NotificationHub notificationHub;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private boolean connected; // only used on the notification thread
+
+    @EventListener
+    public void onCandidateChanged(CandidateChangedEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        // Payload is nodeId, candidate ID and election ID on separate lines, empty for null
+        String payload = nodeId + "\n" + nullToEmpty(event.candidateId()) + "\n" + nullToEmpty(event.electionId());
+        try {
+            // pg_notify returns void; queryForList just consumes the single row
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+        } catch (Exception e) {
+            log.warn("Failed to notify other nodes of candidate {} change: {}", event.candidateId(), e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        notificationHub.subscribe(CHANNEL, this::catchUp, this::applyRemoteChanges);
+    }
+
+    private void catchUp() {
+        // Nothing can have been missed before the first connection
+        if (connected) {
+            eventPublisher.publishEvent(new CandidateChangedEvent(null, null, true));
+        }
+        connected = true;
+    }
+
+    private void applyRemoteChanges(List<String> payloads) {
+        for (String payload : payloads) {
+            String[] parts = payload.split("\n", 3);
+            if (parts.length != 3 || parts[0].equals(nodeId)) {
+                continue;
+            }
+            try {
+                eventPublisher.publishEvent(new CandidateChangedEvent(emptyToNull(parts[1]), emptyToNull(parts[2]), true));
+            } catch (Exception e) {
+                log.warn("Failed to apply candidate change from another node: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static String nullToEmpty(Long value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static Long emptyToNull(String value) {
+        return value.isEmpty() ? null : Long.valueOf(value);
+    }
+}
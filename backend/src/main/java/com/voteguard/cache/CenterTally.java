@@ -0,0 +1,339 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.VoteCastEvent;
+import com.voteguard.event.VotesRemovedEvent;
+import com.voteguard.model.CenterResult;
+import com.voteguard.repository.VoteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Vote counts per election, voting center and candidate. Every center keeps its own partial
+ * (candidate -> votes) and an election's totals are the merge of its centers' partials, so one
+ * center can be reported on, or recounted after an audit, without touching the others.
+ * <p>
+ * Partials follow committed votes: this node's through {@link VoteCastEvent}, other nodes' through
+ * {@link ParticipationListener}, which also reloads the tally whenever it (re)connects. Votes
+ * deleted by a cascade from a voter, candidate or election are not announced one by one; a
+ * {@link VotesRemovedEvent}, local or relayed, reloads the affected election instead. A reload
+ * or recount reads the votes table in a REPEATABLE READ snapshot. Votes that commit meanwhile are
+ * buffered and added afterwards unless the snapshot already holds them, so none is lost or counted
+ * twice. Until the first load completes, results are read from the votes table.
+ * <p>
+ * Centers are reported in the order their first vote was stored (lowest votes.id).
+ */
+@Component
+@Slf4j
+public class CenterTally {
+
+    private final VoteRepository voteRepository;
+    private final TransactionTemplate snapshotTransaction;
+
+    private final Object loadLock = new Object();
+
+    // Guarded by this
+    private Map<Long, Map<String, Partial>> elections = new HashMap<>();
+    private List<VoteCastEvent> votesDuringLoad; // non-null while a load is in progress
+    private boolean ready;
+    private long recounts;
+    private long corrected; // partials a reload or recount found to differ
+    private LocalDateTime lastLoadedAt;
+
+    public CenterTally(VoteRepository voteRepository, PlatformTransactionManager transactionManager) {
+        this.voteRepository = voteRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    @TransactionalEventListener
+    public void onVoteCast(VoteCastEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVotesRemoved(VotesRemovedEvent event) {
+        reload(event.electionId());
+    }
+
+    /**
+     * Count a committed vote, from this or another node.
+     */
+    public synchronized void record(VoteCastEvent event) {
+        if (event.electionId() == null || event.candidateId() == null) {
+            return;
+        }
+        add(elections, event);
+        if (votesDuringLoad != null) {
+            votesDuringLoad.add(event);
+        }
+    }
+
+    public synchronized boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The election's per-center counts in reporting order. Until the tally is loaded they are read
+     * from the votes table.
+     */
+    public List<CenterResult> getCenterResults(Long electionId) {
+        synchronized (this) {
+            if (ready) {
+                return toResults(elections.getOrDefault(electionId, Map.of()));
+            }
+        }
+        return toResults(readPartials(electionId, false, null).getOrDefault(electionId, Map.of()));
+    }
+
+    /**
+     * The election's totals per candidate: the merge of every center's partial.
+     */
+    public Map<Long, Long> getElectionTotals(Long electionId) {
+        return merge(getCenterResults(electionId));
+    }
+
+    public static Map<Long, Long> merge(List<CenterResult> centers) {
+        Map<Long, Long> totals = new HashMap<>();
+        for (CenterResult center : centers) {
+            center.voteCounts().forEach((candidateId, votes) -> totals.merge(candidateId, votes, Long::sum));
+        }
+        return totals;
+    }
+
+    /**
+     * Load every election's partials from the votes table, e.g. after notifications from other
+     * nodes may have been missed.
+     */
+    public void reload() {
+        load(null, false, null);
+    }
+
+    /**
+     * Load one election's partials from the votes table, e.g. after some of its votes were deleted.
+     */
+    public void reload(Long electionId) {
+        load(Objects.requireNonNull(electionId), false, null);
+    }
+
+    /**
+     * Recount one center of an election from the votes table, e.g. after its votes were audited or
+     * corrected. A null centerLocation recounts the votes cast without a center.
+     *
+     * @return whether the recount differed from the partial it replaced
+     */
+    public boolean recount(Long electionId, String centerLocation) {
+        return load(Objects.requireNonNull(electionId), true, centerLocation) > 0;
+    }
+
+    /**
+     * Reload the whole tally; a partial that changed means a vote was missed or double counted.
+     */
+    @Scheduled(initialDelayString = "${results.center-tally.verify-interval-ms:900000}",
+               fixedDelayString = "${results.center-tally.verify-interval-ms:900000}")
+    public void verify() {
+        if (!isReady()) {
+            return;
+        }
+        int changed = load(null, false, null);
+        if (changed > 0) {
+            log.warn("Center tally differed from votes table in {} partials; reloaded", changed);
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long partials = 0;
+        long votes = 0;
+        for (Map<String, Partial> centers : elections.values()) {
+            partials += centers.size();
+            for (Partial partial : centers.values()) {
+                votes += partial.total;
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ready", ready);
+        stats.put("elections", elections.size());
+        stats.put("partials", partials);
+        stats.put("votes", votes);
+        stats.put("recounts", recounts);
+        stats.put("corrected", corrected);
+        stats.put("lastLoadedAt", lastLoadedAt);
+        return stats;
+    }
+
+    /**
+     * Replace the partials in scope (every election when electionId is null, otherwise one
+     * election or, with singleCenter, one of its centers) with counts read from the votes table.
+     *
+     * @return the number of partials that changed, or 0 if the load failed
+     */
+    private int load(Long electionId, boolean singleCenter, String centerLocation) {
+        synchronized (loadLock) {
+            long startTime = System.currentTimeMillis();
+            synchronized (this) {
+                votesDuringLoad = new ArrayList<>();
+            }
+            try {
+                // The snapshot is taken by the first query, after buffering started
+                Integer changed = snapshotTransaction.execute(status -> {
+                    Map<Long, Map<String, Partial>> loaded = readPartials(electionId, singleCenter, centerLocation);
+                    // Held through the check so no vote is recorded between it and the swap; it is one indexed query
+                    synchronized (this) {
+                        List<VoteCastEvent> during = new ArrayList<>();
+                        for (VoteCastEvent event : votesDuringLoad) {
+                            if (inScope(event, electionId, singleCenter, centerLocation)) {
+                                during.add(event);
+                            }
+                        }
+                        Set<Long> seen = voteRepository.findExistingIds(during.stream()
+                                .map(VoteCastEvent::voteId).filter(Objects::nonNull).toList());
+                        for (VoteCastEvent event : during) {
+                            if (event.voteId() == null || !seen.contains(event.voteId())) {
+                                add(loaded, event);
+                            }
+                        }
+                        votesDuringLoad = null;
+                        return replace(loaded, electionId, singleCenter, centerLocation);
+                    }
+                });
+                synchronized (this) {
+                    corrected += changed;
+                    lastLoadedAt = LocalDateTime.now();
+                    if (singleCenter) {
+                        recounts++;
+                    }
+                }
+                log.info("Center tally {} in {} ms", singleCenter ? "recounted center " + centerLocation + " of election " + electionId
+                        : electionId != null ? "reloaded election " + electionId : "loaded", System.currentTimeMillis() - startTime);
+                return changed != null ? changed : 0;
+            } catch (Exception e) {
+                synchronized (this) {
+                    votesDuringLoad = null;
+                }
+                log.warn("Failed to load center tally: {}", e.getMessage());
+                if (singleCenter) {
+                    throw new RuntimeException("Failed to recount center: " + e.getMessage(), e);
+                }
+                return 0;
+            }
+        }
+    }
+
+    private Map<Long, Map<String, Partial>> readPartials(Long electionId, boolean singleCenter, String centerLocation) {
+        Map<Long, Map<String, Partial>> loaded = new HashMap<>();
+        voteRepository.streamCenterTallies(electionId, centerLocation, singleCenter && centerLocation == null, rs -> {
+            Partial partial = loaded.computeIfAbsent(rs.getLong("election_id"), id -> new HashMap<>())
+                    .computeIfAbsent(rs.getString("center_location"), center -> new Partial());
+            partial.add(rs.getLong("candidate_id"), rs.getLong("votes"), rs.getLong("first_vote_id"));
+        });
+        return loaded;
+    }
+
+    private static List<CenterResult> toResults(Map<String, Partial> centers) {
+        List<Map.Entry<String, Partial>> ordered = new ArrayList<>(centers.entrySet());
+        ordered.sort(Comparator.comparingLong(entry -> entry.getValue().firstVoteId));
+        List<CenterResult> results = new ArrayList<>(ordered.size());
+        for (Map.Entry<String, Partial> entry : ordered) {
+            Partial partial = entry.getValue();
+            results.add(new CenterResult(entry.getKey(), partial.total, Collections.unmodifiableMap(new LinkedHashMap<>(partial.counts))));
+        }
+        return results;
+    }
+
+    // Caller holds this
+    private int replace(Map<Long, Map<String, Partial>> loaded, Long electionId, boolean singleCenter, String centerLocation) {
+        int changed = 0;
+        if (electionId == null) {
+            Set<Long> ids = new HashSet<>(elections.keySet());
+            ids.addAll(loaded.keySet());
+            for (Long id : ids) {
+                changed += countChanged(elections.get(id), loaded.get(id));
+            }
+            if (!ready) {
+                changed = 0; // the first load has nothing to correct
+            }
+            elections = loaded;
+            ready = true;
+            return changed;
+        }
+        Map<String, Partial> fresh = loaded.getOrDefault(electionId, new HashMap<>());
+        if (!singleCenter) {
+            changed = countChanged(elections.get(electionId), fresh);
+            elections.put(electionId, fresh);
+            return changed;
+        }
+        Map<String, Partial> centers = elections.computeIfAbsent(electionId, id -> new HashMap<>());
+        Partial previous = centers.remove(centerLocation);
+        Partial recounted = fresh.get(centerLocation);
+        if (recounted != null) {
+            centers.put(centerLocation, recounted);
+        }
+        return Objects.equals(previous != null ? previous.counts : Map.of(), recounted != null ? recounted.counts : Map.of()) ? 0 : 1;
+    }
+
+    private static int countChanged(Map<String, Partial> before, Map<String, Partial> after) {
+        Map<String, Partial> old = before != null ? before : Map.of();
+        Map<String, Partial> fresh = after != null ? after : Map.of();
+        int changed = 0;
+        for (Map.Entry<String, Partial> entry : old.entrySet()) {
+            Partial replacement = fresh.get(entry.getKey());
+            if (replacement == null || !replacement.counts.equals(entry.getValue().counts)) {
+                changed++;
+            }
+        }
+        for (String center : fresh.keySet()) {
+            if (!old.containsKey(center)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private static boolean inScope(VoteCastEvent event, Long electionId, boolean singleCenter, String centerLocation) {
+        if (electionId == null) {
+            return true;
+        }
+        return electionId.equals(event.electionId()) && (!singleCenter || Objects.equals(centerLocation, event.centerLocation()));
+    }
+
+    private static void add(Map<Long, Map<String, Partial>> target, VoteCastEvent event) {
+        if (event.electionId() == null || event.candidateId() == null) {
+            return;
+        }
+        target.computeIfAbsent(event.electionId(), id -> new HashMap<>())
+                .computeIfAbsent(event.centerLocation(), center -> new Partial())
+                .add(event.candidateId(), 1, event.voteId() != null ? event.voteId() : Long.MAX_VALUE);
+    }
+
+    /**
+     * One center's counts in one election; the map key is the candidate id.
+     */
+    private static final class Partial {
+        private final Map<Long, Long> counts = new HashMap<>();
+        private long total;
+        private long firstVoteId = Long.MAX_VALUE;
+
+        void add(long candidateId, long votes, long voteId) {
+            counts.merge(candidateId, votes, Long::sum);
+            total += votes;
+            firstVoteId = Math.min(firstVoteId, voteId);
+        }
+    }
+}
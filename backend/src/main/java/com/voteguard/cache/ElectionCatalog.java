@@ -0,0 +1,207 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.ElectionChangedEvent;
+import com.voteguard.model.Election;
+import com.voteguard.model.ElectionStatus;
+import com.voteguard.repository.ElectionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through copy of the elections table, indexed by id and by code with the active
+ * elections pre-sorted per status. Elections change a few times a day while logins and
+ * votes look them up constantly, so the whole table is loaded on first use and dropped
+ * whenever an election changes on this node ({@link ElectionChangedEvent}) or on another
+ * node ({@link ElectionCatalogListener}).
+ * Callers receive copies, so mutating a returned election does not affect the catalog.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ElectionCatalog {
+
+    private static final Comparator<Election> BY_START_DESC = Comparator.comparing(Election::getStartDate).reversed();
+    private static final Comparator<Election> BY_START_ASC = Comparator.comparing(Election::getStartDate);
+    private static final Comparator<Election> BY_END_DESC = Comparator.comparing(Election::getEndDate).reversed();
+
+    private final ElectionRepository electionRepository;
+
+    private volatile Snapshot snapshot;
+    private long generation; // guarded by this
+
+    public Optional<Election> findById(Long id) {
+        return Optional.ofNullable(current().byId.get(id)).map(ElectionCatalog::copyOf);
+    }
+
+    public Optional<Election> findByCode(String electionCode) {
+        if (electionCode == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current().byCode.get(electionCode.trim().toUpperCase())).map(ElectionCatalog::copyOf);
+    }
+
+    public Optional<Election> findActiveByCode(String electionCode) {
+        return findByCode(electionCode).filter(election -> Boolean.TRUE.equals(election.getIsActive()));
+    }
+
+    public Optional<Election> findActiveByName(String name) {
+        return current().active.stream()
+                .filter(election -> election.getName() != null && election.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .map(ElectionCatalog::copyOf);
+    }
+
+    /**
+     * All elections, newest start date first.
+     */
+    public List<Election> findAll() {
+        return copies(current().all);
+    }
+
+    /**
+     * Elections with is_active set, newest start date first.
+     */
+    public List<Election> findActive() {
+        return copies(current().active);
+    }
+
+    public List<Election> findActiveByStatus(ElectionStatus status) {
+        return copies(current().activeByStatus.get(status));
+    }
+
+    // Status is kept in step with start/end dates by ElectionLifecycleScheduler, so the
+    // time-based views are just the status buckets in their display order
+
+    public List<Election> findUpcoming() {
+        return sorted(current().activeByStatus.get(ElectionStatus.UPCOMING), BY_START_ASC);
+    }
+
+    public List<Election> findOngoing() {
+        return sorted(current().activeByStatus.get(ElectionStatus.ACTIVE), BY_START_ASC);
+    }
+
+    public List<Election> findCompleted() {
+        return sorted(current().activeByStatus.get(ElectionStatus.COMPLETED), BY_END_DESC);
+    }
+
+    public boolean hasOngoingElection() {
+        return !current().activeByStatus.get(ElectionStatus.ACTIVE).isEmpty();
+    }
+
+    public long countActive() {
+        return current().active.size();
+    }
+
+    /**
+     * Changes whenever the catalog is invalidated, so derived structures can tell they are stale.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Drop the snapshot; the next lookup reloads it from the database.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        snapshot = null;
+    }
+
+    // Runs before other listeners so caches rebuilt from the catalog don't see the old election
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onElectionChanged(ElectionChangedEvent event) {
+        invalidate();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        long loadGeneration;
+        synchronized (this) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            loadGeneration = generation;
+        }
+
+        Snapshot loaded = new Snapshot(electionRepository.findAll());
+        synchronized (this) {
+            // Don't install a snapshot that was loaded before a concurrent invalidation
+            if (generation == loadGeneration) {
+                snapshot = loaded;
+                log.debug("Election catalog loaded: {} elections", loaded.all.size());
+            }
+        }
+        return loaded;
+    }
+
+    private static List<Election> sorted(List<Election> elections, Comparator<Election> order) {
+        return elections.stream().sorted(order).map(ElectionCatalog::copyOf).toList();
+    }
+
+    private static List<Election> copies(List<Election> elections) {
+        return elections.stream().map(ElectionCatalog::copyOf).toList();
+    }
+
+    private static Election copyOf(Election election) {
+        return Election.builder()
+                .id(election.getId())
+                .name(election.getName())
+                .electionCode(election.getElectionCode())
+                .electionOtp(election.getElectionOtp())
+                .otpSecret(election.getOtpSecret())
+                .otpExpiresAt(election.getOtpExpiresAt())
+                .activeCenterLocation(election.getActiveCenterLocation())
+                .description(election.getDescription())
+                .startDate(election.getStartDate())
+                .endDate(election.getEndDate())
+                .status(election.getStatus())
+                .isActive(election.getIsActive())
+                .createdAt(election.getCreatedAt())
+                .updatedAt(election.getUpdatedAt())
+                .build();
+    }
+
+    private static final class Snapshot {
+        final Map<Long, Election> byId = new HashMap<>();
+        final Map<String, Election> byCode = new HashMap<>();
+        final List<Election> all;
+        final List<Election> active;
+        final Map<ElectionStatus, List<Election>> activeByStatus = new EnumMap<>(ElectionStatus.class);
+
+        Snapshot(List<Election> elections) {
+            all = elections.stream().sorted(BY_START_DESC).toList();
+            List<Election> activeElections = new ArrayList<>();
+            for (ElectionStatus status : ElectionStatus.values()) {
+                activeByStatus.put(status, new ArrayList<>());
+            }
+            for (Election election : all) {
+                byId.put(election.getId(), election);
+                if (election.getElectionCode() != null) {
+                    byCode.put(election.getElectionCode().trim().toUpperCase(), election);
+                }
+                if (Boolean.TRUE.equals(election.getIsActive())) {
+                    activeElections.add(election);
+                    activeByStatus.get(election.getStatus()).add(election);
+                }
+            }
+            active = List.copyOf(activeElections);
+            activeByStatus.replaceAll((status, list) -> List.copyOf(list));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.ElectionChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link ElectionCatalog} of every backend node in step through Postgres LISTEN/NOTIFY.
+ * Local election changes are announced on the election_catalog channel; notifications from other
+ * nodes invalidate this node's catalog. The catalog is also invalidated on every (re)connect of the
+ * {@link NotificationHub}, since notifications sent in the meantime are lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ElectionCatalogListener {
+
+    private static final String CHANNEL = "election_catalog";
+
+    private final NotificationHub notificationHub;
+    private final JdbcTemplate jdbcTemplate;
+    private final ElectionCatalog electionCatalog;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @EventListener
+    public void onElectionChanged(ElectionChangedEvent event) {
+        try {
+            // pg_notify returns void; queryForList just consumes the single row
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, nodeId + ":" + event.electionId());
+        } catch (Exception e) {
+            log.warn("Failed to notify other nodes of election {} change: {}", event.electionId(), e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        notificationHub.subscribe(CHANNEL, electionCatalog::invalidate, this::applyRemoteChanges);
+    }
+
+    private void applyRemoteChanges(List<String> payloads) {
+        for (String payload : payloads) {
+            if (!payload.startsWith(nodeId + ":")) {
+                electionCatalog.invalidate();
+                return;
+            }
+        }
+    }
+}
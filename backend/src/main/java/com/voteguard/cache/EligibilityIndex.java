@@ -0,0 +1,150 @@
+package com.voteguard.cache;
+
+import com.voteguard.util.CompressedBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory copy of voter_election_eligibility: one compressed bitmap of active voter IDs per election.
+ * Lookups only take the lock of a single bitmap. Changes made while the index is being rebuilt are
+ * recorded and replayed onto the rebuilt index so they are not lost when it is swapped in.
+ */
+@Component
+public class EligibilityIndex {
+
+    private volatile Map<Long, CompressedBitmap> bitmaps = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Guarded by this; non-null while a rebuild is in progress
+    private List<Consumer<Map<Long, CompressedBitmap>>> changesDuringRebuild;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Voter IDs beyond int range cannot be indexed and must be checked against the database.
+     */
+    public static boolean isIndexable(Long voterId) {
+        return voterId != null && voterId >= 0 && voterId <= Integer.MAX_VALUE;
+    }
+
+    public boolean contains(Long voterId, Long electionId) {
+        CompressedBitmap bitmap = bitmaps.get(electionId);
+        if (bitmap == null) {
+            return false;
+        }
+        synchronized (bitmap) {
+            return bitmap.contains(voterId.intValue());
+        }
+    }
+
+    public synchronized void add(Long voterId, Long electionId) {
+        apply(map -> add(map, voterId, electionId));
+    }
+
+    public synchronized void addAll(Collection<Long> voterIds, Long electionId) {
+        apply(map -> voterIds.forEach(voterId -> add(map, voterId, electionId)));
+    }
+
+    public synchronized void remove(Long voterId, Long electionId) {
+        apply(map -> remove(map, voterId, electionId));
+    }
+
+    public synchronized void removeVoter(Long voterId) {
+        apply(map -> map.keySet().forEach(electionId -> remove(map, voterId, electionId)));
+    }
+
+    /**
+     * Set a voter's elections to exactly the given ones, e.g. after reading them back from the table.
+     */
+    public synchronized void replaceVoter(Long voterId, Collection<Long> electionIds) {
+        apply(map -> {
+            map.keySet().forEach(electionId -> remove(map, voterId, electionId));
+            electionIds.forEach(electionId -> add(map, voterId, electionId));
+        });
+    }
+
+    public synchronized void beginRebuild() {
+        changesDuringRebuild = new ArrayList<>();
+    }
+
+    public synchronized void completeRebuild(Map<Long, CompressedBitmap> rebuilt) {
+        Map<Long, CompressedBitmap> fresh = new ConcurrentHashMap<>(rebuilt);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.forEach(change -> change.accept(fresh));
+        }
+        changesDuringRebuild = null;
+        bitmaps = fresh;
+        ready = true;
+    }
+
+    /**
+     * Swap in one election's rebuilt bitmap, begun with {@link #beginRebuild()} like a full rebuild.
+     */
+    public synchronized void completeRebuild(Long electionId, CompressedBitmap rebuilt) {
+        Map<Long, CompressedBitmap> fresh = new HashMap<>();
+        fresh.put(electionId, rebuilt);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.forEach(change -> change.accept(fresh));
+        }
+        changesDuringRebuild = null;
+        bitmaps.put(electionId, fresh.get(electionId));
+    }
+
+    public synchronized void abortRebuild() {
+        changesDuringRebuild = null;
+    }
+
+    public Map<String, Object> getStats() {
+        long entries = 0;
+        long bytes = 0;
+        Map<Long, CompressedBitmap> current = bitmaps;
+        for (CompressedBitmap bitmap : current.values()) {
+            synchronized (bitmap) {
+                entries += bitmap.cardinality();
+                bytes += bitmap.sizeInBytes();
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ready", ready);
+        stats.put("elections", current.size());
+        stats.put("eligibleEntries", entries);
+        stats.put("sizeInBytes", bytes);
+        return stats;
+    }
+
+    private void apply(Consumer<Map<Long, CompressedBitmap>> change) {
+        change.accept(bitmaps);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private static void add(Map<Long, CompressedBitmap> map, Long voterId, Long electionId) {
+        if (!isIndexable(voterId)) {
+            return;
+        }
+        CompressedBitmap bitmap = map.computeIfAbsent(electionId, id -> new CompressedBitmap());
+        synchronized (bitmap) {
+            bitmap.add(voterId.intValue());
+        }
+    }
+
+    private static void remove(Map<Long, CompressedBitmap> map, Long voterId, Long electionId) {
+        CompressedBitmap bitmap = map.get(electionId);
+        if (bitmap == null || !isIndexable(voterId)) {
+            return;
+        }
+        synchronized (bitmap) {
+            bitmap.remove(voterId.intValue());
+        }
+    }
+}
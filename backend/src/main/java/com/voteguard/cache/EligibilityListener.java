@@ -0,0 +1,70 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.EligibilityChangedEvent;
+import com.voteguard.service.EligibilityService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link EligibilityIndex} of every backend node in step through Postgres LISTEN/NOTIFY.
+ * Local grants and revocations are announced on the voter_eligibility channel and the other nodes
+ * read the changed voter or election back from the table. The index is rebuilt on every
+ * (re)connect, since notifications sent while disconnected are lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EligibilityListener {
+
+    private static final String CHANNEL = "voter_eligibility";
+
+    private final NotificationHub notificationHub;
+    private final JdbcTemplate jdbcTemplate;
+    private final EligibilityService eligibilityService;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEligibilityChanged(EligibilityChangedEvent event) {
+        // Payload is nodeId, voter ID and election ID on separate lines, empty for null
+        String payload = nodeId + "\n" + nullToEmpty(event.voterId()) + "\n" + nullToEmpty(event.electionId());
+        try {
+            // pg_notify returns void; queryForList just consumes the single row
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+        } catch (Exception e) {
+            log.warn("Failed to notify other nodes of eligibility change for voter {} election {}: {}",
+                    event.voterId(), event.electionId(), e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        // Listening before loading, so no change falls between the two
+        notificationHub.subscribe(CHANNEL, eligibilityService::rebuildIndex, this::applyRemoteChanges);
+    }
+
+    private void applyRemoteChanges(List<String> payloads) {
+        for (String payload : payloads) {
+            String[] parts = payload.split("\n", 3);
+            if (parts.length != 3 || parts[0].equals(nodeId)) {
+                continue;
+            }
+            eligibilityService.reload(new EligibilityChangedEvent(emptyToLong(parts[1]), emptyToLong(parts[2])));
+        }
+    }
+
+    private static String nullToEmpty(Long value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static Long emptyToLong(String value) {
+        return value.isEmpty() ? null : Long.valueOf(value);
+    }
+}
@@ -0,0 +1,135 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.CandidateChangedEvent;
+import com.voteguard.model.ImageVariant;
+import com.voteguard.model.MediaKind;
+import com.voteguard.model.StoredImage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache of candidate photos and party logos bounded by total resident bytes.
+ * Ballot pages request the same few dozen images for every voter, so they are kept
+ * in memory with their encoded bodies instead of being read from the database each time.
+ * Uploads and deletes on this node invalidate their entries directly; changes made on other
+ * nodes arrive as remote {@link CandidateChangedEvent}s through {@link CandidateChangeListener}.
+ */
+@Component
+@Slf4j
+public class ImageCache {
+
+    private final long maxBytes;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, CachedImage> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long residentBytes;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ImageCache(@Value("${media.cache.max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Return the cached entry, loading and caching it on a miss.
+     */
+    public CachedImage get(MediaKind kind, Long candidateId, ImageVariant variant, Supplier<Optional<StoredImage>> loader) {
+        Key key = new Key(kind, candidateId, variant);
+        long loadGeneration;
+        synchronized (this) {
+            CachedImage cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        CachedImage loaded = CachedImage.of(loader.get().orElse(null));
+        put(key, loaded, loadGeneration);
+        return loaded;
+    }
+
+    /**
+     * Drop every size of a candidate's photo or logo, e.g. after a re-upload.
+     */
+    public synchronized void invalidate(MediaKind kind, Long candidateId) {
+        generation++;
+        for (ImageVariant variant : ImageVariant.values()) {
+            CachedImage removed = entries.remove(new Key(kind, candidateId, variant));
+            if (removed != null) {
+                residentBytes -= removed.getWeight();
+            }
+        }
+    }
+
+    /**
+     * Drop what another node may have uploaded, replaced or deleted, including cached misses.
+     */
+    @EventListener
+    public void onCandidateChanged(CandidateChangedEvent event) {
+        if (!event.remote()) {
+            return;
+        }
+        if (event.candidateId() == null) {
+            clear();
+            return;
+        }
+        for (MediaKind kind : MediaKind.values()) {
+            invalidate(kind, event.candidateId());
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+        residentBytes = 0;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long requests = hits + misses;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("residentBytes", residentBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("hitRate", requests > 0 ? (double) hits / requests : 0.0);
+        return stats;
+    }
+
+    private synchronized void put(Key key, CachedImage value, long loadGeneration) {
+        // An invalidation while loading means the loaded bytes may already be stale
+        if (loadGeneration != generation || value.getWeight() > maxBytes) {
+            return;
+        }
+        CachedImage previous = entries.put(key, value);
+        if (previous != null) {
+            residentBytes -= previous.getWeight();
+        }
+        residentBytes += value.getWeight();
+
+        Iterator<CachedImage> eldest = entries.values().iterator();
+        while (residentBytes > maxBytes && eldest.hasNext()) {
+            residentBytes -= eldest.next().getWeight();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private record Key(MediaKind kind, Long candidateId, ImageVariant variant) {
+    }
+}
@@ -0,0 +1,147 @@
+package com.voteguard.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Receives the Postgres LISTEN/NOTIFY channels the node caches use to stay in step with the
+ * other backend nodes. Every channel is listened on through one dedicated connection opened
+ * straight from the driver, outside the application's DataSource, so listening never holds a
+ * connection that requests or recounts need.
+ * <p>
+ * A subscriber gives its channel, a callback for catching up and a handler for payloads. The
+ * catch-up callback runs on every (re)connect once LISTEN is in effect, since notifications sent
+ * while disconnected are lost. Payloads are handed over per channel in arrival order, a poll's
+ * worth at a time. A handler that fails has its subscriber catch up again; if that fails as well
+ * the connection is dropped and every subscriber catches up on reconnect.
+ */
+@Component
+@Slf4j
+public class NotificationHub {
+
+    private static final int POLL_TIMEOUT_MS = 10_000;
+    private static final long RECONNECT_DELAY_MS = 5_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public NotificationHub(@Value("${spring.datasource.url}") String url,
+                           @Value("${spring.datasource.username}") String username,
+                           @Value("${spring.datasource.password}") String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Listen on a channel from the next (re)connect on. Subscribers register while the context
+     * starts, so the first connection already covers them.
+     *
+     * @param onListen runs on the listener thread after every (re)connect
+     * @param onNotifications receives the payloads of each poll, this node's own included
+     */
+    public void subscribe(String channel, Runnable onListen, Consumer<List<String>> onNotifications) {
+        subscriptions.add(new Subscription(channel, onListen, onNotifications));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "notification-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                List<String> channels = new ArrayList<>();
+                try (Statement statement = connection.createStatement()) {
+                    for (Subscription subscription : subscriptions) {
+                        statement.execute("LISTEN " + subscription.channel());
+                        channels.add(subscription.channel());
+                    }
+                }
+                // Listening before loading, so no change falls between the two
+                for (Subscription subscription : subscriptions) {
+                    subscription.onListen().run();
+                }
+                log.info("Listening for changes from other nodes on {}", channels);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        dispatch(notifications);
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Notification listener disconnected, retrying in {} ms: {}", RECONNECT_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(PGNotification[] notifications) {
+        Map<String, List<String>> payloadsByChannel = new LinkedHashMap<>();
+        for (PGNotification notification : notifications) {
+            payloadsByChannel.computeIfAbsent(notification.getName(), channel -> new ArrayList<>())
+                    .add(notification.getParameter());
+        }
+        for (Subscription subscription : subscriptions) {
+            List<String> payloads = payloadsByChannel.get(subscription.channel());
+            if (payloads == null) {
+                continue;
+            }
+            try {
+                subscription.onNotifications().accept(payloads);
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply changes from {}, catching up: {}", subscription.channel(), e.getMessage());
+                subscription.onListen().run();
+            }
+        }
+    }
+
+    private record Subscription(String channel, Runnable onListen, Consumer<List<String>> onNotifications) {
+    }
+}
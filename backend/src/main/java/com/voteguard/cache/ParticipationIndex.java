@@ -0,0 +1,442 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.VoteCastEvent;
+import com.voteguard.model.Election;
+import com.voteguard.repository.VoteRepository;
+import com.voteguard.util.ParticipationBitset;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Which voters have voted in which election: one {@link ParticipationBitset} per election,
+ * indexed by voters.id, so the already-voted checks of every login and every cast are a bit test
+ * instead of a query on votes. A vote sets its bit once it commits ({@link VoteCastEvent});
+ * votes cast on other nodes arrive through {@link ParticipationListener}, which also loads the
+ * index whenever it connects and catches up on votes cast while it was disconnected.
+ * <p>
+ * The unique_voter_election constraint stays the source of truth. A periodic verification scans
+ * the votes table, sets missing bits and clears bits without a vote. Until the index is loaded,
+ * and for voter IDs beyond int range, checks go to the database.
+ * <p>
+ * With participation.index.snapshot-file set, the index is written to that file on shutdown and
+ * after every verification. A restart maps the file back and only reads votes cast since, instead
+ * of scanning every election.
+ */
+@Component
+@Slf4j
+public class ParticipationIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x56475049; // "VGPI"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 20;
+    private static final int SNAPSHOT_ENTRY_HEADER_BYTES = 12;
+
+    private final VoteRepository voteRepository;
+    private final ElectionCatalog electionCatalog;
+    private final Path snapshotFile; // null when snapshots are disabled
+    private final int loadThreads;
+
+    private final Object loadLock = new Object();
+
+    private volatile Map<Long, ParticipationBitset> bitsets = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    // Guarded by this
+    private long watermark; // highest votes.id read from the table
+    private List<long[]> votesDuringLoad; // non-null while a load is in progress
+    private long repaired;
+    private long cleared;
+    private LocalDateTime lastVerifiedAt;
+
+    public ParticipationIndex(VoteRepository voteRepository,
+                              ElectionCatalog electionCatalog,
+                              @Value("${participation.index.snapshot-file:}") String snapshotFile,
+                              @Value("${participation.index.load-threads:4}") int loadThreads) {
+        this.voteRepository = voteRepository;
+        this.electionCatalog = electionCatalog;
+        this.snapshotFile = snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+        this.loadThreads = Math.max(1, loadThreads);
+    }
+
+    /**
+     * Whether the voter has voted in the election, or in any election when electionId is null.
+     */
+    public boolean hasVoted(Long voterId, Long electionId) {
+        if (electionId == null) {
+            return voteRepository.existsByVoterId(voterId);
+        }
+        if (ready && isIndexable(voterId)) {
+            hits.increment();
+            ParticipationBitset bitset = bitsets.get(electionId);
+            if (bitset == null) {
+                return false;
+            }
+            synchronized (bitset) {
+                return bitset.get(voterId.intValue());
+            }
+        }
+        fallbacks.increment();
+        return voteRepository.existsByVoterIdAndElectionId(voterId, electionId);
+    }
+
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onVoteCast(VoteCastEvent event) {
+        markVoted(event.voterId(), event.electionId());
+    }
+
+    /**
+     * Record a committed vote, from this or another node.
+     */
+    public synchronized void markVoted(Long voterId, Long electionId) {
+        if (electionId == null || !isIndexable(voterId)) {
+            return;
+        }
+        set(bitsets, voterId, electionId);
+        if (votesDuringLoad != null) {
+            votesDuringLoad.add(new long[]{voterId, electionId});
+        }
+    }
+
+    /**
+     * Load the index if it is not loaded yet, otherwise read the votes cast since it was last
+     * brought up to date, e.g. after notifications from other nodes may have been missed.
+     */
+    public void refresh() {
+        synchronized (loadLock) {
+            if (!ready) {
+                load();
+                return;
+            }
+            try {
+                long from;
+                synchronized (this) {
+                    from = watermark;
+                }
+                // Bits are only ever set here, so writing to the live index is safe
+                long upTo = readVotesAfter(bitsets, from);
+                synchronized (this) {
+                    watermark = Math.max(watermark, upTo);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to catch up participation index: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Caller holds loadLock
+    private void load() {
+        long startTime = System.currentTimeMillis();
+        synchronized (this) {
+            votesDuringLoad = new ArrayList<>();
+        }
+        try {
+            Snapshot snapshot = readSnapshot();
+            Map<Long, ParticipationBitset> loaded;
+            long loadedWatermark;
+            if (snapshot != null) {
+                loaded = snapshot.bitsets();
+                loadedWatermark = readVotesAfter(loaded, snapshot.watermark());
+            } else {
+                // Votes above the watermark may or may not be seen by the scan; the next catch-up reads them again
+                loadedWatermark = voteRepository.findMaxId();
+                loaded = scan();
+            }
+            long entries;
+            synchronized (this) {
+                votesDuringLoad.forEach(vote -> set(loaded, vote[0], vote[1]));
+                votesDuringLoad = null;
+                bitsets = loaded;
+                watermark = loadedWatermark;
+                ready = true;
+                entries = loaded.values().stream().mapToLong(ParticipationBitset::cardinality).sum();
+            }
+            log.info("Participation index loaded from {}: {} votes across {} elections in {} ms",
+                    snapshot != null ? "snapshot" : "votes table", entries, loaded.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            synchronized (this) {
+                votesDuringLoad = null;
+            }
+            log.warn("Failed to load participation index, falling back to database checks: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compare the index with the votes table: set the bits of votes it is missing and clear bits
+     * that have no vote. Both should stay at zero; anything else is logged.
+     */
+    @Scheduled(initialDelayString = "${participation.index.verify-interval-ms:900000}",
+               fixedDelayString = "${participation.index.verify-interval-ms:900000}")
+    public void verify() {
+        if (!ready) {
+            return;
+        }
+        synchronized (loadLock) {
+            long startTime = System.currentTimeMillis();
+            long missing = 0;
+            long stale = 0;
+            try {
+                Map<Long, ParticipationBitset> expected = scan();
+                for (Map.Entry<Long, ParticipationBitset> entry : expected.entrySet()) {
+                    Long electionId = entry.getKey();
+                    List<Integer> absent = new ArrayList<>();
+                    entry.getValue().forEach(voterId -> {
+                        if (!contains(electionId, voterId)) {
+                            absent.add(voterId);
+                        }
+                    });
+                    absent.forEach(voterId -> markVoted((long) voterId, electionId));
+                    missing += absent.size();
+                }
+                for (Map.Entry<Long, ParticipationBitset> entry : bitsets.entrySet()) {
+                    Long electionId = entry.getKey();
+                    ParticipationBitset scanned = expected.get(electionId);
+                    List<Integer> extra = new ArrayList<>();
+                    synchronized (entry.getValue()) {
+                        entry.getValue().forEach(voterId -> {
+                            if (scanned == null || !scanned.get(voterId)) {
+                                extra.add(voterId);
+                            }
+                        });
+                    }
+                    for (Integer voterId : extra) {
+                        // Most are votes committed after the scan started
+                        if (!voteRepository.existsByVoterIdAndElectionId((long) voterId, electionId)) {
+                            synchronized (entry.getValue()) {
+                                entry.getValue().clear(voterId);
+                            }
+                            stale++;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Failed to verify participation index: {}", e.getMessage());
+                return;
+            }
+            synchronized (this) {
+                repaired += missing;
+                cleared += stale;
+                lastVerifiedAt = LocalDateTime.now();
+            }
+            if (missing > 0 || stale > 0) {
+                log.warn("Participation index differed from votes table: set {} missing and cleared {} stale entries", missing, stale);
+            }
+            log.info("Participation index verified in {} ms", System.currentTimeMillis() - startTime);
+        }
+        saveSnapshot();
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        if (snapshotFile == null || !ready) {
+            return;
+        }
+        try {
+            writeSnapshot();
+        } catch (Exception e) {
+            log.warn("Failed to write participation snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<Long, ParticipationBitset> current = bitsets;
+        long entries = 0;
+        long bytes = 0;
+        for (ParticipationBitset bitset : current.values()) {
+            synchronized (bitset) {
+                entries += bitset.cardinality();
+                bytes += bitset.sizeInBytes();
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ready", ready);
+        stats.put("elections", current.size());
+        stats.put("votes", entries);
+        stats.put("directBytes", bytes);
+        stats.put("hits", hits.sum());
+        stats.put("fallbacks", fallbacks.sum());
+        stats.put("snapshotFile", snapshotFile != null ? snapshotFile.toString() : "disabled");
+        synchronized (this) {
+            stats.put("watermark", watermark);
+            stats.put("repaired", repaired);
+            stats.put("cleared", cleared);
+            stats.put("lastVerifiedAt", lastVerifiedAt);
+        }
+        return stats;
+    }
+
+    /**
+     * Read every election's voters from the votes table, several elections at a time.
+     */
+    private Map<Long, ParticipationBitset> scan() throws Exception {
+        List<Long> electionIds = electionCatalog.findAll().stream().map(Election::getId).toList();
+        Map<Long, ParticipationBitset> scanned = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(loadThreads, Math.max(1, electionIds.size())), runnable -> {
+            Thread thread = new Thread(runnable, "participation-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> scans = new ArrayList<>();
+            for (Long electionId : electionIds) {
+                scans.add(executor.submit(() -> {
+                    ParticipationBitset bitset = new ParticipationBitset();
+                    voteRepository.streamVoterIdsForElection(electionId, rs -> {
+                        long voterId = rs.getLong("voter_id");
+                        if (isIndexable(voterId)) {
+                            bitset.set((int) voterId);
+                        }
+                    });
+                    scanned.put(electionId, bitset);
+                }));
+            }
+            for (Future<?> scan : scans) {
+                scan.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return scanned;
+    }
+
+    /**
+     * @return the highest vote id read, or afterId if there were none
+     */
+    private long readVotesAfter(Map<Long, ParticipationBitset> target, long afterId) {
+        long[] last = {afterId};
+        voteRepository.streamElectionVotesAfter(afterId, rs -> {
+            long voterId = rs.getLong("voter_id");
+            if (isIndexable(voterId)) {
+                set(target, voterId, rs.getLong("election_id"));
+            }
+            last[0] = rs.getLong("id");
+        });
+        return last[0];
+    }
+
+    private boolean contains(Long electionId, int voterId) {
+        ParticipationBitset bitset = bitsets.get(electionId);
+        if (bitset == null) {
+            return false;
+        }
+        synchronized (bitset) {
+            return bitset.get(voterId);
+        }
+    }
+
+    private Snapshot readSnapshot() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.remaining() < SNAPSHOT_HEADER_BYTES || mapped.getInt() != SNAPSHOT_MAGIC || mapped.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("not a participation snapshot");
+            }
+            long snapshotWatermark = mapped.getLong();
+            if (snapshotWatermark > voteRepository.findMaxId()) {
+                // Written against another (or a restored) database
+                throw new IOException("snapshot is ahead of the votes table");
+            }
+            int count = mapped.getInt();
+            Map<Long, ParticipationBitset> loaded = new ConcurrentHashMap<>();
+            for (int i = 0; i < count; i++) {
+                if (mapped.remaining() < SNAPSHOT_ENTRY_HEADER_BYTES) {
+                    throw new IOException("snapshot is truncated");
+                }
+                long electionId = mapped.getLong();
+                int wordCount = mapped.getInt();
+                if (wordCount < 0 || (long) wordCount * 8 > mapped.remaining()) {
+                    throw new IOException("snapshot is truncated");
+                }
+                loaded.put(electionId, ParticipationBitset.copyOf(mapped, wordCount));
+                mapped.position(mapped.position() + wordCount * 8);
+            }
+            return new Snapshot(loaded, snapshotWatermark);
+        } catch (Exception e) {
+            log.warn("Ignoring participation snapshot {}: {}", snapshotFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        long startTime = System.currentTimeMillis();
+        long snapshotWatermark;
+        Map<Long, ParticipationBitset> current;
+        synchronized (this) {
+            // Taken before the bits, so a restart re-reads anything set while writing
+            snapshotWatermark = watermark;
+            current = bitsets;
+        }
+        List<Map.Entry<Long, ParticipationBitset>> entries = new ArrayList<>(current.entrySet());
+        Path parent = snapshotFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(snapshotWatermark).putInt(entries.size()).flip());
+            for (Map.Entry<Long, ParticipationBitset> entry : entries) {
+                ParticipationBitset bitset = entry.getValue();
+                synchronized (bitset) {
+                    writeFully(channel, ByteBuffer.allocate(SNAPSHOT_ENTRY_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                            .putLong(entry.getKey()).putInt(bitset.wordCount()).flip());
+                    writeFully(channel, bitset.words());
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Participation snapshot written to {} in {} ms", snapshotFile, System.currentTimeMillis() - startTime);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void set(Map<Long, ParticipationBitset> target, long voterId, long electionId) {
+        ParticipationBitset bitset = target.computeIfAbsent(electionId, id -> new ParticipationBitset());
+        synchronized (bitset) {
+            bitset.set((int) voterId);
+        }
+    }
+
+    private static boolean isIndexable(Long voterId) {
+        return voterId != null && voterId >= 0 && voterId <= Integer.MAX_VALUE;
+    }
+
+    private record Snapshot(Map<Long, ParticipationBitset> bitsets, long watermark) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.VoteCastEvent;
+import com.voteguard.event.VotesRemovedEvent;
+import com.voteguard.service.ResultsSnapshotService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link ParticipationIndex} and {@link CenterTally} of every backend node in step
+ * through Postgres LISTEN/NOTIFY. Committed votes are announced on the vote_participation channel
+ * and recorded by the other nodes, so a voter who voted elsewhere is not let through here and the
+ * vote is counted for its center; a cached results snapshot of the vote's election is evicted,
+ * since a late journaled vote drops it. Deletions of an election's votes are announced on the same
+ * channel and make the other nodes reload that election's tally. On every (re)connect the index is
+ * loaded or catches up on the votes table and the tally is reloaded, since notifications sent while
+ * disconnected are lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ParticipationListener {
+
+    private static final String CHANNEL = "vote_participation";
+
+    private final NotificationHub notificationHub;
+    private final JdbcTemplate jdbcTemplate;
+    private final ParticipationIndex participationIndex;
+    private final CenterTally centerTally;
+    private final ResultsSnapshotService resultsSnapshotService;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoteCast(VoteCastEvent event) {
+        if (event.electionId() == null) {
+            return;
+        }
+        // Payload is nodeId, voters.id, election ID, vote ID, candidate ID and center on separate lines
+        String payload = nodeId + "\n" + event.voterId() + "\n" + event.electionId() + "\n" + event.voteId()
+                + "\n" + event.candidateId() + "\n" + (event.centerLocation() != null ? event.centerLocation() : "");
+        try {
+            // pg_notify returns void; queryForList just consumes the single row
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+        } catch (Exception e) {
+            log.warn("Failed to notify other nodes of vote by voter {}: {}", event.voterId(), e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVotesRemoved(VotesRemovedEvent event) {
+        if (event.electionId() == null) {
+            return;
+        }
+        // Payload is nodeId and election ID on separate lines
+        String payload = nodeId + "\n" + event.electionId();
+        try {
+            // pg_notify returns void; queryForList just consumes the single row
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+        } catch (Exception e) {
+            log.warn("Failed to notify other nodes of votes removed from election {}: {}", event.electionId(), e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        // Listening before loading, so no vote falls between the two
+        notificationHub.subscribe(CHANNEL, () -> {
+            participationIndex.refresh();
+            centerTally.reload();
+        }, this::applyRemoteChanges);
+    }
+
+    private void applyRemoteChanges(List<String> payloads) {
+        for (String payload : payloads) {
+            String[] parts = payload.split("\n", 6);
+            // Nodes not yet upgraded send only the first three lines; two lines announce removed votes
+            if ((parts.length != 2 && parts.length != 3 && parts.length != 6) || parts[0].equals(nodeId)) {
+                continue;
+            }
+            try {
+                if (parts.length == 2) {
+                    centerTally.reload(Long.parseLong(parts[1]));
+                    continue;
+                }
+                Long voterId = Long.parseLong(parts[1]);
+                Long electionId = Long.parseLong(parts[2]);
+                participationIndex.markVoted(voterId, electionId);
+                resultsSnapshotService.evict(electionId);
+                if (parts.length == 6) {
+                    centerTally.record(new VoteCastEvent(Long.parseLong(parts[3]), voterId, electionId,
+                            Long.parseLong(parts[4]), parts[5].isEmpty() ? null : parts[5], null));
+                }
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed participation notification: {}", payload);
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.VoteCastEvent;
+import com.voteguard.model.TurnoutPoint;
+import com.voteguard.model.TurnoutResolution;
+import com.voteguard.repository.TurnoutRepository;
+import com.voteguard.util.MinuteRing;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Turnout curves per election and center without scanning votes. Each node counts the votes it
+ * commits in a {@link MinuteRing} per (election, center) and periodically adds the outstanding
+ * counts to the minute, hour and day rows of turnout_rollup. A curve is one query on that table
+ * plus this node's outstanding counts, so its cost depends on the number of buckets, not votes.
+ * <p>
+ * Nodes only write their own votes, so another node's votes show up once it has flushed, at most
+ * turnout.flush-interval-ms later. Votes older than the ring's window when they commit (journal
+ * replays, offline syncs) are kept aside until the next flush. Minute rows are pruned after
+ * turnout.minute-retention-days; hour and day rows are kept.
+ * <p>
+ * Flushes add to the stored counts, so a flush whose commit succeeded but reported failure is
+ * added twice and a node killed before flushing loses its counts. Every
+ * turnout.reconcile-interval-ms the last turnout.reconcile-hours whole hours, up to
+ * turnout.settle-minutes ago, are rebuilt from the votes table less this node's outstanding
+ * counts. A late vote another node has not flushed yet can still be counted twice; the next
+ * reconcile corrects it while its hour is in the window.
+ */
+@Component
+@Slf4j
+public class TurnoutSeries {
+
+    private final TurnoutRepository turnoutRepository;
+    private final int ringMinutes;
+    private final int minuteRetentionDays;
+    private final int reconcileHours;
+    private final int settleMinutes;
+    private final TransactionTemplate reconcileTransaction;
+
+    // Held for writing while a flush is in flight, so a curve never counts a minute in both places
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    // Guarded by this
+    private final Map<SeriesKey, MinuteRing> rings = new HashMap<>();
+    private final Map<BucketKey, Long> overflow = new HashMap<>(); // outstanding counts outside any ring
+    private long recorded;
+    private long flushed;
+    private long flushFailures;
+    private LocalDateTime lastFlushedAt;
+    private long reconciled; // minute and hour buckets a reconcile found to differ
+    private LocalDateTime lastReconciledAt;
+
+    public TurnoutSeries(TurnoutRepository turnoutRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${turnout.ring-minutes:120}") int ringMinutes,
+                         @Value("${turnout.minute-retention-days:7}") int minuteRetentionDays,
+                         @Value("${turnout.reconcile-hours:6}") int reconcileHours,
+                         @Value("${turnout.settle-minutes:5}") int settleMinutes) {
+        this.turnoutRepository = turnoutRepository;
+        this.ringMinutes = Math.max(2, ringMinutes);
+        this.minuteRetentionDays = Math.max(1, minuteRetentionDays);
+        // Minute rows are rebuilt too, so the window must not reach past their retention
+        this.reconcileHours = Math.max(1, Math.min(reconcileHours, this.minuteRetentionDays * 24 - 1));
+        this.settleMinutes = Math.max(1, settleMinutes);
+        this.reconcileTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener
+    public void onVoteCast(VoteCastEvent event) {
+        if (event.electionId() == null) {
+            return;
+        }
+        LocalDateTime castAt = event.timestamp() != null ? event.timestamp() : LocalDateTime.now();
+        record(event.electionId(), event.centerLocation(), toMinute(castAt));
+    }
+
+    private synchronized void record(Long electionId, String centerLocation, long minute) {
+        MinuteRing ring = rings.computeIfAbsent(new SeriesKey(electionId, centerLocation), key -> new MinuteRing(ringMinutes));
+        boolean added = ring.add(minute, 1, (evictedMinute, count) ->
+                overflow.merge(new BucketKey(electionId, centerLocation, evictedMinute), count, Long::sum));
+        if (!added) {
+            overflow.merge(new BucketKey(electionId, centerLocation, minute), 1L, Long::sum);
+        }
+        recorded++;
+    }
+
+    /**
+     * The election's turnout curve at the given resolution, for one center or, with centerLocation
+     * null, all centers together. Votes cast without a center are under the empty center.
+     */
+    public List<TurnoutPoint> getCurve(Long electionId, String centerLocation, TurnoutResolution resolution) {
+        flushLock.readLock().lock();
+        try {
+            TreeMap<LocalDateTime, Long> buckets = new TreeMap<>(turnoutRepository.findCurve(electionId, centerLocation, resolution));
+            synchronized (this) {
+                for (Map.Entry<SeriesKey, MinuteRing> entry : rings.entrySet()) {
+                    SeriesKey key = entry.getKey();
+                    if (matches(key.electionId(), key.centerLocation(), electionId, centerLocation)) {
+                        entry.getValue().forEachOutstanding((minute, count) ->
+                                buckets.merge(resolution.bucketStart(fromMinute(minute)), count, Long::sum));
+                    }
+                }
+                for (Map.Entry<BucketKey, Long> entry : overflow.entrySet()) {
+                    BucketKey key = entry.getKey();
+                    if (matches(key.electionId(), key.centerLocation(), electionId, centerLocation)) {
+                        buckets.merge(resolution.bucketStart(fromMinute(key.minute())), entry.getValue(), Long::sum);
+                    }
+                }
+            }
+            List<TurnoutPoint> curve = new ArrayList<>(buckets.size());
+            long cumulative = 0;
+            for (Map.Entry<LocalDateTime, Long> bucket : buckets.entrySet()) {
+                cumulative += bucket.getValue();
+                curve.add(new TurnoutPoint(bucket.getKey(), bucket.getValue(), cumulative));
+            }
+            return curve;
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add this node's outstanding minute counts to turnout_rollup. On failure they stay
+     * outstanding and go out with the next flush.
+     */
+    @Scheduled(fixedDelayString = "${turnout.flush-interval-ms:10000}")
+    @PreDestroy
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            List<TurnoutRepository.MinuteCount> counts = outstandingCounts();
+            if (counts.isEmpty()) {
+                return;
+            }
+            try {
+                turnoutRepository.addMinuteCounts(counts);
+            } catch (Exception e) {
+                synchronized (this) {
+                    flushFailures++;
+                }
+                log.warn("Failed to flush {} turnout buckets, keeping them for the next flush: {}", counts.size(), e.getMessage());
+                return;
+            }
+            synchronized (this) {
+                long votes = 0;
+                for (TurnoutRepository.MinuteCount count : counts) {
+                    markPersisted(count);
+                    votes += count.votes();
+                }
+                long now = toMinute(LocalDateTime.now());
+                rings.values().removeIf(ring -> ring.isSettled(now));
+                flushed += votes;
+                lastFlushedAt = LocalDateTime.now();
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the recent, settled buckets from the votes table; a bucket that changed means a
+     * flush was added twice or a node's counts were lost.
+     */
+    @Scheduled(initialDelayString = "${turnout.reconcile-interval-ms:900000}",
+               fixedDelayString = "${turnout.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime to = LocalDateTime.now().minusMinutes(settleMinutes).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime from = to.minusHours(reconcileHours);
+        // Held so no flush moves counts between the outstanding ones subtracted here and the table
+        flushLock.writeLock().lock();
+        try {
+            List<TurnoutRepository.MinuteCount> outstanding = new ArrayList<>();
+            for (TurnoutRepository.MinuteCount count : outstandingCounts()) {
+                if (!count.minuteStart().isBefore(from) && count.minuteStart().isBefore(to)) {
+                    outstanding.add(count);
+                }
+            }
+            Integer changed = reconcileTransaction.execute(status -> turnoutRepository.rebuildFromVotes(from, to, outstanding));
+            int corrected = changed != null ? changed : 0;
+            synchronized (this) {
+                reconciled += corrected;
+                lastReconciledAt = LocalDateTime.now();
+            }
+            if (corrected > 0) {
+                log.warn("Turnout rollup differed from votes table in {} buckets between {} and {}; rebuilt", corrected, from, to);
+            } else {
+                log.debug("Turnout rollup reconciled between {} and {} in {} ms", from, to, System.currentTimeMillis() - startTime);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to reconcile turnout rollup: {}", e.getMessage());
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${turnout.purge-interval-ms:3600000}",
+               fixedDelayString = "${turnout.purge-interval-ms:3600000}")
+    public void purgeMinutes() {
+        try {
+            int deleted = turnoutRepository.deleteMinutesBefore(LocalDateTime.now().minusDays(minuteRetentionDays));
+            if (deleted > 0) {
+                log.info("Pruned {} turnout minute buckets older than {} days", deleted, minuteRetentionDays);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to prune turnout minute buckets: {}", e.getMessage());
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("series", rings.size());
+        stats.put("ringMinutes", ringMinutes);
+        stats.put("overflowBuckets", overflow.size());
+        stats.put("recorded", recorded);
+        stats.put("flushed", flushed);
+        stats.put("flushFailures", flushFailures);
+        stats.put("lastFlushedAt", lastFlushedAt);
+        stats.put("reconciled", reconciled);
+        stats.put("lastReconciledAt", lastReconciledAt);
+        return stats;
+    }
+
+    /**
+     * Counts recorded here and not yet in turnout_rollup.
+     */
+    private synchronized List<TurnoutRepository.MinuteCount> outstandingCounts() {
+        List<TurnoutRepository.MinuteCount> counts = new ArrayList<>();
+        for (Map.Entry<SeriesKey, MinuteRing> entry : rings.entrySet()) {
+            SeriesKey key = entry.getKey();
+            entry.getValue().forEachOutstanding((minute, count) ->
+                    counts.add(new TurnoutRepository.MinuteCount(key.electionId(), key.centerLocation(), fromMinute(minute), count)));
+        }
+        for (Map.Entry<BucketKey, Long> entry : overflow.entrySet()) {
+            BucketKey key = entry.getKey();
+            counts.add(new TurnoutRepository.MinuteCount(key.electionId(), key.centerLocation(), fromMinute(key.minute()), entry.getValue()));
+        }
+        return counts;
+    }
+
+    // Caller holds this
+    private void markPersisted(TurnoutRepository.MinuteCount count) {
+        long minute = toMinute(count.minuteStart());
+        MinuteRing ring = rings.get(new SeriesKey(count.electionId(), count.centerLocation()));
+        if (ring != null && ring.markPersisted(minute, count.votes())) {
+            return;
+        }
+        // Held in overflow, or moved there when its ring slot was reused
+        BucketKey key = new BucketKey(count.electionId(), count.centerLocation(), minute);
+        overflow.computeIfPresent(key, (k, outstanding) -> outstanding > count.votes() ? outstanding - count.votes() : null);
+    }
+
+    private static boolean matches(Long electionId, String centerLocation, Long wantedElection, String wantedCenter) {
+        if (!electionId.equals(wantedElection)) {
+            return false;
+        }
+        // The empty center selects votes cast without one
+        return wantedCenter == null || Objects.equals(centerLocation != null ? centerLocation : "", wantedCenter);
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime fromMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private record SeriesKey(Long electionId, String centerLocation) {
+    }
+
+    private record BucketKey(Long electionId, String centerLocation, long minute) {
+    }
+}
@@ -0,0 +1,250 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.VoterChangedEvent;
+import com.voteguard.model.Voter;
+import com.voteguard.repository.VoterRepository;
+import com.voteguard.util.CountingBloomFilter;
+import com.voteguard.util.VoterIds;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Voter lookups by voter ID. A counting Bloom filter over every registered voter ID answers
+ * "definitely not registered" in memory, so logins with unknown IDs (typos, guessing) are
+ * rejected without a query. IDs that may exist are served from a small LRU of voter records
+ * and loaded from the database on a miss.
+ * Registrations add to the filter, deletions remove from it and every change evicts the cached
+ * record ({@link VoterChangedEvent}); changes made on other nodes arrive through
+ * {@link VoterDirectoryListener}, which also (re)loads the filter whenever it connects. Until the
+ * filter is loaded every ID is treated as possibly registered.
+ * Callers receive copies, so mutating a returned voter does not affect the cache.
+ */
+@Component
+@Slf4j
+public class VoterDirectory {
+
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final VoterRepository voterRepository;
+    private final int maxCachedVoters;
+    private final double falsePositiveRate;
+
+    private final Object rebuildLock = new Object();
+
+    // Guarded by this
+    private CountingBloomFilter filter; // null until loaded
+    private List<String> addedDuringRebuild; // non-null while a rebuild is in progress
+    private final LinkedHashMap<String, Voter> voters = new LinkedHashMap<>(64, 0.75f, true);
+    private long generation;
+    private long rejected;
+    private long hits;
+    private long misses;
+    private long falsePositives;
+
+    public VoterDirectory(VoterRepository voterRepository,
+                          @Value("${voter.directory.cache-size:10000}") int maxCachedVoters,
+                          @Value("${voter.directory.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.voterRepository = voterRepository;
+        this.maxCachedVoters = maxCachedVoters;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * False only if no voter is registered with this ID.
+     */
+    public synchronized boolean mightExist(String voterId) {
+        return voterId != null && (filter == null || filter.mightContain(VoterIds.canonical(voterId)));
+    }
+
+    public Optional<Voter> findByVoterId(String voterId) {
+        if (voterId == null) {
+            return Optional.empty();
+        }
+        String key = VoterIds.canonical(voterId);
+        long loadGeneration;
+        synchronized (this) {
+            if (filter != null && !filter.mightContain(key)) {
+                rejected++;
+                return Optional.empty();
+            }
+            Voter cached = voters.get(key);
+            if (cached != null) {
+                hits++;
+                return Optional.of(copyOf(cached));
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        Optional<Voter> loaded = voterRepository.findByVoterId(key);
+        synchronized (this) {
+            if (loaded.isEmpty()) {
+                if (filter != null) {
+                    falsePositives++;
+                }
+            } else if (loadGeneration == generation) {
+                // Skipped if a voter changed during the load, as this copy may predate the change
+                voters.put(key, copyOf(loaded.get()));
+                trim();
+            }
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onVoterChanged(VoterChangedEvent event) {
+        apply(event);
+    }
+
+    /**
+     * Apply a change made on this or another node. An event without voter IDs (a bulk import)
+     * reloads the directory.
+     */
+    public void apply(VoterChangedEvent event) {
+        if (event.previousVoterId() == null && event.voterId() == null) {
+            reload();
+        } else {
+            applyChange(event);
+        }
+    }
+
+    private synchronized void applyChange(VoterChangedEvent event) {
+        generation++;
+        if (event.previousVoterId() != null) {
+            voters.remove(event.previousVoterId());
+        }
+        if (event.voterId() != null) {
+            voters.remove(event.voterId());
+        }
+        if (Objects.equals(event.previousVoterId(), event.voterId())) {
+            return;
+        }
+        if (event.previousVoterId() != null && filter != null && filter.mightContain(event.previousVoterId())) {
+            // Not replayed onto a filter being rebuilt: its snapshot may not contain the ID, and
+            // removing an absent ID could hide others. At worst the ID stays a false positive.
+            filter.remove(event.previousVoterId());
+        }
+        if (event.voterId() != null) {
+            if (filter != null) {
+                filter.add(event.voterId());
+            }
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(event.voterId());
+            }
+        }
+    }
+
+    /**
+     * Drop the filter and cached voters and load the filter again, e.g. after changes from other
+     * nodes may have been missed. Lookups go to the database until the load completes.
+     */
+    public void reload() {
+        synchronized (this) {
+            generation++;
+            filter = null;
+            voters.clear();
+        }
+        rebuild();
+    }
+
+    /**
+     * Resize the filter once more voters are registered than it was sized for.
+     */
+    @Scheduled(fixedDelayString = "${voter.directory.resize-check-interval-ms:600000}")
+    public void resizeIfFull() {
+        synchronized (this) {
+            if (filter == null || filter.size() <= filter.capacity()) {
+                return;
+            }
+        }
+        rebuild();
+    }
+
+    private void rebuild() {
+        synchronized (rebuildLock) {
+            long startTime = System.currentTimeMillis();
+            synchronized (this) {
+                addedDuringRebuild = new ArrayList<>();
+            }
+            try {
+                // Room to double before the next resize
+                long expectedKeys = Math.max(MIN_CAPACITY, voterRepository.count() * 2);
+                CountingBloomFilter rebuilt = new CountingBloomFilter(expectedKeys, falsePositiveRate);
+                voterRepository.streamVoterIds(rs -> rebuilt.add(rs.getString("voter_id")));
+                synchronized (this) {
+                    addedDuringRebuild.forEach(rebuilt::add);
+                    addedDuringRebuild = null;
+                    filter = rebuilt;
+                }
+                log.info("Voter directory loaded: {} voter IDs, {} KB filter in {} ms",
+                        rebuilt.size(), rebuilt.memoryBytes() / 1024, System.currentTimeMillis() - startTime);
+            } catch (Exception e) {
+                synchronized (this) {
+                    addedDuringRebuild = null;
+                }
+                log.warn("Failed to load voter directory filter: {}", e.getMessage());
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", filter != null);
+        if (filter != null) {
+            stats.put("voterIds", filter.size());
+            stats.put("capacity", filter.capacity());
+            stats.put("hashFunctions", filter.hashCount());
+            stats.put("filterBytes", filter.memoryBytes());
+            stats.put("expectedFalsePositiveRate", filter.expectedFalsePositiveRate());
+        }
+        stats.put("cachedVoters", voters.size());
+        stats.put("maxCachedVoters", maxCachedVoters);
+        stats.put("rejected", rejected);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("falsePositives", falsePositives);
+        return stats;
+    }
+
+    // Caller holds the lock
+    private void trim() {
+        Iterator<Map.Entry<String, Voter>> iterator = voters.entrySet().iterator();
+        while (voters.size() > maxCachedVoters && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static Voter copyOf(Voter voter) {
+        return Voter.builder()
+                .id(voter.getId())
+                .voterId(voter.getVoterId())
+                .fullName(voter.getFullName())
+                .email(voter.getEmail())
+                .fingerprintHash(voter.getFingerprintHash())
+                .extraField(voter.getExtraField())
+                .hasVoted(voter.getHasVoted())
+                .isActive(voter.getIsActive())
+                .role(voter.getRole())
+                .eligibleElections(voter.getEligibleElections() != null ? new ArrayList<>(voter.getEligibleElections()) : null)
+                .createdAt(voter.getCreatedAt())
+                .updatedAt(voter.getUpdatedAt())
+                .version(voter.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.voteguard.cache;
+
+import com.voteguard.event.VoterChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link VoterDirectory} of every backend node in step through Postgres LISTEN/NOTIFY.
+ * Local voter changes are announced on the voter_directory channel and applied by the other
+ * nodes, so a voter registered elsewhere is never rejected here as unknown. The directory is
+ * reloaded on every (re)connect, since notifications sent while disconnected are lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VoterDirectoryListener {
+
+    private static final String CHANNEL = "voter_directory";
+
+    private final NotificationHub notificationHub;
+    private final JdbcTemplate jdbcTemplate;
+    private final VoterDirectory voterDirectory;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoterChanged(VoterChangedEvent event) {
+        // Payload is nodeId, previous voter ID and voter ID on separate lines, empty for null
+        String payload = nodeId + "\n" + nullToEmpty(event.previousVoterId()) + "\n" + nullToEmpty(event.voterId());
+        try {
+            // pg_notify returns void; queryForList just consumes the single row
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+        } catch (Exception e) {
+            log.warn("Failed to notify other nodes of voter {} change: {}", event.voterId(), e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        // Listening before loading, so no change falls between the two
+        notificationHub.subscribe(CHANNEL, voterDirectory::reload, this::applyRemoteChanges);
+    }
+
+    private void applyRemoteChanges(List<String> payloads) {
+        for (String payload : payloads) {
+            String[] parts = payload.split("\n", 3);
+            if (parts.length != 3 || parts[0].equals(nodeId)) {
+                continue;
+            }
+            voterDirectory.apply(new VoterChangedEvent(emptyToNull(parts[1]), emptyToNull(parts[2])));
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -41,6 +42,9 @@ public class SecurityConfig {
                 .requestMatchers("/auth/**", "/ping", "/health").permitAll()
                 .requestMatchers("/admin/login", "/admin/login/fallback").permitAll() // Allow login endpoints
                 .requestMatchers("/admin/**").authenticated() // Require authentication for admin routes
+                .requestMatchers(HttpMethod.POST, "/api/stations/*/sync-secret", "/stations/*/sync-secret").hasRole("ADMIN") // Station sync secrets are issued by admins only
+                .requestMatchers(HttpMethod.POST, "/api/results/election/*/centers/recount", "/results/election/*/centers/recount").hasRole("ADMIN") // Center recounts are run by admins only
+                .requestMatchers(HttpMethod.POST, "/api/results/election/*/recount", "/results/election/*/recount").hasRole("ADMIN") // Full recounts scan every vote; admins only
                 .requestMatchers("/api/voters/**", "/voters/**").permitAll() // Allow all voter endpoints without authentication
                 .requestMatchers("/api/elections/**", "/api/candidates/**", "/elections/**", "/candidates/**").permitAll() // Allow elections and candidates endpoints without authentication
                 .requestMatchers("/api/stations/**", "/stations/**").permitAll() // Allow stations endpoints without authentication
@@ -72,6 +76,7 @@ public class SecurityConfig {
             "X-Requested-With",
             "Accept",
             "Origin",
+            "Idempotency-Key",
             "Access-Control-Request-Method",
             "Access-Control-Request-Headers"
         ));
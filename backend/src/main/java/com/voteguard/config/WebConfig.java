@@ -24,6 +24,7 @@ public class WebConfig implements WebMvcConfigurer {
                     "X-Requested-With",
                     "Accept",
                     "Origin",
+                    "Idempotency-Key",
                     "Access-Control-Request-Method",
                     "Access-Control-Request-Headers"
                 )
@@ -3,6 +3,7 @@ package com.voteguard.controller;
 import com.voteguard.model.AdminUser;
 import com.voteguard.service.AdminService;
 import com.voteguard.service.AdminService.AdminAuthResult;
+import com.voteguard.service.BlobMigrationService;
 import com.voteguard.security.JwtTokenProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -32,6 +33,9 @@ public class AdminController {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private BlobMigrationService blobMigrationService;
+
     /**
      * Admin login with biometric authentication
      */
@@ -307,6 +311,28 @@ public class AdminController {
         }
     }
 
+    /**
+     * INTERNAL USE ONLY - Move photos, logos and fingerprint scans still stored inline
+     * in PostgreSQL into the blob store
+     */
+    @PostMapping("/internal/migrate-blobs")
+    public ResponseEntity<Map<String, Object>> migrateBlobs(
+            @RequestParam(value = "batchSize", required = false) Integer batchSize) {
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            response.put("success", true);
+            response.put("result", blobMigrationService.migrateAll(batchSize));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Blob migration failed");
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     /**
      * INTERNAL USE ONLY - Check admin biometric status
      */
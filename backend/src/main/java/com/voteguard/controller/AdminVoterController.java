@@ -1,22 +1,51 @@
 package com.voteguard.controller;
 
+import com.voteguard.cache.ParticipationIndex;
+import com.voteguard.cache.VoterDirectory;
+import com.voteguard.event.VoterChangedEvent;
+import com.voteguard.event.VotesRemovedEvent;
 import com.voteguard.model.Voter;
+import com.voteguard.model.VoterPatch;
+import com.voteguard.model.VoterPatchResult;
+import com.voteguard.repository.VoteRepository;
 import com.voteguard.repository.VoterRepository;
+import com.voteguard.service.EligibilityService;
+import com.voteguard.service.VoterImportService;
+import com.voteguard.service.VoterUpdateService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/admin/voters")
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
 @RequiredArgsConstructor
+@Slf4j
 public class AdminVoterController {
 
     private final VoterRepository voterRepository;
+    private final VoteRepository voteRepository;
+    private final EligibilityService eligibilityService;
+    private final VoterDirectory voterDirectory;
+    private final ParticipationIndex participationIndex;
+    private final VoterImportService voterImportService;
+    private final VoterUpdateService voterUpdateService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @GetMapping
     public ResponseEntity<List<Voter>> getAllVoters() {
@@ -24,6 +53,36 @@ public class AdminVoterController {
         return ResponseEntity.ok(voters);
     }
 
+    /**
+     * Bulk import voters from a CSV file; see {@link VoterImportService#importVoters}.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importVoters(@RequestParam("file") MultipartFile file,
+                                                            @RequestParam(value = "skipExisting", defaultValue = "false") boolean skipExisting,
+                                                            HttpServletRequest request) {
+        try {
+            Map<String, Object> result = voterImportService.importVoters(file, skipExisting, getClientIpAddress(request), request.getHeader("User-Agent"));
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                return ResponseEntity.ok(result);
+            }
+            return result.containsKey("errors") ? ResponseEntity.badRequest().body(result) : ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        } catch (Exception e) {
+            log.error("Voter import failed: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("success", false, "message", "Voter import failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * The whole roll as CSV, streamed from the database without loading it into memory.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportVoters() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"voters.csv\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(voterImportService::exportVoters);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Voter> getVoterById(@PathVariable Long id) {
         Optional<Voter> voter = voterRepository.findById(id);
@@ -31,8 +90,12 @@ public class AdminVoterController {
                     .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Replace a voter's details; fields left null keep their current value. If "version" is set
+     * the update is rejected with 409 if the voter was modified since that version was read.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Voter> updateVoter(@PathVariable Long id, @RequestBody Voter voterUpdate) {
+    public ResponseEntity<?> updateVoter(@PathVariable Long id, @RequestBody Voter voterUpdate) {
         Optional<Voter> optionalVoter = voterRepository.findById(id);
         if (optionalVoter.isPresent()) {
             Voter existingVoter = optionalVoter.get();
@@ -53,7 +116,26 @@ public class AdminVoterController {
                     .updatedAt(LocalDateTime.now())
                     .build();
             
-            Voter savedVoter = voterRepository.save(updatedVoter);
+            // Without a supplied version, still refuse if the voter changed since it was read above
+            Long expectedVersion = voterUpdate.getVersion() != null ? voterUpdate.getVersion() : existingVoter.getVersion();
+            Optional<Voter> saved = voterRepository.update(updatedVoter, expectedVersion);
+            if (saved.isEmpty()) {
+                Optional<Voter> current = voterRepository.findById(id);
+                if (current.isEmpty()) {
+                    return ResponseEntity.notFound().build();
+                }
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                        "success", false,
+                        "message", "Voter was modified by someone else; reload it and try again",
+                        "currentVersion", current.get().getVersion()));
+            }
+            Voter savedVoter = saved.get();
+            eventPublisher.publishEvent(new VoterChangedEvent(existingVoter.getVoterId(), savedVoter.getVoterId()));
+            if (voterUpdate.getEligibleElections() != null) {
+                eligibilityService.replace(id, voterUpdate.getEligibleElections().stream().map(Long::valueOf).toList());
+            } else {
+                eligibilityService.syncVoter(id);
+            }
             return ResponseEntity.ok(savedVoter);
         }
         return ResponseEntity.notFound().build();
@@ -61,34 +143,67 @@ public class AdminVoterController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteVoter(@PathVariable Long id) {
+        Optional<Voter> voter = voterRepository.findById(id);
+        // The voter's votes go with it (ON DELETE CASCADE), so their elections must be recounted
+        List<Long> votedElectionIds = voteRepository.findElectionIdsByVoterId(id);
         voterRepository.deleteById(id);
+        eligibilityService.removeVoter(id);
+        voter.ifPresent(deleted -> eventPublisher.publishEvent(new VoterChangedEvent(deleted.getVoterId(), null)));
+        votedElectionIds.forEach(electionId -> eventPublisher.publishEvent(new VotesRemovedEvent(electionId)));
         return ResponseEntity.noContent().build();
     }
 
     @PutMapping("/{id}/deactivate")
     public ResponseEntity<Voter> deactivateVoter(@PathVariable Long id) {
-        Optional<Voter> optionalVoter = voterRepository.findById(id);
-        if (optionalVoter.isPresent()) {
-            Voter existingVoter = optionalVoter.get();
-            
-            Voter deactivatedVoter = Voter.builder()
-                    .id(existingVoter.getId())
-                    .voterId(existingVoter.getVoterId())
-                    .fullName(existingVoter.getFullName())
-                    .email(existingVoter.getEmail())
-                    .fingerprintHash(existingVoter.getFingerprintHash())
-                    .extraField(existingVoter.getExtraField())
-                    .hasVoted(existingVoter.getHasVoted())
-                    .isActive(false)
-                    .role(existingVoter.getRole())
-                    .createdAt(existingVoter.getCreatedAt())
-                    .updatedAt(LocalDateTime.now())
-                    .build();
-            
-            Voter savedVoter = voterRepository.save(deactivatedVoter);
-            return ResponseEntity.ok(savedVoter);
+        return voterUpdateService.patch(id, VoterPatch.builder().isActive(false).build())
+                .flatMap(changed -> voterRepository.findById(id))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Change only the given fields of a voter. With "version" in the body the change is
+     * rejected with 409 if the voter was modified since that version was read.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchVoter(@PathVariable Long id, @RequestBody VoterPatch patch) {
+        try {
+            Optional<VoterPatchResult> result = voterUpdateService.patch(id, patch);
+            if (result.isPresent()) {
+                return voterRepository.findById(id)
+                        .<ResponseEntity<?>>map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build());
+            }
+            Optional<Voter> current = voterRepository.findById(id);
+            if (current.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "success", false,
+                    "message", "Voter was modified by someone else; reload it and try again",
+                    "currentVersion", current.get().getVersion()));
+        } catch (DuplicateKeyException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("success", false, "message", "Voter ID or email is already registered"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Apply the same change to every voter listed in "voterIds", in one statement.
+     */
+    @PatchMapping
+    public ResponseEntity<Map<String, Object>> patchVoters(@RequestBody VoterPatch patch) {
+        try {
+            List<VoterPatchResult> results = voterUpdateService.patchAll(patch);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "requested", patch.getVoterIds().size(),
+                    "updated", results.size(),
+                    "voterIds", results.stream().map(VoterPatchResult::voterId).toList()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
         }
-        return ResponseEntity.notFound().build();
     }
 
     @GetMapping("/count")
@@ -97,9 +212,32 @@ public class AdminVoterController {
         return ResponseEntity.ok(count);
     }
 
+    @GetMapping("/eligibility-index/stats")
+    public ResponseEntity<Map<String, Object>> getEligibilityIndexStats() {
+        return ResponseEntity.ok(eligibilityService.getIndexStats());
+    }
+
+    @GetMapping("/directory/stats")
+    public ResponseEntity<Map<String, Object>> getVoterDirectoryStats() {
+        return ResponseEntity.ok(voterDirectory.getStats());
+    }
+
+    @GetMapping("/participation-index/stats")
+    public ResponseEntity<Map<String, Object>> getParticipationIndexStats() {
+        return ResponseEntity.ok(participationIndex.getStats());
+    }
+
     @GetMapping("/voted-count")
     public ResponseEntity<Long> countVotersWhoVoted() {
         long count = voterRepository.countVotersWhoHaveVoted();
         return ResponseEntity.ok(count);
     }
+
+    private String getClientIpAddress(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            return xForwardedFor.split(",")[0].trim();
+        }
+        return request.getRemoteAddr();
+    }
 }
@@ -0,0 +1,33 @@
+package com.voteguard.controller;
+
+import com.voteguard.service.BallotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/ballot")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
+@RequiredArgsConstructor
+public class BallotController {
+
+    private final BallotService ballotService;
+
+    /**
+     * Everything a kiosk needs to render a ballot in one response: election metadata,
+     * ordered active candidates and versioned image URLs. Served with a strong ETag;
+     * pass {@code v=<contentHash>} to get an immutable response.
+     */
+    @GetMapping("/{electionCode}")
+    public ResponseEntity<byte[]> getBallot(
+            @PathVariable String electionCode,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ballotService.getBundle(electionCode)
+                .map(bundle -> CachingResponses.bytes(bundle.getBody(), MediaType.APPLICATION_JSON_VALUE,
+                        bundle.getContentHash(), version, ifNoneMatch))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
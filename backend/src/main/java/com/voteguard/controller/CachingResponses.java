@@ -0,0 +1,69 @@
+package com.voteguard.controller;
+
+import com.voteguard.model.StoredImage;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds byte responses with strong content-hash ETags.
+ * A request whose {@code v} parameter matches the current content hash addresses an
+ * immutable representation and may be cached forever; unversioned requests must revalidate.
+ */
+final class CachingResponses {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    private CachingResponses() {}
+
+    static ResponseEntity<byte[]> image(StoredImage image, String version, String ifNoneMatch) {
+        return bytes(image.getData(), image.getContentType(), image.getContentHash(), version, ifNoneMatch);
+    }
+
+    static ResponseEntity<byte[]> bytes(byte[] body, String contentType, String contentHash, String version, String ifNoneMatch) {
+        String etag = etag(contentHash);
+        CacheControl cacheControl = contentHash.equals(version) ? IMMUTABLE : REVALIDATE;
+
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(contentType))
+                .contentLength(body.length)
+                .body(body);
+    }
+
+    static String etag(String contentHash) {
+        return "\"" + contentHash + "\"";
+    }
+
+    /**
+     * Weak comparison against an If-None-Match header (as RFC 7232 requires for GET),
+     * which may list several tags or "*".
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,20 +1,29 @@
 package com.voteguard.controller;
 
+import com.voteguard.cache.CachedImage;
+import com.voteguard.event.CandidateChangedEvent;
+import com.voteguard.event.VotesRemovedEvent;
 import com.voteguard.model.Candidate;
+import com.voteguard.model.ImageVariant;
+import com.voteguard.model.MediaKind;
 import com.voteguard.repository.CandidateRepository;
+import com.voteguard.service.CandidateMediaService;
+import com.voteguard.service.SearchService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
-import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @RestController
@@ -26,7 +35,10 @@ public class CandidateController {
     private static final Logger log = LoggerFactory.getLogger(CandidateController.class);
     
     private final CandidateRepository candidateRepository;
+    private final CandidateMediaService candidateMediaService;
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchService searchService;
 
     @GetMapping
     public ResponseEntity<List<Candidate>> getAllCandidates() {
@@ -40,6 +52,16 @@ public class CandidateController {
         return ResponseEntity.ok(candidates);
     }
 
+    /**
+     * Search active candidates by name or party, tolerating typos; best matches first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Candidate>> searchCandidates(@RequestParam String query,
+                                                            @RequestParam(required = false) Long electionId,
+                                                            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchService.searchCandidates(query, electionId, limit));
+    }
+
     @GetMapping("/election/{electionId}")
     public ResponseEntity<List<Candidate>> getCandidatesByElection(@PathVariable Long electionId) {
         List<Candidate> candidates = candidateRepository.findByElectionIdOrderByNumber(electionId);
@@ -107,8 +129,7 @@ public class CandidateController {
             // Process and store photos if provided
             if (candidatePhoto != null && !candidatePhoto.isEmpty()) {
                 try {
-                    String candidatePhotoBase64 = processCandidatePhoto(candidatePhoto);
-                    insertCandidatePhoto(savedCandidate.getId(), candidatePhotoBase64);
+                    candidateMediaService.storeImage(MediaKind.CANDIDATE_PHOTO, savedCandidate.getId(), candidatePhoto.getBytes());
                     log.info("Candidate photo stored for candidate ID: {}", savedCandidate.getId());
                 } catch (Exception e) {
                     log.warn("Failed to store candidate photo for ID {}: {}", savedCandidate.getId(), e.getMessage());
@@ -117,14 +138,14 @@ public class CandidateController {
             
             if (partyLogo != null && !partyLogo.isEmpty()) {
                 try {
-                    String partyLogoBase64 = processPartyLogo(partyLogo);
-                    insertPartyLogo(savedCandidate.getId(), partyLogoBase64);
+                    candidateMediaService.storeImage(MediaKind.PARTY_LOGO, savedCandidate.getId(), partyLogo.getBytes());
                     log.info("Party logo stored for candidate ID: {}", savedCandidate.getId());
                 } catch (Exception e) {
                     log.warn("Failed to store party logo for ID {}: {}", savedCandidate.getId(), e.getMessage());
                 }
             }
             
+            eventPublisher.publishEvent(new CandidateChangedEvent(savedCandidate.getId(), savedCandidate.getElectionId()));
             log.info("Candidate registered successfully with ID: {}", savedCandidate.getId());
             
             return ResponseEntity.ok(Map.of(
@@ -162,6 +183,10 @@ public class CandidateController {
                         .build();
                 
                 Candidate saved = candidateRepository.save(updatedCandidate);
+                eventPublisher.publishEvent(new CandidateChangedEvent(id, existingCandidate.getElectionId()));
+                if (!Objects.equals(existingCandidate.getElectionId(), saved.getElectionId())) {
+                    eventPublisher.publishEvent(new CandidateChangedEvent(id, saved.getElectionId()));
+                }
                 return ResponseEntity.ok(Map.of(
                     "success", true,
                     "message", "Candidate updated successfully",
@@ -180,7 +205,14 @@ public class CandidateController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCandidate(@PathVariable Long id) {
+        Long electionId = candidateRepository.findById(id).map(Candidate::getElectionId).orElse(null);
         candidateRepository.deleteById(id);
+        candidateMediaService.evictCandidate(id);
+        eventPublisher.publishEvent(new CandidateChangedEvent(id, electionId));
+        if (electionId != null) {
+            // The candidate's votes go with it (ON DELETE CASCADE)
+            eventPublisher.publishEvent(new VotesRemovedEvent(electionId));
+        }
         return ResponseEntity.noContent().build();
     }
 
@@ -203,6 +235,7 @@ public class CandidateController {
                         .build();
                 
                 Candidate updatedCandidate = candidateRepository.save(deactivatedCandidate);
+                eventPublisher.publishEvent(new CandidateChangedEvent(id, updatedCandidate.getElectionId()));
                 return ResponseEntity.ok(Map.of(
                     "success", true,
                     "message", "Candidate deactivated successfully",
@@ -220,32 +253,25 @@ public class CandidateController {
     }
 
     @GetMapping("/{id}/photo")
-    public ResponseEntity<Map<String, Object>> getCandidatePhoto(@PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> getCandidatePhoto(
+            @PathVariable Long id,
+            @RequestParam(value = "size", required = false) String size) {
         try {
-            String sql = "SELECT photo_data FROM candidate_photos WHERE candidate_id = ?";
-            
-            try {
-                String photoData = jdbcTemplate.queryForObject(sql, String.class, id);
-                
-                if (photoData != null) {
-                    return ResponseEntity.ok(Map.of(
-                        "success", true,
-                        "photoData", photoData,
-                        "candidateId", id
-                    ));
-                } else {
-                    return ResponseEntity.ok(Map.of(
-                        "success", false,
-                        "message", "No photo found for candidate " + id
-                    ));
-                }
-            } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-                // No photo found - return success=false instead of error
+            CachedImage photo = candidateMediaService.findImage(MediaKind.CANDIDATE_PHOTO, id, ImageVariant.fromParam(size));
+            if (photo.isPresent()) {
                 return ResponseEntity.ok(Map.of(
-                    "success", false,
-                    "message", "No photo found for candidate " + id
+                    "success", true,
+                    "photoData", photo.getBase64(),
+                    "contentType", photo.getImage().getContentType(),
+                    "imageUrl", candidateImageUrl(id, "photo", photo.getImage().getContentHash()),
+                    "candidateId", id
                 ));
             }
+            // No photo found - return success=false instead of error
+            return ResponseEntity.ok(Map.of(
+                "success", false,
+                "message", "No photo found for candidate " + id
+            ));
         } catch (Exception e) {
             log.error("Failed to get candidate photo for ID {}: {}", id, e.getMessage());
             return ResponseEntity.badRequest().body(Map.of(
@@ -256,32 +282,25 @@ public class CandidateController {
     }
 
     @GetMapping("/{id}/party-logo")
-    public ResponseEntity<Map<String, Object>> getPartyLogo(@PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> getPartyLogo(
+            @PathVariable Long id,
+            @RequestParam(value = "size", required = false) String size) {
         try {
-            String sql = "SELECT logo_data FROM party_logos WHERE candidate_id = ?";
-            
-            try {
-                String logoData = jdbcTemplate.queryForObject(sql, String.class, id);
-                
-                if (logoData != null) {
-                    return ResponseEntity.ok(Map.of(
-                        "success", true,
-                        "logoData", logoData,
-                        "candidateId", id
-                    ));
-                } else {
-                    return ResponseEntity.ok(Map.of(
-                        "success", false,
-                        "message", "No party logo found for candidate " + id
-                    ));
-                }
-            } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-                // No logo found - return success=false instead of error
+            CachedImage logo = candidateMediaService.findImage(MediaKind.PARTY_LOGO, id, ImageVariant.fromParam(size));
+            if (logo.isPresent()) {
                 return ResponseEntity.ok(Map.of(
-                    "success", false,
-                    "message", "No party logo found for candidate " + id
+                    "success", true,
+                    "logoData", logo.getBase64(),
+                    "contentType", logo.getImage().getContentType(),
+                    "imageUrl", candidateImageUrl(id, "party-logo", logo.getImage().getContentHash()),
+                    "candidateId", id
                 ));
             }
+            // No logo found - return success=false instead of error
+            return ResponseEntity.ok(Map.of(
+                "success", false,
+                "message", "No party logo found for candidate " + id
+            ));
         } catch (Exception e) {
             log.error("Failed to get party logo for candidate ID {}: {}", id, e.getMessage());
             return ResponseEntity.badRequest().body(Map.of(
@@ -291,57 +310,73 @@ public class CandidateController {
         }
     }
 
-    private String processCandidatePhoto(MultipartFile photoFile) throws Exception {
-        // Convert photo to base64 for storage
-        byte[] fileBytes = photoFile.getBytes();
-        return Base64.getEncoder().encodeToString(fileBytes);
+    /**
+     * Stream the raw candidate photo bytes. Pass {@code size=ballot|list} for a resized variant
+     * and {@code v=<contentHash>} to get an immutable response.
+     */
+    @GetMapping("/{id}/photo/image")
+    public ResponseEntity<byte[]> getCandidatePhotoImage(
+            @PathVariable Long id,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return streamImage(MediaKind.CANDIDATE_PHOTO, id, size, version, ifNoneMatch);
     }
 
-    private String processPartyLogo(MultipartFile logoFile) throws Exception {
-        // Convert logo to base64 for storage
-        byte[] fileBytes = logoFile.getBytes();
-        return Base64.getEncoder().encodeToString(fileBytes);
+    /**
+     * Stream the raw party logo bytes. Pass {@code size=ballot|list} for a resized variant
+     * and {@code v=<contentHash>} to get an immutable response.
+     */
+    @GetMapping("/{id}/party-logo/image")
+    public ResponseEntity<byte[]> getPartyLogoImage(
+            @PathVariable Long id,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return streamImage(MediaKind.PARTY_LOGO, id, size, version, ifNoneMatch);
     }
 
-    private void insertCandidatePhoto(Long candidateId, String photoBase64) {
+    /**
+     * Render ballot and list variants for images uploaded before variants existed,
+     * or whose original has changed since its variants were rendered.
+     */
+    @PostMapping("/images/backfill-variants")
+    public ResponseEntity<Map<String, Object>> backfillImageVariants() {
         try {
-            // Check if candidate_photos table exists, if not create it
-            String createTableSql = """
-                CREATE TABLE IF NOT EXISTS candidate_photos (
-                    id BIGSERIAL PRIMARY KEY,
-                    candidate_id BIGINT UNIQUE NOT NULL,
-                    photo_data TEXT NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (candidate_id) REFERENCES candidates(id) ON DELETE CASCADE
-                )
-                """;
-            jdbcTemplate.execute(createTableSql);
-
-            String sql = "INSERT INTO candidate_photos (candidate_id, photo_data) VALUES (?, ?) ON CONFLICT (candidate_id) DO UPDATE SET photo_data = EXCLUDED.photo_data";
-            jdbcTemplate.update(sql, candidateId, photoBase64);
+            Map<String, Object> result = candidateMediaService.backfillVariants();
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "result", result
+            ));
         } catch (Exception e) {
-            log.warn("Failed to insert candidate photo for candidate {}: {}", candidateId, e.getMessage());
+            log.error("Image variant backfill failed: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", "Image variant backfill failed: " + e.getMessage()
+            ));
         }
     }
 
-    private void insertPartyLogo(Long candidateId, String logoBase64) {
-        try {
-            // Check if party_logos table exists, if not create it
-            String createTableSql = """
-                CREATE TABLE IF NOT EXISTS party_logos (
-                    id BIGSERIAL PRIMARY KEY,
-                    candidate_id BIGINT UNIQUE NOT NULL,
-                    logo_data TEXT NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (candidate_id) REFERENCES candidates(id) ON DELETE CASCADE
-                )
-                """;
-            jdbcTemplate.execute(createTableSql);
+    @GetMapping("/images/cache-stats")
+    public ResponseEntity<Map<String, Object>> getImageCacheStats() {
+        return ResponseEntity.ok(candidateMediaService.getCacheStats());
+    }
 
-            String sql = "INSERT INTO party_logos (candidate_id, logo_data) VALUES (?, ?) ON CONFLICT (candidate_id) DO UPDATE SET logo_data = EXCLUDED.logo_data";
-            jdbcTemplate.update(sql, candidateId, logoBase64);
-        } catch (Exception e) {
-            log.warn("Failed to insert party logo for candidate {}: {}", candidateId, e.getMessage());
+    private ResponseEntity<byte[]> streamImage(MediaKind kind, Long id, String size, String version, String ifNoneMatch) {
+        ImageVariant variant;
+        try {
+            variant = ImageVariant.fromParam(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+        CachedImage image = candidateMediaService.findImage(kind, id, variant);
+        if (!image.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return CachingResponses.image(image.getImage(), version, ifNoneMatch);
+    }
+
+    private String candidateImageUrl(Long candidateId, String kind, String contentHash) {
+        return "/api/candidates/" + candidateId + "/" + kind + "/image?v=" + contentHash;
     }
 }
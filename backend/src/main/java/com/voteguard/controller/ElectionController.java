@@ -1,12 +1,19 @@
 package com.voteguard.controller;
 
 import com.voteguard.model.Election;
+import com.voteguard.model.ElectionOtp;
 import com.voteguard.model.ElectionStatus;
+import com.voteguard.model.EligibilityJob;
+import com.voteguard.model.EligibilityRule;
+import com.voteguard.service.ElectionLifecycleScheduler;
 import com.voteguard.service.ElectionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +24,7 @@ import java.util.Optional;
 public class ElectionController {
 
     private final ElectionService electionService;
+    private final ElectionLifecycleScheduler electionLifecycleScheduler;
 
     @GetMapping
     public ResponseEntity<List<Election>> getAllElections() {
@@ -95,8 +103,9 @@ public class ElectionController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Election>> searchElections(@RequestParam String query) {
-        List<Election> elections = electionService.searchElectionsByName(query);
+    public ResponseEntity<List<Election>> searchElections(@RequestParam String query,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        List<Election> elections = electionService.searchElectionsByName(query, limit);
         return ResponseEntity.ok(elections);
     }
 
@@ -106,6 +115,11 @@ public class ElectionController {
         return ResponseEntity.ok(count);
     }
     
+    @GetMapping("/lifecycle/stats")
+    public ResponseEntity<?> getLifecycleStats() {
+        return ResponseEntity.ok(electionLifecycleScheduler.getStats());
+    }
+    
     @GetMapping("/code/{electionCode}")
     public ResponseEntity<?> getElectionByCode(@PathVariable String electionCode) {
         Optional<Election> election = electionService.findByElectionCode(electionCode);
@@ -146,20 +160,14 @@ public class ElectionController {
     @PostMapping("/{id}/generate-otp")
     public ResponseEntity<?> generateOtp(@PathVariable Long id) {
         try {
-            String otp = electionService.generateOtpForElection(id);
-            Optional<Election> election = electionService.findById(id);
-            Election electionObj = election.get();
-            
-            // Format expiresAt as ISO-8601 string for consistent frontend parsing
-            String expiresAtStr = electionObj.getOtpExpiresAt() != null 
-                ? electionObj.getOtpExpiresAt().toString() 
-                : null;
+            ElectionOtp otp = electionService.generateOtpForElection(id);
             
+            // Format expiresAt as ISO-8601 string (UTC) for consistent frontend parsing
             return ResponseEntity.ok(java.util.Map.of(
                 "success", true,
-                "otp", otp,
-                "expiresAt", expiresAtStr != null ? expiresAtStr : "",
-                "message", "OTP generated successfully. Valid for 2 minutes."
+                "otp", otp.code(),
+                "expiresAt", otp.expiresAtUtc().toString(),
+                "message", "OTP generated successfully."
             ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(java.util.Map.of(
@@ -244,4 +252,48 @@ public class ElectionController {
             ));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Start a bulk eligibility job for ALL_ACTIVE, ROLE or ID_RANGE rules.
+     * Poll /api/elections/eligibility-jobs/{jobId} for progress.
+     */
+    @PostMapping("/{id}/eligibility")
+    public ResponseEntity<?> assignEligibility(@PathVariable Long id, @RequestBody EligibilityRule rule) {
+        return startEligibilityJob(id, rule, null);
+    }
+
+    /**
+     * Start a bulk eligibility job from an uploaded file with one voter ID per line.
+     */
+    @PostMapping("/{id}/eligibility/upload")
+    public ResponseEntity<?> uploadEligibility(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        try {
+            EligibilityRule rule = EligibilityRule.builder().type(EligibilityRule.Type.VOTER_LIST).build();
+            return startEligibilityJob(id, rule, file.getBytes());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of(
+                "success", false,
+                "message", "Failed to read uploaded file: " + e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/eligibility-jobs/{jobId}")
+    public ResponseEntity<?> getEligibilityJob(@PathVariable String jobId) {
+        return electionService.findEligibilityJob(jobId)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(job.toMap()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> startEligibilityJob(Long electionId, EligibilityRule rule, byte[] voterList) {
+        try {
+            EligibilityJob job = electionService.startBulkEligibility(electionId, rule, voterList);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toMap());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+}
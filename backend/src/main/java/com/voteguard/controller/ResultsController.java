@@ -1,11 +1,22 @@
 package com.voteguard.controller;
 
+import com.voteguard.cache.CenterTally;
+import com.voteguard.cache.TurnoutSeries;
+import com.voteguard.model.RecountReport;
+import com.voteguard.model.ResultsSnapshot;
+import com.voteguard.service.RecountService;
+import com.voteguard.service.ResultsSnapshotService;
 import com.voteguard.service.VoteService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/results")
@@ -14,6 +25,10 @@ import java.util.Map;
 public class ResultsController {
 
     private final VoteService voteService;
+    private final CenterTally centerTally;
+    private final TurnoutSeries turnoutSeries;
+    private final ResultsSnapshotService resultsSnapshotService;
+    private final RecountService recountService;
 
     @GetMapping("/summary")
     public ResponseEntity<Map<String, Object>> getVotingResults() {
@@ -25,9 +40,22 @@ public class ResultsController {
         }
     }
 
+    /**
+     * Live results while the election runs. Once it is completed and settled, its frozen snapshot
+     * is served byte for byte with a strong ETag; pass {@code v=<contentHash>} to get an
+     * immutable response.
+     */
     @GetMapping("/election/{electionId}")
-    public ResponseEntity<Map<String, Object>> getElectionResults(@PathVariable Long electionId) {
+    public ResponseEntity<?> getElectionResults(
+            @PathVariable Long electionId,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            Optional<ResultsSnapshot> snapshot = resultsSnapshotService.getSnapshot(electionId);
+            if (snapshot.isPresent()) {
+                return CachingResponses.bytes(snapshot.get().getBody(), MediaType.APPLICATION_JSON_VALUE,
+                        snapshot.get().getContentHash(), version, ifNoneMatch);
+            }
             Map<String, Object> results = voteService.getElectionResults(electionId);
             return ResponseEntity.ok(results);
         } catch (Exception e) {
@@ -35,10 +63,98 @@ public class ResultsController {
         }
     }
 
+    @GetMapping("/election/{electionId}/centers")
+    public ResponseEntity<Map<String, Object>> getCenterResults(@PathVariable Long electionId) {
+        try {
+            return ResponseEntity.ok(voteService.getCenterResults(electionId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/election/{electionId}/as-of")
+    public ResponseEntity<Map<String, Object>> getResultsAsOfCenter(@PathVariable Long electionId,
+                                                                    @RequestParam("centers") int centersReported) {
+        try {
+            return ResponseEntity.ok(voteService.getResultsAsOfCenter(electionId, centersReported));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Without a center parameter, recounts the votes cast without an active center
+    @PostMapping("/election/{electionId}/centers/recount")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> recountCenter(@PathVariable Long electionId,
+                                                             @RequestParam(value = "center", required = false) String centerLocation) {
+        try {
+            return ResponseEntity.ok(voteService.recountCenter(electionId, centerLocation));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Recount the election from the votes table and report where the live tally or the frozen
+     * snapshot disagree with it.
+     */
+    @PostMapping("/election/{electionId}/recount")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> recountElection(@PathVariable Long electionId, HttpServletRequest request) {
+        try {
+            RecountReport report = recountService.recount(electionId, getClientIpAddress(request), request.getHeader("User-Agent"));
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // An empty center selects votes cast without one; no center means all centers together
+    @GetMapping("/election/{electionId}/turnout")
+    public ResponseEntity<Map<String, Object>> getTurnout(@PathVariable Long electionId,
+                                                          @RequestParam(value = "resolution", defaultValue = "hour") String resolution,
+                                                          @RequestParam(value = "center", required = false) String centerLocation) {
+        try {
+            return ResponseEntity.ok(voteService.getTurnout(electionId, centerLocation, resolution));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/turnout/stats")
+    public ResponseEntity<Map<String, Object>> getTurnoutStats() {
+        return ResponseEntity.ok(turnoutSeries.getStats());
+    }
+
+    @GetMapping("/snapshots/stats")
+    public ResponseEntity<Map<String, Object>> getSnapshotStats() {
+        return ResponseEntity.ok(resultsSnapshotService.getStats());
+    }
+
+    @GetMapping("/center-tally/stats")
+    public ResponseEntity<Map<String, Object>> getCenterTallyStats() {
+        return ResponseEntity.ok(centerTally.getStats());
+    }
+
     @GetMapping("/ping")
     public ResponseEntity<Map<String, String>> ping() {
         return ResponseEntity.ok(Map.of("message", "Results service is running"));
     }
-}
 
+    /**
+     * Get client IP address
+     */
+    private String getClientIpAddress(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            return xForwardedFor.split(",")[0].trim();
+        }
+
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isEmpty()) {
+            return xRealIp;
+        }
 
+        return request.getRemoteAddr();
+    }
+}
@@ -1,13 +1,21 @@
 package com.voteguard.controller;
 
+import com.voteguard.model.BallotSelection;
 import com.voteguard.model.Candidate;
 import com.voteguard.model.Vote;
+import com.voteguard.model.VoteReceipt;
+import com.voteguard.service.VoteIdempotencyService;
+import com.voteguard.service.VoteJournalService;
 import com.voteguard.service.VoteService;
+import com.voteguard.service.VoteSingleFlight;
+import com.voteguard.util.VoterIds;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -17,9 +25,16 @@ import java.util.Map;
 public class VoteController {
 
     private final VoteService voteService;
+    private final VoteIdempotencyService voteIdempotencyService;
+    private final VoteSingleFlight voteSingleFlight;
+    private final VoteJournalService voteJournalService;
 
-    public VoteController(VoteService voteService) {
+    public VoteController(VoteService voteService, VoteIdempotencyService voteIdempotencyService,
+                          VoteSingleFlight voteSingleFlight, VoteJournalService voteJournalService) {
         this.voteService = voteService;
+        this.voteIdempotencyService = voteIdempotencyService;
+        this.voteSingleFlight = voteSingleFlight;
+        this.voteJournalService = voteJournalService;
     }
 
     @PostMapping("/cast")
@@ -27,6 +42,7 @@ public class VoteController {
             @RequestParam("candidateId") Long candidateId,
             @RequestParam("voterId") String voterId,
             @RequestParam(value = "electionId", required = false) Long electionId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication,
             HttpServletRequest request) {
 
@@ -36,14 +52,24 @@ public class VoteController {
             
             System.out.println("VoteController: Attempting to cast vote - voterId=" + voterId + ", candidateId=" + candidateId + ", electionId=" + electionId);
 
-            Vote vote = voteService.castVote(voterId, candidateId, electionId, ipAddress, userAgent);
+            if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                VoteReceipt receipt = voteSingleFlight.castVote(voterId, electionId, candidateId, () ->
+                    voteJournalService.castVote(voterId, candidateId, electionId, ipAddress, userAgent, null, null));
+                return receiptResponse(receipt, receipt.toMap());
+            }
+            if (idempotencyKey.length() > VoteIdempotencyService.MAX_KEY_LENGTH) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Idempotency-Key is longer than " + VoteIdempotencyService.MAX_KEY_LENGTH + " characters"));
+            }
+
+            // A retry with the same key gets the original receipt; concurrent retries share one execution
+            String fingerprint = VoteIdempotencyService.fingerprint(VoterIds.canonical(voterId), electionId, candidateId);
+            VoteIdempotencyService.Result result = voteIdempotencyService.execute(idempotencyKey, fingerprint, expiresAt ->
+                voteSingleFlight.castVote(voterId, electionId, candidateId, () ->
+                    voteJournalService.castVote(voterId, candidateId, electionId, ipAddress, userAgent, idempotencyKey, expiresAt)));
 
-            return ResponseEntity.ok(Map.of(
-                "message", "Vote cast successfully",
-                "voteId", vote.getId(),
-                "timestamp", vote.getTimestamp(),
-                "centerLocation", vote.getCenterLocation() != null ? vote.getCenterLocation() : "N/A"
-            ));
+            Map<String, Object> response = result.receipt().toMap();
+            response.put("replayed", result.replayed());
+            return receiptResponse(result.receipt(), response);
         } catch (Exception e) {
             System.err.println("VoteController: Error casting vote: " + e.getMessage());
             e.printStackTrace();
@@ -55,6 +81,34 @@ public class VoteController {
         }
     }
 
+    /**
+     * Cast ballots in several elections in one go, all or nothing.
+     */
+    @PostMapping("/cast-batch")
+    public ResponseEntity<Map<String, Object>> castBatch(
+            @RequestParam("voterId") String voterId,
+            @RequestBody List<BallotSelection> selections,
+            HttpServletRequest request) {
+        try {
+            List<Vote> votes = voteService.castBatch(voterId, selections, getClientIpAddress(request), request.getHeader("User-Agent"));
+            List<Map<String, Object>> ballots = new ArrayList<>();
+            for (Vote vote : votes) {
+                Map<String, Object> ballot = VoteReceipt.of(vote).toMap();
+                ballot.remove("message");
+                ballot.put("electionId", vote.getElectionId());
+                ballot.put("candidateId", vote.getCandidate().getId());
+                ballots.add(ballot);
+            }
+            return ResponseEntity.ok(Map.of("message", "Votes cast successfully", "count", votes.size(), "ballots", ballots));
+        } catch (Exception e) {
+            String errorMessage = e.getMessage();
+            if (errorMessage == null || errorMessage.isEmpty()) {
+                errorMessage = "Unknown error occurred while casting votes. Check backend logs for details.";
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", errorMessage));
+        }
+    }
+
     @GetMapping("/candidates")
     public ResponseEntity<List<Candidate>> getActiveCandidates(
             @RequestParam(value = "electionId", required = false) Long electionId) {
@@ -91,6 +145,26 @@ public class VoteController {
         }
     }
 
+    @GetMapping("/idempotency/stats")
+    public ResponseEntity<Map<String, Object>> getIdempotencyStats() {
+        return ResponseEntity.ok(voteIdempotencyService.getStats());
+    }
+
+    @GetMapping("/single-flight/stats")
+    public ResponseEntity<Map<String, Object>> getSingleFlightStats() {
+        return ResponseEntity.ok(voteSingleFlight.getStats());
+    }
+
+    @GetMapping("/journal/stats")
+    public ResponseEntity<Map<String, Object>> getJournalStats() {
+        return ResponseEntity.ok(voteJournalService.getStats());
+    }
+
+    // A provisional receipt means the vote is journaled but not yet in the database
+    private static ResponseEntity<Map<String, Object>> receiptResponse(VoteReceipt receipt, Map<String, Object> body) {
+        return receipt.isProvisional() ? ResponseEntity.status(HttpStatus.ACCEPTED).body(body) : ResponseEntity.ok(body);
+    }
+
     private String getClientIpAddress(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
@@ -4,6 +4,7 @@ import com.voteguard.service.VoterRegistrationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -85,6 +86,19 @@ public class VoterRegistrationController {
         }
     }
 
+    /**
+     * Stream the raw profile photo bytes. Pass {@code v=<contentHash>} to get an immutable response.
+     */
+    @GetMapping("/{voterId}/profile-photo/image")
+    public ResponseEntity<byte[]> getVoterProfilePhotoImage(
+            @PathVariable String voterId,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return voterRegistrationService.findVoterProfilePhoto(voterId)
+                .map(photo -> CachingResponses.image(photo, version, ifNoneMatch))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     private String getClientIpAddress(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
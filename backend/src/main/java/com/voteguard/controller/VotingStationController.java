@@ -1,7 +1,9 @@
 package com.voteguard.controller;
 
+import com.voteguard.model.StationSyncEntry;
 import com.voteguard.model.VotingStation;
 import com.voteguard.service.AuditLogService;
+import com.voteguard.service.StationSyncService;
 import com.voteguard.service.VotingStationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +24,7 @@ public class VotingStationController {
 
     private final VotingStationService votingStationService;
     private final AuditLogService auditLogService;
+    private final StationSyncService stationSyncService;
 
     @GetMapping
     public ResponseEntity<List<VotingStation>> getAllStations() {
@@ -99,6 +102,49 @@ public class VotingStationController {
         }
     }
 
+    /**
+     * Upload a bundle of votes captured while the station was offline.
+     */
+    @PostMapping("/{stationCode}/sync")
+    public ResponseEntity<Map<String, Object>> syncStation(@PathVariable String stationCode,
+                                                           @RequestBody List<StationSyncEntry> entries,
+                                                           HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(stationSyncService.sync(stationCode, entries, getClientIpAddress(request), request.getHeader("User-Agent")));
+        } catch (Exception e) {
+            log.error("Failed to sync station {}: {}", stationCode, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{stationCode}/sync")
+    public ResponseEntity<Map<String, Object>> getSyncStatus(@PathVariable String stationCode) {
+        try {
+            return ResponseEntity.ok(Map.of("stationCode", stationCode,
+                "lastSyncedSequence", votingStationService.getLastSyncedSequence(stationCode)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{stationCode}/sync-secret")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rotateSyncSecret(@PathVariable String stationCode, HttpServletRequest request) {
+        try {
+            String secret = votingStationService.rotateSyncSecret(stationCode);
+
+            String ipAddress = getClientIpAddress(request);
+            String userAgent = request.getHeader("User-Agent");
+            auditLogService.logStationAction(null, "STATION_SYNC_SECRET_ROTATED", "STATION", ipAddress, userAgent,
+                Map.of("station_code", stationCode));
+
+            return ResponseEntity.ok(Map.of("stationCode", stationCode, "syncSecret", secret));
+        } catch (Exception e) {
+            log.error("Failed to rotate sync secret for station {}: {}", stationCode, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{stationCode}")
     public ResponseEntity<VotingStation> getStation(@PathVariable String stationCode) {
         try {
@@ -0,0 +1,15 @@
+package com.voteguard.event;
+
+/**
+ * Published after a candidate or one of its images has been created, updated or removed.
+ * A null election ID means the affected elections are unknown and listeners should treat
+ * every election as changed; a null candidate ID means any candidate may have changed.
+ * Remote events were relayed from another node by
+ * {@link com.voteguard.cache.CandidateChangeListener} and are not announced again.
+ */
+public record CandidateChangedEvent(Long candidateId, Long electionId, boolean remote) {
+
+    public CandidateChangedEvent(Long candidateId, Long electionId) {
+        this(candidateId, electionId, false);
+    }
+}
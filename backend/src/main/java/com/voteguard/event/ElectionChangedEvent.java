@@ -0,0 +1,7 @@
+package com.voteguard.event;
+
+/**
+ * Published after an election has been saved or deleted.
+ */
+public record ElectionChangedEvent(Long electionId) {
+}
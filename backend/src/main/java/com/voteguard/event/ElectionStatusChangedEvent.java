@@ -0,0 +1,9 @@
+package com.voteguard.event;
+
+import com.voteguard.model.ElectionStatus;
+
+/**
+ * Published after an election's status has been persisted.
+ */
+public record ElectionStatusChangedEvent(Long electionId, ElectionStatus previousStatus, ElectionStatus newStatus) {
+}
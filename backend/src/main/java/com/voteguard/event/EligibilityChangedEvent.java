@@ -0,0 +1,9 @@
+package com.voteguard.event;
+
+/**
+ * Published after voter_election_eligibility or a voter's active flag has changed. With a voter ID,
+ * that voter's eligibility changed; with only an election ID, many voters of that election changed
+ * at once (a bulk grant or import); with neither, listeners should treat everything as changed.
+ */
+public record EligibilityChangedEvent(Long voterId, Long electionId) {
+}
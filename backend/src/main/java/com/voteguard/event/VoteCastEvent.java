@@ -0,0 +1,20 @@
+package com.voteguard.event;
+
+import com.voteguard.model.Vote;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a vote is saved; listeners act on it once the vote's transaction commits.
+ * voterId is the voter's surrogate key (voters.id); centerLocation is null for votes cast without
+ * an active center; timestamp is when the vote was cast, which for journaled or offline-synced
+ * votes can be well before it commits.
+ */
+public record VoteCastEvent(Long voteId, Long voterId, Long electionId, Long candidateId, String centerLocation,
+                            LocalDateTime timestamp) {
+
+    public static VoteCastEvent of(Vote vote) {
+        return new VoteCastEvent(vote.getId(), vote.getVoter().getId(), vote.getElectionId(),
+                vote.getCandidate().getId(), vote.getCenterLocation(), vote.getTimestamp());
+    }
+}
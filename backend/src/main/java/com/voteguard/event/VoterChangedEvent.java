@@ -0,0 +1,10 @@
+package com.voteguard.event;
+
+/**
+ * Published after a voter has been registered, updated or deleted. Both IDs are canonical
+ * voter IDs: previousVoterId is null for a registration and voterId is null for a deletion;
+ * they differ when an update changed the voter ID. Both are null when many voters changed
+ * at once (a bulk import) and listeners should treat every voter as changed.
+ */
+public record VoterChangedEvent(String previousVoterId, String voterId) {
+}
@@ -0,0 +1,8 @@
+package com.voteguard.event;
+
+/**
+ * Published when votes of an election were deleted, e.g. by ON DELETE CASCADE from a deleted voter,
+ * candidate or election; listeners recount the election once the deletion commits.
+ */
+public record VotesRemovedEvent(Long electionId) {
+}
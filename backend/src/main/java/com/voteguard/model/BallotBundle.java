@@ -0,0 +1,25 @@
+package com.voteguard.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Serialized ballot for one election: election metadata, ordered active candidates and
+ * versioned image URLs, encoded once and served as-is until the election or its candidates change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BallotBundle {
+
+    private Long electionId;
+    private String electionCode;
+    private byte[] body; // UTF-8 JSON
+    private String contentHash; // Hex SHA-256 of body, used as the strong ETag
+    private LocalDateTime generatedAt;
+}
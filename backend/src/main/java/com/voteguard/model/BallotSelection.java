@@ -0,0 +1,7 @@
+package com.voteguard.model;
+
+/**
+ * One choice in a multi-election ballot: the candidate picked in an election.
+ */
+public record BallotSelection(Long electionId, Long candidateId) {
+}
@@ -0,0 +1,10 @@
+package com.voteguard.model;
+
+import java.util.Map;
+
+/**
+ * Vote counts reported by one voting center in an election. centerLocation is null for votes cast
+ * without an active center; voteCounts maps candidate id to votes.
+ */
+public record CenterResult(String centerLocation, long totalVotes, Map<Long, Long> voteCounts) {
+}
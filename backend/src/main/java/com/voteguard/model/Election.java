@@ -4,6 +4,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,7 +19,10 @@ public class Election {
     @Size(min = 6, max = 6, message = "Election code must be exactly 6 characters")
     private String electionCode; // Auto-generated 6-digit code
     
-    private String electionOtp; // Time-based OTP for center setup (changes every 2 minutes)
+    private String electionOtp; // Legacy stored OTP; codes are now derived from otpSecret
+    
+    @JsonIgnore
+    private String otpSecret; // Hex-encoded TOTP secret for center setup codes
     
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime otpExpiresAt; // OTP expiration timestamp
@@ -98,6 +102,9 @@ public class Election {
     public String getElectionOtp() { return electionOtp; }
     public void setElectionOtp(String electionOtp) { this.electionOtp = electionOtp; }
     
+    public String getOtpSecret() { return otpSecret; }
+    public void setOtpSecret(String otpSecret) { this.otpSecret = otpSecret; }
+    
     public LocalDateTime getOtpExpiresAt() { return otpExpiresAt; }
     public void setOtpExpiresAt(LocalDateTime otpExpiresAt) { this.otpExpiresAt = otpExpiresAt; }
     
@@ -153,6 +160,7 @@ public class Election {
         private String name;
         private String electionCode;
         private String electionOtp;
+        private String otpSecret;
         private LocalDateTime otpExpiresAt;
         private String activeCenterLocation;
         private String description;
@@ -167,6 +175,7 @@ public class Election {
         public ElectionBuilder name(String name) { this.name = name; return this; }
         public ElectionBuilder electionCode(String electionCode) { this.electionCode = electionCode; return this; }
         public ElectionBuilder electionOtp(String electionOtp) { this.electionOtp = electionOtp; return this; }
+        public ElectionBuilder otpSecret(String otpSecret) { this.otpSecret = otpSecret; return this; }
         public ElectionBuilder otpExpiresAt(LocalDateTime otpExpiresAt) { this.otpExpiresAt = otpExpiresAt; return this; }
         public ElectionBuilder activeCenterLocation(String activeCenterLocation) { this.activeCenterLocation = activeCenterLocation; return this; }
         public ElectionBuilder description(String description) { this.description = description; return this; }
@@ -183,6 +192,7 @@ public class Election {
             election.setName(name);
             election.setElectionCode(electionCode);
             election.setElectionOtp(electionOtp);
+            election.setOtpSecret(otpSecret);
             election.setOtpExpiresAt(otpExpiresAt);
             election.setActiveCenterLocation(activeCenterLocation);
             election.setDescription(description);
@@ -0,0 +1,9 @@
+package com.voteguard.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A center setup code and the UTC time after which it is no longer accepted.
+ */
+public record ElectionOtp(String code, LocalDateTime expiresAtUtc) {
+}
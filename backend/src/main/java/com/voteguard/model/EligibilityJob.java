@@ -0,0 +1,102 @@
+package com.voteguard.model;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Progress of a background bulk eligibility job. Updated by the worker thread and
+ * read by status requests, so every accessor is synchronized.
+ */
+public class EligibilityJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String jobId = UUID.randomUUID().toString();
+    private final Long electionId;
+    private final EligibilityRule.Type ruleType;
+    private Status status = Status.QUEUED;
+    private long totalChunks;
+    private long completedChunks;
+    private long insertedRows;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long startNanos;
+    private long elapsedMillis;
+    private String errorMessage;
+
+    public EligibilityJob(Long electionId, EligibilityRule.Type ruleType) {
+        this.electionId = electionId;
+        this.ruleType = ruleType;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public Long getElectionId() {
+        return electionId;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    /**
+     * When the job completed or failed, or null while it is queued or running.
+     */
+    public synchronized LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized void start(long totalChunks) {
+        this.status = Status.RUNNING;
+        this.totalChunks = totalChunks;
+        this.startedAt = LocalDateTime.now();
+        this.startNanos = System.nanoTime();
+    }
+
+    public synchronized void chunkCompleted(long insertedInChunk) {
+        completedChunks++;
+        insertedRows += insertedInChunk;
+        elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public synchronized void complete() {
+        finish(Status.COMPLETED, null);
+    }
+
+    public synchronized void fail(String errorMessage) {
+        finish(Status.FAILED, errorMessage);
+    }
+
+    private void finish(Status finalStatus, String error) {
+        status = finalStatus;
+        errorMessage = error;
+        finishedAt = LocalDateTime.now();
+        if (startNanos != 0) {
+            elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        }
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", jobId);
+        map.put("electionId", electionId);
+        map.put("ruleType", ruleType);
+        map.put("status", status);
+        map.put("completedChunks", completedChunks);
+        map.put("totalChunks", totalChunks);
+        map.put("progressPercent", totalChunks > 0 ? completedChunks * 100.0 / totalChunks : (status == Status.COMPLETED ? 100.0 : 0.0));
+        map.put("insertedRows", insertedRows);
+        map.put("elapsedMs", elapsedMillis);
+        map.put("rowsPerSecond", elapsedMillis > 0 ? insertedRows * 1000 / elapsedMillis : 0);
+        map.put("startedAt", startedAt);
+        map.put("finishedAt", finishedAt);
+        map.put("error", errorMessage);
+        return map;
+    }
+}
@@ -0,0 +1,41 @@
+package com.voteguard.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Selects the voters a bulk eligibility job makes eligible for an election.
+ * Only active voters are ever selected.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EligibilityRule {
+
+    public enum Type {
+        ALL_ACTIVE, // every active voter
+        ROLE,       // active voters with the given role
+        ID_RANGE,   // active voters with minId <= voters.id <= maxId
+        VOTER_LIST  // active voters whose voter_id appears in an uploaded list
+    }
+
+    private Type type;
+    private Voter.Role role;
+    private Long minId;
+    private Long maxId;
+
+    public void validate() {
+        if (type == null) {
+            throw new IllegalArgumentException("Rule type is required");
+        }
+        if (type == Type.ROLE && role == null) {
+            throw new IllegalArgumentException("Role is required for ROLE rules");
+        }
+        if (type == Type.ID_RANGE && (minId == null || maxId == null || minId > maxId)) {
+            throw new IllegalArgumentException("A valid minId and maxId are required for ID_RANGE rules");
+        }
+    }
+}
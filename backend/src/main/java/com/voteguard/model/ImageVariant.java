@@ -0,0 +1,36 @@
+package com.voteguard.model;
+
+/**
+ * Pre-rendered sizes of ballot images. Variants are generated at upload time;
+ * FULL always refers to the original upload.
+ */
+public enum ImageVariant {
+    FULL(0),
+    BALLOT(320),
+    LIST(96);
+
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public boolean isOriginal() {
+        return this == FULL;
+    }
+
+    public static ImageVariant fromParam(String size) {
+        if (size == null || size.isBlank()) {
+            return FULL;
+        }
+        try {
+            return ImageVariant.valueOf(size.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown image size: " + size + " (expected full, ballot or list)");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.voteguard.model;
+
+import com.voteguard.util.Csv;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A validated vote accepted while the database was unreachable, as written to the local vote
+ * journal and later replayed into votes. voterId is voters.id; voterCode is the canonical voter ID.
+ */
+public record JournaledVote(String receiptId, Long voterId, String voterCode, String voterName, Long candidateId,
+                            Long electionId, String centerLocation, String ipAddress, String userAgent,
+                            LocalDateTime timestamp, String idempotencyKey, LocalDateTime keyExpiresAt) {
+
+    private static final int FIELDS = 12;
+
+    public static JournaledVote of(String receiptId, Vote vote, String idempotencyKey, LocalDateTime keyExpiresAt) {
+        return new JournaledVote(receiptId, vote.getVoter().getId(), vote.getVoter().getVoterId(), vote.getVoterName(),
+                vote.getCandidate().getId(), vote.getElectionId(), vote.getCenterLocation(), vote.getIpAddress(),
+                vote.getUserAgent(), vote.getTimestamp(), idempotencyKey, keyExpiresAt);
+    }
+
+    /**
+     * One CSV line; null fields are written as empty strings.
+     */
+    public byte[] toBytes() {
+        return Csv.formatLine(Arrays.asList(receiptId, string(voterId), voterCode, string(voterName), string(candidateId),
+                string(electionId), string(centerLocation), string(ipAddress), string(userAgent), string(timestamp),
+                string(idempotencyKey), string(keyExpiresAt))).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static JournaledVote fromBytes(byte[] bytes) {
+        List<String> fields = Csv.parseLine(new String(bytes, StandardCharsets.UTF_8));
+        if (fields.size() != FIELDS) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " fields in journaled vote, got " + fields.size());
+        }
+        return new JournaledVote(
+                fields.get(0),
+                Long.valueOf(fields.get(1)),
+                fields.get(2),
+                emptyToNull(fields.get(3)),
+                Long.valueOf(fields.get(4)),
+                Long.valueOf(fields.get(5)),
+                emptyToNull(fields.get(6)),
+                emptyToNull(fields.get(7)),
+                emptyToNull(fields.get(8)),
+                LocalDateTime.parse(fields.get(9)),
+                emptyToNull(fields.get(10)),
+                fields.get(11).isEmpty() ? null : LocalDateTime.parse(fields.get(11)));
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
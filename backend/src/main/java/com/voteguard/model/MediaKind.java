@@ -0,0 +1,9 @@
+package com.voteguard.model;
+
+/**
+ * Kinds of candidate-owned ballot images.
+ */
+public enum MediaKind {
+    CANDIDATE_PHOTO,
+    PARTY_LOGO
+}
@@ -0,0 +1,36 @@
+package com.voteguard.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of an independent recount of an election from the votes table, compared with the counts
+ * the live results path reports. An empty discrepancy list means every count matched.
+ */
+public record RecountReport(Long electionId,
+                            ElectionStatus electionStatus,
+                            LocalDateTime startedAt,
+                            long rowsScanned,
+                            int partitions,
+                            int parallelism,
+                            long elapsedMs,
+                            long rowsPerSecond,
+                            Map<Long, Long> candidateTotals,
+                            List<CenterResult> centers,
+                            Map<Long, Long> unknownCandidateVotes,
+                            List<String> comparedWith,
+                            List<Discrepancy> discrepancies) {
+
+    /**
+     * One count that differs between the recount and a live source. centerLocation is null for
+     * election-wide totals; reported is the source's count, 0 if it has none.
+     */
+    public record Discrepancy(String source, boolean centerLevel, String centerLocation, Long candidateId,
+                              long recounted, long reported) {
+    }
+
+    public boolean matches() {
+        return discrepancies.isEmpty() && unknownCandidateVotes.isEmpty();
+    }
+}
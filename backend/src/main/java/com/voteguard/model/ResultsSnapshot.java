@@ -0,0 +1,24 @@
+package com.voteguard.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Final results of a completed election, serialized once and served as-is from then on.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultsSnapshot {
+
+    private Long electionId;
+    private byte[] body; // Canonical UTF-8 JSON
+    private String contentHash; // Hex SHA-256 of body, used as the strong ETag and blob key
+    private long totalVotes;
+    private LocalDateTime finalizedAt;
+}
@@ -0,0 +1,24 @@
+package com.voteguard.model;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One vote captured by a kiosk while offline. The signature is the hex HMAC-SHA256 of
+ * {@link #signedPayload} under the station's sync secret.
+ */
+public record StationSyncEntry(Long sequence, String voterId, Long electionId, Long candidateId,
+                               LocalDateTime capturedAt, String signature) {
+
+    private static final DateTimeFormatter CAPTURED_AT_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
+
+    /**
+     * What the kiosk signs: the station code and the entry's fields, one per line, with the
+     * capture time as yyyy-MM-ddTHH:mm:ss. The station code is included so an entry cannot be
+     * replayed as another station's.
+     */
+    public String signedPayload(String stationCode) {
+        return stationCode + "\n" + sequence + "\n" + voterId + "\n" + electionId + "\n" + candidateId + "\n"
+                + (capturedAt != null ? CAPTURED_AT_FORMAT.format(capturedAt) : "");
+    }
+}
@@ -0,0 +1,35 @@
+package com.voteguard.model;
+
+/**
+ * What happened to one entry of an uploaded offline vote bundle.
+ */
+public record StationSyncResult(Long sequence, Status status, Long voteId, String error) {
+
+    public enum Status {
+        /** Stored as a new vote. */
+        ACCEPTED,
+        /** Already processed in an earlier upload; nothing was done. */
+        DUPLICATE,
+        /** The voter already has a vote in the election. */
+        ALREADY_VOTED,
+        /** The signature did not match; the entry is not recorded and may be uploaded again. */
+        INVALID_SIGNATURE,
+        /** Failed validation, e.g. an unknown voter or an ineligible election. */
+        REJECTED
+    }
+
+    public static StationSyncResult of(Long sequence, Status status) {
+        return new StationSyncResult(sequence, status, null, null);
+    }
+
+    public static StationSyncResult rejected(Long sequence, String error) {
+        return new StationSyncResult(sequence, Status.REJECTED, null, error);
+    }
+
+    /**
+     * Whether the entry is done with, so a re-upload of its sequence is a duplicate.
+     */
+    public boolean isFinal() {
+        return status == Status.ACCEPTED || status == Status.ALREADY_VOTED || status == Status.REJECTED;
+    }
+}
@@ -0,0 +1,24 @@
+package com.voteguard.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredImage {
+
+    private byte[] data;
+    private String contentType;
+    private String contentHash; // Hex SHA-256 of data, used as the strong ETag
+    private LocalDateTime createdAt;
+
+    public int size() {
+        return data != null ? data.length : 0;
+    }
+}
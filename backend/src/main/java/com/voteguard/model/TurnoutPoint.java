@@ -0,0 +1,9 @@
+package com.voteguard.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Votes cast in one bucket of a turnout curve, and in all buckets up to and including it.
+ */
+public record TurnoutPoint(LocalDateTime bucketStart, long votes, long cumulativeVotes) {
+}
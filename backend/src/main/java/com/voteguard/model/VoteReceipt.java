@@ -0,0 +1,40 @@
+package com.voteguard.model;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What a kiosk is told after a successful vote, kept per idempotency key so a retried
+ * submission gets exactly the same answer. A provisional receipt is for a vote accepted into
+ * the local journal while the database was unreachable; it has no vote ID until it is replayed.
+ */
+public record VoteReceipt(Long voteId, LocalDateTime timestamp, String centerLocation, String provisionalId) {
+
+    public static VoteReceipt of(Vote vote) {
+        return new VoteReceipt(vote.getId(), vote.getTimestamp(), vote.getCenterLocation(), null);
+    }
+
+    public static VoteReceipt provisional(JournaledVote vote) {
+        return new VoteReceipt(null, vote.timestamp(), vote.centerLocation(), vote.receiptId());
+    }
+
+    public boolean isProvisional() {
+        return provisionalId != null;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        if (isProvisional()) {
+            map.put("message", "Vote recorded; it will be counted as soon as the database is reachable again");
+            map.put("provisional", true);
+            map.put("provisionalId", provisionalId);
+        } else {
+            map.put("message", "Vote cast successfully");
+        }
+        map.put("voteId", voteId);
+        map.put("timestamp", timestamp);
+        map.put("centerLocation", centerLocation != null ? centerLocation : "N/A");
+        return map;
+    }
+}
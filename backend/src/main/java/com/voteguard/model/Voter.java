@@ -22,6 +22,7 @@ public class Voter implements UserDetails {
     private List<String> eligibleElections; // List of election IDs this voter can participate in
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version; // bumped by every update, for optimistic concurrency
 
     // Constructors
     public Voter() {}
@@ -79,6 +80,9 @@ public class Voter implements UserDetails {
     public List<String> getEligibleElections() { return eligibleElections; }
     public void setEligibleElections(List<String> eligibleElections) { this.eligibleElections = eligibleElections; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     // Builder pattern
     public static VoterBuilder builder() {
         return new VoterBuilder();
@@ -97,6 +101,7 @@ public class Voter implements UserDetails {
         private List<String> eligibleElections;
         private LocalDateTime createdAt;
         private LocalDateTime updatedAt;
+        private Long version;
 
         public VoterBuilder id(Long id) { this.id = id; return this; }
         public VoterBuilder voterId(String voterId) { this.voterId = voterId; return this; }
@@ -110,11 +115,13 @@ public class Voter implements UserDetails {
         public VoterBuilder eligibleElections(List<String> eligibleElections) { this.eligibleElections = eligibleElections; return this; }
         public VoterBuilder createdAt(LocalDateTime createdAt) { this.createdAt = createdAt; return this; }
         public VoterBuilder updatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; return this; }
+        public VoterBuilder version(Long version) { this.version = version; return this; }
 
         public Voter build() {
             Voter voter = new Voter(id, voterId, fullName, email, fingerprintHash, extraField, 
                            hasVoted, isActive, role, createdAt, updatedAt);
             voter.setEligibleElections(eligibleElections);
+            voter.setVersion(version);
             return voter;
         }
     }
@@ -0,0 +1,14 @@
+package com.voteguard.model;
+
+import java.util.List;
+
+/**
+ * Outcome of loading a staged voter file into the roll.
+ *
+ * @param stagedRows rows copied from the file
+ * @param insertedIds voters.id of the voters created
+ * @param conflicts voter IDs and emails in the file that are already registered (capped);
+ *                  when the import was not allowed to skip them nothing was inserted
+ */
+public record VoterImport(long stagedRows, List<Long> insertedIds, List<String> conflicts) {
+}
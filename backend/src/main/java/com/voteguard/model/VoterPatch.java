@@ -0,0 +1,80 @@
+package com.voteguard.model;
+
+import com.voteguard.util.VoterIds;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Field-level change to one or more voters. Null fields are left unchanged, so only the
+ * columns that are set appear in the UPDATE.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoterPatch {
+
+    private String voterId;
+    private String fullName;
+    private String email;
+    private String extraField;
+    private Boolean isActive;
+    private Boolean hasVoted;
+    private Voter.Role role;
+
+    // Single voter: the version the change was based on; a mismatch is rejected with 409
+    private Long version;
+
+    // Batch: voter IDs to apply the change to
+    private List<String> voterIds;
+
+    public boolean isEmpty() {
+        return voterId == null && fullName == null && email == null && extraField == null
+                && isActive == null && hasVoted == null && role == null;
+    }
+
+    /**
+     * Normalize the values the same way registration does and reject invalid ones.
+     */
+    public void validate() {
+        if (isEmpty()) {
+            throw new RuntimeException("No fields to update");
+        }
+        if (voterId != null) {
+            voterId = requireText(VoterIds.canonical(voterId), "Voter ID");
+        }
+        if (fullName != null) {
+            fullName = requireText(fullName.trim(), "Full name");
+        }
+        if (email != null) {
+            email = requireText(email.trim().toLowerCase(), "Email");
+        }
+        if (extraField != null) {
+            extraField = requireText(extraField.trim(), "Extra field");
+        }
+    }
+
+    /**
+     * Batch changes cannot set columns that must be unique per voter.
+     */
+    public void validateBatch() {
+        validate();
+        if (voterId != null || email != null) {
+            throw new RuntimeException("Voter ID and email cannot be set for many voters at once");
+        }
+        if (voterIds == null || voterIds.isEmpty()) {
+            throw new RuntimeException("voterIds is required");
+        }
+    }
+
+    private static String requireText(String value, String name) {
+        if (value.isEmpty()) {
+            throw new RuntimeException(name + " cannot be empty");
+        }
+        return value;
+    }
+}
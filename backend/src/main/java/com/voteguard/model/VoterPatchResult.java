@@ -0,0 +1,7 @@
+package com.voteguard.model;
+
+/**
+ * A voter changed by a patch: its voter ID before and after the change and its new version.
+ */
+public record VoterPatchResult(Long id, String previousVoterId, String voterId, long version) {
+}
@@ -1,5 +1,6 @@
 package com.voteguard.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +19,11 @@ public class VotingStation {
     @Builder.Default
     private Boolean isLocked = true;
     private String location;
+    @JsonIgnore
+    private String syncSecret; // Hex-encoded HMAC-SHA256 key for signed offline vote bundles
+    @Builder.Default
+    private Long lastSyncedSequence = 0L; // Every offline entry up to this sequence has been processed
+    private LocalDateTime lastSyncedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
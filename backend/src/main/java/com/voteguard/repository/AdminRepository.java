@@ -2,6 +2,7 @@ package com.voteguard.repository;
 
 import com.voteguard.model.AdminUser;
 import com.voteguard.model.AdminSession;
+import com.voteguard.storage.BlobStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -19,6 +20,9 @@ public class AdminRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private BlobStore blobStore;
+
     // RowMapper for AdminUser
     private final RowMapper<AdminUser> adminUserRowMapper = new RowMapper<AdminUser>() {
         @Override
@@ -100,13 +104,21 @@ public class AdminRepository {
     }
 
     public void updateBiometricInfo(String adminId, String templateId, byte[] fingerprintData) {
-        String sql = "UPDATE admin_users SET has_biometric = true, biometric_enrolled_date = ?, fingerprint_template_id = ?, fingerprint_data = ? WHERE admin_id = ?";
-        jdbcTemplate.update(sql, LocalDateTime.now(), templateId, fingerprintData, adminId);
+        String fingerprintHash = blobStore.put(fingerprintData);
+        String sql = "UPDATE admin_users SET has_biometric = true, biometric_enrolled_date = ?, fingerprint_template_id = ?, fingerprint_data = NULL, fingerprint_hash = ? WHERE admin_id = ?";
+        jdbcTemplate.update(sql, LocalDateTime.now(), templateId, fingerprintHash, adminId);
     }
 
     public byte[] getFingerprintData(String adminId) {
-        String sql = "SELECT fingerprint_data FROM admin_users WHERE admin_id = ? AND has_biometric = true";
-        List<byte[]> results = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getBytes("fingerprint_data"), adminId);
+        String sql = "SELECT fingerprint_data, fingerprint_hash FROM admin_users WHERE admin_id = ? AND has_biometric = true";
+        List<byte[]> results = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            byte[] inline = rs.getBytes("fingerprint_data");
+            String hash = rs.getString("fingerprint_hash");
+            if (inline != null || hash == null) {
+                return inline;
+            }
+            return blobStore.readBytes(hash).orElse(null);
+        }, adminId);
         return results.isEmpty() ? null : results.get(0);
     }
 
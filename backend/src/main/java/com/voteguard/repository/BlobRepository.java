@@ -0,0 +1,89 @@
+package com.voteguard.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Shared copy of the blob store in the blobs table, read by nodes whose local disk lacks a blob.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BlobRepository {
+
+    // Every column that holds a blob hash; a blob referenced by none of them is an orphan
+    private static final String REFERENCED =
+            "(EXISTS (SELECT 1 FROM candidate_photos WHERE content_hash = %1$s) " +
+            "OR EXISTS (SELECT 1 FROM party_logos WHERE content_hash = %1$s) " +
+            "OR EXISTS (SELECT 1 FROM profile_photos WHERE content_hash = %1$s) " +
+            "OR EXISTS (SELECT 1 FROM image_variants WHERE content_hash = %1$s) " +
+            "OR EXISTS (SELECT 1 FROM fingerprint_data WHERE fingerprint_hash = %1$s) " +
+            "OR EXISTS (SELECT 1 FROM admin_users WHERE fingerprint_hash = %1$s) " +
+            "OR EXISTS (SELECT 1 FROM results_snapshot WHERE content_hash = %1$s))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Store the blob; storing one that exists only refreshes stored_at, so a sweep running
+     * concurrently does not delete a blob that is about to be referenced again.
+     */
+    public void save(String hash, byte[] data) {
+        jdbcTemplate.update("INSERT INTO blobs (hash, data, size) VALUES (?, ?, ?) " +
+                "ON CONFLICT (hash) DO UPDATE SET stored_at = CURRENT_TIMESTAMP",
+                hash, data, data.length);
+    }
+
+    public Optional<byte[]> findData(String hash) {
+        List<byte[]> data = jdbcTemplate.query("SELECT data FROM blobs WHERE hash = ?", (rs, rowNum) -> rs.getBytes("data"), hash);
+        return data.isEmpty() ? Optional.empty() : Optional.of(data.get(0));
+    }
+
+    public boolean exists(String hash) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM blobs WHERE hash = ?", Integer.class, hash).isEmpty();
+    }
+
+    public boolean delete(String hash) {
+        return jdbcTemplate.update("DELETE FROM blobs WHERE hash = ?", hash) > 0;
+    }
+
+    /**
+     * The given hashes that some row still references.
+     */
+    public Set<String> findReferenced(Collection<String> hashes) {
+        return selectHashes("SELECT s.h FROM unnest(?::char(64)[]) AS s(h) WHERE " + String.format(REFERENCED, "s.h"), hashes);
+    }
+
+    /**
+     * The given hashes that already have a shared copy.
+     */
+    public Set<String> findStored(Collection<String> hashes) {
+        return selectHashes("SELECT hash AS h FROM blobs WHERE hash = ANY(?::char(64)[])", hashes);
+    }
+
+    /**
+     * Delete shared copies stored before the cutoff that no row references.
+     */
+    public int deleteUnreferenced(LocalDateTime storedBefore) {
+        return jdbcTemplate.update("DELETE FROM blobs b WHERE b.stored_at < ? AND NOT " + String.format(REFERENCED, "b.hash"), storedBefore);
+    }
+
+    private Set<String> selectHashes(String sql, Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<String> found = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setArray(1, connection.createArrayOf("varchar", hashes.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getString("h"));
+        return new HashSet<>(found);
+    }
+}
@@ -14,6 +14,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -105,6 +106,15 @@ public class CandidateRepository {
         return candidates.isEmpty() ? Optional.empty() : Optional.of(candidates.get(0));
     }
 
+    public List<Candidate> findByIds(Collection<Long> ids) {
+        String sql = "SELECT * FROM candidates WHERE id = ANY(?)";
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, candidateRowMapper);
+    }
+
     public List<Candidate> findByIsActiveTrue() {
         String sql = "SELECT * FROM candidates WHERE is_active = true";
         return jdbcTemplate.query(sql, candidateRowMapper);
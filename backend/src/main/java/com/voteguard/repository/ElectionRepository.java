@@ -33,6 +33,7 @@ public class ElectionRepository {
                     .name(rs.getString("name"))
                     .electionCode(rs.getString("election_code"))
                     .electionOtp(rs.getString("election_otp"))
+                    .otpSecret(rs.getString("otp_secret"))
                     .otpExpiresAt(JdbcUtils.getLocalDateTime(rs, "otp_expires_at"))
                     .activeCenterLocation(rs.getString("active_center_location"))
                     .description(rs.getString("description"))
@@ -56,7 +57,7 @@ public class ElectionRepository {
 
     private Election insert(Election election) {
         // election_code will be auto-generated by database trigger if not provided
-        String sql = "INSERT INTO elections (name, election_code, description, start_date, end_date, status, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO elections (name, election_code, description, start_date, end_date, status, is_active, otp_secret, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
         KeyHolder keyHolder = new GeneratedKeyHolder();
         LocalDateTime now = LocalDateTime.now();
@@ -70,8 +71,9 @@ public class ElectionRepository {
             JdbcUtils.setLocalDateTime(ps, 5, election.getEndDate());
             ps.setString(6, election.getStatus().name());
             ps.setBoolean(7, election.getIsActive());
-            JdbcUtils.setLocalDateTime(ps, 8, now);
+            ps.setString(8, election.getOtpSecret());
             JdbcUtils.setLocalDateTime(ps, 9, now);
+            JdbcUtils.setLocalDateTime(ps, 10, now);
             return ps;
         }, keyHolder);
 
@@ -102,6 +104,15 @@ public class ElectionRepository {
         return election;
     }
 
+    /**
+     * Change the status only if it is still {@code expected}, so concurrent transitions
+     * (e.g. from several backend nodes) apply once.
+     */
+    public boolean updateStatusIfCurrent(Long id, ElectionStatus expected, ElectionStatus status) {
+        String sql = "UPDATE elections SET status = ?, updated_at = ? WHERE id = ? AND status = ?";
+        return jdbcTemplate.update(sql, status.name(), LocalDateTime.now(), id, expected.name()) > 0;
+    }
+
     public Optional<Election> findById(Long id) {
         String sql = "SELECT * FROM elections WHERE id = ?";
         List<Election> elections = jdbcTemplate.query(sql, electionRowMapper, id);
@@ -201,17 +212,10 @@ public class ElectionRepository {
         return count != null ? count : 0;
     }
     
-    // Generate new OTP for election (changes every 2 minutes)
-    public String generateElectionOtp(Long electionId) {
-        String sql = "SELECT generate_election_otp(?)";
-        return jdbcTemplate.queryForObject(sql, String.class, electionId);
-    }
-    
-    // Validate OTP for election
-    public boolean validateElectionOtp(Long electionId, String otp) {
-        String sql = "SELECT validate_election_otp(?, ?)";
-        Boolean result = jdbcTemplate.queryForObject(sql, Boolean.class, electionId, otp);
-        return result != null && result;
+    // Set the TOTP secret of an election created before secrets were assigned at creation
+    public boolean initOtpSecret(Long electionId, String otpSecret) {
+        String sql = "UPDATE elections SET otp_secret = ? WHERE id = ? AND otp_secret IS NULL";
+        return jdbcTemplate.update(sql, otpSecret, electionId) > 0;
     }
     
     // Set active center location for election
@@ -0,0 +1,168 @@
+package com.voteguard.repository;
+
+import com.voteguard.model.EligibilityRule;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Voter eligibility per election, stored one row per (voter, election) in voter_election_eligibility.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EligibilityRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Long> findElectionIdsByVoterId(Long voterId) {
+        String sql = "SELECT election_id FROM voter_election_eligibility WHERE voter_id = ? ORDER BY election_id";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getLong("election_id"), voterId);
+    }
+
+    /**
+     * The given elections an active voter is eligible for, in one query.
+     */
+    public List<Long> findEligibleElectionIds(Long voterId, Collection<Long> electionIds) {
+        String sql = "SELECT e.election_id FROM voter_election_eligibility e JOIN voters v ON v.id = e.voter_id " +
+                "WHERE e.voter_id = ? AND e.election_id = ANY(?) AND v.is_active = true";
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setLong(1, voterId);
+            ps.setArray(2, connection.createArrayOf("bigint", electionIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong("election_id"));
+    }
+
+    public boolean isEligible(Long voterId, Long electionId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM voter_election_eligibility e JOIN voters v ON v.id = e.voter_id " +
+                "WHERE e.voter_id = ? AND e.election_id = ? AND v.is_active = true)";
+        Boolean eligible = jdbcTemplate.queryForObject(sql, Boolean.class, voterId, electionId);
+        return Boolean.TRUE.equals(eligible);
+    }
+
+    public boolean isVoterActive(Long voterId) {
+        String sql = "SELECT is_active FROM voters WHERE id = ?";
+        List<Boolean> results = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getBoolean("is_active"), voterId);
+        return !results.isEmpty() && results.get(0);
+    }
+
+    public void grant(Long voterId, Collection<Long> electionIds) {
+        if (electionIds == null || electionIds.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO voter_election_eligibility (voter_id, election_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+        List<Object[]> batch = new ArrayList<>();
+        for (Long electionId : electionIds) {
+            batch.add(new Object[] { voterId, electionId });
+        }
+        jdbcTemplate.batchUpdate(sql, batch);
+    }
+
+    public void revokeAll(Long voterId) {
+        jdbcTemplate.update("DELETE FROM voter_election_eligibility WHERE voter_id = ?", voterId);
+    }
+
+    /**
+     * Stream (election_id, voter_id) pairs of active voters, ordered by election.
+     */
+    public void streamActiveEligibility(RowCallbackHandler handler) {
+        String sql = "SELECT e.election_id, e.voter_id FROM voter_election_eligibility e JOIN voters v ON v.id = e.voter_id " +
+                "WHERE v.is_active = true ORDER BY e.election_id, e.voter_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(10_000);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Stream the voter IDs of one election's active eligible voters.
+     */
+    public void streamActiveEligibility(Long electionId, RowCallbackHandler handler) {
+        String sql = "SELECT e.voter_id FROM voter_election_eligibility e JOIN voters v ON v.id = e.voter_id " +
+                "WHERE e.election_id = ? AND v.is_active = true ORDER BY e.voter_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setLong(1, electionId);
+            ps.setFetchSize(10_000);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Smallest and largest voters.id, or null when there are no voters.
+     */
+    public long[] findVoterIdBounds() {
+        return jdbcTemplate.queryForObject("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM voters", (rs, rowNum) -> {
+            long minId = rs.getLong("min_id");
+            return rs.wasNull() ? null : new long[] { minId, rs.getLong("max_id") };
+        });
+    }
+
+    /**
+     * Make active voters matching the rule with fromId <= voters.id < toId eligible, in one statement.
+     *
+     * @return IDs of the voters that were newly made eligible
+     */
+    public List<Long> grantByRule(Long electionId, EligibilityRule rule, long fromId, long toId) {
+        StringBuilder sql = new StringBuilder("INSERT INTO voter_election_eligibility (voter_id, election_id) " +
+                "SELECT v.id, ? FROM voters v WHERE v.id >= ? AND v.id < ? AND v.is_active = true");
+        List<Object> params = new ArrayList<>(List.of(electionId, fromId, toId));
+        if (rule.getType() == EligibilityRule.Type.ROLE) {
+            sql.append(" AND v.role = ?");
+            params.add(rule.getRole().name());
+        }
+        sql.append(" ON CONFLICT DO NOTHING RETURNING voter_id");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> rs.getLong("voter_id"), params.toArray());
+    }
+
+    /**
+     * COPY an uploaded list of voter IDs (one per line) into a temporary table and make the
+     * matching active voters eligible with one INSERT ... SELECT.
+     *
+     * @return IDs of the voters that were newly made eligible
+     */
+    public List<Long> grantByVoterIdList(Long electionId, Reader voterIds) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TEMP TABLE IF NOT EXISTS eligibility_upload (voter_id VARCHAR(50))");
+                statement.execute("TRUNCATE eligibility_upload");
+            }
+            try {
+                connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY eligibility_upload (voter_id) FROM STDIN WITH (FORMAT csv)", voterIds);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read uploaded voter list: " + e.getMessage(), e);
+            }
+
+            String sql = "INSERT INTO voter_election_eligibility (voter_id, election_id) " +
+                    "SELECT DISTINCT v.id, ? FROM eligibility_upload u JOIN voters v ON v.voter_id = UPPER(TRIM(u.voter_id)) " +
+                    "WHERE v.is_active = true ON CONFLICT DO NOTHING RETURNING voter_id";
+            List<Long> granted = new ArrayList<>();
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setLong(1, electionId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        granted.add(rs.getLong(1));
+                    }
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS eligibility_upload");
+            }
+            return granted;
+        });
+    }
+}
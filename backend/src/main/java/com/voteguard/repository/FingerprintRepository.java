@@ -0,0 +1,44 @@
+package com.voteguard.repository;
+
+import com.voteguard.storage.BlobStore;
+import com.voteguard.util.VoterIds;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Enrolled voter fingerprint scans. The scan itself lives in the {@link BlobStore};
+ * fingerprint_data rows keep its hash, or the inline BYTEA for rows not yet migrated.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FingerprintRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+
+    public String save(String voterId, byte[] fingerprintData) {
+        String hash = blobStore.put(fingerprintData);
+        String sql = "INSERT INTO fingerprint_data (voter_id, fingerprint_data, fingerprint_hash) VALUES (?, NULL, ?) " +
+                "ON CONFLICT (voter_id) DO UPDATE SET fingerprint_data = NULL, fingerprint_hash = EXCLUDED.fingerprint_hash";
+        jdbcTemplate.update(sql, VoterIds.canonical(voterId), hash);
+        return hash;
+    }
+
+    public Optional<byte[]> findByVoterId(String voterId) {
+        String sql = "SELECT fingerprint_data, fingerprint_hash FROM fingerprint_data WHERE voter_id = ?";
+        List<Optional<byte[]>> results = jdbcTemplate.query(sql,
+                (rs, rowNum) -> resolve(rs.getBytes("fingerprint_data"), rs.getString("fingerprint_hash")), VoterIds.canonical(voterId));
+        return results.isEmpty() ? Optional.empty() : results.get(0);
+    }
+
+    private Optional<byte[]> resolve(byte[] inline, String hash) {
+        if (inline != null) {
+            return Optional.of(inline);
+        }
+        return hash != null ? blobStore.readBytes(hash) : Optional.empty();
+    }
+}
@@ -0,0 +1,187 @@
+package com.voteguard.repository;
+
+import com.voteguard.model.ImageVariant;
+import com.voteguard.model.MediaKind;
+import com.voteguard.model.StoredImage;
+import com.voteguard.storage.BlobStore;
+import com.voteguard.util.ImageUtils;
+import com.voteguard.util.JdbcUtils;
+import com.voteguard.util.VoterIds;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Binary image storage for candidate photos, party logos and voter profile photos.
+ * Payloads live in the {@link BlobStore}; rows keep the detected content type and the SHA-256
+ * hash that addresses the blob. Rows written before the blob store still carry their BYTEA
+ * payload until they are moved out by the blob migration.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MediaRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+
+    private final RowMapper<StoredImage> imageRowMapper = (rs, rowNum) -> StoredImage.builder()
+            .data(rs.getBytes("data"))
+            .contentType(rs.getString("content_type"))
+            .contentHash(rs.getString("content_hash"))
+            .createdAt(JdbcUtils.getLocalDateTime(rs, "created_at"))
+            .build();
+
+    private final RowMapper<StoredImage> metadataRowMapper = (rs, rowNum) -> StoredImage.builder()
+            .contentType(rs.getString("content_type"))
+            .contentHash(rs.getString("content_hash"))
+            .createdAt(JdbcUtils.getLocalDateTime(rs, "created_at"))
+            .build();
+
+    // Candidate photos
+    public StoredImage saveCandidatePhoto(Long candidateId, byte[] data) {
+        StoredImage image = toStoredImage(data);
+        String sql = "INSERT INTO candidate_photos (candidate_id, photo_data, content_type, content_hash) VALUES (?, NULL, ?, ?) " +
+                "ON CONFLICT (candidate_id) DO UPDATE SET photo_data = EXCLUDED.photo_data, content_type = EXCLUDED.content_type, " +
+                "content_hash = EXCLUDED.content_hash, created_at = CURRENT_TIMESTAMP";
+        jdbcTemplate.update(sql, candidateId, image.getContentType(), image.getContentHash());
+        return image;
+    }
+
+    public Optional<StoredImage> findCandidatePhoto(Long candidateId) {
+        String sql = "SELECT photo_data AS data, content_type, content_hash, created_at FROM candidate_photos WHERE candidate_id = ?";
+        return first(jdbcTemplate.query(sql, imageRowMapper, candidateId)).map(this::withPayload);
+    }
+
+    public Optional<StoredImage> findCandidatePhotoMetadata(Long candidateId) {
+        String sql = "SELECT content_type, content_hash, created_at FROM candidate_photos WHERE candidate_id = ?";
+        return first(jdbcTemplate.query(sql, metadataRowMapper, candidateId));
+    }
+
+    // Party logos
+    public StoredImage savePartyLogo(Long candidateId, byte[] data) {
+        StoredImage image = toStoredImage(data);
+        String sql = "INSERT INTO party_logos (candidate_id, logo_data, content_type, content_hash) VALUES (?, NULL, ?, ?) " +
+                "ON CONFLICT (candidate_id) DO UPDATE SET logo_data = EXCLUDED.logo_data, content_type = EXCLUDED.content_type, " +
+                "content_hash = EXCLUDED.content_hash, created_at = CURRENT_TIMESTAMP";
+        jdbcTemplate.update(sql, candidateId, image.getContentType(), image.getContentHash());
+        return image;
+    }
+
+    public Optional<StoredImage> findPartyLogo(Long candidateId) {
+        String sql = "SELECT logo_data AS data, content_type, content_hash, created_at FROM party_logos WHERE candidate_id = ?";
+        return first(jdbcTemplate.query(sql, imageRowMapper, candidateId)).map(this::withPayload);
+    }
+
+    public Optional<StoredImage> findPartyLogoMetadata(Long candidateId) {
+        String sql = "SELECT content_type, content_hash, created_at FROM party_logos WHERE candidate_id = ?";
+        return first(jdbcTemplate.query(sql, metadataRowMapper, candidateId));
+    }
+
+    // Voter profile photos
+    public StoredImage saveProfilePhoto(String voterId, byte[] data) {
+        StoredImage image = toStoredImage(data);
+        String sql = "INSERT INTO profile_photos (voter_id, photo_data, content_type, content_hash) VALUES (?, NULL, ?, ?) " +
+                "ON CONFLICT (voter_id) DO UPDATE SET photo_data = EXCLUDED.photo_data, content_type = EXCLUDED.content_type, " +
+                "content_hash = EXCLUDED.content_hash, created_at = CURRENT_TIMESTAMP";
+        jdbcTemplate.update(sql, VoterIds.canonical(voterId), image.getContentType(), image.getContentHash());
+        return image;
+    }
+
+    public Optional<StoredImage> findProfilePhoto(String voterId) {
+        String sql = "SELECT photo_data AS data, content_type, content_hash, created_at FROM profile_photos WHERE voter_id = ?";
+        return first(jdbcTemplate.query(sql, imageRowMapper, VoterIds.canonical(voterId))).map(this::withPayload);
+    }
+
+    public Optional<StoredImage> findOriginal(MediaKind kind, Long candidateId) {
+        return kind == MediaKind.CANDIDATE_PHOTO ? findCandidatePhoto(candidateId) : findPartyLogo(candidateId);
+    }
+
+    // Resized variants of candidate photos and party logos
+    public StoredImage saveVariant(MediaKind kind, Long candidateId, ImageVariant variant, byte[] data, String sourceHash) {
+        StoredImage image = toStoredImage(data);
+        String sql = "INSERT INTO image_variants (owner_type, owner_id, variant, image_data, content_type, content_hash, source_hash) VALUES (?, ?, ?, NULL, ?, ?, ?) " +
+                "ON CONFLICT (owner_type, owner_id, variant) DO UPDATE SET image_data = EXCLUDED.image_data, content_type = EXCLUDED.content_type, " +
+                "content_hash = EXCLUDED.content_hash, source_hash = EXCLUDED.source_hash, created_at = CURRENT_TIMESTAMP";
+        jdbcTemplate.update(sql, kind.name(), candidateId, variant.name(), image.getContentType(), image.getContentHash(), sourceHash);
+        return image;
+    }
+
+    /**
+     * The variant rendered from the current original; a variant left over from a replaced
+     * original, e.g. because rendering the new one failed, is not returned.
+     */
+    public Optional<StoredImage> findVariant(MediaKind kind, Long candidateId, ImageVariant variant) {
+        String table = kind == MediaKind.CANDIDATE_PHOTO ? "candidate_photos" : "party_logos";
+        String sql = "SELECT v.image_data AS data, v.content_type, v.content_hash, v.created_at FROM image_variants v " +
+                "JOIN " + table + " o ON o.candidate_id = v.owner_id AND o.content_hash = v.source_hash " +
+                "WHERE v.owner_type = ? AND v.owner_id = ? AND v.variant = ?";
+        return first(jdbcTemplate.query(sql, imageRowMapper, kind.name(), candidateId, variant.name())).map(this::withPayload);
+    }
+
+    /**
+     * Metadata of the image served for each candidate of an election at the given size,
+     * resolved the same way as the image endpoints: the variant if rendered, otherwise the original.
+     */
+    public Map<Long, StoredImage> findMetadataByElection(MediaKind kind, Long electionId, ImageVariant variant) {
+        String table = kind == MediaKind.CANDIDATE_PHOTO ? "candidate_photos" : "party_logos";
+        String sql = "SELECT o.candidate_id, COALESCE(v.content_type, o.content_type) AS content_type, " +
+                "COALESCE(v.content_hash, o.content_hash) AS content_hash, COALESCE(v.created_at, o.created_at) AS created_at " +
+                "FROM " + table + " o JOIN candidates c ON c.id = o.candidate_id " +
+                "LEFT JOIN image_variants v ON v.owner_type = ? AND v.owner_id = o.candidate_id AND v.variant = ? " +
+                "AND v.source_hash = o.content_hash " +
+                "WHERE c.election_id = ?";
+        Map<Long, StoredImage> metadata = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            metadata.put(rs.getLong("candidate_id"), metadataRowMapper.mapRow(rs, 0));
+        }, kind.name(), variant.name(), electionId);
+        return metadata;
+    }
+
+    /**
+     * Candidate IDs whose original image has no up-to-date variant of the given size.
+     */
+    public List<Long> findCandidateIdsMissingVariant(MediaKind kind, ImageVariant variant) {
+        String table = kind == MediaKind.CANDIDATE_PHOTO ? "candidate_photos" : "party_logos";
+        String sql = "SELECT o.candidate_id FROM " + table + " o WHERE NOT EXISTS (" +
+                "SELECT 1 FROM image_variants v WHERE v.owner_type = ? AND v.owner_id = o.candidate_id " +
+                "AND v.variant = ? AND v.source_hash = o.content_hash) ORDER BY o.candidate_id";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getLong("candidate_id"), kind.name(), variant.name());
+    }
+
+    private StoredImage toStoredImage(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Image data is empty");
+        }
+        String contentType = ImageUtils.detectContentType(data);
+        if (!ImageUtils.isImage(contentType)) {
+            throw new IllegalArgumentException("Unsupported image format");
+        }
+        String contentHash = blobStore.put(data);
+        return StoredImage.builder()
+                .data(data)
+                .contentType(contentType)
+                .contentHash(contentHash)
+                .build();
+    }
+
+    /**
+     * Load the payload from the blob store unless the row still carries it inline.
+     */
+    private StoredImage withPayload(StoredImage image) {
+        if (image.getData() == null) {
+            image.setData(blobStore.readBytes(image.getContentHash())
+                    .orElseThrow(() -> new RuntimeException("Image blob not found: " + image.getContentHash())));
+        }
+        return image;
+    }
+
+    private static Optional<StoredImage> first(List<StoredImage> images) {
+        return images.isEmpty() ? Optional.empty() : Optional.of(images.get(0));
+    }
+}
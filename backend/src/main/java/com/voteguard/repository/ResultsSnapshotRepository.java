@@ -0,0 +1,62 @@
+package com.voteguard.repository;
+
+import com.voteguard.model.ResultsSnapshot;
+import com.voteguard.util.JdbcUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class ResultsSnapshotRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final RowMapper<ResultsSnapshot> headerRowMapper = (rs, rowNum) -> ResultsSnapshot.builder()
+            .electionId(rs.getLong("election_id"))
+            .contentHash(rs.getString("content_hash"))
+            .totalVotes(rs.getLong("total_votes"))
+            .finalizedAt(JdbcUtils.getLocalDateTime(rs, "finalized_at"))
+            .build();
+
+    /**
+     * Store the snapshot unless the election already has one, e.g. written by another node.
+     *
+     * @return whether this snapshot was stored
+     */
+    public boolean insertIfAbsent(ResultsSnapshot snapshot) {
+        String sql = "INSERT INTO results_snapshot (election_id, content_hash, body, total_votes, finalized_at) VALUES (?, ?, ?, ?, ?) " +
+                "ON CONFLICT (election_id) DO NOTHING";
+        return jdbcTemplate.update(sql, snapshot.getElectionId(), snapshot.getContentHash(), snapshot.getBody(),
+                snapshot.getTotalVotes(), snapshot.getFinalizedAt()) > 0;
+    }
+
+    /**
+     * The snapshot without its body, to look the body up in the local blob store first.
+     */
+    public Optional<ResultsSnapshot> findHeader(Long electionId) {
+        String sql = "SELECT election_id, content_hash, total_votes, finalized_at FROM results_snapshot WHERE election_id = ?";
+        List<ResultsSnapshot> snapshots = jdbcTemplate.query(sql, headerRowMapper, electionId);
+        return snapshots.isEmpty() ? Optional.empty() : Optional.of(snapshots.get(0));
+    }
+
+    public Optional<byte[]> findBody(Long electionId) {
+        List<byte[]> bodies = jdbcTemplate.query("SELECT body FROM results_snapshot WHERE election_id = ?",
+                (rs, rowNum) -> rs.getBytes("body"), electionId);
+        return bodies.isEmpty() ? Optional.empty() : Optional.of(bodies.get(0));
+    }
+
+    public Set<Long> findElectionIds() {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT election_id FROM results_snapshot", Long.class));
+    }
+
+    public boolean deleteByElectionId(Long electionId) {
+        return jdbcTemplate.update("DELETE FROM results_snapshot WHERE election_id = ?", electionId) > 0;
+    }
+}
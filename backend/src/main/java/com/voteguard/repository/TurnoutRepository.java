@@ -0,0 +1,161 @@
+package com.voteguard.repository;
+
+import com.voteguard.model.TurnoutResolution;
+import com.voteguard.util.JdbcUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vote counts per (election, center, resolution, bucket) in turnout_rollup. Votes cast without a
+ * center are stored under the empty center_location.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TurnoutRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Add per-minute vote counts to the minute, hour and day rows they fall in, with one statement.
+     */
+    public void addMinuteCounts(List<MinuteCount> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        int size = counts.size();
+        Long[] electionIds = new Long[size];
+        String[] centerLocations = new String[size];
+        Timestamp[] minutes = new Timestamp[size];
+        Long[] votes = new Long[size];
+        for (int i = 0; i < size; i++) {
+            MinuteCount count = counts.get(i);
+            electionIds[i] = count.electionId();
+            centerLocations[i] = count.centerLocation() != null ? count.centerLocation() : "";
+            minutes[i] = Timestamp.valueOf(count.minuteStart());
+            votes[i] = count.votes();
+        }
+
+        // Grouped first, since several minutes roll up into the same hour and day rows
+        String sql = "INSERT INTO turnout_rollup (election_id, center_location, resolution, bucket_start, votes) " +
+            "SELECT s.election_id, s.center_location, r.resolution, date_trunc(r.unit, s.minute_start), SUM(s.votes) " +
+            "FROM unnest(?::bigint[], ?::varchar[], ?::timestamp[], ?::bigint[]) AS s(election_id, center_location, minute_start, votes) " +
+            "CROSS JOIN (VALUES ('MINUTE', 'minute'), ('HOUR', 'hour'), ('DAY', 'day')) AS r(resolution, unit) " +
+            "GROUP BY 1, 2, 3, 4 " +
+            "ON CONFLICT (election_id, resolution, center_location, bucket_start) DO UPDATE SET votes = turnout_rollup.votes + EXCLUDED.votes";
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setArray(1, connection.createArrayOf("bigint", electionIds));
+            ps.setArray(2, connection.createArrayOf("varchar", centerLocations));
+            ps.setArray(3, connection.createArrayOf("timestamp", minutes));
+            ps.setArray(4, connection.createArrayOf("bigint", votes));
+            return ps;
+        });
+    }
+
+    /**
+     * Votes per bucket of an election, in time order, for one center or, with centerLocation
+     * null, all centers together.
+     */
+    public Map<LocalDateTime, Long> findCurve(Long electionId, String centerLocation, TurnoutResolution resolution) {
+        String sql = "SELECT bucket_start, SUM(votes) AS votes FROM turnout_rollup WHERE election_id = ? AND resolution = ?" +
+            (centerLocation != null ? " AND center_location = ?" : "") +
+            " GROUP BY bucket_start ORDER BY bucket_start";
+        Map<LocalDateTime, Long> curve = new LinkedHashMap<>();
+        RowCallbackHandler handler = rs -> curve.put(JdbcUtils.getLocalDateTime(rs, "bucket_start"), rs.getLong("votes"));
+        if (centerLocation != null) {
+            jdbcTemplate.query(sql, handler, electionId, resolution.name(), centerLocation);
+        } else {
+            jdbcTemplate.query(sql, handler, electionId, resolution.name());
+        }
+        return curve;
+    }
+
+    /**
+     * Rebuild the minute and hour rows with from <= bucket_start < to from the votes table, less
+     * the given counts that a node has yet to add, then the day rows those hours fall in from the
+     * hour rows. from and to must be on hour boundaries; call inside a transaction so curves never
+     * see the minute and hour rows rebuilt without the day rows.
+     *
+     * @return the number of minute and hour rows that were corrected
+     */
+    public int rebuildFromVotes(LocalDateTime from, LocalDateTime to, List<MinuteCount> outstanding) {
+        int size = outstanding.size();
+        Long[] electionIds = new Long[size];
+        String[] centerLocations = new String[size];
+        Timestamp[] minutes = new Timestamp[size];
+        Long[] votes = new Long[size];
+        for (int i = 0; i < size; i++) {
+            MinuteCount count = outstanding.get(i);
+            electionIds[i] = count.electionId();
+            centerLocations[i] = count.centerLocation() != null ? count.centerLocation() : "";
+            minutes[i] = Timestamp.valueOf(count.minuteStart());
+            votes[i] = count.votes();
+        }
+
+        // The upsert and the delete touch disjoint rows, so they can share one statement
+        String bucketSql = "WITH counted AS (" +
+            "SELECT election_id, COALESCE(center_location, '') AS center_location, date_trunc('minute', timestamp) AS minute_start, COUNT(*) AS votes " +
+            "FROM votes WHERE election_id IS NOT NULL AND timestamp >= ? AND timestamp < ? GROUP BY 1, 2, 3" +
+            "), pending AS (" +
+            "SELECT election_id, center_location, minute_start, SUM(votes) AS votes " +
+            "FROM unnest(?::bigint[], ?::varchar[], ?::timestamp[], ?::bigint[]) AS p(election_id, center_location, minute_start, votes) GROUP BY 1, 2, 3" +
+            "), buckets AS (" +
+            "SELECT c.election_id, c.center_location, r.resolution, date_trunc(r.unit, c.minute_start) AS bucket_start, SUM(GREATEST(c.votes - COALESCE(p.votes, 0), 0)) AS votes " +
+            "FROM counted c LEFT JOIN pending p USING (election_id, center_location, minute_start) " +
+            "CROSS JOIN (VALUES ('MINUTE', 'minute'), ('HOUR', 'hour')) AS r(resolution, unit) " +
+            "GROUP BY 1, 2, 3, 4 HAVING SUM(GREATEST(c.votes - COALESCE(p.votes, 0), 0)) > 0" +
+            "), upserted AS (" +
+            "INSERT INTO turnout_rollup (election_id, center_location, resolution, bucket_start, votes) SELECT * FROM buckets " +
+            "ON CONFLICT (election_id, resolution, center_location, bucket_start) DO UPDATE SET votes = EXCLUDED.votes " +
+            "WHERE turnout_rollup.votes <> EXCLUDED.votes RETURNING 1" +
+            "), deleted AS (" +
+            "DELETE FROM turnout_rollup t WHERE t.resolution IN ('MINUTE', 'HOUR') AND t.bucket_start >= ? AND t.bucket_start < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM buckets b WHERE b.election_id = t.election_id AND b.center_location = t.center_location " +
+            "AND b.resolution = t.resolution AND b.bucket_start = t.bucket_start) RETURNING 1" +
+            ") SELECT (SELECT COUNT(*) FROM upserted) + (SELECT COUNT(*) FROM deleted)";
+        List<Integer> changed = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(bucketSql);
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            ps.setArray(3, connection.createArrayOf("bigint", electionIds));
+            ps.setArray(4, connection.createArrayOf("varchar", centerLocations));
+            ps.setArray(5, connection.createArrayOf("timestamp", minutes));
+            ps.setArray(6, connection.createArrayOf("bigint", votes));
+            ps.setTimestamp(7, Timestamp.valueOf(from));
+            ps.setTimestamp(8, Timestamp.valueOf(to));
+            return ps;
+        }, (rs, rowNum) -> rs.getInt(1));
+
+        // Day rows are the sum of their hour rows, which are kept for good
+        String daySql = "WITH days AS (" +
+            "SELECT election_id, center_location, 'DAY' AS resolution, date_trunc('day', bucket_start) AS bucket_start, SUM(votes) AS votes " +
+            "FROM turnout_rollup WHERE resolution = 'HOUR' AND bucket_start >= date_trunc('day', ?::timestamp) " +
+            "AND bucket_start < date_trunc('day', ?::timestamp) + INTERVAL '1 day' GROUP BY 1, 2, 4" +
+            "), upserted AS (" +
+            "INSERT INTO turnout_rollup (election_id, center_location, resolution, bucket_start, votes) SELECT * FROM days " +
+            "ON CONFLICT (election_id, resolution, center_location, bucket_start) DO UPDATE SET votes = EXCLUDED.votes " +
+            "WHERE turnout_rollup.votes <> EXCLUDED.votes RETURNING 1" +
+            ") DELETE FROM turnout_rollup t WHERE t.resolution = 'DAY' AND t.bucket_start >= date_trunc('day', ?::timestamp) " +
+            "AND t.bucket_start < date_trunc('day', ?::timestamp) + INTERVAL '1 day' " +
+            "AND NOT EXISTS (SELECT 1 FROM days d WHERE d.election_id = t.election_id AND d.center_location = t.center_location " +
+            "AND d.bucket_start = t.bucket_start)";
+        jdbcTemplate.update(daySql, from, to, from, to);
+        return changed.isEmpty() ? 0 : changed.get(0);
+    }
+
+    public int deleteMinutesBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM turnout_rollup WHERE resolution = 'MINUTE' AND bucket_start < ?", cutoff);
+    }
+
+    public record MinuteCount(Long electionId, String centerLocation, LocalDateTime minuteStart, long votes) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.voteguard.repository;
+
+import com.voteguard.model.VoteReceipt;
+import com.voteguard.util.JdbcUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class VoteIdempotencyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Record the outcome of a vote under its idempotency key. Meant to run in the transaction that
+     * inserts the vote, so a key is stored if and only if its vote is.
+     */
+    public void save(String key, String requestFingerprint, VoteReceipt receipt, LocalDateTime expiresAt) {
+        String sql = "INSERT INTO vote_idempotency_keys (idempotency_key, request_fingerprint, vote_id, voted_at, center_location, expires_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.update(sql, key, requestFingerprint, receipt.voteId(), receipt.timestamp(), receipt.centerLocation(), expiresAt);
+    }
+
+    /**
+     * Like {@link #save}, but leaves an existing row for the key alone; for votes replayed from
+     * the local journal, whose key may already have been stored by another node.
+     */
+    public void saveIfAbsent(String key, String requestFingerprint, VoteReceipt receipt, LocalDateTime expiresAt) {
+        String sql = "INSERT INTO vote_idempotency_keys (idempotency_key, request_fingerprint, vote_id, voted_at, center_location, expires_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (idempotency_key) DO NOTHING";
+        jdbcTemplate.update(sql, key, requestFingerprint, receipt.voteId(), receipt.timestamp(), receipt.centerLocation(), expiresAt);
+    }
+
+    public Optional<StoredOutcome> findActive(String key) {
+        String sql = "SELECT request_fingerprint, vote_id, voted_at, center_location, expires_at FROM vote_idempotency_keys " +
+                "WHERE idempotency_key = ? AND expires_at > CURRENT_TIMESTAMP";
+        List<StoredOutcome> outcomes = jdbcTemplate.query(sql, (rs, rowNum) -> new StoredOutcome(
+                rs.getString("request_fingerprint"),
+                new VoteReceipt(rs.getLong("vote_id"), JdbcUtils.getLocalDateTime(rs, "voted_at"), rs.getString("center_location"), null),
+                JdbcUtils.getLocalDateTime(rs, "expires_at")), key);
+        return outcomes.isEmpty() ? Optional.empty() : Optional.of(outcomes.get(0));
+    }
+
+    public int deleteExpired() {
+        return jdbcTemplate.update("DELETE FROM vote_idempotency_keys WHERE expires_at <= CURRENT_TIMESTAMP");
+    }
+
+    public record StoredOutcome(String requestFingerprint, VoteReceipt receipt, LocalDateTime expiresAt) {
+    }
+}
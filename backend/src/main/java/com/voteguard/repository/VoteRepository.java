@@ -1,11 +1,13 @@
 package com.voteguard.repository;
 
 import com.voteguard.model.Candidate;
+import com.voteguard.model.JournaledVote;
 import com.voteguard.model.Vote;
 import com.voteguard.model.Voter;
 import com.voteguard.util.JdbcUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -16,8 +18,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 @RequiredArgsConstructor
@@ -122,6 +130,10 @@ public class VoteRepository {
             }
             
             System.out.println("VoteRepository.insert: Vote inserted successfully, rowsAffected=" + rowsAffected);
+        } catch (org.springframework.dao.DuplicateKeyException e) {
+            // Lost a race with a submission on another node; unique_voter_election kept the first vote
+            System.err.println("VoteRepository.insert: Duplicate vote rejected for voterId=" + voterId + ", electionId=" + electionId);
+            throw new RuntimeException(electionId != null ? "Voter has already voted in this election" : "Voter has already voted");
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             System.err.println("VoteRepository.insert: Constraint violation during insert: " + e.getMessage());
             System.err.println("VoteRepository.insert: Root cause: " + (e.getRootCause() != null ? e.getRootCause().getMessage() : "N/A"));
@@ -264,6 +276,137 @@ public class VoteRepository {
         return vote;
     }
 
+    /**
+     * Insert one voter's votes in several elections with a single statement, setting their IDs.
+     * The votes must all belong to the same voter and share its timestamp, IP address and user agent.
+     */
+    public void insertBatch(List<Vote> votes) {
+        Vote first = votes.get(0);
+        Long voterId = first.getVoter().getId();
+        LocalDateTime timestamp = first.getTimestamp() != null ? first.getTimestamp() : LocalDateTime.now();
+        Long[] electionIds = new Long[votes.size()];
+        Long[] candidateIds = new Long[votes.size()];
+        String[] centerLocations = new String[votes.size()];
+        for (int i = 0; i < votes.size(); i++) {
+            Vote vote = votes.get(i);
+            if (!voterId.equals(vote.getVoter().getId())) {
+                throw new IllegalArgumentException("Batched votes must all belong to the same voter");
+            }
+            electionIds[i] = vote.getElectionId();
+            candidateIds[i] = vote.getCandidate().getId();
+            centerLocations[i] = vote.getCenterLocation();
+        }
+
+        String sql = "INSERT INTO votes (voter_id, voter_name, candidate_id, center_location, timestamp, ip_address, user_agent, fingerprint_verified, election_id) " +
+            "SELECT ?, ?, s.candidate_id, s.center_location, ?, ?::inet, ?, true, s.election_id " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::varchar[]) AS s(election_id, candidate_id, center_location) " +
+            "RETURNING id, election_id";
+        Map<Long, Long> idsByElection = new HashMap<>();
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ps.setLong(1, voterId);
+                ps.setString(2, first.getVoterName());
+                JdbcUtils.setLocalDateTime(ps, 3, timestamp);
+                ps.setString(4, first.getIpAddress());
+                ps.setString(5, first.getUserAgent());
+                ps.setArray(6, connection.createArrayOf("bigint", electionIds));
+                ps.setArray(7, connection.createArrayOf("bigint", candidateIds));
+                ps.setArray(8, connection.createArrayOf("varchar", centerLocations));
+                return ps;
+            }, (RowCallbackHandler) rs -> idsByElection.put(rs.getLong("election_id"), rs.getLong("id")));
+        } catch (org.springframework.dao.DuplicateKeyException e) {
+            throw new RuntimeException("Voter has already voted in one of the selected elections");
+        }
+
+        for (Vote vote : votes) {
+            vote.setId(idsByElection.get(vote.getElectionId()));
+            vote.setTimestamp(timestamp);
+        }
+    }
+
+    /**
+     * Insert votes of any voters with a single statement, keeping their timestamps. Votes whose
+     * voter already has one in the election are skipped; the others get their IDs set. The list
+     * must hold at most one vote per voter and election, so every returned row maps back to
+     * exactly one vote.
+     *
+     * @return the votes that were inserted
+     */
+    public List<Vote> insertAllIgnoringDuplicates(List<Vote> votes) {
+        if (votes.isEmpty()) {
+            return List.of();
+        }
+        Set<String> ballots = new HashSet<>();
+        for (Vote vote : votes) {
+            if (!ballots.add(vote.getVoter().getId() + ":" + vote.getElectionId())) {
+                throw new IllegalArgumentException("Votes must not repeat a voter in the same election");
+            }
+        }
+        int size = votes.size();
+        Long[] voterIds = new Long[size];
+        String[] voterNames = new String[size];
+        Long[] candidateIds = new Long[size];
+        String[] centerLocations = new String[size];
+        java.sql.Timestamp[] timestamps = new java.sql.Timestamp[size];
+        String[] ipAddresses = new String[size];
+        String[] userAgents = new String[size];
+        Long[] electionIds = new Long[size];
+        for (int i = 0; i < size; i++) {
+            Vote vote = votes.get(i);
+            voterIds[i] = vote.getVoter().getId();
+            voterNames[i] = vote.getVoterName();
+            candidateIds[i] = vote.getCandidate().getId();
+            centerLocations[i] = vote.getCenterLocation();
+            timestamps[i] = java.sql.Timestamp.valueOf(vote.getTimestamp() != null ? vote.getTimestamp() : LocalDateTime.now());
+            ipAddresses[i] = vote.getIpAddress();
+            userAgents[i] = vote.getUserAgent();
+            electionIds[i] = vote.getElectionId();
+        }
+
+        String sql = "INSERT INTO votes (voter_id, voter_name, candidate_id, center_location, timestamp, ip_address, user_agent, fingerprint_verified, election_id) " +
+            "SELECT s.voter_id, s.voter_name, s.candidate_id, s.center_location, s.ts, s.ip_address::inet, s.user_agent, true, s.election_id " +
+            "FROM unnest(?::bigint[], ?::varchar[], ?::bigint[], ?::varchar[], ?::timestamp[], ?::varchar[], ?::text[], ?::bigint[]) " +
+            "AS s(voter_id, voter_name, candidate_id, center_location, ts, ip_address, user_agent, election_id) " +
+            "ON CONFLICT (voter_id, election_id) DO NOTHING RETURNING id, voter_id, election_id";
+        Map<String, Long> idsByBallot = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setArray(1, connection.createArrayOf("bigint", voterIds));
+            ps.setArray(2, connection.createArrayOf("varchar", voterNames));
+            ps.setArray(3, connection.createArrayOf("bigint", candidateIds));
+            ps.setArray(4, connection.createArrayOf("varchar", centerLocations));
+            ps.setArray(5, connection.createArrayOf("timestamp", timestamps));
+            ps.setArray(6, connection.createArrayOf("varchar", ipAddresses));
+            ps.setArray(7, connection.createArrayOf("text", userAgents));
+            ps.setArray(8, connection.createArrayOf("bigint", electionIds));
+            return ps;
+        }, (RowCallbackHandler) rs -> idsByBallot.put(rs.getLong("voter_id") + ":" + rs.getLong("election_id"), rs.getLong("id")));
+
+        List<Vote> inserted = new ArrayList<>();
+        for (Vote vote : votes) {
+            Long id = idsByBallot.get(vote.getVoter().getId() + ":" + vote.getElectionId());
+            if (id != null) {
+                vote.setId(id);
+                inserted.add(vote);
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Insert a vote replayed from the local vote journal, keeping its original timestamp.
+     *
+     * @return the new vote's id, or empty if the voter already has a vote in the election
+     */
+    public Optional<Long> insertJournaled(JournaledVote vote) {
+        String sql = "INSERT INTO votes (voter_id, voter_name, candidate_id, center_location, timestamp, ip_address, user_agent, fingerprint_verified, election_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?::inet, ?, true, ?) ON CONFLICT (voter_id, election_id) DO NOTHING RETURNING id";
+        List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, vote.voterId(), vote.voterName(), vote.candidateId(),
+            vote.centerLocation(), vote.timestamp(), vote.ipAddress(), vote.userAgent(), vote.electionId());
+        return ids.isEmpty() ? Optional.empty() : Optional.of(ids.get(0));
+    }
+
     public Optional<Vote> findById(Long id) {
         String sql = "SELECT * FROM votes WHERE id = ?";
         List<Vote> votes = jdbcTemplate.query(sql, voteRowMapper, id);
@@ -282,6 +425,14 @@ public class VoteRepository {
         return count != null && count > 0;
     }
     
+    /**
+     * Elections the voter has votes in.
+     */
+    public List<Long> findElectionIdsByVoterId(Long voterId) {
+        String sql = "SELECT DISTINCT election_id FROM votes WHERE voter_id = ? AND election_id IS NOT NULL";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getLong("election_id"), voterId);
+    }
+
     public boolean existsByVoterIdAndElectionId(Long voterId, Long electionId) {
         if (electionId == null) {
             // For non-election-specific votes, check if voter has any votes
@@ -320,6 +471,108 @@ public class VoteRepository {
         return count != null ? count : 0;
     }
 
+    /**
+     * Stream the voter_id of every vote in an election, e.g. to build an in-memory index.
+     */
+    public void streamVoterIdsForElection(Long electionId, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("SELECT voter_id FROM votes WHERE election_id = ?");
+            ps.setLong(1, electionId);
+            ps.setFetchSize(10_000);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Stream (id, voter_id, election_id) of election votes with an id above the given one.
+     */
+    public void streamElectionVotesAfter(long afterId, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "SELECT id, voter_id, election_id FROM votes WHERE id > ? AND election_id IS NOT NULL ORDER BY id");
+            ps.setLong(1, afterId);
+            ps.setFetchSize(10_000);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Stream the vote count and lowest vote id of every (election, center, candidate) group, for
+     * one center of an election, a whole election or, with electionId null, every election. A null
+     * centerLocation means all centers of the election.
+     */
+    public void streamCenterTallies(Long electionId, String centerLocation, boolean votesWithoutCenter, RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT election_id, center_location, candidate_id, COUNT(*) AS votes, MIN(id) AS first_vote_id " +
+            "FROM votes WHERE election_id IS NOT NULL");
+        if (electionId != null) {
+            sql.append(" AND election_id = ?");
+        }
+        if (votesWithoutCenter) {
+            sql.append(" AND center_location IS NULL");
+        } else if (centerLocation != null) {
+            sql.append(" AND center_location = ?");
+        }
+        sql.append(" GROUP BY election_id, center_location, candidate_id");
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString());
+            int index = 1;
+            if (electionId != null) {
+                ps.setLong(index++, electionId);
+            }
+            if (!votesWithoutCenter && centerLocation != null) {
+                ps.setString(index, centerLocation);
+            }
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Which of the given vote ids exist, as seen by the current transaction.
+     */
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> existing = new HashSet<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("SELECT id FROM votes WHERE id = ANY(?)");
+            ps.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> existing.add(rs.getLong("id")));
+        return existing;
+    }
+
+    /**
+     * Lowest and highest vote id of an election, or null if it has no votes.
+     */
+    public long[] findIdBounds(Long electionId) {
+        List<long[]> bounds = jdbcTemplate.query("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM votes WHERE election_id = ? HAVING COUNT(*) > 0",
+                (rs, rowNum) -> new long[]{rs.getLong("min_id"), rs.getLong("max_id")}, electionId);
+        return bounds.isEmpty() ? null : bounds.get(0);
+    }
+
+    /**
+     * Stream (id, candidate_id, center_location) of an election's votes with ids in [fromId, toId]
+     * through a server-side cursor; must run inside a transaction for the fetch size to apply.
+     */
+    public void streamElectionVotesInRange(Long electionId, long fromId, long toId, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT id, candidate_id, center_location FROM votes WHERE id BETWEEN ? AND ? AND election_id = ?");
+            ps.setLong(1, fromId);
+            ps.setLong(2, toId);
+            ps.setLong(3, electionId);
+            ps.setFetchSize(10_000);
+            return ps;
+        }, handler);
+    }
+
+    public long findMaxId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM votes", Long.class);
+        return maxId != null ? maxId : 0;
+    }
+
     public long countVotesBetween(LocalDateTime startTime, LocalDateTime endTime) {
         String sql = "SELECT COUNT(*) FROM votes WHERE timestamp >= ? AND timestamp <= ?";
         Long count = jdbcTemplate.queryForObject(sql, Long.class, startTime, endTime);
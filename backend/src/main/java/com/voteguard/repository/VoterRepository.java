@@ -1,20 +1,34 @@
 package com.voteguard.repository;
 
 import com.voteguard.model.Voter;
+import com.voteguard.model.VoterImport;
+import com.voteguard.model.VoterPatch;
+import com.voteguard.model.VoterPatchResult;
 import com.voteguard.util.JdbcUtils;
+import com.voteguard.util.VoterIds;
 import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.sql.Array;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,11 +38,26 @@ public class VoterRepository {
 
     private final JdbcTemplate jdbcTemplate;
 
+    // Eligible elections come from voter_election_eligibility as a bigint[] column
+    private static final String SELECT_VOTERS = "SELECT v.*, ARRAY(SELECT e.election_id FROM voter_election_eligibility e " +
+            "WHERE e.voter_id = v.id ORDER BY e.election_id) AS eligible_election_ids FROM voters v";
+
+    // Column order shared by the import file and the first columns of the export
+    private static final String EXPORT_SQL = "COPY (SELECT voter_id, full_name, email, extra_field, role, is_active, has_voted, " +
+            "created_at, updated_at FROM voters ORDER BY id) TO STDOUT WITH (FORMAT csv, HEADER)";
+
+    private static final int MAX_REPORTED_CONFLICTS = 100;
+
     private final RowMapper<Voter> voterRowMapper = new RowMapper<Voter>() {
         @Override
         public Voter mapRow(ResultSet rs, int rowNum) throws SQLException {
-            // Parse eligible_elections JSONB column
-            List<String> eligibleElections = parseEligibleElections(rs.getString("eligible_elections"));
+            List<String> eligibleElections = new ArrayList<>();
+            Array electionIds = rs.getArray("eligible_election_ids");
+            if (electionIds != null) {
+                for (Long electionId : (Long[]) electionIds.getArray()) {
+                    eligibleElections.add(String.valueOf(electionId));
+                }
+            }
             
             Voter voter = Voter.builder()
                     .id(rs.getLong("id"))
@@ -43,16 +72,21 @@ public class VoterRepository {
                     .eligibleElections(eligibleElections)
                     .createdAt(JdbcUtils.getLocalDateTime(rs, "created_at"))
                     .updatedAt(JdbcUtils.getLocalDateTime(rs, "updated_at"))
+                    .version(rs.getLong("version"))
                     .build();
             return voter;
         }
     };
 
+    private final RowMapper<VoterPatchResult> patchResultMapper = (rs, rowNum) -> new VoterPatchResult(
+            rs.getLong("id"), rs.getString("previous_voter_id"), rs.getString("voter_id"), rs.getLong("version"));
+
     public Voter save(Voter voter) {
+        voter.setVoterId(VoterIds.canonical(voter.getVoterId()));
         if (voter.getId() == null) {
             return insert(voter);
         } else {
-            return update(voter);
+            return update(voter, null).orElse(voter);
         }
     }
 
@@ -79,20 +113,25 @@ public class VoterRepository {
 
         Long id = keyHolder.getKey().longValue();
         voter.setId(id);
+        voter.setVersion(0L);
         voter.setCreatedAt(now);
         voter.setUpdatedAt(now);
         return voter;
     }
 
-    private Voter update(Voter voter) {
-        String sql = "UPDATE voters SET voter_id = ?, full_name = ?, email = ?, fingerprint_hash = ?, extra_field = ?, has_voted = ?, is_active = ?, role = ?, eligible_elections = ?::jsonb, updated_at = ? WHERE id = ?";
+    /**
+     * Overwrite every column of an existing voter. If expectedVersion is given the row is only
+     * updated while its version still matches.
+     *
+     * @return the saved voter, or empty if there is no voter with that id (and version)
+     */
+    public Optional<Voter> update(Voter voter, Long expectedVersion) {
+        voter.setVoterId(VoterIds.canonical(voter.getVoterId()));
+        // Eligibility is maintained separately through EligibilityService
+        StringBuilder sql = new StringBuilder("UPDATE voters SET voter_id = ?, full_name = ?, email = ?, fingerprint_hash = ?, extra_field = ?, has_voted = ?, is_active = ?, role = ?, updated_at = ?, version = version + 1 WHERE id = ?");
         
         LocalDateTime now = LocalDateTime.now();
-        
-        // Convert eligibleElections list to JSONB string
-        String eligibleElectionsJson = convertElectionsToJson(voter.getEligibleElections());
-        
-        jdbcTemplate.update(sql, 
+        List<Object> params = new ArrayList<>(Arrays.asList(
                 voter.getVoterId(), 
                 voter.getFullName(), 
                 voter.getEmail(), 
@@ -101,98 +140,134 @@ public class VoterRepository {
                 voter.getHasVoted(), 
                 voter.getIsActive(), 
                 voter.getRole().name(), 
-                eligibleElectionsJson,
                 now, 
-                voter.getId());
+                voter.getId()));
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            params.add(expectedVersion);
+        }
+        sql.append(" RETURNING version");
         
+        List<Long> versions = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> rs.getLong("version"), params.toArray());
+        if (versions.isEmpty()) {
+            return Optional.empty();
+        }
         voter.setUpdatedAt(now);
-        return voter;
+        voter.setVersion(versions.get(0));
+        return Optional.of(voter);
     }
-    
-    private String convertElectionsToJson(List<String> electionIds) {
-        if (electionIds == null || electionIds.isEmpty()) {
-            return "[]";
+
+    /**
+     * Apply a patch to one voter with a single UPDATE of only the columns it sets.
+     * If expectedVersion is given the row is only updated while its version still matches.
+     *
+     * @return the change, or empty if there is no voter with that id (and version)
+     */
+    public Optional<VoterPatchResult> patch(Long id, VoterPatch patch, Long expectedVersion) {
+        List<Object> params = new ArrayList<>();
+        String assignments = assignments(patch, params);
+        // The subquery locks the row and exposes its voter ID from before the update
+        StringBuilder sql = new StringBuilder("UPDATE voters v SET ").append(assignments)
+                .append(" FROM (SELECT id, voter_id FROM voters WHERE id = ? FOR UPDATE) old WHERE v.id = old.id");
+        params.add(id);
+        if (expectedVersion != null) {
+            sql.append(" AND v.version = ?");
+            params.add(expectedVersion);
         }
-        
-        StringBuilder json = new StringBuilder("[");
-        for (int i = 0; i < electionIds.size(); i++) {
-            json.append("\"").append(electionIds.get(i)).append("\"");
-            if (i < electionIds.size() - 1) {
-                json.append(",");
+        sql.append(" RETURNING v.id, old.voter_id AS previous_voter_id, v.voter_id, v.version");
+        List<VoterPatchResult> results = jdbcTemplate.query(sql.toString(), patchResultMapper, params.toArray());
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    /**
+     * Apply the same patch to every voter with one of the given voter IDs, in one statement.
+     *
+     * @return the voters that were changed; unknown voter IDs are ignored
+     */
+    public List<VoterPatchResult> patchAll(Collection<String> voterIds, VoterPatch patch) {
+        List<Object> params = new ArrayList<>();
+        String assignments = assignments(patch, params);
+        String sql = "UPDATE voters v SET " + assignments + " WHERE v.voter_id = ANY(?) " +
+                "RETURNING v.id, v.voter_id AS previous_voter_id, v.voter_id, v.version";
+        String[] canonicalIds = voterIds.stream().map(VoterIds::canonical).distinct().toArray(String[]::new);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
             }
-        }
-        json.append("]");
-        return json.toString();
+            ps.setArray(params.size() + 1, connection.createArrayOf("varchar", canonicalIds));
+            return ps;
+        }, patchResultMapper);
     }
-    
-    private List<String> parseEligibleElections(String jsonString) {
-        if (jsonString == null || jsonString.trim().isEmpty() || jsonString.equals("[]")) {
-            return new ArrayList<>();
+
+    private static String assignments(VoterPatch patch, List<Object> params) {
+        List<String> assignments = new ArrayList<>();
+        if (patch.getVoterId() != null) {
+            assignments.add("voter_id = ?");
+            params.add(VoterIds.canonical(patch.getVoterId()));
         }
-        
-        try {
-            String cleaned = jsonString.trim();
-            if (cleaned.startsWith("[")) {
-                cleaned = cleaned.substring(1);
-            }
-            if (cleaned.endsWith("]")) {
-                cleaned = cleaned.substring(0, cleaned.length() - 1);
-            }
-            
-            if (cleaned.trim().isEmpty()) {
-                return new ArrayList<>();
-            }
-            
-            String[] parts = cleaned.split(",");
-            List<String> result = new ArrayList<>();
-            for (String part : parts) {
-                String cleanedPart = part.trim();
-                if (cleanedPart.startsWith("\"") && cleanedPart.endsWith("\"")) {
-                    cleanedPart = cleanedPart.substring(1, cleanedPart.length() - 1);
-                }
-                if (!cleanedPart.isEmpty()) {
-                    result.add(cleanedPart);
-                }
-            }
-            return result;
-        } catch (Exception e) {
-            return new ArrayList<>();
+        if (patch.getFullName() != null) {
+            assignments.add("full_name = ?");
+            params.add(patch.getFullName());
+        }
+        if (patch.getEmail() != null) {
+            assignments.add("email = ?");
+            params.add(patch.getEmail());
+        }
+        if (patch.getExtraField() != null) {
+            assignments.add("extra_field = ?");
+            params.add(patch.getExtraField());
+        }
+        if (patch.getIsActive() != null) {
+            assignments.add("is_active = ?");
+            params.add(patch.getIsActive());
         }
+        if (patch.getHasVoted() != null) {
+            assignments.add("has_voted = ?");
+            params.add(patch.getHasVoted());
+        }
+        if (patch.getRole() != null) {
+            assignments.add("role = ?");
+            params.add(patch.getRole().name());
+        }
+        assignments.add("updated_at = CURRENT_TIMESTAMP");
+        assignments.add("version = v.version + 1");
+        return String.join(", ", assignments);
     }
 
     public Optional<Voter> findById(Long id) {
-        String sql = "SELECT * FROM voters WHERE id = ?";
+        String sql = SELECT_VOTERS + " WHERE id = ?";
         List<Voter> voters = jdbcTemplate.query(sql, voterRowMapper, id);
         return voters.isEmpty() ? Optional.empty() : Optional.of(voters.get(0));
     }
 
     public Optional<Voter> findByVoterId(String voterId) {
-        String sql = "SELECT * FROM voters WHERE voter_id = ?";
-        List<Voter> voters = jdbcTemplate.query(sql, voterRowMapper, voterId);
+        String sql = SELECT_VOTERS + " WHERE voter_id = ?";
+        List<Voter> voters = jdbcTemplate.query(sql, voterRowMapper, VoterIds.canonical(voterId));
         return voters.isEmpty() ? Optional.empty() : Optional.of(voters.get(0));
     }
 
     public Optional<Voter> findByEmail(String email) {
-        String sql = "SELECT * FROM voters WHERE email = ?";
+        String sql = SELECT_VOTERS + " WHERE email = ?";
         List<Voter> voters = jdbcTemplate.query(sql, voterRowMapper, email);
         return voters.isEmpty() ? Optional.empty() : Optional.of(voters.get(0));
     }
 
     public Optional<Voter> findByFingerprintHash(String fingerprintHash) {
-        String sql = "SELECT * FROM voters WHERE fingerprint_hash = ?";
+        String sql = SELECT_VOTERS + " WHERE fingerprint_hash = ?";
         List<Voter> voters = jdbcTemplate.query(sql, voterRowMapper, fingerprintHash);
         return voters.isEmpty() ? Optional.empty() : Optional.of(voters.get(0));
     }
 
     public Optional<Voter> findByVoterIdAndExtraField(String voterId, String extraField) {
-        String sql = "SELECT * FROM voters WHERE UPPER(voter_id) = UPPER(?) AND extra_field = ?";
-        List<Voter> voters = jdbcTemplate.query(sql, voterRowMapper, voterId, extraField);
+        String sql = SELECT_VOTERS + " WHERE voter_id = ? AND extra_field = ?";
+        List<Voter> voters = jdbcTemplate.query(sql, voterRowMapper, VoterIds.canonical(voterId), extraField);
         return voters.isEmpty() ? Optional.empty() : Optional.of(voters.get(0));
     }
 
     public boolean existsByVoterId(String voterId) {
         String sql = "SELECT COUNT(*) FROM voters WHERE voter_id = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, voterId);
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, VoterIds.canonical(voterId));
         return count != null && count > 0;
     }
 
@@ -220,9 +295,121 @@ public class VoterRepository {
         return count != null ? count : 0;
     }
 
+    /**
+     * Stream every voter_id, e.g. to build an in-memory index without loading whole voter rows.
+     */
+    public void streamVoterIds(RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("SELECT voter_id FROM voters");
+            ps.setFetchSize(10_000);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Load voters from CSV rows (voter_id, full_name, email, extra_field, role; no header) that
+     * have already been validated and canonicalized. The rows are COPYed into a temporary table,
+     * checked against the existing roll and inserted with one INSERT ... SELECT that also makes
+     * each new voter eligible for the given elections, all in one transaction.
+     * Voter IDs or emails that are already registered are reported as conflicts; unless
+     * skipExisting is set they abort the import before anything is inserted.
+     */
+    public VoterImport importVoters(Reader rows, Collection<Long> electionIds, boolean skipExisting) {
+        return jdbcTemplate.execute((ConnectionCallback<VoterImport>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                VoterImport result = importVoters(connection, rows, electionIds, skipExisting);
+                if (result.conflicts().isEmpty() || skipExisting) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    private VoterImport importVoters(Connection connection, Reader rows, Collection<Long> electionIds,
+                                     boolean skipExisting) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE voter_import (voter_id VARCHAR(50), full_name VARCHAR(100), " +
+                    "email VARCHAR(100), extra_field VARCHAR(100), role VARCHAR(20)) ON COMMIT DROP");
+        }
+        long stagedRows;
+        try {
+            stagedRows = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY voter_import FROM STDIN WITH (FORMAT csv)", rows);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read staged voter file: " + e.getMessage(), e);
+        }
+
+        List<String> conflicts = new ArrayList<>();
+        String conflictSql = "SELECT 'voter ID ' || i.voter_id FROM voter_import i JOIN voters v ON v.voter_id = i.voter_id " +
+                "UNION ALL SELECT 'email ' || i.email FROM voter_import i JOIN voters v ON v.email = i.email LIMIT " + MAX_REPORTED_CONFLICTS;
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(conflictSql)) {
+            while (rs.next()) {
+                conflicts.add(rs.getString(1) + " is already registered");
+            }
+        }
+        if (!conflicts.isEmpty() && !skipExisting) {
+            return new VoterImport(stagedRows, List.of(), conflicts);
+        }
+
+        // ON CONFLICT also covers voters registered concurrently since the check above
+        String insertSql = "WITH inserted AS (" +
+                "INSERT INTO voters (voter_id, full_name, email, extra_field, has_voted, is_active, role) " +
+                "SELECT voter_id, full_name, email, extra_field, false, true, role FROM voter_import " +
+                "ON CONFLICT DO NOTHING RETURNING id), " +
+                "granted AS (INSERT INTO voter_election_eligibility (voter_id, election_id) " +
+                "SELECT i.id, e.election_id FROM inserted i CROSS JOIN unnest(?::bigint[]) AS e(election_id) " +
+                "ON CONFLICT DO NOTHING) " +
+                "SELECT id FROM inserted";
+        List<Long> insertedIds = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(insertSql)) {
+            ps.setArray(1, connection.createArrayOf("bigint", electionIds.toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    insertedIds.add(rs.getLong(1));
+                }
+            }
+        }
+        return new VoterImport(stagedRows, insertedIds, conflicts);
+    }
+
+    /**
+     * Stream the whole roll as CSV with a header row, straight from COPY TO STDOUT.
+     * Fingerprint hashes are not exported.
+     *
+     * @return number of voters written
+     */
+    public long exportCsv(OutputStream out) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(EXPORT_SQL, out);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write voter export: " + e.getMessage(), e);
+            }
+        });
+    }
+
     public List<Voter> findAll() {
-        String sql = "SELECT * FROM voters";
-        return jdbcTemplate.query(sql, voterRowMapper);
+        return jdbcTemplate.query(SELECT_VOTERS, voterRowMapper);
+    }
+
+    public List<Voter> findAllOrderByCreatedAtDesc(int limit, int offset) {
+        String sql = SELECT_VOTERS + " ORDER BY v.created_at DESC LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, voterRowMapper, limit, offset);
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM voters", Long.class);
+        return count != null ? count : 0;
     }
 
     public void deleteById(Long id) {
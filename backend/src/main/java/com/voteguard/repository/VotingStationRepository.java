@@ -1,5 +1,6 @@
 package com.voteguard.repository;
 
+import com.voteguard.model.StationSyncResult;
 import com.voteguard.model.VotingStation;
 import com.voteguard.util.JdbcUtils;
 import lombok.RequiredArgsConstructor;
@@ -13,9 +14,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 @RequiredArgsConstructor
@@ -31,6 +36,9 @@ public class VotingStationRepository {
                     .stationCode(rs.getString("station_code"))
                     .isLocked(rs.getBoolean("is_locked"))
                     .location(rs.getString("location"))
+                    .syncSecret(rs.getString("sync_secret"))
+                    .lastSyncedSequence(rs.getLong("last_synced_sequence"))
+                    .lastSyncedAt(JdbcUtils.getLocalDateTime(rs, "last_synced_at"))
                     .createdAt(JdbcUtils.getLocalDateTime(rs, "created_at"))
                     .updatedAt(JdbcUtils.getLocalDateTime(rs, "updated_at"))
                     .build();
@@ -116,6 +124,47 @@ public class VotingStationRepository {
         return jdbcTemplate.query(sql, votingStationRowMapper);
     }
 
+    /**
+     * Load a station and lock its row until the transaction ends, so uploads from one station are
+     * applied one at a time.
+     */
+    public Optional<VotingStation> findByStationCodeForUpdate(String stationCode) {
+        String sql = "SELECT * FROM voting_stations WHERE station_code = ? FOR UPDATE";
+        List<VotingStation> stations = jdbcTemplate.query(sql, votingStationRowMapper, stationCode);
+        return stations.isEmpty() ? Optional.empty() : Optional.of(stations.get(0));
+    }
+
+    public boolean updateSyncSecret(String stationCode, String syncSecret) {
+        String sql = "UPDATE voting_stations SET sync_secret = ?, updated_at = ? WHERE station_code = ?";
+        return jdbcTemplate.update(sql, syncSecret, LocalDateTime.now(), stationCode) > 0;
+    }
+
+    public void updateLastSyncedSequence(String stationCode, long sequence) {
+        String sql = "UPDATE voting_stations SET last_synced_sequence = GREATEST(last_synced_sequence, ?), last_synced_at = ? WHERE station_code = ?";
+        jdbcTemplate.update(sql, sequence, LocalDateTime.now(), stationCode);
+    }
+
+    /**
+     * Sequences processed after the given one; together with last_synced_sequence these are the
+     * entries a re-upload must skip.
+     */
+    public Set<Long> findSyncedSequencesAfter(String stationCode, long sequence) {
+        String sql = "SELECT sequence FROM station_sync_entries WHERE station_code = ? AND sequence > ?";
+        return new HashSet<>(jdbcTemplate.query(sql, (rs, rowNum) -> rs.getLong("sequence"), stationCode, sequence));
+    }
+
+    public void saveSyncEntries(String stationCode, List<StationSyncResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO station_sync_entries (station_code, sequence, status, vote_id) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+        List<Object[]> batch = new ArrayList<>();
+        for (StationSyncResult result : results) {
+            batch.add(new Object[] { stationCode, result.sequence(), result.status().name(), result.voteId() });
+        }
+        jdbcTemplate.batchUpdate(sql, batch, new int[] { Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.BIGINT });
+    }
+
     public void deleteById(Long id) {
         String sql = "DELETE FROM voting_stations WHERE id = ?";
         jdbcTemplate.update(sql, id);
@@ -0,0 +1,288 @@
+package com.voteguard.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Immutable in-memory text index over a list of items, each with one or more searchable fields.
+ * Matching is case- and accent-insensitive and supports, from best to worst rank:
+ * exact field match, field prefix, every query word matching a field word by prefix or with a
+ * small number of typos, and substring anywhere in a field.
+ * <ul>
+ *   <li>Word prefixes are found by binary search over the sorted vocabulary (a flattened trie).</li>
+ *   <li>Substrings and typo candidates are narrowed with trigram posting lists before verifying.</li>
+ * </ul>
+ * Build a new index when the items change; searching is thread-safe.
+ */
+public class TextIndex<T> {
+
+    private static final int EXACT = 1000;
+    private static final int FIELD_PREFIX = 800;
+    private static final int WORDS = 400;
+    private static final int SUBSTRING = 200;
+
+    private final List<T> items;
+    private final List<Field> fields = new ArrayList<>();
+    private final String[] vocabulary; // sorted distinct words
+    private final int[][] fieldsByWord; // parallel to vocabulary
+    private final Map<String, int[]> wordsByTrigram;
+    private final Map<String, int[]> fieldsByTrigram;
+
+    public TextIndex(List<T> items, Function<T, List<String>> fieldExtractor) {
+        this.items = List.copyOf(items);
+
+        Map<String, Set<Integer>> fieldIdsByWord = new HashMap<>();
+        Map<String, Set<Integer>> fieldIdsByTrigram = new HashMap<>();
+        for (int itemIndex = 0; itemIndex < this.items.size(); itemIndex++) {
+            for (String text : fieldExtractor.apply(this.items.get(itemIndex))) {
+                String normalized = normalize(text);
+                if (normalized.isEmpty()) {
+                    continue;
+                }
+                int fieldId = fields.size();
+                fields.add(new Field(itemIndex, normalized, normalized.split(" ")));
+                for (String word : fields.get(fieldId).words) {
+                    fieldIdsByWord.computeIfAbsent(word, w -> new LinkedHashSet<>()).add(fieldId);
+                }
+                for (String trigram : trigrams(normalized)) {
+                    fieldIdsByTrigram.computeIfAbsent(trigram, t -> new LinkedHashSet<>()).add(fieldId);
+                }
+            }
+        }
+
+        vocabulary = fieldIdsByWord.keySet().stream().sorted().toArray(String[]::new);
+        fieldsByWord = new int[vocabulary.length][];
+        Map<String, Set<Integer>> wordIdsByTrigram = new HashMap<>();
+        for (int wordId = 0; wordId < vocabulary.length; wordId++) {
+            fieldsByWord[wordId] = toArray(fieldIdsByWord.get(vocabulary[wordId]));
+            for (String trigram : trigrams(padded(vocabulary[wordId]))) {
+                wordIdsByTrigram.computeIfAbsent(trigram, t -> new LinkedHashSet<>()).add(wordId);
+            }
+        }
+        wordsByTrigram = toPostings(wordIdsByTrigram);
+        fieldsByTrigram = toPostings(fieldIdsByTrigram);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Matching items, best first. Ties go to the shorter field, then to the original item order.
+     */
+    public List<T> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int[] scores = new int[fields.size()];
+        scoreWords(normalizedQuery.split(" "), scores);
+        scoreSubstring(normalizedQuery, scores);
+
+        // Best field per item
+        Map<Integer, Integer> bestFieldByItem = new HashMap<>();
+        for (int fieldId = 0; fieldId < scores.length; fieldId++) {
+            if (scores[fieldId] == 0) {
+                continue;
+            }
+            if (normalizedQuery.equals(fields.get(fieldId).text)) {
+                scores[fieldId] = EXACT;
+            } else if (fields.get(fieldId).text.startsWith(normalizedQuery)) {
+                scores[fieldId] = Math.max(scores[fieldId], FIELD_PREFIX);
+            }
+            int item = fields.get(fieldId).item;
+            Integer best = bestFieldByItem.get(item);
+            if (best == null || isBetter(fieldId, best, scores)) {
+                bestFieldByItem.put(item, fieldId);
+            }
+        }
+
+        return bestFieldByItem.values().stream()
+                .sorted((a, b) -> isBetter(a, b, scores) ? -1 : isBetter(b, a, scores) ? 1 : 0)
+                .limit(limit)
+                .map(fieldId -> items.get(fields.get(fieldId).item))
+                .toList();
+    }
+
+    private boolean isBetter(int fieldId, int otherFieldId, int[] scores) {
+        if (scores[fieldId] != scores[otherFieldId]) {
+            return scores[fieldId] > scores[otherFieldId];
+        }
+        int length = fields.get(fieldId).text.length();
+        int otherLength = fields.get(otherFieldId).text.length();
+        if (length != otherLength) {
+            return length < otherLength;
+        }
+        return fields.get(fieldId).item < fields.get(otherFieldId).item;
+    }
+
+    /**
+     * Fields in which every query word matches some field word. Each query word scores by its best
+     * match: the same word 100, a prefix of a word 70, a word within the typo allowance 40 less 10
+     * per edit. The field scores WORDS plus the average.
+     */
+    private void scoreWords(String[] queryWords, int[] scores) {
+        int[] totals = null;
+        for (String queryWord : queryWords) {
+            int[] wordScores = new int[fields.size()];
+            matchWords(queryWord, wordScores);
+            if (totals == null) {
+                totals = wordScores;
+            } else {
+                for (int fieldId = 0; fieldId < totals.length; fieldId++) {
+                    boolean allMatched = totals[fieldId] > 0 && wordScores[fieldId] > 0;
+                    totals[fieldId] = allMatched ? totals[fieldId] + wordScores[fieldId] : 0;
+                }
+            }
+        }
+        for (int fieldId = 0; fieldId < scores.length; fieldId++) {
+            if (totals[fieldId] > 0) {
+                scores[fieldId] = Math.max(scores[fieldId], WORDS + totals[fieldId] / queryWords.length);
+            }
+        }
+    }
+
+    private void matchWords(String queryWord, int[] wordScores) {
+        // Prefix range in the sorted vocabulary
+        int from = lowerBound(queryWord);
+        for (int wordId = from; wordId < vocabulary.length && vocabulary[wordId].startsWith(queryWord); wordId++) {
+            int score = vocabulary[wordId].length() == queryWord.length() ? 100 : 70;
+            credit(fieldsByWord[wordId], score, wordScores);
+        }
+
+        int maxEdits = maxEdits(queryWord.length());
+        if (maxEdits == 0) {
+            return;
+        }
+        Set<Integer> candidates = new HashSet<>();
+        for (String trigram : trigrams(padded(queryWord))) {
+            for (int wordId : wordsByTrigram.getOrDefault(trigram, new int[0])) {
+                candidates.add(wordId);
+            }
+        }
+        for (int wordId : candidates) {
+            String word = vocabulary[wordId];
+            if (Math.abs(word.length() - queryWord.length()) > maxEdits || word.startsWith(queryWord)) {
+                continue;
+            }
+            int edits = editDistance(queryWord, word, maxEdits);
+            if (edits <= maxEdits) {
+                credit(fieldsByWord[wordId], 40 - 10 * edits, wordScores);
+            }
+        }
+    }
+
+    private void scoreSubstring(String query, int[] scores) {
+        List<String> queryTrigrams = new ArrayList<>(trigrams(query));
+        int[] candidates;
+        if (query.length() < 3 || queryTrigrams.isEmpty()) {
+            candidates = null; // too short to narrow down; check every field
+        } else {
+            // Start from the rarest trigram
+            queryTrigrams.sort(Comparator.comparingInt(t -> fieldsByTrigram.getOrDefault(t, new int[0]).length));
+            candidates = fieldsByTrigram.getOrDefault(queryTrigrams.get(0), new int[0]);
+        }
+        int count = candidates == null ? fields.size() : candidates.length;
+        for (int i = 0; i < count; i++) {
+            int fieldId = candidates == null ? i : candidates[i];
+            if (fields.get(fieldId).text.contains(query)) {
+                scores[fieldId] = Math.max(scores[fieldId], SUBSTRING);
+            }
+        }
+    }
+
+    private static void credit(int[] fieldIds, int score, int[] wordScores) {
+        for (int fieldId : fieldIds) {
+            wordScores[fieldId] = Math.max(wordScores[fieldId], score);
+        }
+    }
+
+    private int lowerBound(String prefix) {
+        int index = Arrays.binarySearch(vocabulary, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int maxEdits(int length) {
+        return length < 4 ? 0 : length < 8 ? 1 : 2;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions), or
+     * {@code maxEdits + 1} once it is known to exceed {@code maxEdits}.
+     */
+    static int editDistance(String a, String b, int maxEdits) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previous2[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Lower case, accents removed, anything but letters and digits collapsed to single spaces.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return decomposed.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    // Padding gives short words edge trigrams, so a word with one typo still shares one with the original
+    private static String padded(String word) {
+        return "$" + word + "$";
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static Map<String, int[]> toPostings(Map<String, Set<Integer>> postings) {
+        Map<String, int[]> result = new HashMap<>(postings.size() * 2);
+        postings.forEach((key, ids) -> result.put(key, toArray(ids)));
+        return result;
+    }
+
+    private static int[] toArray(Set<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private record Field(int item, String text, String[] words) {
+    }
+}
@@ -3,13 +3,14 @@ package com.voteguard.security;
 import com.voteguard.model.AdminUser;
 import com.voteguard.service.AdminService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Optional;
 
 @Service
@@ -35,7 +36,7 @@ public class AdminUserDetailsService implements UserDetailsService {
         return User.builder()
             .username(admin.getAdminId())
             .password("") // Password not used for admin authentication
-            .authorities(new ArrayList<>()) // Add roles/authorities if needed
+            .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN")))
             .accountLocked(!admin.isActive())
             .build();
     }
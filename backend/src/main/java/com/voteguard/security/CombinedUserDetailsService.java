@@ -1,7 +1,7 @@
 package com.voteguard.security;
 
+import com.voteguard.cache.VoterDirectory;
 import com.voteguard.model.Voter;
-import com.voteguard.repository.VoterRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
@@ -16,14 +16,14 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class CombinedUserDetailsService implements UserDetailsService {
 
-    private final VoterRepository voterRepository;
+    private final VoterDirectory voterDirectory;
     private final AdminUserDetailsService adminUserDetailsService;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         // First try to load as a voter (by voter_id)
         try {
-            Voter voter = voterRepository.findByVoterId(username)
+            Voter voter = voterDirectory.findByVoterId(username)
                 .orElse(null);
             
             if (voter != null) {
@@ -0,0 +1,170 @@
+package com.voteguard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voteguard.cache.ElectionCatalog;
+import com.voteguard.event.CandidateChangedEvent;
+import com.voteguard.event.ElectionChangedEvent;
+import com.voteguard.event.ElectionStatusChangedEvent;
+import com.voteguard.model.BallotBundle;
+import com.voteguard.model.Candidate;
+import com.voteguard.model.Election;
+import com.voteguard.model.ElectionStatus;
+import com.voteguard.model.ImageVariant;
+import com.voteguard.model.MediaKind;
+import com.voteguard.model.StoredImage;
+import com.voteguard.repository.CandidateRepository;
+import com.voteguard.repository.MediaRepository;
+import com.voteguard.util.HashUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the ballot bundle served by {@code /api/ballot/{electionCode}}. Bundles are serialized once
+ * and kept until an election or candidate change event invalidates them. Candidate changes on
+ * other nodes arrive as relayed events; election changes there move the {@link ElectionCatalog}
+ * to a new generation, which bundles built from an older one are not served past.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BallotService {
+
+    private static final ImageVariant BALLOT_IMAGE_SIZE = ImageVariant.BALLOT;
+
+    private final ElectionCatalog electionCatalog;
+    private final CandidateRepository candidateRepository;
+    private final MediaRepository mediaRepository;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, CachedBundle> bundles = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public Optional<BallotBundle> getBundle(String electionCode) {
+        String code = electionCode.trim().toUpperCase();
+        // Elections changed on other nodes only show up as a new catalog generation
+        long catalogGeneration = electionCatalog.getGeneration();
+        CachedBundle cached = bundles.get(code);
+        if (cached != null && cached.catalogGeneration() == catalogGeneration) {
+            return Optional.of(cached.bundle());
+        }
+
+        long buildGeneration = generation.get();
+        Optional<BallotBundle> built = electionCatalog.findActiveByCode(code).map(this::build);
+        // Only keep the bundle if nothing changed while it was being built
+        if (generation.get() == buildGeneration) {
+            if (built.isPresent()) {
+                bundles.put(code, new CachedBundle(catalogGeneration, built.get()));
+            } else {
+                bundles.remove(code);
+            }
+        }
+        return built;
+    }
+
+    @EventListener
+    public void onElectionChanged(ElectionChangedEvent event) {
+        invalidate(event.electionId());
+    }
+
+    /**
+     * Build the bundle as soon as an election opens so the first voters don't pay for it.
+     */
+    @EventListener
+    public void onElectionStatusChanged(ElectionStatusChangedEvent event) {
+        if (event.newStatus() != ElectionStatus.ACTIVE) {
+            return;
+        }
+        try {
+            electionCatalog.findById(event.electionId()).ifPresent(election -> getBundle(election.getElectionCode()));
+        } catch (Exception e) {
+            log.warn("Failed to pre-build ballot for election {}: {}", event.electionId(), e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onCandidateChanged(CandidateChangedEvent event) {
+        invalidate(event.electionId());
+    }
+
+    private void invalidate(Long electionId) {
+        generation.incrementAndGet();
+        if (electionId == null) {
+            bundles.clear();
+        } else {
+            bundles.values().removeIf(cached -> electionId.equals(cached.bundle().getElectionId()));
+        }
+    }
+
+    private BallotBundle build(Election election) {
+        List<Candidate> candidates = candidateRepository.findByElectionIdAndIsActiveTrueOrderByCandidateNumberAsc(election.getId());
+        Map<Long, StoredImage> photos = mediaRepository.findMetadataByElection(MediaKind.CANDIDATE_PHOTO, election.getId(), BALLOT_IMAGE_SIZE);
+        Map<Long, StoredImage> logos = mediaRepository.findMetadataByElection(MediaKind.PARTY_LOGO, election.getId(), BALLOT_IMAGE_SIZE);
+
+        Map<String, Object> electionData = new LinkedHashMap<>();
+        electionData.put("id", election.getId());
+        electionData.put("name", election.getName());
+        electionData.put("electionCode", election.getElectionCode());
+        electionData.put("description", election.getDescription());
+        electionData.put("status", election.getStatus());
+        electionData.put("startDate", election.getStartDate());
+        electionData.put("endDate", election.getEndDate());
+
+        List<Map<String, Object>> candidateData = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", candidate.getId());
+            entry.put("candidateNumber", candidate.getCandidateNumber());
+            entry.put("name", candidate.getName());
+            entry.put("party", candidate.getParty());
+            entry.put("description", candidate.getDescription());
+            entry.put("photo", imageData(candidate.getId(), "photo", photos.get(candidate.getId())));
+            entry.put("partyLogo", imageData(candidate.getId(), "party-logo", logos.get(candidate.getId())));
+            candidateData.add(entry);
+        }
+
+        Map<String, Object> ballot = new LinkedHashMap<>();
+        ballot.put("election", electionData);
+        ballot.put("candidates", candidateData);
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(ballot);
+            log.debug("Built ballot bundle for election {} ({} candidates, {} bytes)", election.getElectionCode(), candidates.size(), body.length);
+            return BallotBundle.builder()
+                    .electionId(election.getId())
+                    .electionCode(election.getElectionCode())
+                    .body(body)
+                    .contentHash(HashUtils.sha256Hex(body))
+                    .generatedAt(LocalDateTime.now())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize ballot for election " + election.getElectionCode() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Object> imageData(Long candidateId, String kind, StoredImage image) {
+        if (image == null) {
+            return null;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("url", "/api/candidates/" + candidateId + "/" + kind + "/image?size=" + BALLOT_IMAGE_SIZE.name().toLowerCase()
+                + "&v=" + image.getContentHash());
+        data.put("contentType", image.getContentType());
+        data.put("contentHash", image.getContentHash());
+        return data;
+    }
+
+    private record CachedBundle(long catalogGeneration, BallotBundle bundle) {
+    }
+}
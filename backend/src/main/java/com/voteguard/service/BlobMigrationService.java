@@ -0,0 +1,89 @@
+package com.voteguard.service;
+
+import com.voteguard.storage.BlobStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves BYTEA payloads that predate the blob store into it, leaving only the hash in the row.
+ * Rows are processed in batches and each row is cleared only after its blob has been written,
+ * so the job can be interrupted and re-run safely.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BlobMigrationService {
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    // For the media tables the row key is the content hash itself: rows with equal hashes hold equal bytes
+    private static final List<BlobColumn> COLUMNS = List.of(
+            new BlobColumn("candidate_photos", "content_hash", "photo_data", "content_hash"),
+            new BlobColumn("party_logos", "content_hash", "logo_data", "content_hash"),
+            new BlobColumn("profile_photos", "content_hash", "photo_data", "content_hash"),
+            new BlobColumn("image_variants", "content_hash", "image_data", "content_hash"),
+            new BlobColumn("fingerprint_data", "voter_id", "fingerprint_data", "fingerprint_hash"),
+            new BlobColumn("admin_users", "admin_id", "fingerprint_data", "fingerprint_hash")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+
+    public Map<String, Object> migrateAll(Integer batchSize) {
+        int size = batchSize != null && batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        long startTime = System.currentTimeMillis();
+        Map<String, Object> moved = new LinkedHashMap<>();
+        long totalBytes = 0;
+
+        for (BlobColumn column : COLUMNS) {
+            long[] result = migrate(column, size);
+            moved.put(column.table(), result[0]);
+            totalBytes += result[1];
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("movedRows", moved);
+        summary.put("movedBytes", totalBytes);
+        summary.put("durationMs", System.currentTimeMillis() - startTime);
+        log.info("Blob migration completed: {}", summary);
+        return summary;
+    }
+
+    /**
+     * @return number of rows and bytes moved
+     */
+    private long[] migrate(BlobColumn column, int batchSize) {
+        String selectSql = "SELECT " + column.keyColumn() + " AS row_key, " + column.dataColumn() + " AS payload FROM " + column.table() +
+                " WHERE " + column.dataColumn() + " IS NOT NULL AND " + column.keyColumn() + " IS NOT NULL LIMIT ?";
+        String updateSql = "UPDATE " + column.table() + " SET " + column.hashColumn() + " = ?, " + column.dataColumn() + " = NULL" +
+                " WHERE " + column.keyColumn() + " = ? AND " + column.dataColumn() + " IS NOT NULL";
+
+        long rows = 0;
+        long bytes = 0;
+        while (true) {
+            List<Object[]> batch = jdbcTemplate.query(selectSql,
+                    (rs, rowNum) -> new Object[] { rs.getString("row_key"), rs.getBytes("payload") }, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Object[] row : batch) {
+                String key = (String) row[0];
+                byte[] payload = (byte[]) row[1];
+                String hash = blobStore.put(payload);
+                rows += jdbcTemplate.update(updateSql, hash, key);
+                bytes += payload.length;
+            }
+            log.info("Moved {} rows ({} bytes) of {}.{} to the blob store", rows, bytes, column.table(), column.dataColumn());
+        }
+        return new long[] { rows, bytes };
+    }
+
+    private record BlobColumn(String table, String keyColumn, String dataColumn, String hashColumn) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.voteguard.service;
+
+import com.voteguard.cache.CachedImage;
+import com.voteguard.cache.ElectionCatalog;
+import com.voteguard.cache.ImageCache;
+import com.voteguard.event.CandidateChangedEvent;
+import com.voteguard.event.ElectionStatusChangedEvent;
+import com.voteguard.model.Candidate;
+import com.voteguard.model.Election;
+import com.voteguard.model.ElectionStatus;
+import com.voteguard.model.ImageVariant;
+import com.voteguard.model.MediaKind;
+import com.voteguard.model.StoredImage;
+import com.voteguard.repository.CandidateRepository;
+import com.voteguard.repository.MediaRepository;
+import com.voteguard.util.ImageResizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stores candidate photos and party logos together with their resized ballot variants,
+ * and serves them through the in-memory {@link ImageCache}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CandidateMediaService {
+
+    private final MediaRepository mediaRepository;
+    private final CandidateRepository candidateRepository;
+    private final ElectionCatalog electionCatalog;
+    private final ImageCache imageCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StoredImage storeImage(MediaKind kind, Long candidateId, byte[] data) {
+        StoredImage original = kind == MediaKind.CANDIDATE_PHOTO
+                ? mediaRepository.saveCandidatePhoto(candidateId, data)
+                : mediaRepository.savePartyLogo(candidateId, data);
+        renderVariants(kind, candidateId, original);
+        imageCache.invalidate(kind, candidateId);
+        return original;
+    }
+
+    /**
+     * Find the requested size through the image cache.
+     */
+    public CachedImage findImage(MediaKind kind, Long candidateId, ImageVariant variant) {
+        return imageCache.get(kind, candidateId, variant, () -> loadImage(kind, candidateId, variant));
+    }
+
+    /**
+     * Load the requested size, falling back to the original when no variant has been rendered.
+     */
+    private Optional<StoredImage> loadImage(MediaKind kind, Long candidateId, ImageVariant variant) {
+        if (!variant.isOriginal()) {
+            Optional<StoredImage> resized = mediaRepository.findVariant(kind, candidateId, variant);
+            if (resized.isPresent()) {
+                return resized;
+            }
+        }
+        return mediaRepository.findOriginal(kind, candidateId);
+    }
+
+    /**
+     * Render missing or stale variants for every stored original.
+     */
+    public Map<String, Object> backfillVariants() {
+        long startTime = System.currentTimeMillis();
+        int rendered = 0;
+        int failed = 0;
+
+        for (MediaKind kind : MediaKind.values()) {
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (variant.isOriginal()) {
+                    continue;
+                }
+                List<Long> candidateIds = mediaRepository.findCandidateIdsMissingVariant(kind, variant);
+                for (Long candidateId : candidateIds) {
+                    Optional<StoredImage> original = mediaRepository.findOriginal(kind, candidateId);
+                    if (original.isPresent() && renderVariant(kind, candidateId, original.get(), variant)) {
+                        imageCache.invalidate(kind, candidateId);
+                        rendered++;
+                    } else {
+                        failed++;
+                    }
+                }
+            }
+        }
+
+        if (rendered > 0) {
+            // Ballot image URLs carry variant hashes
+            eventPublisher.publishEvent(new CandidateChangedEvent(null, null));
+        }
+        log.info("Image variant backfill completed: rendered={}, failed={}", rendered, failed);
+        Map<String, Object> result = new HashMap<>();
+        result.put("rendered", rendered);
+        result.put("failed", failed);
+        result.put("durationMs", System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    /**
+     * Load the ballot images of an election into the cache before voters request them.
+     */
+    public int prewarm(Long electionId) {
+        int loaded = 0;
+        for (Candidate candidate : candidateRepository.findByElectionIdAndIsActiveTrue(electionId)) {
+            for (MediaKind kind : MediaKind.values()) {
+                if (findImage(kind, candidate.getId(), ImageVariant.FULL).isPresent()) {
+                    findImage(kind, candidate.getId(), ImageVariant.BALLOT);
+                    findImage(kind, candidate.getId(), ImageVariant.LIST);
+                    loaded++;
+                }
+            }
+        }
+        log.info("Pre-warmed image cache for election {}: {} images", electionId, loaded);
+        return loaded;
+    }
+
+    @EventListener
+    public void onElectionStatusChanged(ElectionStatusChangedEvent event) {
+        if (event.newStatus() == ElectionStatus.ACTIVE) {
+            prewarmQuietly(event.electionId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarmActiveElections() {
+        try {
+            for (Election election : electionCatalog.findActiveByStatus(ElectionStatus.ACTIVE)) {
+                prewarmQuietly(election.getId());
+            }
+        } catch (Exception e) {
+            log.warn("Skipping image cache pre-warm at startup: {}", e.getMessage());
+        }
+    }
+
+    public void evictCandidate(Long candidateId) {
+        for (MediaKind kind : MediaKind.values()) {
+            imageCache.invalidate(kind, candidateId);
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return imageCache.getStats();
+    }
+
+    private void prewarmQuietly(Long electionId) {
+        try {
+            prewarm(electionId);
+        } catch (Exception e) {
+            log.warn("Failed to pre-warm image cache for election {}: {}", electionId, e.getMessage());
+        }
+    }
+
+    private void renderVariants(MediaKind kind, Long candidateId, StoredImage original) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (!variant.isOriginal()) {
+                renderVariant(kind, candidateId, original, variant);
+            }
+        }
+    }
+
+    private boolean renderVariant(MediaKind kind, Long candidateId, StoredImage original, ImageVariant variant) {
+        try {
+            byte[] resized = ImageResizer.resize(original.getData(), variant.getMaxDimension());
+            // Originals already within the size limit are stored as-is so every size resolves to a row
+            mediaRepository.saveVariant(kind, candidateId, variant, resized != null ? resized : original.getData(),
+                    original.getContentHash());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to render {} variant {} for candidate {}: {}", kind, variant, candidateId, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.voteguard.service;
 
+import com.voteguard.cache.ElectionCatalog;
+import com.voteguard.cache.ParticipationIndex;
+import com.voteguard.cache.VoterDirectory;
+import com.voteguard.event.VoterChangedEvent;
 import com.voteguard.model.Voter;
 import com.voteguard.model.Election;
 import com.voteguard.repository.VoterRepository;
-import com.voteguard.repository.VoteRepository;
-import com.voteguard.repository.ElectionRepository;
+import com.voteguard.repository.FingerprintRepository;
 import com.voteguard.security.JwtTokenProvider;
+import com.voteguard.util.VoterIds;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -34,11 +39,15 @@ import java.util.Optional;
 public class CenterBasedAuthService {
 
     private final VoterRepository voterRepository;
-    private final VoteRepository voteRepository;
-    private final ElectionRepository electionRepository;
+    private final VoterDirectory voterDirectory;
+    private final ParticipationIndex participationIndex;
+    private final ElectionCatalog electionCatalog;
+    private final EligibilityService eligibilityService;
+    private final FingerprintRepository fingerprintRepository;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuditLogService auditLogService;
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     private final RestTemplate restTemplate = new RestTemplate();
 
     @Value("${biometric.service.url:http://localhost:8001}")
@@ -53,7 +62,7 @@ public class CenterBasedAuthService {
     public Map<String, Object> authenticateVoter(String voterId, String extraField, MultipartFile fingerprintFile, String ipAddress, String userAgent, String electionCode) {
         try {
             // Normalize inputs for better matching
-            String normalizedVoterId = voterId != null ? voterId.trim().toUpperCase() : "";
+            String normalizedVoterId = voterId != null ? VoterIds.canonical(voterId) : "";
             String normalizedExtraField = extraField != null ? extraField.trim() : "";
             
             // Validate inputs
@@ -64,8 +73,15 @@ public class CenterBasedAuthService {
                 throw new RuntimeException("Voter ID and extra field are required");
             }
             
-            // Step 1: Find voter by voter ID and extra field (case-insensitive)
-            Optional<Voter> voterOpt = voterRepository.findByVoterIdAndExtraField(normalizedVoterId, normalizedExtraField);
+            // Step 1: Reject IDs that are certainly not registered without touching the database
+            if (!voterDirectory.mightExist(normalizedVoterId)) {
+                log.warn("Authentication failed: Unknown voterId={}", normalizedVoterId);
+                throw new RuntimeException("Invalid voter credentials. Please check your Voter ID and extra field.");
+            }
+
+            // Find voter by canonical voter ID and extra field
+            Optional<Voter> voterOpt = voterDirectory.findByVoterId(normalizedVoterId)
+                .filter(candidate -> normalizedExtraField.equals(candidate.getExtraField()));
             if (voterOpt.isEmpty()) {
                 log.warn("Authentication failed: Voter not found with voterId={} and extraField={}", normalizedVoterId, normalizedExtraField);
                 auditLogService.logSecurityEvent(null, "AUTH_FAILED", "AUTH", ipAddress, userAgent, 
@@ -85,12 +101,12 @@ public class CenterBasedAuthService {
 
             // Step 3: Check eligibility and voting status if election code provided
             if (electionCode != null && !electionCode.trim().isEmpty()) {
-                Optional<Election> electionOpt = electionRepository.findByElectionCode(electionCode.trim().toUpperCase());
+                Optional<Election> electionOpt = electionCatalog.findByCode(electionCode);
                 if (electionOpt.isPresent()) {
                     Election election = electionOpt.get();
                     
                     // Check if voter is eligible for this election FIRST
-                    boolean isEligible = electionRepository.isVoterEligible(voter.getId(), election.getId());
+                    boolean isEligible = eligibilityService.isEligible(voter.getId(), election.getId());
                     if (!isEligible) {
                         log.warn("Authentication failed: Voter not eligible for election voterId={}, electionId={}, electionCode={}", 
                             voterId, election.getId(), electionCode);
@@ -100,7 +116,7 @@ public class CenterBasedAuthService {
                     }
                     
                     // Check if voter has already voted in this election
-                    boolean hasVoted = voteRepository.existsByVoterIdAndElectionId(voter.getId(), election.getId());
+                    boolean hasVoted = participationIndex.hasVoted(voter.getId(), election.getId());
                     if (hasVoted) {
                         log.warn("Authentication failed: Voter already voted in election voterId={}, electionId={}, electionCode={}", 
                             voterId, election.getId(), electionCode);
@@ -160,16 +176,8 @@ public class CenterBasedAuthService {
      */
     private boolean verifyFingerprint(String voterId, MultipartFile fingerprintFile) {
         try {
-            // Get the stored fingerprint data from the fingerprint_data table
-            String sql = "SELECT fingerprint_data FROM fingerprint_data WHERE voter_id = ?";
-            
-            byte[] storedFingerprintData = null;
-            try {
-                storedFingerprintData = jdbcTemplate.queryForObject(sql, byte[].class, voterId);
-            } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-                log.error("No stored fingerprint data found for voter_id: {}", voterId);
-                return false;
-            }
+            // Get the stored fingerprint scan enrolled for this voter
+            byte[] storedFingerprintData = fingerprintRepository.findByVoterId(voterId).orElse(null);
             
             if (storedFingerprintData == null || storedFingerprintData.length == 0) {
                 log.error("Stored fingerprint data is null or empty for voter_id: {}", voterId);
@@ -237,6 +245,7 @@ public class CenterBasedAuthService {
             // Update voter with new fingerprint hash
             voter.setFingerprintHash(fingerprintHash);
             voterRepository.save(voter);
+            eventPublisher.publishEvent(new VoterChangedEvent(voter.getVoterId(), voter.getVoterId()));
 
             // Log the registration
             auditLogService.logSecurityEvent(voterId, "FINGERPRINT_REGISTERED", "VOTER", adminIpAddress, adminUserAgent, 
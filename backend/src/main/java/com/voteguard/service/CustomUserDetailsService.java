@@ -1,7 +1,7 @@
 package com.voteguard.service;
 
+import com.voteguard.cache.VoterDirectory;
 import com.voteguard.model.Voter;
-import com.voteguard.repository.VoterRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,11 +12,11 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final VoterRepository voterRepository;
+    private final VoterDirectory voterDirectory;
 
     @Override
     public UserDetails loadUserByUsername(String voterId) throws UsernameNotFoundException {
-        Voter voter = voterRepository.findByVoterId(voterId)
+        Voter voter = voterDirectory.findByVoterId(voterId)
                 .orElseThrow(() -> new UsernameNotFoundException("Voter not found: " + voterId));
         
         return voter;
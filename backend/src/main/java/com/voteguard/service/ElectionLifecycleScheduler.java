@@ -0,0 +1,189 @@
+package com.voteguard.service;
+
+import com.voteguard.cache.ElectionCatalog;
+import com.voteguard.event.ElectionChangedEvent;
+import com.voteguard.model.Election;
+import com.voteguard.model.ElectionStatus;
+import com.voteguard.util.TimingWheel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Flips election status UPCOMING -> ACTIVE at start_date and ACTIVE -> COMPLETED at end_date.
+ * The next boundary of every active election sits in a {@link TimingWheel} that is advanced once
+ * a second. Transitions go through {@link ElectionService#transitionStatus}, whose
+ * ElectionStatusChangedEvent is the hook for work tied to a transition (image and ballot
+ * warm-up on ACTIVE; VoteService stops accepting ballots once COMPLETED).
+ * At startup, and periodically to pick up changes made on other nodes, every election is
+ * reconciled against the database: overdue transitions are applied and boundaries rescheduled.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ElectionLifecycleScheduler {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 60;
+
+    private final ElectionService electionService;
+    private final ElectionCatalog electionCatalog;
+
+    // Guarded by this. A transition taken off the wheel only fires if it is still the one scheduled
+    // for its election; superseded ones are dropped when they come due.
+    private final TimingWheel<Transition> wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+    private final Map<Long, Transition> scheduled = new HashMap<>();
+    private final List<Transition> due = new ArrayList<>();
+    private boolean started;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        synchronized (this) {
+            started = true;
+        }
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${election.lifecycle.reconcile-interval-ms:300000}",
+            initialDelayString = "${election.lifecycle.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        List<Election> elections;
+        try {
+            elections = electionCatalog.findAll();
+        } catch (Exception e) {
+            log.warn("Election lifecycle reconcile skipped: {}", e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            Set<Long> electionIds = new HashSet<>();
+            for (Election election : elections) {
+                electionIds.add(election.getId());
+                schedule(election);
+            }
+            scheduled.keySet().retainAll(electionIds);
+        }
+        fireDue();
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void tick() {
+        synchronized (this) {
+            if (!started) {
+                return;
+            }
+            wheel.advance(System.currentTimeMillis(), due::add);
+        }
+        fireDue();
+    }
+
+    /**
+     * Reschedule an election after it was saved, deleted or transitioned.
+     */
+    @EventListener
+    public void onElectionChanged(ElectionChangedEvent event) {
+        Optional<Election> election = electionCatalog.findById(event.electionId());
+        synchronized (this) {
+            if (!started) {
+                return;
+            }
+            if (election.isPresent()) {
+                schedule(election.get());
+            } else {
+                scheduled.remove(event.electionId());
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedElections", scheduled.size());
+        stats.put("scheduledTransitions", wheel.size());
+        stats.put("dueTransitions", due.size());
+        return stats;
+    }
+
+    // Caller holds the lock
+    private void schedule(Election election) {
+        Transition transition = nextTransition(election);
+        if (transition == null) {
+            scheduled.remove(election.getId());
+            return;
+        }
+        if (transition.equals(scheduled.get(election.getId()))) {
+            return; // already on the wheel
+        }
+        scheduled.put(election.getId(), transition);
+        if (!wheel.schedule(transition.deadline(), transition)) {
+            due.add(transition);
+        }
+    }
+
+    private static Transition nextTransition(Election election) {
+        if (!Boolean.TRUE.equals(election.getIsActive())) {
+            return null;
+        }
+        if (election.getStatus() == ElectionStatus.UPCOMING) {
+            return new Transition(election.getId(), ElectionStatus.UPCOMING, ElectionStatus.ACTIVE, toEpochMilli(election.getStartDate()));
+        }
+        if (election.getStatus() == ElectionStatus.ACTIVE) {
+            return new Transition(election.getId(), ElectionStatus.ACTIVE, ElectionStatus.COMPLETED, toEpochMilli(election.getEndDate()));
+        }
+        return null;
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Apply due transitions outside the lock; applying one publishes events that may reschedule
+     * the election, possibly with its next boundary already due (e.g. an election that both
+     * started and ended while the backend was down).
+     */
+    private void fireDue() {
+        while (true) {
+            List<Transition> batch;
+            synchronized (this) {
+                if (due.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(due);
+                due.clear();
+                batch.removeIf(transition -> !transition.equals(scheduled.get(transition.electionId())));
+            }
+            for (Transition transition : batch) {
+                try {
+                    if (electionService.transitionStatus(transition.electionId(), transition.from(), transition.to())) {
+                        log.info("Election {} moved from {} to {}", transition.electionId(), transition.from(), transition.to());
+                    } else {
+                        // Changed elsewhere (another node or an admin); reload it and schedule what is next
+                        electionCatalog.invalidate();
+                        onElectionChanged(new ElectionChangedEvent(transition.electionId()));
+                    }
+                } catch (Exception e) {
+                    // Forget it so the next reconcile schedules it again
+                    synchronized (this) {
+                        scheduled.remove(transition.electionId(), transition);
+                    }
+                    log.error("Failed to move election {} to {}: {}", transition.electionId(), transition.to(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private record Transition(Long electionId, ElectionStatus from, ElectionStatus to, long deadline) {
+    }
+}
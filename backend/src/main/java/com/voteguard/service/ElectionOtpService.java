@@ -0,0 +1,87 @@
+package com.voteguard.service;
+
+import com.voteguard.cache.ElectionCatalog;
+import com.voteguard.event.ElectionChangedEvent;
+import com.voteguard.model.Election;
+import com.voteguard.model.ElectionOtp;
+import com.voteguard.repository.ElectionRepository;
+import com.voteguard.util.Totp;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+
+/**
+ * Center setup codes derived from a per-election TOTP secret. Generating and validating a code
+ * is pure computation over the secret held in the {@link ElectionCatalog}, so nothing is written
+ * per rotation and every node accepts the same codes. The only write is the one-time creation of
+ * a secret for elections that predate them.
+ */
+@Service
+public class ElectionOtpService {
+
+    private final ElectionCatalog electionCatalog;
+    private final ElectionRepository electionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Totp totp;
+    private final int skewSteps;
+
+    public ElectionOtpService(ElectionCatalog electionCatalog,
+                              ElectionRepository electionRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${election.otp.step-seconds:120}") long stepSeconds,
+                              @Value("${election.otp.digits:6}") int digits,
+                              @Value("${election.otp.skew-steps:1}") int skewSteps) {
+        this.electionCatalog = electionCatalog;
+        this.electionRepository = electionRepository;
+        this.eventPublisher = eventPublisher;
+        this.totp = new Totp(stepSeconds, digits);
+        this.skewSteps = skewSteps;
+    }
+
+    /**
+     * Secret for a new election, to be stored with it.
+     */
+    public static String newSecret() {
+        return HexFormat.of().formatHex(Totp.newSecret());
+    }
+
+    public ElectionOtp generate(Long electionId) {
+        byte[] secret = secretFor(electionId);
+        long step = totp.stepAt(System.currentTimeMillis());
+        // Accepted until the skew window no longer reaches back to this step
+        Instant expiresAt = Instant.ofEpochMilli(totp.stepStartMillis(step + 1 + skewSteps));
+        return new ElectionOtp(totp.generate(secret, step), LocalDateTime.ofInstant(expiresAt, ZoneOffset.UTC));
+    }
+
+    public boolean validate(Long electionId, String code) {
+        if (code == null) {
+            return false;
+        }
+        return electionCatalog.findById(electionId)
+                .map(Election::getOtpSecret)
+                .map(secret -> totp.verify(HexFormat.of().parseHex(secret), code.trim(), System.currentTimeMillis(), skewSteps))
+                .orElse(false);
+    }
+
+    private byte[] secretFor(Long electionId) {
+        Election election = electionCatalog.findById(electionId)
+                .orElseThrow(() -> new RuntimeException("Election not found with id: " + electionId));
+        if (election.getOtpSecret() == null) {
+            // Another node may win the race; either way the stored secret is re-read below
+            if (electionRepository.initOtpSecret(electionId, newSecret())) {
+                eventPublisher.publishEvent(new ElectionChangedEvent(electionId));
+            } else {
+                electionCatalog.invalidate();
+            }
+            election = electionCatalog.findById(electionId)
+                    .filter(reloaded -> reloaded.getOtpSecret() != null)
+                    .orElseThrow(() -> new RuntimeException("Failed to initialize OTP secret for election: " + electionId));
+        }
+        return HexFormat.of().parseHex(election.getOtpSecret());
+    }
+}
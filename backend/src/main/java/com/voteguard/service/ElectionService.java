@@ -1,92 +1,138 @@
 package com.voteguard.service;
 
+import com.voteguard.cache.ElectionCatalog;
+import com.voteguard.event.ElectionChangedEvent;
+import com.voteguard.event.ElectionStatusChangedEvent;
+import com.voteguard.event.VotesRemovedEvent;
 import com.voteguard.model.Election;
+import com.voteguard.model.ElectionOtp;
 import com.voteguard.model.ElectionStatus;
+import com.voteguard.model.EligibilityJob;
+import com.voteguard.model.EligibilityRule;
 import com.voteguard.repository.ElectionRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ElectionService {
 
     private final ElectionRepository electionRepository;
+    private final ElectionCatalog electionCatalog;
+    private final EligibilityService eligibilityService;
+    private final ElectionOtpService electionOtpService;
+    private final SearchService searchService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Bulk eligibility jobs run one at a time so they don't compete for the voters table
+    private final ExecutorService eligibilityJobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "eligibility-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, EligibilityJob> eligibilityJobs = new ConcurrentHashMap<>();
+
+    @Value("${election.eligibility-jobs.retention-minutes:1440}")
+    private long eligibilityJobRetentionMinutes;
 
     public Election save(Election election) {
         // Set created/updated timestamps if it's a new election
+        ElectionStatus previousStatus = null;
         if (election.getId() == null) {
             election.setCreatedAt(LocalDateTime.now());
+            election.setOtpSecret(ElectionOtpService.newSecret());
+        } else {
+            previousStatus = electionRepository.findById(election.getId()).map(Election::getStatus).orElse(null);
         }
         election.setUpdatedAt(LocalDateTime.now());
         
-        return electionRepository.save(election);
+        Election saved = electionRepository.save(election);
+        eventPublisher.publishEvent(new ElectionChangedEvent(saved.getId()));
+        if (previousStatus != saved.getStatus()) {
+            eventPublisher.publishEvent(new ElectionStatusChangedEvent(saved.getId(), previousStatus, saved.getStatus()));
+        }
+        return saved;
     }
 
     public Optional<Election> findById(Long id) {
-        return electionRepository.findById(id);
+        return electionCatalog.findById(id);
     }
 
     public List<Election> findAll() {
-        return electionRepository.findAll();
+        return electionCatalog.findAll();
     }
 
     public List<Election> findActiveElections() {
-        return electionRepository.findByIsActiveTrueOrderByStartDateDesc();
+        return electionCatalog.findActive();
     }
 
     public List<Election> findUpcomingElections() {
-        return electionRepository.findUpcomingElections(LocalDateTime.now());
+        return electionCatalog.findUpcoming();
     }
 
     public List<Election> findOngoingElections() {
-        return electionRepository.findOngoingElections(LocalDateTime.now());
+        return electionCatalog.findOngoing();
     }
 
     public List<Election> findCompletedElections() {
-        return electionRepository.findCompletedElections(LocalDateTime.now());
+        return electionCatalog.findCompleted();
     }
 
     public List<Election> findByStatus(ElectionStatus status) {
-        return electionRepository.findByStatusAndIsActiveTrueOrderByStartDateDesc(status);
+        return electionCatalog.findActiveByStatus(status);
     }
 
     public boolean hasActiveElection() {
-        return electionRepository.hasActiveElectionAt(LocalDateTime.now());
+        return electionCatalog.hasOngoingElection();
     }
 
     public Optional<Election> findByName(String name) {
-        return electionRepository.findByNameIgnoreCaseAndIsActiveTrue(name);
+        return electionCatalog.findActiveByName(name);
     }
 
-    public List<Election> searchElectionsByName(String searchTerm) {
-        return electionRepository.searchElectionsByName(searchTerm);
+    public List<Election> searchElectionsByName(String searchTerm, int limit) {
+        return searchService.searchElections(searchTerm, limit);
     }
     
     public Optional<Election> findByElectionCode(String electionCode) {
-        return electionRepository.findByElectionCode(electionCode);
+        return electionCatalog.findByCode(electionCode);
     }
     
     public Optional<Election> findActiveElectionByCode(String electionCode) {
-        return electionRepository.findByElectionCodeAndIsActiveTrue(electionCode);
+        return electionCatalog.findActiveByCode(electionCode);
     }
     
     public boolean validateElectionCode(String electionCode) {
         if (electionCode == null || electionCode.length() != 6) {
             return false;
         }
-        return electionRepository.isValidElectionCode(electionCode);
+        return electionCatalog.findActiveByCode(electionCode)
+                .map(election -> election.getStatus() != ElectionStatus.COMPLETED)
+                .orElse(false);
     }
 
     public void deleteById(Long id) {
         electionRepository.deleteById(id);
+        eventPublisher.publishEvent(new ElectionChangedEvent(id));
+        eventPublisher.publishEvent(new VotesRemovedEvent(id));
     }
 
     public long countActiveElections() {
-        return electionRepository.countActiveElections();
+        return electionCatalog.countActive();
     }
 
     public Election updateElectionStatus(Long electionId, ElectionStatus status) {
@@ -99,6 +145,20 @@ public class ElectionService {
         throw new RuntimeException("Election not found with id: " + electionId);
     }
 
+    /**
+     * Move an election from one status to another unless it has already left {@code from}.
+     *
+     * @return true if this call changed the status
+     */
+    public boolean transitionStatus(Long electionId, ElectionStatus from, ElectionStatus to) {
+        if (!electionRepository.updateStatusIfCurrent(electionId, from, to)) {
+            return false;
+        }
+        eventPublisher.publishEvent(new ElectionChangedEvent(electionId));
+        eventPublisher.publishEvent(new ElectionStatusChangedEvent(electionId, from, to));
+        return true;
+    }
+
     public Election deactivateElection(Long electionId) {
         Optional<Election> optionalElection = findById(electionId);
         if (optionalElection.isPresent()) {
@@ -109,12 +169,12 @@ public class ElectionService {
         throw new RuntimeException("Election not found with id: " + electionId);
     }
     
-    public String generateOtpForElection(Long electionId) {
-        return electionRepository.generateElectionOtp(electionId);
+    public ElectionOtp generateOtpForElection(Long electionId) {
+        return electionOtpService.generate(electionId);
     }
     
     public boolean validateOtp(Long electionId, String otp) {
-        return electionRepository.validateElectionOtp(electionId, otp);
+        return electionOtpService.validate(electionId, otp);
     }
     
     public void setupElectionCenter(Long electionId, String otp, String centerLocation) {
@@ -122,9 +182,63 @@ public class ElectionService {
             throw new RuntimeException("Invalid or expired OTP");
         }
         electionRepository.setActiveCenterLocation(electionId, centerLocation);
+        eventPublisher.publishEvent(new ElectionChangedEvent(electionId));
     }
     
     public List<java.util.Map<String, Object>> getVoterActiveElections(Long voterId) {
         return electionRepository.getVoterActiveElections(voterId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Start a background job that makes the voters selected by the rule eligible for the election.
+     *
+     * @param voterList uploaded voter IDs, one per line; required for VOTER_LIST rules
+     */
+    public EligibilityJob startBulkEligibility(Long electionId, EligibilityRule rule, byte[] voterList) {
+        rule.validate();
+        if (rule.getType() == EligibilityRule.Type.VOTER_LIST && (voterList == null || voterList.length == 0)) {
+            throw new IllegalArgumentException("A voter list file is required for VOTER_LIST rules");
+        }
+        if (findById(electionId).isEmpty()) {
+            throw new RuntimeException("Election not found with id: " + electionId);
+        }
+
+        EligibilityJob job = new EligibilityJob(electionId, rule.getType());
+        eligibilityJobs.put(job.getJobId(), job);
+        eligibilityJobExecutor.submit(() -> {
+            try {
+                eligibilityService.bulkGrant(electionId, rule, voterList, job);
+                job.complete();
+                log.info("Bulk eligibility job {} finished: {}", job.getJobId(), job.toMap());
+            } catch (Exception e) {
+                job.fail(e.getMessage());
+                log.error("Bulk eligibility job {} failed", job.getJobId(), e);
+            }
+        });
+        return job;
+    }
+
+    public Optional<EligibilityJob> findEligibilityJob(String jobId) {
+        return Optional.ofNullable(eligibilityJobs.get(jobId));
+    }
+
+    /**
+     * Forget finished jobs once their status has been kept for the retention period.
+     */
+    @Scheduled(initialDelayString = "${election.eligibility-jobs.purge-interval-ms:600000}",
+               fixedDelayString = "${election.eligibility-jobs.purge-interval-ms:600000}")
+    public void purgeEligibilityJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(eligibilityJobRetentionMinutes);
+        int before = eligibilityJobs.size();
+        eligibilityJobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+        int purged = before - eligibilityJobs.size();
+        if (purged > 0) {
+            log.debug("Purged {} finished bulk eligibility jobs", purged);
+        }
+    }
+
+    @PreDestroy
+    public void shutdownEligibilityJobs() {
+        eligibilityJobExecutor.shutdownNow();
+    }
+}
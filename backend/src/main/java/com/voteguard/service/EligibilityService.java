@@ -0,0 +1,283 @@
+package com.voteguard.service;
+
+import com.voteguard.cache.EligibilityIndex;
+import com.voteguard.event.EligibilityChangedEvent;
+import com.voteguard.model.EligibilityJob;
+import com.voteguard.model.EligibilityRule;
+import com.voteguard.repository.EligibilityRepository;
+import com.voteguard.util.CompressedBitmap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers "may this voter vote in this election" from the in-memory {@link EligibilityIndex},
+ * falling back to voter_election_eligibility until the index has been loaded.
+ * All eligibility changes go through this service so the table and the index stay in step; each
+ * publishes an {@link EligibilityChangedEvent} that
+ * {@link com.voteguard.cache.EligibilityListener} relays to the other nodes, which read the
+ * changed voter or election back from the table. A voter the index does not hold is still checked
+ * against the table, so a grant that has not reached this node yet, or was made outside the
+ * backend, is never refused.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EligibilityService {
+
+    private final EligibilityRepository eligibilityRepository;
+    private final EligibilityIndex eligibilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Serializes rebuilds, which share the index's change log
+    private final Object rebuildLock = new Object();
+
+    // voters.id span covered by one statement of a bulk grant
+    private static final long BULK_CHUNK_SIZE = 50_000;
+
+    public boolean isEligible(Long voterId, Long electionId) {
+        if (eligibilityIndex.isReady() && EligibilityIndex.isIndexable(voterId)
+                && eligibilityIndex.contains(voterId, electionId)) {
+            return true;
+        }
+        boolean eligible = eligibilityRepository.isEligible(voterId, electionId);
+        if (eligible && eligibilityIndex.isReady()) {
+            eligibilityIndex.add(voterId, electionId);
+        }
+        return eligible;
+    }
+
+    /**
+     * Which of the given elections the voter may vote in, with at most one query.
+     */
+    public Set<Long> eligibleAmong(Long voterId, Collection<Long> electionIds) {
+        Set<Long> eligible = new HashSet<>();
+        List<Long> unknown = new ArrayList<>();
+        boolean indexed = eligibilityIndex.isReady() && EligibilityIndex.isIndexable(voterId);
+        for (Long electionId : electionIds) {
+            if (indexed && eligibilityIndex.contains(voterId, electionId)) {
+                eligible.add(electionId);
+            } else {
+                unknown.add(electionId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (Long electionId : eligibilityRepository.findEligibleElectionIds(voterId, unknown)) {
+                eligible.add(electionId);
+                if (indexed) {
+                    eligibilityIndex.add(voterId, electionId);
+                }
+            }
+        }
+        return eligible;
+    }
+
+    public List<Long> getEligibleElectionIds(Long voterId) {
+        return eligibilityRepository.findElectionIdsByVoterId(voterId);
+    }
+
+    /**
+     * Add elections to a voter's eligibility, keeping existing ones.
+     */
+    @Transactional
+    public void grant(Long voterId, Collection<Long> electionIds) {
+        eligibilityRepository.grant(voterId, electionIds);
+        afterCommit(() -> electionIds.forEach(electionId -> eligibilityIndex.add(voterId, electionId)));
+        eventPublisher.publishEvent(new EligibilityChangedEvent(voterId, null));
+    }
+
+    /**
+     * Replace a voter's eligibility with exactly the given elections.
+     */
+    @Transactional
+    public void replace(Long voterId, Collection<Long> electionIds) {
+        eligibilityRepository.revokeAll(voterId);
+        eligibilityRepository.grant(voterId, electionIds);
+        syncVoter(voterId);
+    }
+
+    /**
+     * Apply a bulk rule to an election with set-based statements. Rule-based grants run as one
+     * INSERT ... SELECT per chunk of voters.id so each chunk commits on its own and progress can be
+     * reported; uploaded lists are COPYed into a staging table and applied with a single statement.
+     * Grants are additive: existing eligibility is kept.
+     *
+     * @param voterList uploaded voter IDs, one per line; only used by VOTER_LIST rules
+     */
+    public void bulkGrant(Long electionId, EligibilityRule rule, byte[] voterList, EligibilityJob job) {
+        try {
+            applyBulkGrant(electionId, rule, voterList, job);
+        } finally {
+            // Chunks commit on their own, so even a failed job may have granted some voters
+            eventPublisher.publishEvent(new EligibilityChangedEvent(null, electionId));
+        }
+    }
+
+    private void applyBulkGrant(Long electionId, EligibilityRule rule, byte[] voterList, EligibilityJob job) {
+        if (rule.getType() == EligibilityRule.Type.VOTER_LIST) {
+            job.start(1);
+            try (Reader reader = new InputStreamReader(new ByteArrayInputStream(voterList), StandardCharsets.UTF_8)) {
+                List<Long> granted = eligibilityRepository.grantByVoterIdList(electionId, reader);
+                eligibilityIndex.addAll(granted, electionId);
+                job.chunkCompleted(granted.size());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read uploaded voter list: " + e.getMessage(), e);
+            }
+            return;
+        }
+
+        long[] bounds = eligibilityRepository.findVoterIdBounds();
+        if (bounds == null) {
+            job.start(0);
+            return;
+        }
+        long from = bounds[0];
+        long to = bounds[1];
+        if (rule.getType() == EligibilityRule.Type.ID_RANGE) {
+            from = Math.max(from, rule.getMinId());
+            to = Math.min(to, rule.getMaxId());
+        }
+        if (from > to) {
+            job.start(0);
+            return;
+        }
+
+        long chunks = (to - from) / BULK_CHUNK_SIZE + 1;
+        job.start(chunks);
+        for (long chunkStart = from; chunkStart <= to; chunkStart += BULK_CHUNK_SIZE) {
+            long chunkEnd = Math.min(chunkStart + BULK_CHUNK_SIZE, to + 1);
+            List<Long> granted = eligibilityRepository.grantByRule(electionId, rule, chunkStart, chunkEnd);
+            eligibilityIndex.addAll(granted, electionId);
+            job.chunkCompleted(granted.size());
+        }
+    }
+
+    /**
+     * Record eligibility rows that were inserted directly, e.g. by a bulk voter import.
+     */
+    public void indexGrants(Collection<Long> voterIds, Collection<Long> electionIds) {
+        afterCommit(() -> electionIds.forEach(electionId -> eligibilityIndex.addAll(voterIds, electionId)));
+        electionIds.forEach(electionId -> eventPublisher.publishEvent(new EligibilityChangedEvent(null, electionId)));
+    }
+
+    /**
+     * Reload one voter into the index, e.g. after the voter was activated or deactivated.
+     */
+    public void syncVoter(Long voterId) {
+        List<Long> electionIds = activeElectionIds(voterId);
+        afterCommit(() -> eligibilityIndex.replaceVoter(voterId, electionIds));
+        eventPublisher.publishEvent(new EligibilityChangedEvent(voterId, null));
+    }
+
+    public void removeVoter(Long voterId) {
+        afterCommit(() -> eligibilityIndex.removeVoter(voterId));
+        eventPublisher.publishEvent(new EligibilityChangedEvent(voterId, null));
+    }
+
+    /**
+     * Apply a change made on another node: read the voter, the election or, with neither, the
+     * whole index back from the table.
+     */
+    public void reload(EligibilityChangedEvent change) {
+        if (change.voterId() != null) {
+            eligibilityIndex.replaceVoter(change.voterId(), activeElectionIds(change.voterId()));
+        } else if (change.electionId() != null) {
+            rebuildElection(change.electionId());
+        } else {
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * Load the whole index from the table; runs whenever the listener for other nodes' changes
+     * (re)connects, since changes announced while it was disconnected are lost.
+     */
+    public void rebuildIndex() {
+        synchronized (rebuildLock) {
+            rebuildAll();
+        }
+    }
+
+    private void rebuildElection(Long electionId) {
+        synchronized (rebuildLock) {
+            if (!eligibilityIndex.isReady()) {
+                rebuildAll();
+                return;
+            }
+            eligibilityIndex.beginRebuild();
+            try {
+                CompressedBitmap bitmap = new CompressedBitmap();
+                eligibilityRepository.streamActiveEligibility(electionId, rs -> {
+                    long voterId = rs.getLong("voter_id");
+                    if (EligibilityIndex.isIndexable(voterId)) {
+                        bitmap.add((int) voterId);
+                    }
+                });
+                eligibilityIndex.completeRebuild(electionId, bitmap);
+            } catch (Exception e) {
+                eligibilityIndex.abortRebuild();
+                log.warn("Failed to reload eligibility of election {}: {}", electionId, e.getMessage());
+            }
+        }
+    }
+
+    private List<Long> activeElectionIds(Long voterId) {
+        return eligibilityRepository.isVoterActive(voterId) ? eligibilityRepository.findElectionIdsByVoterId(voterId) : List.of();
+    }
+
+    private void rebuildAll() {
+        long startTime = System.currentTimeMillis();
+        eligibilityIndex.beginRebuild();
+        try {
+            Map<Long, CompressedBitmap> bitmaps = new HashMap<>();
+            long[] rows = new long[1];
+            eligibilityRepository.streamActiveEligibility(rs -> {
+                long voterId = rs.getLong("voter_id");
+                if (EligibilityIndex.isIndexable(voterId)) {
+                    bitmaps.computeIfAbsent(rs.getLong("election_id"), id -> new CompressedBitmap()).add((int) voterId);
+                    rows[0]++;
+                }
+            });
+            eligibilityIndex.completeRebuild(bitmaps);
+            log.info("Eligibility index loaded: {} entries across {} elections in {} ms",
+                    rows[0], bitmaps.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            eligibilityIndex.abortRebuild();
+            log.warn("Failed to load eligibility index, falling back to database checks: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getIndexStats() {
+        return eligibilityIndex.getStats();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
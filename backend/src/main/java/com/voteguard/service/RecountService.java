@@ -0,0 +1,379 @@
+package com.voteguard.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voteguard.cache.CenterTally;
+import com.voteguard.cache.ElectionCatalog;
+import com.voteguard.model.Candidate;
+import com.voteguard.model.CenterResult;
+import com.voteguard.model.Election;
+import com.voteguard.model.RecountReport;
+import com.voteguard.model.ResultsSnapshot;
+import com.voteguard.repository.CandidateRepository;
+import com.voteguard.repository.VoteRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Independent recount of an election for audits. The votes table is read, not the tally or the
+ * snapshot: the election's vote id range is split into partitions that a ForkJoinPool scans in
+ * parallel, each through its own server-side cursor, counting into long arrays indexed by
+ * candidate ordinal, per center. The partial tallies are merged and compared, per center and
+ * election-wide, with what the live results path reports ({@link CenterTally}) and, once the
+ * election is finalized, with its {@link ResultsSnapshot}.
+ * <p>
+ * All partitions read the same snapshot of the database: the coordinating transaction exports it
+ * with pg_export_snapshot() and every partition imports it, so votes committed while the recount
+ * runs are not counted in some partitions and missed in others. The live tally keeps counting
+ * them, though, so only a closed election is expected to match it exactly. Only one recount runs
+ * at a time.
+ */
+@Service
+@Slf4j
+public class RecountService {
+
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-Fa-f-]+");
+    private static final String SOURCE_TALLY = "center-tally";
+    private static final String SOURCE_SNAPSHOT = "results-snapshot";
+
+    private final ElectionCatalog electionCatalog;
+    private final CandidateRepository candidateRepository;
+    private final VoteRepository voteRepository;
+    private final CenterTally centerTally;
+    private final ResultsSnapshotService resultsSnapshotService;
+    private final AuditLogService auditLogService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate snapshotTransaction;
+    private final int parallelism;
+    private final int partitionsPerThread;
+    private final ForkJoinPool pool;
+
+    public RecountService(ElectionCatalog electionCatalog,
+                          CandidateRepository candidateRepository,
+                          VoteRepository voteRepository,
+                          CenterTally centerTally,
+                          ResultsSnapshotService resultsSnapshotService,
+                          AuditLogService auditLogService,
+                          JdbcTemplate jdbcTemplate,
+                          ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${results.recount.parallelism:4}") int parallelism,
+                          @Value("${results.recount.partitions-per-thread:4}") int partitionsPerThread,
+                          @Value("${results.recount.reserved-connections:4}") int reservedConnections,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        this.electionCatalog = electionCatalog;
+        this.candidateRepository = candidateRepository;
+        this.voteRepository = voteRepository;
+        this.centerTally = centerTally;
+        this.resultsSnapshotService = resultsSnapshotService;
+        this.auditLogService = auditLogService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        // The coordinating transaction holds one connection and every worker another; the rest
+        // of the pool is left to request handling
+        int available = maximumPoolSize - reservedConnections - 1;
+        if (parallelism > available) {
+            log.warn("Recount parallelism {} does not fit a pool of {} with {} connections reserved; using {}",
+                    parallelism, maximumPoolSize, reservedConnections, Math.max(1, available));
+        }
+        this.parallelism = Math.max(1, Math.min(parallelism, available));
+        this.partitionsPerThread = Math.max(1, partitionsPerThread);
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    public synchronized RecountReport recount(Long electionId, String ipAddress, String userAgent) {
+        Election election = electionCatalog.findById(electionId)
+                .orElseThrow(() -> new RuntimeException("Election not found"));
+        // Every candidate, active or not; ordinals are positions in id order
+        long[] candidateIds = candidateRepository.findByElectionId(electionId).stream()
+                .mapToLong(Candidate::getId).sorted().toArray();
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long startTime = System.nanoTime();
+        Scan scan = snapshotTransaction.execute(status -> {
+            String snapshotId = jdbcTemplate.queryForObject("SELECT pg_export_snapshot()", String.class);
+            if (snapshotId == null || !SNAPSHOT_ID.matcher(snapshotId).matches()) {
+                throw new IllegalStateException("Unexpected snapshot id: " + snapshotId);
+            }
+            Scan context = new Scan(electionId, candidateIds, snapshotId);
+            long[] bounds = voteRepository.findIdBounds(electionId);
+            if (bounds == null) {
+                context.result = new Tally(candidateIds.length);
+                return context;
+            }
+            long rows = bounds[1] - bounds[0] + 1;
+            long span = Math.max(1, (rows + (long) parallelism * partitionsPerThread - 1) / ((long) parallelism * partitionsPerThread));
+            context.result = pool.invoke(new RangeTask(context, bounds[0], bounds[1], span));
+            return context;
+        });
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        Tally tally = scan.result;
+        Map<Long, Long> totals = new TreeMap<>();
+        for (int i = 0; i < candidateIds.length; i++) {
+            totals.put(candidateIds[i], tally.totals[i]);
+        }
+        List<CenterResult> centers = new ArrayList<>();
+        Map<String, Map<Long, Long>> recountedCenters = new HashMap<>();
+        List<Map.Entry<String, CenterCounts>> ordered = new ArrayList<>(tally.centers.entrySet());
+        ordered.sort((a, b) -> Long.compare(a.getValue().firstVoteId, b.getValue().firstVoteId));
+        for (Map.Entry<String, CenterCounts> entry : ordered) {
+            Map<Long, Long> counts = new TreeMap<>();
+            long centerTotal = 0;
+            for (int i = 0; i < candidateIds.length; i++) {
+                long votes = entry.getValue().counts[i];
+                if (votes > 0) {
+                    counts.put(candidateIds[i], votes);
+                    centerTotal += votes;
+                }
+            }
+            centers.add(new CenterResult(entry.getKey(), centerTotal, Collections.unmodifiableMap(counts)));
+            recountedCenters.put(entry.getKey(), counts);
+        }
+
+        List<String> comparedWith = new ArrayList<>();
+        List<RecountReport.Discrepancy> discrepancies = new ArrayList<>();
+        List<CenterResult> live = centerTally.getCenterResults(electionId);
+        Map<String, Map<Long, Long>> liveCenters = new HashMap<>();
+        for (CenterResult center : live) {
+            liveCenters.put(center.centerLocation(), center.voteCounts());
+        }
+        comparedWith.add(SOURCE_TALLY);
+        compare(SOURCE_TALLY, totals, recountedCenters, CenterTally.merge(live), liveCenters, discrepancies);
+        Optional<ResultsSnapshot> snapshot = resultsSnapshotService.findStored(electionId);
+        if (snapshot.isPresent()) {
+            comparedWith.add(SOURCE_SNAPSHOT);
+            compareWithSnapshot(snapshot.get(), totals, recountedCenters, discrepancies);
+        }
+
+        long rowsPerSecond = elapsedNanos > 0 ? tally.rows * 1_000_000_000L / elapsedNanos : tally.rows;
+        RecountReport report = new RecountReport(electionId, election.getStatus(), startedAt, tally.rows,
+                scan.partitions.get(), parallelism, elapsedNanos / 1_000_000, rowsPerSecond, totals, centers,
+                new TreeMap<>(tally.unknownCandidates), comparedWith, discrepancies);
+
+        if (report.matches()) {
+            log.info("Recount of election {} matched: {} votes in {} ms ({} rows/s)", electionId, tally.rows, report.elapsedMs(), rowsPerSecond);
+        } else {
+            log.warn("Recount of election {} found {} discrepancies and votes for {} unknown candidates",
+                    electionId, discrepancies.size(), tally.unknownCandidates.size());
+        }
+        try {
+            auditLogService.logSecurityEvent(null, "RESULTS_RECOUNT", "ELECTION", ipAddress, userAgent,
+                    Map.of("election_id", electionId, "rows_scanned", tally.rows, "matches", report.matches(),
+                    "discrepancies", discrepancies.size(), "elapsed_ms", report.elapsedMs()));
+        } catch (Exception e) {
+            log.warn("Failed to log recount to audit log (non-critical): {}", e.getMessage());
+        }
+        return report;
+    }
+
+    private void compareWithSnapshot(ResultsSnapshot snapshot, Map<Long, Long> totals, Map<String, Map<Long, Long>> recountedCenters,
+                                     List<RecountReport.Discrepancy> discrepancies) {
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(snapshot.getBody());
+        } catch (IOException e) {
+            throw new RuntimeException("Results snapshot of election " + snapshot.getElectionId() + " is not valid JSON", e);
+        }
+        Map<Long, Long> reportedTotals = new HashMap<>();
+        for (JsonNode candidate : body.path("candidateResults")) {
+            reportedTotals.put(candidate.path("candidateId").asLong(), candidate.path("voteCount").asLong());
+        }
+        // The snapshot only lists active candidates; votes for the others are still compared per center
+        Map<Long, Long> comparableTotals = new HashMap<>();
+        for (Long candidateId : reportedTotals.keySet()) {
+            comparableTotals.put(candidateId, totals.getOrDefault(candidateId, 0L));
+        }
+        Map<String, Map<Long, Long>> reportedCenters = new HashMap<>();
+        for (JsonNode center : body.path("centers")) {
+            Map<Long, Long> counts = new HashMap<>();
+            center.path("voteCounts").fields().forEachRemaining(entry ->
+                    counts.put(Long.parseLong(entry.getKey()), entry.getValue().asLong()));
+            reportedCenters.put(center.path("centerLocation").isNull() ? null : center.path("centerLocation").asText(), counts);
+        }
+        compare(SOURCE_SNAPSHOT, comparableTotals, recountedCenters, reportedTotals, reportedCenters, discrepancies);
+    }
+
+    private static void compare(String source, Map<Long, Long> totals, Map<String, Map<Long, Long>> recountedCenters,
+                                Map<Long, Long> reportedTotals, Map<String, Map<Long, Long>> reportedCenters,
+                                List<RecountReport.Discrepancy> discrepancies) {
+        compareCounts(source, false, null, totals, reportedTotals, discrepancies);
+        Set<String> centers = new HashSet<>(recountedCenters.keySet());
+        centers.addAll(reportedCenters.keySet());
+        for (String center : centers) {
+            compareCounts(source, true, center, recountedCenters.getOrDefault(center, Map.of()),
+                    reportedCenters.getOrDefault(center, Map.of()), discrepancies);
+        }
+    }
+
+    private static void compareCounts(String source, boolean centerLevel, String center, Map<Long, Long> recounted,
+                                      Map<Long, Long> reported, List<RecountReport.Discrepancy> discrepancies) {
+        Set<Long> candidateIds = new TreeSet<>(recounted.keySet());
+        candidateIds.addAll(reported.keySet());
+        for (Long candidateId : candidateIds) {
+            long expected = recounted.getOrDefault(candidateId, 0L);
+            long actual = reported.getOrDefault(candidateId, 0L);
+            if (expected != actual) {
+                discrepancies.add(new RecountReport.Discrepancy(source, centerLevel, center, candidateId, expected, actual));
+            }
+        }
+    }
+
+    /**
+     * State shared by the partitions of one recount.
+     */
+    private final class Scan {
+        final Long electionId;
+        final long[] candidateIds;
+        final String snapshotId;
+        final AtomicInteger partitions = new AtomicInteger();
+        Tally result;
+
+        Scan(Long electionId, long[] candidateIds, String snapshotId) {
+            this.electionId = electionId;
+            this.candidateIds = candidateIds;
+            this.snapshotId = snapshotId;
+        }
+
+        /**
+         * Count the votes with ids in [fromId, toId] in the exported snapshot.
+         */
+        Tally scan(long fromId, long toId) {
+            Tally tally = new Tally(candidateIds.length);
+            snapshotTransaction.execute(status -> {
+                // Must be the transaction's first statement
+                jdbcTemplate.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+                voteRepository.streamElectionVotesInRange(electionId, fromId, toId, rs -> {
+                    long candidateId = rs.getLong("candidate_id");
+                    tally.add(Arrays.binarySearch(candidateIds, candidateId), candidateId,
+                            rs.getString("center_location"), rs.getLong("id"));
+                });
+                return null;
+            });
+            partitions.incrementAndGet();
+            return tally;
+        }
+    }
+
+    /**
+     * Halves a vote id range until it is at most one partition wide, then scans it.
+     */
+    private static final class RangeTask extends RecursiveTask<Tally> {
+        private final Scan scan;
+        private final long fromId;
+        private final long toId;
+        private final long span;
+
+        RangeTask(Scan scan, long fromId, long toId, long span) {
+            this.scan = scan;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.span = span;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (toId - fromId + 1 <= span) {
+                return scan.scan(fromId, toId);
+            }
+            long mid = fromId + (toId - fromId) / 2;
+            RangeTask left = new RangeTask(scan, fromId, mid, span);
+            left.fork();
+            Tally right = new RangeTask(scan, mid + 1, toId, span).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    /**
+     * Votes per candidate ordinal, election-wide and per center, of one partition or several merged.
+     */
+    private static final class Tally {
+        final long[] totals;
+        final Map<String, CenterCounts> centers = new LinkedHashMap<>();
+        final Map<Long, Long> unknownCandidates = new HashMap<>(); // votes for candidates not in the election
+        long rows;
+
+        Tally(int candidates) {
+            this.totals = new long[candidates];
+        }
+
+        void add(int ordinal, long candidateId, String center, long voteId) {
+            rows++;
+            if (ordinal < 0) {
+                unknownCandidates.merge(candidateId, 1L, Long::sum);
+                return;
+            }
+            totals[ordinal]++;
+            CenterCounts counts = centers.get(center);
+            if (counts == null) {
+                counts = new CenterCounts(totals.length);
+                centers.put(center, counts);
+            }
+            counts.counts[ordinal]++;
+            counts.firstVoteId = Math.min(counts.firstVoteId, voteId);
+        }
+
+        Tally merge(Tally other) {
+            rows += other.rows;
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += other.totals[i];
+            }
+            other.centers.forEach((center, counts) -> {
+                CenterCounts mine = centers.get(center);
+                if (mine == null) {
+                    centers.put(center, counts);
+                } else {
+                    for (int i = 0; i < mine.counts.length; i++) {
+                        mine.counts[i] += counts.counts[i];
+                    }
+                    mine.firstVoteId = Math.min(mine.firstVoteId, counts.firstVoteId);
+                }
+            });
+            other.unknownCandidates.forEach((candidateId, votes) -> unknownCandidates.merge(candidateId, votes, Long::sum));
+            return this;
+        }
+    }
+
+    private static final class CenterCounts {
+        final long[] counts;
+        long firstVoteId = Long.MAX_VALUE;
+
+        CenterCounts(int candidates) {
+            this.counts = new long[candidates];
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.voteguard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voteguard.cache.ElectionCatalog;
+import com.voteguard.event.ElectionStatusChangedEvent;
+import com.voteguard.event.VoteCastEvent;
+import com.voteguard.model.Candidate;
+import com.voteguard.model.Election;
+import com.voteguard.model.ElectionStatus;
+import com.voteguard.model.ImageVariant;
+import com.voteguard.model.MediaKind;
+import com.voteguard.model.ResultsSnapshot;
+import com.voteguard.model.StoredImage;
+import com.voteguard.repository.CandidateRepository;
+import com.voteguard.repository.MediaRepository;
+import com.voteguard.repository.ResultsSnapshotRepository;
+import com.voteguard.repository.VoteRepository;
+import com.voteguard.repository.VoterRepository;
+import com.voteguard.storage.BlobStore;
+import com.voteguard.util.HashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Frozen results of completed elections. Once an election has been COMPLETED for
+ * results.snapshot.settle-seconds, so ballots in flight at the close have committed, and this node
+ * holds no journaled votes for it, its results are computed once from the votes table and stored
+ * as canonical JSON in results_snapshot and the local blob store. From then on they are served
+ * byte for byte under the body's SHA-256, without touching votes or candidate media again.
+ * <p>
+ * The body holds no timestamps, so the same votes always give the same bytes and hash. If an
+ * election is moved out of COMPLETED its snapshot is dropped and written again at the next close.
+ * A journaled vote replayed by another node after finalization deletes the stored snapshot in its
+ * own transaction; every node then evicts its copy on the vote's {@link VoteCastEvent}, local or
+ * relayed by {@link com.voteguard.cache.ParticipationListener}, and the results are finalized
+ * again with the vote, under a new hash.
+ */
+@Service
+@Slf4j
+public class ResultsSnapshotService {
+
+    private final ElectionCatalog electionCatalog;
+    private final CandidateRepository candidateRepository;
+    private final MediaRepository mediaRepository;
+    private final VoteRepository voteRepository;
+    private final VoterRepository voterRepository;
+    private final ResultsSnapshotRepository resultsSnapshotRepository;
+    private final BlobStore blobStore;
+    private final VoteJournalService voteJournalService;
+    private final ObjectMapper objectMapper;
+    private final long settleSeconds;
+
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final Map<Long, ResultsSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<Long, LocalDateTime> completedAt = new ConcurrentHashMap<>(); // completions seen by this node
+
+    public ResultsSnapshotService(ElectionCatalog electionCatalog,
+                                  CandidateRepository candidateRepository,
+                                  MediaRepository mediaRepository,
+                                  VoteRepository voteRepository,
+                                  VoterRepository voterRepository,
+                                  ResultsSnapshotRepository resultsSnapshotRepository,
+                                  BlobStore blobStore,
+                                  VoteJournalService voteJournalService,
+                                  ObjectMapper objectMapper,
+                                  @Value("${results.snapshot.settle-seconds:60}") long settleSeconds) {
+        this.electionCatalog = electionCatalog;
+        this.candidateRepository = candidateRepository;
+        this.mediaRepository = mediaRepository;
+        this.voteRepository = voteRepository;
+        this.voterRepository = voterRepository;
+        this.resultsSnapshotRepository = resultsSnapshotRepository;
+        this.blobStore = blobStore;
+        this.voteJournalService = voteJournalService;
+        this.objectMapper = objectMapper;
+        this.settleSeconds = settleSeconds;
+    }
+
+    /**
+     * The election's final results, finalizing them first if the election has settled; empty
+     * while it is not COMPLETED or its last votes may still be coming in.
+     */
+    public Optional<ResultsSnapshot> getSnapshot(Long electionId) {
+        Optional<Election> election = electionCatalog.findById(electionId);
+        if (election.isEmpty() || election.get().getStatus() != ElectionStatus.COMPLETED) {
+            snapshots.remove(electionId);
+            return Optional.empty();
+        }
+        ResultsSnapshot cached = snapshots.get(electionId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<ResultsSnapshot> stored = load(electionId);
+        if (stored.isPresent() || !isSettled(election.get())) {
+            return stored;
+        }
+        return Optional.of(finalizeResults(election.get()));
+    }
+
+    /**
+     * The election's stored snapshot, if it has one, without finalizing it.
+     */
+    public Optional<ResultsSnapshot> findStored(Long electionId) {
+        ResultsSnapshot cached = snapshots.get(electionId);
+        return cached != null ? Optional.of(cached) : load(electionId);
+    }
+
+    @EventListener
+    public void onElectionStatusChanged(ElectionStatusChangedEvent event) {
+        if (event.newStatus() == ElectionStatus.COMPLETED) {
+            completedAt.put(event.electionId(), LocalDateTime.now());
+        } else if (event.previousStatus() == ElectionStatus.COMPLETED) {
+            completedAt.remove(event.electionId());
+            snapshots.remove(event.electionId());
+            try {
+                if (resultsSnapshotRepository.deleteByElectionId(event.electionId())) {
+                    log.warn("Election {} left COMPLETED; dropped its results snapshot", event.electionId());
+                }
+            } catch (Exception e) {
+                log.error("Failed to drop results snapshot of reopened election {}: {}", event.electionId(), e.getMessage());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoteCast(VoteCastEvent event) {
+        if (event.electionId() != null) {
+            evict(event.electionId());
+        }
+    }
+
+    /**
+     * Forget the cached snapshot of an election that took a vote, so the stored one is read again
+     * or, if the vote dropped it, the results are finalized again.
+     */
+    public void evict(Long electionId) {
+        snapshots.remove(electionId);
+    }
+
+    /**
+     * Finalize every completed election that has settled, so results are frozen even if nobody
+     * asks for them.
+     */
+    @Scheduled(initialDelayString = "${results.snapshot.sweep-interval-ms:60000}",
+               fixedDelayString = "${results.snapshot.sweep-interval-ms:60000}")
+    public void finalizeSettled() {
+        for (Election election : electionCatalog.findAll()) {
+            if (election.getStatus() != ElectionStatus.COMPLETED || snapshots.containsKey(election.getId())) {
+                continue;
+            }
+            try {
+                getSnapshot(election.getId());
+            } catch (Exception e) {
+                log.warn("Failed to finalize results of election {}: {}", election.getId(), e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cachedSnapshots", snapshots.size());
+        stats.put("cachedBytes", snapshots.values().stream().mapToLong(snapshot -> snapshot.getBody().length).sum());
+        stats.put("settleSeconds", settleSeconds);
+        return stats;
+    }
+
+    private boolean isSettled(Election election) {
+        if (voteJournalService.hasPendingVotes(election.getId())) {
+            return false;
+        }
+        // Completions on other nodes, or before this one started, are timed from the row's last update
+        LocalDateTime since = completedAt.get(election.getId());
+        if (since == null) {
+            since = election.getUpdatedAt() != null ? election.getUpdatedAt() : startedAt;
+        }
+        return !LocalDateTime.now().isBefore(since.plusSeconds(settleSeconds));
+    }
+
+    /**
+     * Read a stored snapshot, preferring the local blob store over the database copy.
+     */
+    private Optional<ResultsSnapshot> load(Long electionId) {
+        Optional<ResultsSnapshot> header = resultsSnapshotRepository.findHeader(electionId);
+        if (header.isEmpty()) {
+            return Optional.empty();
+        }
+        ResultsSnapshot snapshot = header.get();
+        byte[] body = blobStore.readBytes(snapshot.getContentHash())
+                .filter(bytes -> HashUtils.sha256Hex(bytes).equals(snapshot.getContentHash()))
+                .orElse(null);
+        if (body == null) {
+            body = resultsSnapshotRepository.findBody(electionId)
+                    .orElseThrow(() -> new IllegalStateException("Results snapshot of election " + electionId + " disappeared"));
+            if (!HashUtils.sha256Hex(body).equals(snapshot.getContentHash())) {
+                throw new IllegalStateException("Results snapshot of election " + electionId + " does not match its hash");
+            }
+            blobStore.put(body);
+        }
+        snapshot.setBody(body);
+        snapshots.put(electionId, snapshot);
+        return Optional.of(snapshot);
+    }
+
+    private synchronized ResultsSnapshot finalizeResults(Election election) {
+        ResultsSnapshot cached = snapshots.get(election.getId());
+        if (cached != null) {
+            return cached;
+        }
+        long startTime = System.currentTimeMillis();
+        ResultsSnapshot snapshot = build(election);
+        if (!resultsSnapshotRepository.insertIfAbsent(snapshot)) {
+            // Another node finalized first; serve its bytes
+            return load(election.getId()).orElseThrow(() -> new IllegalStateException("Results snapshot of election "
+                    + election.getId() + " disappeared"));
+        }
+        blobStore.put(snapshot.getBody());
+        snapshots.put(election.getId(), snapshot);
+        log.info("Finalized results of election {}: {} votes, {} bytes, hash {} in {} ms", election.getId(), snapshot.getTotalVotes(),
+                snapshot.getBody().length, snapshot.getContentHash(), System.currentTimeMillis() - startTime);
+        return snapshot;
+    }
+
+    private ResultsSnapshot build(Election election) {
+        Long electionId = election.getId();
+        List<Candidate> candidates = candidateRepository.findByElectionIdAndIsActiveTrueOrderByCandidateNumberAsc(electionId);
+        Map<Long, StoredImage> photos = mediaRepository.findMetadataByElection(MediaKind.CANDIDATE_PHOTO, electionId, ImageVariant.FULL);
+
+        // Counts per center and candidate, straight from the votes table; centers in reporting order
+        Map<String, Map<Long, Long>> centerCounts = new HashMap<>();
+        Map<String, Long> firstVoteIds = new HashMap<>();
+        Map<Long, Long> voteCounts = new HashMap<>();
+        voteRepository.streamCenterTallies(electionId, null, false, rs -> {
+            String center = rs.getString("center_location");
+            long candidateId = rs.getLong("candidate_id");
+            long votes = rs.getLong("votes");
+            centerCounts.computeIfAbsent(center, c -> new TreeMap<>()).merge(candidateId, votes, Long::sum);
+            firstVoteIds.merge(center, rs.getLong("first_vote_id"), Math::min);
+            voteCounts.merge(candidateId, votes, Long::sum);
+        });
+        long totalVotes = voteCounts.values().stream().mapToLong(Long::longValue).sum();
+        long totalEligibleVoters = voterRepository.countActiveVoters(); // same approximation as the live results
+
+        List<Map<String, Object>> candidateResults = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            Map<String, Object> candidateResult = new LinkedHashMap<>();
+            candidateResult.put("candidateId", candidate.getId());
+            candidateResult.put("candidateName", candidate.getName());
+            candidateResult.put("candidateNumber", candidate.getCandidateNumber());
+            candidateResult.put("party", candidate.getParty());
+            candidateResult.put("voteCount", voteCounts.getOrDefault(candidate.getId(), 0L));
+            candidateResult.put("hasPhoto", photos.containsKey(candidate.getId()));
+            candidateResult.put("photoUrl", "/api/candidates/" + candidate.getId() + "/photo");
+            candidateResults.add(candidateResult);
+        }
+        // Stable order: by votes, then ballot order
+        candidateResults.sort((a, b) -> Long.compare((Long) b.get("voteCount"), (Long) a.get("voteCount")));
+
+        List<String> centers = new ArrayList<>(centerCounts.keySet());
+        centers.sort((a, b) -> Long.compare(firstVoteIds.get(a), firstVoteIds.get(b)));
+        List<Map<String, Object>> centerResults = new ArrayList<>();
+        for (String center : centers) {
+            Map<String, Object> centerResult = new LinkedHashMap<>();
+            centerResult.put("centerLocation", center);
+            centerResult.put("totalVotes", centerCounts.get(center).values().stream().mapToLong(Long::longValue).sum());
+            centerResult.put("voteCounts", centerCounts.get(center));
+            centerResults.add(centerResult);
+        }
+
+        // Same fields as the live results, in a fixed order
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("electionId", electionId);
+        results.put("electionCode", election.getElectionCode());
+        results.put("electionName", election.getName());
+        results.put("final", true);
+        results.put("totalVotes", totalVotes);
+        results.put("totalEligibleVoters", totalEligibleVoters);
+        results.put("votersWhoVoted", totalVotes);
+        results.put("votingPercentage", totalEligibleVoters > 0 ? (double) totalVotes / totalEligibleVoters * 100 : 0);
+        results.put("candidateResults", candidateResults);
+        results.put("centers", centerResults);
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(results);
+            return ResultsSnapshot.builder()
+                    .electionId(electionId)
+                    .body(body)
+                    .contentHash(HashUtils.sha256Hex(body))
+                    .totalVotes(totalVotes)
+                    .finalizedAt(LocalDateTime.now())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize results of election " + electionId + ": " + e.getMessage(), e);
+        }
+    }
+}
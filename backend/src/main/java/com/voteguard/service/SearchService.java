@@ -0,0 +1,110 @@
+package com.voteguard.service;
+
+import com.voteguard.cache.ElectionCatalog;
+import com.voteguard.event.CandidateChangedEvent;
+import com.voteguard.model.Candidate;
+import com.voteguard.model.Election;
+import com.voteguard.repository.CandidateRepository;
+import com.voteguard.search.TextIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Prefix, substring and typo-tolerant search over active elections (by name or code) and active
+ * candidates (by name or party), served from in-memory {@link TextIndex}es instead of
+ * {@code LIKE '%...%'} scans. The election index is rebuilt when the election catalog changes,
+ * the candidate index after a candidate change event, local or relayed from another node, and
+ * whenever the catalog changes too; both are rebuilt lazily on the next search.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchService {
+
+    private final ElectionCatalog electionCatalog;
+    private final CandidateRepository candidateRepository;
+
+    private volatile IndexedElections elections;
+    private volatile IndexedCandidates candidates;
+    private long candidateGeneration; // guarded by this
+
+    public List<Election> searchElections(String query, int limit) {
+        return electionIndex().search(query, limit);
+    }
+
+    /**
+     * @param electionId restrict to one election's candidates, or null for all
+     */
+    public List<Candidate> searchCandidates(String query, Long electionId, int limit) {
+        List<Candidate> matches = candidateIndex().search(query, electionId == null ? limit : Integer.MAX_VALUE);
+        if (electionId == null) {
+            return matches;
+        }
+        return matches.stream()
+                .filter(candidate -> Objects.equals(electionId, candidate.getElectionId()))
+                .limit(limit)
+                .toList();
+    }
+
+    @EventListener
+    public synchronized void onCandidateChanged(CandidateChangedEvent event) {
+        candidateGeneration++;
+        candidates = null;
+    }
+
+    private TextIndex<Election> electionIndex() {
+        IndexedElections current = elections;
+        long generation = electionCatalog.getGeneration();
+        if (current != null && current.generation() == generation) {
+            return current.index();
+        }
+        // The catalog copy may be newer than the generation read above; the next search then rebuilds again
+        TextIndex<Election> index = new TextIndex<>(electionCatalog.findActive(), election -> {
+            List<String> fields = new ArrayList<>();
+            fields.add(election.getName());
+            fields.add(election.getElectionCode());
+            return fields;
+        });
+        elections = new IndexedElections(generation, index);
+        log.debug("Election search index built: {} elections", index.size());
+        return index;
+    }
+
+    private TextIndex<Candidate> candidateIndex() {
+        IndexedCandidates current = candidates;
+        long catalogGeneration = electionCatalog.getGeneration();
+        if (current != null && current.catalogGeneration() == catalogGeneration) {
+            return current.index();
+        }
+        long buildGeneration;
+        synchronized (this) {
+            buildGeneration = candidateGeneration;
+        }
+        TextIndex<Candidate> index = new TextIndex<>(candidateRepository.findByIsActiveTrue(), candidate -> {
+            List<String> fields = new ArrayList<>();
+            fields.add(candidate.getName());
+            fields.add(candidate.getParty());
+            return fields;
+        });
+        synchronized (this) {
+            // Only keep the index if no candidate changed while it was being built
+            if (candidateGeneration == buildGeneration) {
+                candidates = new IndexedCandidates(catalogGeneration, index);
+            }
+        }
+        log.debug("Candidate search index built: {} candidates", index.size());
+        return index;
+    }
+
+    private record IndexedElections(long generation, TextIndex<Election> index) {
+    }
+
+    private record IndexedCandidates(long catalogGeneration, TextIndex<Candidate> index) {
+    }
+}
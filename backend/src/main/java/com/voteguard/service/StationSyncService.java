@@ -0,0 +1,271 @@
+package com.voteguard.service;
+
+import com.voteguard.cache.ParticipationIndex;
+import com.voteguard.cache.VoterDirectory;
+import com.voteguard.event.VoteCastEvent;
+import com.voteguard.model.Candidate;
+import com.voteguard.model.StationSyncEntry;
+import com.voteguard.model.StationSyncResult;
+import com.voteguard.model.Vote;
+import com.voteguard.model.Voter;
+import com.voteguard.model.VotingStation;
+import com.voteguard.repository.CandidateRepository;
+import com.voteguard.repository.ResultsSnapshotRepository;
+import com.voteguard.repository.VoteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Ingests bundles of votes that kiosks captured while their center was offline.
+ * <p>
+ * Every entry is signed with the station's sync secret and numbered per station. Entries up to
+ * the station's last synced sequence, or recorded in station_sync_entries, were processed by an
+ * earlier upload and are skipped without any further work, so a kiosk can simply re-upload
+ * everything it is unsure about. The remaining signatures are verified in parallel, the votes
+ * go through the same checks as a live cast and are inserted with one statement. Within a bundle
+ * the first entry for a ballot wins; against votes already stored, the (voter, election)
+ * constraint decides.
+ * <p>
+ * Votes are cast at the station's location and count if they were captured while the election
+ * was open, so a station that only comes back online after the close still gets its ballots in.
+ */
+@Service
+@Slf4j
+public class StationSyncService {
+
+    private static final ThreadLocal<Mac> HMAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance("HmacSHA256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    });
+
+    private final VotingStationService votingStationService;
+    private final VoteService voteService;
+    private final VoteRepository voteRepository;
+    private final CandidateRepository candidateRepository;
+    private final ResultsSnapshotRepository resultsSnapshotRepository;
+    private final VoterDirectory voterDirectory;
+    private final ParticipationIndex participationIndex;
+    private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxEntries;
+    private final long maxClockSkewSeconds;
+
+    public StationSyncService(VotingStationService votingStationService, VoteService voteService, VoteRepository voteRepository,
+                              CandidateRepository candidateRepository, ResultsSnapshotRepository resultsSnapshotRepository,
+                              VoterDirectory voterDirectory,
+                              ParticipationIndex participationIndex, AuditLogService auditLogService,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${station.sync.max-entries:5000}") int maxEntries,
+                              @Value("${station.sync.max-clock-skew-seconds:300}") long maxClockSkewSeconds) {
+        this.votingStationService = votingStationService;
+        this.voteService = voteService;
+        this.voteRepository = voteRepository;
+        this.candidateRepository = candidateRepository;
+        this.resultsSnapshotRepository = resultsSnapshotRepository;
+        this.voterDirectory = voterDirectory;
+        this.participationIndex = participationIndex;
+        this.auditLogService = auditLogService;
+        this.eventPublisher = eventPublisher;
+        this.maxEntries = maxEntries;
+        this.maxClockSkewSeconds = maxClockSkewSeconds;
+    }
+
+    /**
+     * Apply an uploaded bundle and report the outcome of every entry, in upload order.
+     */
+    @Transactional
+    public Map<String, Object> sync(String stationCode, List<StationSyncEntry> entries, String ipAddress, String userAgent) {
+        if (entries == null || entries.isEmpty()) {
+            throw new RuntimeException("Bundle has no entries");
+        }
+        if (entries.size() > maxEntries) {
+            throw new RuntimeException("At most " + maxEntries + " entries can be synced at once");
+        }
+        Set<Long> sequences = new HashSet<>();
+        for (StationSyncEntry entry : entries) {
+            if (entry == null || entry.sequence() == null || entry.sequence() <= 0) {
+                throw new RuntimeException("Every entry needs a positive sequence number");
+            }
+            if (!sequences.add(entry.sequence())) {
+                throw new RuntimeException("Sequence " + entry.sequence() + " appears more than once");
+            }
+        }
+
+        // Uploads from one station are serialized by the row lock until this transaction ends
+        Set<Long> syncedAfterWatermark = new HashSet<>();
+        VotingStation station = votingStationService.lockForSync(stationCode, syncedAfterWatermark);
+        if (station.getSyncSecret() == null) {
+            throw new RuntimeException("Station " + stationCode + " is not provisioned for offline sync");
+        }
+        if (station.getLocation() == null || station.getLocation().isBlank()) {
+            throw new RuntimeException("Station " + stationCode + " has no location");
+        }
+        long watermark = station.getLastSyncedSequence();
+
+        StationSyncResult[] results = new StationSyncResult[entries.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            Long sequence = entries.get(i).sequence();
+            if (sequence <= watermark || syncedAfterWatermark.contains(sequence)) {
+                results[i] = StationSyncResult.of(sequence, StationSyncResult.Status.DUPLICATE);
+            } else {
+                pending.add(i);
+            }
+        }
+
+        byte[] key = HexFormat.of().parseHex(station.getSyncSecret());
+        boolean[] validSignature = new boolean[entries.size()];
+        pending.parallelStream().forEach(i -> validSignature[i] = verifySignature(key, stationCode, entries.get(i)));
+
+        Set<Long> candidateIds = new HashSet<>();
+        for (int i : pending) {
+            if (validSignature[i] && entries.get(i).candidateId() != null) {
+                candidateIds.add(entries.get(i).candidateId());
+            }
+        }
+        Map<Long, Candidate> candidates = new HashMap<>();
+        if (!candidateIds.isEmpty()) {
+            candidateRepository.findByIds(candidateIds).forEach(candidate -> candidates.put(candidate.getId(), candidate));
+        }
+
+        LocalDateTime latestCaptureTime = LocalDateTime.now().plusSeconds(maxClockSkewSeconds);
+        List<Vote> votes = new ArrayList<>();
+        List<Integer> voteEntries = new ArrayList<>();
+        Set<String> ballots = new HashSet<>();
+        for (int i : pending) {
+            StationSyncEntry entry = entries.get(i);
+            if (!validSignature[i]) {
+                results[i] = StationSyncResult.of(entry.sequence(), StationSyncResult.Status.INVALID_SIGNATURE);
+                continue;
+            }
+            if (entry.voterId() == null || entry.electionId() == null) {
+                results[i] = StationSyncResult.rejected(entry.sequence(), "Voter ID and election are required");
+                continue;
+            }
+            if (entry.capturedAt() == null || entry.capturedAt().isAfter(latestCaptureTime)) {
+                results[i] = StationSyncResult.rejected(entry.sequence(), "Capture time is missing or in the future");
+                continue;
+            }
+            Optional<Voter> voter = voterDirectory.findByVoterId(entry.voterId());
+            if (voter.isPresent() && participationIndex.hasVoted(voter.get().getId(), entry.electionId())) {
+                results[i] = StationSyncResult.of(entry.sequence(), StationSyncResult.Status.ALREADY_VOTED);
+                continue;
+            }
+            Vote vote;
+            try {
+                vote = voteService.prepareStationVote(entry.voterId(), entry.candidateId(), entry.electionId(),
+                    station.getLocation(), entry.capturedAt(), ipAddress, userAgent, id -> Optional.ofNullable(candidates.get(id)));
+            } catch (RuntimeException e) {
+                results[i] = StationSyncResult.rejected(entry.sequence(), e.getMessage());
+                continue;
+            }
+            // A voter captured twice in one bundle keeps the entry uploaded first
+            if (!ballots.add(vote.getVoter().getId() + ":" + vote.getElectionId())) {
+                results[i] = StationSyncResult.of(entry.sequence(), StationSyncResult.Status.ALREADY_VOTED);
+                continue;
+            }
+            votes.add(vote);
+            voteEntries.add(i);
+        }
+
+        List<Vote> inserted = voteRepository.insertAllIgnoringDuplicates(votes);
+        // A late ballot for an election whose results were already frozen reopens them; they are
+        // finalized again, with it, once this commits
+        Set<Long> electionIds = new HashSet<>();
+        for (Vote vote : inserted) {
+            electionIds.add(vote.getElectionId());
+        }
+        for (Long electionId : electionIds) {
+            if (resultsSnapshotRepository.deleteByElectionId(electionId)) {
+                log.warn("Station {} synced votes for election {} after it was finalized; dropped its results snapshot",
+                        stationCode, electionId);
+            }
+        }
+        for (int k = 0; k < votes.size(); k++) {
+            Vote vote = votes.get(k);
+            Long sequence = entries.get(voteEntries.get(k)).sequence();
+            if (vote.getId() != null) {
+                results[voteEntries.get(k)] = new StationSyncResult(sequence, StationSyncResult.Status.ACCEPTED, vote.getId(), null);
+                eventPublisher.publishEvent(VoteCastEvent.of(vote));
+            } else {
+                results[voteEntries.get(k)] = StationSyncResult.of(sequence, StationSyncResult.Status.ALREADY_VOTED);
+            }
+        }
+
+        List<StationSyncResult> processed = new ArrayList<>();
+        for (int i : pending) {
+            if (results[i].isFinal()) {
+                processed.add(results[i]);
+            }
+        }
+        long lastSyncedSequence = votingStationService.recordSynced(station, processed, syncedAfterWatermark);
+
+        Map<StationSyncResult.Status, Integer> counts = new EnumMap<>(StationSyncResult.Status.class);
+        for (StationSyncResult.Status status : StationSyncResult.Status.values()) {
+            counts.put(status, 0);
+        }
+        for (StationSyncResult result : results) {
+            counts.merge(result.status(), 1, Integer::sum);
+        }
+
+        try {
+            auditLogService.logStationAction(null, "STATION_SYNC", "STATION", ipAddress, userAgent,
+                Map.of("station_code", stationCode, "entries", entries.size(), "counts", counts, "last_synced_sequence", lastSyncedSequence));
+        } catch (Exception e) {
+            log.warn("Failed to log station sync to audit log (non-critical): {}", e.getMessage());
+        }
+        log.info("Station {} synced {} entries: {}; last synced sequence {}", stationCode, entries.size(), counts, lastSyncedSequence);
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("stationCode", stationCode);
+        report.put("lastSyncedSequence", lastSyncedSequence);
+        report.put("counts", counts);
+        report.put("results", List.of(results));
+        return report;
+    }
+
+    private static boolean verifySignature(byte[] key, String stationCode, StationSyncEntry entry) {
+        if (entry.signature() == null) {
+            return false;
+        }
+        byte[] signature;
+        try {
+            signature = HexFormat.of().parseHex(entry.signature());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(key, entry.signedPayload(stationCode)), signature);
+    }
+
+    private static byte[] sign(byte[] key, String payload) {
+        Mac mac = HMAC.get();
+        try {
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid sync secret", e);
+        }
+        return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,223 @@
+package com.voteguard.service;
+
+import com.voteguard.model.VoteReceipt;
+import com.voteguard.repository.VoteIdempotencyRepository;
+import com.voteguard.repository.VoteIdempotencyRepository.StoredOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Idempotency keys for vote submission. A kiosk that retries /api/vote/cast with the same key
+ * gets the original vote ID and receipt back instead of an "already voted" error, without the
+ * validation chain or the insert running again.
+ * <ul>
+ *   <li>Outcomes are kept in a bounded in-memory table in front of vote_idempotency_keys; the
+ *       row is written in the vote's own transaction, so it survives restarts and is visible to
+ *       every node.</li>
+ *   <li>Concurrent submissions with the same key share one execution: the first one runs it and
+ *       the others wait for its result, success or failure.</li>
+ *   <li>A key reused for a different ballot is rejected rather than answered with someone
+ *       else's receipt.</li>
+ * </ul>
+ * Failed submissions are not remembered, so a retry after a failure runs again.
+ */
+@Service
+@Slf4j
+public class VoteIdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private final VoteIdempotencyRepository idempotencyRepository;
+    private final Duration ttl;
+    private final int maxEntries;
+
+    // Guarded by this. Insertion order is expiry order, since every entry lives for the same TTL.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private long replayed;
+    private long collapsed;
+
+    public VoteIdempotencyService(VoteIdempotencyRepository idempotencyRepository,
+                                  @Value("${vote.idempotency.ttl-hours:24}") long ttlHours,
+                                  @Value("${vote.idempotency.max-entries:100000}") int maxEntries) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Fingerprint of the ballot a key was first used for.
+     */
+    public static String fingerprint(String canonicalVoterId, Long electionId, Long candidateId) {
+        return canonicalVoterId + ":" + electionId + ":" + candidateId;
+    }
+
+    public LocalDateTime expiresAt() {
+        return LocalDateTime.now().plus(ttl);
+    }
+
+    /**
+     * Run {@code castVote} once per key. The action receives the key's expiry and must store the
+     * outcome with {@link VoteIdempotencyRepository#save} in the vote's transaction.
+     *
+     * @return the receipt, and whether it was replayed from an earlier submission
+     */
+    public Result execute(String key, String requestFingerprint, Function<LocalDateTime, VoteReceipt> castVote) {
+        CompletableFuture<VoteReceipt> future;
+        boolean owner = false;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            prune(now);
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(requestFingerprint, new CompletableFuture<>(), now + ttl.toMillis());
+                entries.put(key, entry);
+                trim();
+                owner = true;
+            } else if (!entry.requestFingerprint().equals(requestFingerprint)) {
+                throw new RuntimeException("Idempotency key was already used for a different ballot");
+            } else if (entry.future().isDone()) {
+                replayed++;
+            } else {
+                collapsed++;
+            }
+            future = entry.future();
+        }
+
+        if (!owner) {
+            return new Result(await(future), true);
+        }
+        try {
+            Optional<StoredOutcome> stored = findStored(key);
+            Result result;
+            if (stored.isPresent()) {
+                result = new Result(replay(stored.get(), requestFingerprint), true);
+            } else {
+                result = castOnce(key, requestFingerprint, castVote);
+            }
+            future.complete(result.receipt());
+            return result;
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                Entry current = entries.get(key);
+                if (current != null && current.future() == future) {
+                    entries.remove(key);
+                }
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Result castOnce(String key, String requestFingerprint, Function<LocalDateTime, VoteReceipt> castVote) {
+        try {
+            return new Result(castVote.apply(expiresAt()), false);
+        } catch (RuntimeException e) {
+            // Another node may have just stored this key (its vote then fails the unique constraint here)
+            Optional<StoredOutcome> stored = findStored(key);
+            if (stored.isPresent()) {
+                return new Result(replay(stored.get(), requestFingerprint), true);
+            }
+            throw e;
+        }
+    }
+
+    private Optional<StoredOutcome> findStored(String key) {
+        try {
+            return idempotencyRepository.findActive(key);
+        } catch (DataAccessException e) {
+            // Database unreachable: the vote itself goes to the local journal, see VoteJournalService
+            log.warn("Could not look up idempotency key: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private VoteReceipt replay(StoredOutcome stored, String requestFingerprint) {
+        if (!stored.requestFingerprint().equals(requestFingerprint)) {
+            throw new RuntimeException("Idempotency key was already used for a different ballot");
+        }
+        synchronized (this) {
+            replayed++;
+        }
+        return stored.receipt();
+    }
+
+    private static VoteReceipt await(CompletableFuture<VoteReceipt> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vote.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        synchronized (this) {
+            prune(System.currentTimeMillis());
+        }
+        try {
+            int deleted = idempotencyRepository.deleteExpired();
+            if (deleted > 0) {
+                log.info("Purged {} expired vote idempotency keys", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to purge expired vote idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlHours", ttl.toHours());
+        stats.put("replayed", replayed);
+        stats.put("collapsed", collapsed);
+        return stats;
+    }
+
+    // Caller holds the lock
+    private void prune(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAtMillis() > now) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    // Caller holds the lock. Evicted keys are still answered from the database.
+    private void trim() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.future().isDone()) {
+                continue; // never drop an execution others may be waiting on
+            }
+            iterator.remove();
+        }
+    }
+
+    public record Result(VoteReceipt receipt, boolean replayed) {
+    }
+
+    private record Entry(String requestFingerprint, CompletableFuture<VoteReceipt> future, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,444 @@
+package com.voteguard.service;
+
+import com.voteguard.cache.ParticipationIndex;
+import com.voteguard.event.VoteCastEvent;
+import com.voteguard.model.Candidate;
+import com.voteguard.model.JournaledVote;
+import com.voteguard.model.Vote;
+import com.voteguard.model.VoteReceipt;
+import com.voteguard.repository.CandidateRepository;
+import com.voteguard.repository.ResultsSnapshotRepository;
+import com.voteguard.repository.VoteIdempotencyRepository;
+import com.voteguard.repository.VoteRepository;
+import com.voteguard.util.WriteAheadJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps voting open while the database is unreachable. Votes normally go straight to
+ * {@link VoteService#castVote}; when that fails because the database cannot be reached, or a
+ * health check fails, the service switches to degraded mode:
+ * <ul>
+ *   <li>votes still pass every check, answered from memory (voter directory, election catalog,
+ *       eligibility and participation indexes, and the last known active candidates), and are
+ *       appended to a local {@link WriteAheadJournal}; the voter gets a provisional receipt;</li>
+ *   <li>a vote that needs the database to be checked, e.g. a voter not in the directory cache,
+ *       is turned away as temporarily unavailable;</li>
+ *   <li>once the database answers again the journal is replayed into votes in order. The
+ *       unique_voter_election constraint resolves duplicates, e.g. a voter who also voted on
+ *       another node: the vote already in the table wins.</li>
+ * </ul>
+ * Degraded mode ends when the journal has been drained. Journaled votes survive a restart and
+ * are replayed after it.
+ */
+@Service
+@Slf4j
+public class VoteJournalService {
+
+    private static final String UNAVAILABLE = "Voting is temporarily unavailable. Please try again in a moment.";
+    private static final int REPLAY_BATCH_SIZE = 200;
+    private static final Duration CANDIDATE_REFRESH_INTERVAL = Duration.ofMinutes(1);
+
+    private final VoteService voteService;
+    private final VoteRepository voteRepository;
+    private final VoteIdempotencyRepository voteIdempotencyRepository;
+    private final ResultsSnapshotRepository resultsSnapshotRepository;
+    private final CandidateRepository candidateRepository;
+    private final ParticipationIndex participationIndex;
+    private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+    private final Path journalFile;
+    private final long maxBytes;
+    private final WriteAheadJournal.SyncPolicy syncPolicy;
+
+    private volatile boolean degraded;
+    private volatile Map<Long, Candidate> lastKnownCandidates = Map.of();
+    private volatile LocalDateTime candidatesLoadedAt;
+
+    // Guarded by this
+    private WriteAheadJournal journal; // null when disabled or not opened
+    private final Set<String> pendingBallots = new HashSet<>(); // voters.id:election ID of journaled votes
+    private LocalDateTime degradedSince;
+    private String lastFailure;
+    private long journaled;
+    private long replayed;
+    private long duplicates;
+    private long discarded;
+
+    public VoteJournalService(VoteService voteService,
+                              VoteRepository voteRepository,
+                              VoteIdempotencyRepository voteIdempotencyRepository,
+                              ResultsSnapshotRepository resultsSnapshotRepository,
+                              CandidateRepository candidateRepository,
+                              ParticipationIndex participationIndex,
+                              AuditLogService auditLogService,
+                              ApplicationEventPublisher eventPublisher,
+                              TransactionTemplate transactionTemplate,
+                              JdbcTemplate jdbcTemplate,
+                              @Value("${vote.journal.enabled:true}") boolean enabled,
+                              @Value("${vote.journal.file:./data/vote-journal.wal}") String journalFile,
+                              @Value("${vote.journal.max-size-mb:256}") long maxSizeMb,
+                              @Value("${vote.journal.fsync:always}") String syncPolicy) {
+        this.voteService = voteService;
+        this.voteRepository = voteRepository;
+        this.voteIdempotencyRepository = voteIdempotencyRepository;
+        this.resultsSnapshotRepository = resultsSnapshotRepository;
+        this.candidateRepository = candidateRepository;
+        this.participationIndex = participationIndex;
+        this.auditLogService = auditLogService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.journalFile = Path.of(journalFile);
+        this.maxBytes = Math.min(maxSizeMb * 1024 * 1024, Integer.MAX_VALUE);
+        this.syncPolicy = WriteAheadJournal.SyncPolicy.valueOf(syncPolicy.trim().toUpperCase());
+    }
+
+    @PostConstruct
+    public synchronized void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            journal = new WriteAheadJournal(journalFile, maxBytes, syncPolicy);
+        } catch (IOException e) {
+            log.error("Failed to open vote journal {}, votes will not be journaled during outages: {}", journalFile, e.getMessage());
+            return;
+        }
+        List<WriteAheadJournal.Entry> pending = journal.read(Integer.MAX_VALUE);
+        for (WriteAheadJournal.Entry record : pending) {
+            try {
+                JournaledVote vote = JournaledVote.fromBytes(record.payload());
+                pendingBallots.add(ballotKey(vote.voterId(), vote.electionId()));
+            } catch (RuntimeException e) {
+                log.warn("Unreadable record in vote journal, it will be discarded on replay: {}", e.getMessage());
+            }
+        }
+        if (!pending.isEmpty()) {
+            // Stay degraded until the votes from before the restart are in the database
+            degraded = true;
+            degradedSince = LocalDateTime.now();
+            log.warn("Vote journal {} holds {} votes not yet in the database; they will be replayed once it is reachable",
+                    journalFile, pending.size());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Failed to close vote journal: {}", e.getMessage());
+        }
+        journal = null;
+    }
+
+    /**
+     * Cast a vote, or journal it if the database is unreachable.
+     *
+     * @return the receipt; provisional if the vote was journaled
+     */
+    public VoteReceipt castVote(String voterId, Long candidateId, Long electionId, String ipAddress, String userAgent,
+                                String idempotencyKey, LocalDateTime keyExpiresAt) {
+        if (!degraded) {
+            try {
+                return VoteReceipt.of(voteService.castVote(voterId, candidateId, electionId, ipAddress, userAgent, idempotencyKey, keyExpiresAt));
+            } catch (RuntimeException e) {
+                if (!isJournaling() || !isDatabaseUnavailable(e)) {
+                    throw e;
+                }
+                enterDegradedMode(e);
+            }
+        }
+        return journalVote(voterId, candidateId, electionId, ipAddress, userAgent, idempotencyKey, keyExpiresAt);
+    }
+
+    private VoteReceipt journalVote(String voterId, Long candidateId, Long electionId, String ipAddress, String userAgent,
+                                    String idempotencyKey, LocalDateTime keyExpiresAt) {
+        if (electionId == null) {
+            throw new RuntimeException(UNAVAILABLE);
+        }
+        Vote vote;
+        try {
+            vote = voteService.prepareVote(voterId, candidateId, electionId, ipAddress, userAgent, this::findLastKnownCandidate);
+        } catch (RuntimeException e) {
+            if (isDatabaseUnavailable(e)) {
+                log.warn("Cannot check vote of voter {} without the database: {}", voterId, e.getMessage());
+                throw new RuntimeException(UNAVAILABLE);
+            }
+            throw e;
+        }
+        vote.setTimestamp(LocalDateTime.now());
+        JournaledVote entry = JournaledVote.of(UUID.randomUUID().toString(), vote, idempotencyKey, keyExpiresAt);
+
+        synchronized (this) {
+            if (journal == null) {
+                throw new RuntimeException(UNAVAILABLE);
+            }
+            if (!pendingBallots.add(ballotKey(entry.voterId(), electionId))) {
+                throw new RuntimeException("Voter has already voted in this election");
+            }
+            try {
+                journal.append(entry.toBytes());
+            } catch (IOException e) {
+                pendingBallots.remove(ballotKey(entry.voterId(), electionId));
+                log.error("Failed to journal vote of voter {}: {}", voterId, e.getMessage());
+                throw new RuntimeException(UNAVAILABLE);
+            }
+            journaled++;
+        }
+        participationIndex.markVoted(entry.voterId(), electionId);
+        log.info("Vote of voter {} in election {} journaled with provisional receipt {}", voterId, electionId, entry.receiptId());
+        return VoteReceipt.provisional(entry);
+    }
+
+    /**
+     * Check the database and, once it answers, replay the journal. Also keeps the active
+     * candidates that journaled votes are checked against up to date.
+     */
+    @Scheduled(fixedDelayString = "${vote.journal.health-check-interval-ms:5000}")
+    public void checkDatabase() {
+        if (!isJournaling()) {
+            return;
+        }
+        try {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            refreshCandidates();
+        } catch (RuntimeException e) {
+            if (!degraded && isDatabaseUnavailable(e)) {
+                enterDegradedMode(e);
+            }
+            return;
+        }
+        if (degraded) {
+            replay();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vote.journal.fsync-interval-ms:200}")
+    public synchronized void syncJournal() {
+        if (journal != null && journal.syncPolicy() == WriteAheadJournal.SyncPolicy.INTERVAL) {
+            journal.sync();
+        }
+    }
+
+    private void replay() {
+        long startTime = System.currentTimeMillis();
+        long replayedBefore;
+        synchronized (this) {
+            replayedBefore = replayed;
+        }
+        while (true) {
+            List<WriteAheadJournal.Entry> batch;
+            synchronized (this) {
+                if (journal == null) {
+                    return;
+                }
+                batch = journal.read(REPLAY_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    // New votes go to the database again from here on
+                    degraded = false;
+                    log.info("Vote journal drained ({} votes in {} ms), leaving degraded mode after {}",
+                            replayed - replayedBefore, System.currentTimeMillis() - startTime,
+                            Duration.between(degradedSince, LocalDateTime.now()));
+                    degradedSince = null;
+                    return;
+                }
+            }
+            for (WriteAheadJournal.Entry record : batch) {
+                JournaledVote vote = null;
+                try {
+                    vote = JournaledVote.fromBytes(record.payload());
+                    replay(vote);
+                } catch (RuntimeException e) {
+                    if (isDatabaseUnavailable(e)) {
+                        log.warn("Database went away while replaying the vote journal: {}", e.getMessage());
+                        return;
+                    }
+                    // Kept in the log so the vote can be recovered by hand
+                    log.error("Discarding journaled vote that cannot be replayed: {}; record: {}",
+                            e.getMessage(), new String(record.payload(), StandardCharsets.UTF_8));
+                    synchronized (this) {
+                        discarded++;
+                    }
+                }
+                synchronized (this) {
+                    journal.consumeThrough(record);
+                    if (vote != null) {
+                        pendingBallots.remove(ballotKey(vote.voterId(), vote.electionId()));
+                    }
+                }
+            }
+        }
+    }
+
+    private void replay(JournaledVote vote) {
+        boolean[] unfinalized = new boolean[1];
+        Optional<Long> voteId = transactionTemplate.execute(status -> {
+            Optional<Long> inserted = voteRepository.insertJournaled(vote);
+            inserted.ifPresent(id -> {
+                // Another node may have frozen the results while this vote sat in the journal;
+                // they are finalized again, with it, once this commits
+                unfinalized[0] = resultsSnapshotRepository.deleteByElectionId(vote.electionId());
+                eventPublisher.publishEvent(new VoteCastEvent(id, vote.voterId(), vote.electionId(), vote.candidateId(),
+                        vote.centerLocation(), vote.timestamp()));
+                if (vote.idempotencyKey() != null) {
+                    voteIdempotencyRepository.saveIfAbsent(vote.idempotencyKey(),
+                            VoteIdempotencyService.fingerprint(vote.voterCode(), vote.electionId(), vote.candidateId()),
+                            new VoteReceipt(id, vote.timestamp(), vote.centerLocation(), null), vote.keyExpiresAt());
+                }
+            });
+            return inserted;
+        });
+        if (voteId == null || voteId.isEmpty()) {
+            log.warn("Journaled vote {} of voter {} in election {} discarded: the voter already has a vote in that election",
+                    vote.receiptId(), vote.voterCode(), vote.electionId());
+            synchronized (this) {
+                duplicates++;
+            }
+            return;
+        }
+        synchronized (this) {
+            replayed++;
+        }
+        if (unfinalized[0]) {
+            log.warn("Journaled vote {} of voter {} arrived after election {} was finalized; dropped its results snapshot",
+                    vote.receiptId(), vote.voterCode(), vote.electionId());
+        }
+        // The vote is committed; an audit failure must not send it back to the journal
+        try {
+            auditLogService.logVotingAction(vote.voterId(), "VOTE_CAST", "VOTE", vote.ipAddress(), vote.userAgent(),
+                    Map.of("candidate_id", vote.candidateId(),
+                            "center_location", vote.centerLocation() != null ? vote.centerLocation() : "N/A",
+                            "provisional_id", vote.receiptId(),
+                            "timestamp", vote.timestamp().toString()));
+        } catch (Exception e) {
+            log.warn("Failed to log replayed vote {} to audit log (non-critical): {}", vote.receiptId(), e.getMessage());
+        }
+    }
+
+    private void refreshCandidates() {
+        LocalDateTime loadedAt = candidatesLoadedAt;
+        if (loadedAt != null && loadedAt.plus(CANDIDATE_REFRESH_INTERVAL).isAfter(LocalDateTime.now())) {
+            return;
+        }
+        lastKnownCandidates = candidateRepository.findByIsActiveTrue().stream()
+                .collect(Collectors.toUnmodifiableMap(Candidate::getId, Function.identity()));
+        candidatesLoadedAt = LocalDateTime.now();
+    }
+
+    private Optional<Candidate> findLastKnownCandidate(Long candidateId) {
+        return Optional.ofNullable(lastKnownCandidates.get(candidateId));
+    }
+
+    private void enterDegradedMode(Exception cause) {
+        synchronized (this) {
+            lastFailure = cause.getMessage();
+            if (degraded) {
+                return;
+            }
+            degraded = true;
+            degradedSince = LocalDateTime.now();
+        }
+        log.error("Database unreachable, journaling votes locally until it is back: {}", cause.getMessage());
+    }
+
+    private synchronized boolean isJournaling() {
+        return journal != null;
+    }
+
+    /**
+     * Whether votes in the election are journaled on this node and not yet in the database.
+     */
+    public synchronized boolean hasPendingVotes(Long electionId) {
+        String suffix = ":" + electionId;
+        return pendingBallots.stream().anyMatch(key -> key.endsWith(suffix));
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", journal != null);
+        stats.put("degraded", degraded);
+        stats.put("degradedSince", degradedSince);
+        stats.put("lastFailure", lastFailure);
+        stats.put("journaled", journaled);
+        stats.put("replayed", replayed);
+        stats.put("duplicates", duplicates);
+        stats.put("discarded", discarded);
+        stats.put("knownCandidates", lastKnownCandidates.size());
+        if (journal != null) {
+            stats.put("file", journalFile.toString());
+            stats.put("fsync", journal.syncPolicy().name().toLowerCase());
+            stats.put("pendingVotes", journal.pendingRecords());
+            stats.put("pendingBytes", journal.pendingBytes());
+            stats.put("mappedBytes", journal.mappedBytes());
+            stats.put("lagMs", oldestPendingAgeMs());
+        }
+        return stats;
+    }
+
+    // Caller holds the lock. Age of the oldest vote not yet replayed, 0 if there is none.
+    private long oldestPendingAgeMs() {
+        List<WriteAheadJournal.Entry> oldest = journal.read(1);
+        if (oldest.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Duration.between(JournaledVote.fromBytes(oldest.get(0).payload()).timestamp(), LocalDateTime.now()).toMillis();
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Whether a failure means no database connection could be had, as opposed to a rejected vote.
+     * A query that merely ran slow or timed out does not count: the database is still up, and
+     * journaling on a slow query would take votes away from it while it recovers.
+     */
+    private static boolean isDatabaseUnavailable(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause() != t ? t.getCause() : null) {
+            if (t instanceof CannotGetJdbcConnectionException || t instanceof TransientDataAccessResourceException
+                    || t instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String ballotKey(Long voterId, Long electionId) {
+        return voterId + ":" + electionId;
+    }
+}
@@ -1,26 +1,44 @@
 package com.voteguard.service;
 
+import com.voteguard.cache.CenterTally;
+import com.voteguard.cache.ElectionCatalog;
+import com.voteguard.cache.ParticipationIndex;
+import com.voteguard.cache.TurnoutSeries;
+import com.voteguard.cache.VoterDirectory;
+import com.voteguard.event.VoteCastEvent;
+import com.voteguard.model.BallotSelection;
 import com.voteguard.model.Candidate;
+import com.voteguard.model.CenterResult;
 import com.voteguard.model.Election;
+import com.voteguard.model.ElectionStatus;
+import com.voteguard.model.TurnoutPoint;
+import com.voteguard.model.TurnoutResolution;
 import com.voteguard.model.Vote;
+import com.voteguard.model.VoteReceipt;
 import com.voteguard.model.Voter;
 import com.voteguard.repository.CandidateRepository;
-import com.voteguard.repository.ElectionRepository;
+import com.voteguard.repository.VoteIdempotencyRepository;
 import com.voteguard.repository.VoteRepository;
 import com.voteguard.repository.VoterRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionSynchronizationAdapter;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
@@ -28,86 +46,37 @@ import java.util.Optional;
 public class VoteService {
 
     private final VoteRepository voteRepository;
+    private final VoteIdempotencyRepository voteIdempotencyRepository;
     private final VoterRepository voterRepository;
+    private final VoterDirectory voterDirectory;
     private final CandidateRepository candidateRepository;
-    private final ElectionRepository electionRepository;
+    private final ElectionCatalog electionCatalog;
+    private final EligibilityService eligibilityService;
     private final AuditLogService auditLogService;
+    private final ParticipationIndex participationIndex;
+    private final CenterTally centerTally;
+    private final TurnoutSeries turnoutSeries;
+    private final ApplicationEventPublisher eventPublisher;
     private final JdbcTemplate jdbcTemplate;
 
+    // Upper bound on the ballots in one batch cast
+    private static final int MAX_BATCH_SELECTIONS = 20;
+
     @Transactional
     public Vote castVote(String voterId, Long candidateId, Long electionId, String ipAddress, String userAgent) {
-        // Check if voter exists
-        Voter voter = voterRepository.findByVoterId(voterId)
-            .orElseThrow(() -> new RuntimeException("Voter not found"));
-        
-        // Check if voter has already voted in this specific election
-        if (electionId != null) {
-            if (voteRepository.existsByVoterIdAndElectionId(voter.getId(), electionId)) {
-                throw new RuntimeException("Voter has already voted in this election");
-            }
-        } else {
-            // For non-election-specific votes, check if voter has voted at all
-            if (voteRepository.existsByVoterId(voter.getId())) {
-                throw new RuntimeException("Voter has already voted");
-            }
-        }
-
-        // Check if candidate exists and is active
-        Candidate candidate = candidateRepository.findById(candidateId)
-            .orElseThrow(() -> new RuntimeException("Candidate not found"));
-        
-        if (!candidate.getIsActive()) {
-            throw new RuntimeException("Candidate is not active");
-        }
-        
-        // Get election to verify and get center location
-        String centerLocation = null;
-        if (electionId != null) {
-            Election election = electionRepository.findById(electionId)
-                .orElseThrow(() -> new RuntimeException("Election not found"));
-            
-            // Verify candidate belongs to the election
-            if (!electionId.equals(candidate.getElectionId())) {
-                throw new RuntimeException("Candidate does not belong to the selected election");
-            }
-            
-            // Get active center location from election
-            centerLocation = election.getActiveCenterLocation();
-            if (centerLocation == null || centerLocation.isEmpty()) {
-                throw new RuntimeException("No active voting center for this election");
-            }
-        }
-
-        // Verify voter is eligible for this election
-        if (electionId != null) {
-            try {
-                log.info("Checking voter eligibility: voterId={}, electionId={}", voter.getId(), electionId);
-                boolean isEligible = electionRepository.isVoterEligible(voter.getId(), electionId);
-                log.info("Voter eligibility result: {}", isEligible);
-                if (!isEligible) {
-                    throw new RuntimeException("Voter is not eligible for this election");
-                }
-            } catch (RuntimeException e) {
-                log.error("Error checking voter eligibility: {}", e.getMessage(), e);
-                throw e;
-            } catch (Exception e) {
-                log.error("Unexpected error checking voter eligibility: {}", e.getMessage(), e);
-                throw new RuntimeException("Error checking voter eligibility: " + e.getMessage(), e);
-            }
-        }
+        return castVote(voterId, candidateId, electionId, ipAddress, userAgent, null, null);
+    }
 
-        // Create vote (fingerprint verification is mandatory and done during login)
-        Vote vote = Vote.builder()
-            .voter(voter)
-            .voterName(voter.getFullName())
-            .candidate(candidate)
-            .stationCode(null) // Deprecated - always null
-            .centerLocation(centerLocation)
-            .ipAddress(ipAddress)
-            .userAgent(userAgent)
-            .fingerprintVerified(true) // Always true as fingerprint is verified during login
-            .electionId(electionId)
-            .build();
+    /**
+     * Cast a vote and, when an idempotency key is given, store its receipt under the key in the
+     * same transaction so a retried submission can be answered with it.
+     */
+    @Transactional
+    public Vote castVote(String voterId, Long candidateId, Long electionId, String ipAddress, String userAgent,
+                         String idempotencyKey, LocalDateTime keyExpiresAt) {
+        Vote vote = prepareVote(voterId, candidateId, electionId, ipAddress, userAgent, candidateRepository::findById);
+        Voter voter = vote.getVoter();
+        String centerLocation = vote.getCenterLocation();
 
         // Save vote (the unique constraint on (voter_id, election_id) prevents duplicate votes)
         log.info("About to save vote: voterId={}, candidateId={}, electionId={}", voter.getId(), candidateId, electionId);
@@ -122,6 +91,15 @@ public class VoteService {
             throw e; // Re-throw to trigger transaction rollback
         }
 
+        // Marks the voter in the participation index and counts the vote per center once it commits
+        eventPublisher.publishEvent(VoteCastEvent.of(savedVote));
+
+        if (idempotencyKey != null) {
+            voteIdempotencyRepository.save(idempotencyKey,
+                VoteIdempotencyService.fingerprint(voter.getVoterId(), electionId, candidateId),
+                VoteReceipt.of(savedVote), keyExpiresAt);
+        }
+
         // Note: We don't set hasVoted=true anymore because voters can vote in multiple elections
         // The database unique constraint unique_voter_election ensures one vote per election per voter
 
@@ -181,6 +159,185 @@ public class VoteService {
         return savedVote;
     }
 
+    /**
+     * Cast one voter's ballots in several elections at once. The voter is looked up once, the
+     * candidates and eligibility for all selections are fetched with one query each, and the votes
+     * are inserted with a single statement; either every ballot is cast or none is.
+     */
+    @Transactional
+    public List<Vote> castBatch(String voterId, List<BallotSelection> selections, String ipAddress, String userAgent) {
+        if (selections == null || selections.isEmpty()) {
+            throw new RuntimeException("No ballots selected");
+        }
+        if (selections.size() > MAX_BATCH_SELECTIONS) {
+            throw new RuntimeException("At most " + MAX_BATCH_SELECTIONS + " ballots can be cast at once");
+        }
+        Set<Long> electionIds = new HashSet<>();
+        Set<Long> candidateIds = new HashSet<>();
+        for (BallotSelection selection : selections) {
+            if (selection == null || selection.electionId() == null || selection.candidateId() == null) {
+                throw new RuntimeException("Each ballot needs an electionId and a candidateId");
+            }
+            if (!electionIds.add(selection.electionId())) {
+                throw new RuntimeException("Election " + selection.electionId() + " is selected more than once");
+            }
+            candidateIds.add(selection.candidateId());
+        }
+
+        Voter voter = voterDirectory.findByVoterId(voterId)
+            .orElseThrow(() -> new RuntimeException("Voter not found"));
+        Map<Long, Candidate> candidates = new HashMap<>();
+        for (Candidate candidate : candidateRepository.findByIds(candidateIds)) {
+            candidates.put(candidate.getId(), candidate);
+        }
+        Set<Long> eligible = eligibilityService.eligibleAmong(voter.getId(), electionIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Vote> votes = new ArrayList<>();
+        for (BallotSelection selection : selections) {
+            try {
+                Vote vote = buildVote(voter, selection.candidateId(), selection.electionId(), ipAddress, userAgent,
+                    id -> Optional.ofNullable(candidates.get(id)), eligible::contains, null, null);
+                vote.setTimestamp(now);
+                votes.add(vote);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Election " + selection.electionId() + ": " + e.getMessage(), e);
+            }
+        }
+
+        voteRepository.insertBatch(votes);
+        List<Map<String, Object>> ballots = new ArrayList<>();
+        for (Vote vote : votes) {
+            eventPublisher.publishEvent(VoteCastEvent.of(vote));
+            ballots.add(Map.of("vote_id", vote.getId(), "election_id", vote.getElectionId(), "candidate_id", vote.getCandidate().getId(),
+                "center_location", vote.getCenterLocation() != null ? vote.getCenterLocation() : "N/A"));
+        }
+
+        // One audit record for the whole batch
+        try {
+            auditLogService.logVotingAction(voter.getId(), "VOTE_CAST_BATCH", "VOTE", ipAddress, userAgent,
+                Map.of("ballots", ballots, "timestamp", System.currentTimeMillis()));
+        } catch (Exception e) {
+            log.warn("Failed to log batch vote action to audit log (non-critical): {}", e.getMessage());
+        }
+
+        log.info("Batch of {} votes cast for voterId={}", votes.size(), voterId);
+        return votes;
+    }
+
+    /**
+     * Run every check a vote has to pass and build it, unsaved. Candidates are looked up with the
+     * given function, so a vote can also be checked while the database is unreachable.
+     */
+    public Vote prepareVote(String voterId, Long candidateId, Long electionId, String ipAddress, String userAgent,
+                            Function<Long, Optional<Candidate>> findCandidate) {
+        // Check if voter exists
+        Voter voter = voterDirectory.findByVoterId(voterId)
+            .orElseThrow(() -> new RuntimeException("Voter not found"));
+
+        return buildVote(voter, candidateId, electionId, ipAddress, userAgent, findCandidate,
+            id -> eligibilityService.isEligible(voter.getId(), id), null, null);
+    }
+
+    /**
+     * Like {@link #prepareVote}, for a ballot a voting station captured offline and synced later.
+     * The vote is cast at the station's location and timestamped when it was captured; it counts
+     * if it was captured while the election was open, even if the election has closed since.
+     */
+    public Vote prepareStationVote(String voterId, Long candidateId, Long electionId, String stationLocation,
+                                   LocalDateTime capturedAt, String ipAddress, String userAgent,
+                                   Function<Long, Optional<Candidate>> findCandidate) {
+        Voter voter = voterDirectory.findByVoterId(voterId)
+            .orElseThrow(() -> new RuntimeException("Voter not found"));
+
+        Vote vote = buildVote(voter, candidateId, electionId, ipAddress, userAgent, findCandidate,
+            id -> eligibilityService.isEligible(voter.getId(), id), stationLocation, capturedAt);
+        vote.setTimestamp(capturedAt);
+        return vote;
+    }
+
+    /**
+     * @param stationLocation center of a station-captured ballot, or null to use the election's active center
+     * @param capturedAt when a station captured the ballot, or null for a ballot cast now
+     */
+    private Vote buildVote(Voter voter, Long candidateId, Long electionId, String ipAddress, String userAgent,
+                           Function<Long, Optional<Candidate>> findCandidate, Predicate<Long> isEligible,
+                           String stationLocation, LocalDateTime capturedAt) {
+        // Check if voter has already voted in this specific election, or at all for non-election-specific votes
+        if (participationIndex.hasVoted(voter.getId(), electionId)) {
+            throw new RuntimeException(electionId != null ? "Voter has already voted in this election" : "Voter has already voted");
+        }
+
+        // Check if candidate exists and is active
+        Candidate candidate = findCandidate.apply(candidateId)
+            .orElseThrow(() -> new RuntimeException("Candidate not found"));
+        
+        if (!candidate.getIsActive()) {
+            throw new RuntimeException("Candidate is not active");
+        }
+        
+        // Get election to verify and get center location
+        String centerLocation = null;
+        if (electionId != null) {
+            Election election = electionCatalog.findById(electionId)
+                .orElseThrow(() -> new RuntimeException("Election not found"));
+            
+            if (capturedAt == null) {
+                // Ballots close when the lifecycle scheduler completes the election
+                if (election.getStatus() == ElectionStatus.COMPLETED) {
+                    throw new RuntimeException("Voting for this election has closed");
+                }
+            } else if ((election.getStartDate() != null && capturedAt.isBefore(election.getStartDate()))
+                    || (election.getEndDate() != null && capturedAt.isAfter(election.getEndDate()))) {
+                throw new RuntimeException("Ballot was captured outside the election's voting period");
+            }
+            
+            // Verify candidate belongs to the election
+            if (!electionId.equals(candidate.getElectionId())) {
+                throw new RuntimeException("Candidate does not belong to the selected election");
+            }
+            
+            // Get active center location from election, unless the ballot was cast at a station
+            centerLocation = stationLocation != null ? stationLocation : election.getActiveCenterLocation();
+            if (centerLocation == null || centerLocation.isEmpty()) {
+                throw new RuntimeException("No active voting center for this election");
+            }
+        }
+
+        // Verify voter is eligible for this election
+        if (electionId != null) {
+            try {
+                log.info("Checking voter eligibility: voterId={}, electionId={}", voter.getId(), electionId);
+                boolean eligible = isEligible.test(electionId);
+                log.info("Voter eligibility result: {}", eligible);
+                if (!eligible) {
+                    throw new RuntimeException("Voter is not eligible for this election");
+                }
+            } catch (RuntimeException e) {
+                log.error("Error checking voter eligibility: {}", e.getMessage(), e);
+                throw e;
+            } catch (Exception e) {
+                log.error("Unexpected error checking voter eligibility: {}", e.getMessage(), e);
+                throw new RuntimeException("Error checking voter eligibility: " + e.getMessage(), e);
+            }
+        }
+
+        // Create vote (fingerprint verification is mandatory and done during login)
+        Vote vote = Vote.builder()
+            .voter(voter)
+            .voterName(voter.getFullName())
+            .candidate(candidate)
+            .stationCode(null) // Deprecated - always null
+            .centerLocation(centerLocation)
+            .ipAddress(ipAddress)
+            .userAgent(userAgent)
+            .fingerprintVerified(true) // Always true as fingerprint is verified during login
+            .electionId(electionId)
+            .build();
+
+        return vote;
+    }
+
     public Map<String, Object> getVotingResults() {
         List<Object[]> voteCounts = voteRepository.getVoteCountsByCandidate();
         long totalVotes = voteRepository.getTotalVoteCount();
@@ -209,14 +366,8 @@ public class VoteService {
         // Get all candidates for this election
         List<Candidate> candidates = candidateRepository.findByElectionIdAndIsActiveTrueOrderByCandidateNumberAsc(electionId);
         
-        // Get vote counts by candidate for this election
-        List<Object[]> voteCounts = voteRepository.getVoteCountsByCandidateForElection(electionId);
-        
-        // Create a map for quick lookup
-        Map<Long, Long> voteCountMap = new HashMap<>();
-        for (Object[] count : voteCounts) {
-            voteCountMap.put((Long) count[0], (Long) count[1]);
-        }
+        // Vote counts by candidate: the merge of every center's partial
+        Map<Long, Long> voteCountMap = centerTally.getElectionTotals(electionId);
         
         // Build candidate results with details
         List<Map<String, Object>> candidateResults = new ArrayList<>();
@@ -246,9 +397,9 @@ public class VoteService {
         // Sort by vote count descending
         candidateResults.sort((a, b) -> Long.compare((Long) b.get("voteCount"), (Long) a.get("voteCount")));
         
-        // Calculate totals
-        long totalVotes = voteRepository.getTotalVoteCountForElection(electionId);
-        long votersWhoVoted = voteRepository.countVotersWhoVotedInElection(electionId);
+        // Calculate totals (unique_voter_election allows one vote per voter, so every vote is a distinct voter)
+        long totalVotes = voteCountMap.values().stream().mapToLong(Long::longValue).sum();
+        long votersWhoVoted = totalVotes;
         
         // Get total eligible voters for this election (from voters table)
         long totalEligibleVoters = 0;
@@ -271,6 +422,104 @@ public class VoteService {
         return results;
     }
 
+    /**
+     * Vote counts of every center in the election, in the order the centers reported their first
+     * vote, each with the running total of all centers reported up to it.
+     */
+    public Map<String, Object> getCenterResults(Long electionId) {
+        List<CenterResult> centers = centerTally.getCenterResults(electionId);
+        List<Map<String, Object>> centerResults = new ArrayList<>();
+        long cumulativeVotes = 0;
+        for (int i = 0; i < centers.size(); i++) {
+            CenterResult center = centers.get(i);
+            cumulativeVotes += center.totalVotes();
+            Map<String, Object> centerResult = new HashMap<>();
+            centerResult.put("position", i + 1);
+            centerResult.put("centerLocation", center.centerLocation());
+            centerResult.put("totalVotes", center.totalVotes());
+            centerResult.put("cumulativeVotes", cumulativeVotes);
+            centerResult.put("voteCounts", center.voteCounts());
+            centerResults.add(centerResult);
+        }
+
+        Map<String, Object> results = new HashMap<>();
+        results.put("electionId", electionId);
+        results.put("totalVotes", cumulativeVotes);
+        results.put("centerCount", centers.size());
+        results.put("centers", centerResults);
+        return results;
+    }
+
+    /**
+     * Election results counting only the first centersReported centers, in reporting order.
+     */
+    public Map<String, Object> getResultsAsOfCenter(Long electionId, int centersReported) {
+        if (centersReported < 1) {
+            throw new RuntimeException("centers must be at least 1");
+        }
+        List<CenterResult> centers = centerTally.getCenterResults(electionId);
+        List<CenterResult> reported = centers.subList(0, Math.min(centersReported, centers.size()));
+        Map<Long, Long> voteCountMap = CenterTally.merge(reported);
+
+        List<Map<String, Object>> candidateResults = new ArrayList<>();
+        for (Candidate candidate : candidateRepository.findByElectionIdAndIsActiveTrueOrderByCandidateNumberAsc(electionId)) {
+            Map<String, Object> candidateResult = new HashMap<>();
+            candidateResult.put("candidateId", candidate.getId());
+            candidateResult.put("candidateName", candidate.getName());
+            candidateResult.put("candidateNumber", candidate.getCandidateNumber());
+            candidateResult.put("party", candidate.getParty());
+            candidateResult.put("voteCount", voteCountMap.getOrDefault(candidate.getId(), 0L));
+            candidateResults.add(candidateResult);
+        }
+        candidateResults.sort((a, b) -> Long.compare((Long) b.get("voteCount"), (Long) a.get("voteCount")));
+
+        Map<String, Object> results = new HashMap<>();
+        results.put("electionId", electionId);
+        results.put("centersReported", reported.size());
+        results.put("centerCount", centers.size());
+        results.put("reportedCenters", reported.stream().map(CenterResult::centerLocation).toList());
+        results.put("totalVotes", voteCountMap.values().stream().mapToLong(Long::longValue).sum());
+        results.put("candidateResults", candidateResults);
+        return results;
+    }
+
+    /**
+     * Recount one center of an election from the votes table, after its votes were audited or corrected.
+     */
+    public Map<String, Object> recountCenter(Long electionId, String centerLocation) {
+        electionCatalog.findById(electionId).orElseThrow(() -> new RuntimeException("Election not found"));
+        boolean changed = centerTally.recount(electionId, centerLocation);
+        if (changed) {
+            log.warn("Recount of center {} in election {} changed its counts", centerLocation, electionId);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("electionId", electionId);
+        result.put("centerLocation", centerLocation);
+        result.put("changed", changed);
+        return result;
+    }
+
+    /**
+     * The election's turnout curve, per minute, hour or day, for one center or all of them.
+     */
+    public Map<String, Object> getTurnout(Long electionId, String centerLocation, String resolution) {
+        TurnoutResolution bucketSize;
+        try {
+            bucketSize = TurnoutResolution.valueOf(resolution.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("resolution must be minute, hour or day");
+        }
+        List<TurnoutPoint> curve = turnoutSeries.getCurve(electionId, centerLocation, bucketSize);
+
+        Map<String, Object> results = new HashMap<>();
+        results.put("electionId", electionId);
+        results.put("centerLocation", centerLocation);
+        results.put("resolution", bucketSize);
+        results.put("totalVotes", curve.isEmpty() ? 0L : curve.get(curve.size() - 1).cumulativeVotes());
+        results.put("points", curve);
+        return results;
+    }
+
     public boolean hasVoterVoted(Long voterId) {
         return voteRepository.existsByVoterId(voterId);
     }
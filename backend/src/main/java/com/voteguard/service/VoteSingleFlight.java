@@ -0,0 +1,106 @@
+package com.voteguard.service;
+
+import com.voteguard.model.VoteReceipt;
+import com.voteguard.util.VoterIds;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Lets only one vote per voter and election be in flight on this node. A second submission
+ * arriving while the first is still running (a double tap, a kiosk retry) waits for it instead
+ * of running the validation chain again and racing it to the unique_voter_election constraint:
+ * <ul>
+ *   <li>the same ballot gets the first submission's receipt, or its error;</li>
+ *   <li>a different ballot is rejected as already voted once the first one succeeds, and runs
+ *       on its own if the first one failed.</li>
+ * </ul>
+ * The wrapped call must commit before returning, so a later submission sees the vote in the
+ * database. Submissions on other nodes are still stopped by the constraint.
+ */
+@Service
+public class VoteSingleFlight {
+
+    // Guarded by this
+    private final Map<String, Flight> flights = new HashMap<>();
+    private long executed;
+    private long shared;
+    private long rejected;
+
+    public VoteReceipt castVote(String voterId, Long electionId, Long candidateId, Supplier<VoteReceipt> castVote) {
+        String key = VoterIds.canonical(voterId) + ":" + electionId;
+        while (true) {
+            Flight flight;
+            synchronized (this) {
+                flight = flights.get(key);
+                if (flight == null) {
+                    flight = new Flight(candidateId, new CompletableFuture<>());
+                    flights.put(key, flight);
+                    executed++;
+                    break;
+                }
+            }
+
+            boolean sameBallot = Objects.equals(flight.candidateId(), candidateId);
+            try {
+                VoteReceipt receipt = flight.future().join();
+                synchronized (this) {
+                    if (sameBallot) {
+                        shared++;
+                    } else {
+                        rejected++;
+                    }
+                }
+                if (!sameBallot) {
+                    throw new RuntimeException(electionId != null ? "Voter has already voted in this election" : "Voter has already voted");
+                }
+                return receipt;
+            } catch (CompletionException e) {
+                if (sameBallot) {
+                    synchronized (this) {
+                        shared++;
+                    }
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+                // The other ballot failed; this one may still be valid
+            }
+        }
+        return execute(key, castVote);
+    }
+
+    private VoteReceipt execute(String key, Supplier<VoteReceipt> castVote) {
+        CompletableFuture<VoteReceipt> future;
+        synchronized (this) {
+            future = flights.get(key).future();
+        }
+        try {
+            VoteReceipt receipt = castVote.get();
+            future.complete(receipt);
+            return receipt;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (this) {
+                flights.remove(key);
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("inFlight", flights.size());
+        stats.put("executed", executed);
+        stats.put("shared", shared);
+        stats.put("rejected", rejected);
+        return stats;
+    }
+
+    private record Flight(Long candidateId, CompletableFuture<VoteReceipt> future) {
+    }
+}
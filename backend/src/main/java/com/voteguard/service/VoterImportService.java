@@ -0,0 +1,235 @@
+package com.voteguard.service;
+
+import com.voteguard.event.VoterChangedEvent;
+import com.voteguard.model.Election;
+import com.voteguard.model.Voter;
+import com.voteguard.model.VoterImport;
+import com.voteguard.repository.VoterRepository;
+import com.voteguard.util.Csv;
+import com.voteguard.util.VoterIds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk load of the voter roll from a CSV file and streaming export of it.
+ * The upload is read once to validate every row, find duplicates within the file and write the
+ * canonical rows to a staging file; only a fully valid file is then streamed into Postgres with
+ * COPY (see {@link VoterRepository#importVoters}), so a bad row never leaves a partial import.
+ * Imported voters become eligible for the active and upcoming elections, as registered ones do.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VoterImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final List<String> REQUIRED_COLUMNS = List.of("voterid", "fullname", "email", "extrafield");
+
+    // Column limits of the voters table
+    private static final int MAX_VOTER_ID_LENGTH = 50;
+    private static final int MAX_TEXT_LENGTH = 100;
+
+    private final VoterRepository voterRepository;
+    private final ElectionService electionService;
+    private final EligibilityService eligibilityService;
+    private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Import a CSV file with a header row naming at least voter_id, full_name, email and
+     * extra_field, and optionally role (VOTER by default). Other columns are ignored, so an
+     * export can be imported again.
+     */
+    public Map<String, Object> importVoters(MultipartFile file, boolean skipExisting, String ipAddress, String userAgent) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Path staged = Files.createTempFile("voter-import-", ".csv");
+        try {
+            Validation validation;
+            try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8);
+                 BufferedWriter writer = Files.newBufferedWriter(staged, StandardCharsets.UTF_8)) {
+                validation = validate(new BufferedReader(reader), writer);
+            }
+            if (validation.invalidRows > 0) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "The file has errors; nothing was imported");
+                response.put("rows", validation.rows);
+                response.put("invalidRows", validation.invalidRows);
+                response.put("errors", validation.errors);
+                return response;
+            }
+
+            Set<Long> electionIds = new LinkedHashSet<>();
+            electionService.findActiveElections().stream().map(Election::getId).forEach(electionIds::add);
+            electionService.findUpcomingElections().stream().map(Election::getId).forEach(electionIds::add);
+
+            VoterImport result;
+            try (Reader rows = Files.newBufferedReader(staged, StandardCharsets.UTF_8)) {
+                result = voterRepository.importVoters(rows, electionIds, skipExisting);
+            }
+            long elapsedMs = System.currentTimeMillis() - startTime;
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("rows", result.stagedRows());
+            response.put("conflicts", result.conflicts());
+            if (!result.conflicts().isEmpty() && !skipExisting) {
+                response.put("success", false);
+                response.put("message", "Some voters are already registered; nothing was imported");
+                return response;
+            }
+
+            if (!result.insertedIds().isEmpty()) {
+                // Too many voters to announce one by one; directories reload instead
+                eventPublisher.publishEvent(new VoterChangedEvent(null, null));
+                eligibilityService.indexGrants(result.insertedIds(), electionIds);
+            }
+            auditLogService.logSecurityEvent(null, "VOTERS_IMPORTED", "SYSTEM", ipAddress, userAgent, Map.of(
+                    "file", String.valueOf(file.getOriginalFilename()),
+                    "rows", result.stagedRows(),
+                    "imported", result.insertedIds().size()));
+            log.info("Imported {} of {} voters in {} ms", result.insertedIds().size(), result.stagedRows(), elapsedMs);
+
+            response.put("success", true);
+            response.put("message", "Voters imported successfully");
+            response.put("imported", result.insertedIds().size());
+            response.put("skipped", result.stagedRows() - result.insertedIds().size());
+            response.put("elapsedMs", elapsedMs);
+            response.put("rowsPerSecond", elapsedMs > 0 ? result.stagedRows() * 1000 / elapsedMs : result.stagedRows());
+            return response;
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    /**
+     * Write the roll as CSV to the given stream.
+     *
+     * @return number of voters written
+     */
+    public long exportVoters(OutputStream out) {
+        long startTime = System.currentTimeMillis();
+        long rows = voterRepository.exportCsv(out);
+        log.info("Exported {} voters in {} ms", rows, System.currentTimeMillis() - startTime);
+        return rows;
+    }
+
+    private Validation validate(BufferedReader reader, BufferedWriter staged) throws IOException {
+        Validation validation = new Validation();
+        String header = reader.readLine();
+        if (header == null) {
+            validation.reject(1, "File is empty");
+            return validation;
+        }
+        List<String> names;
+        try {
+            // Spreadsheet exports often start with a byte order mark
+            names = Csv.parseLine(header.replace("\uFEFF", ""));
+        } catch (IllegalArgumentException e) {
+            validation.reject(1, e.getMessage());
+            return validation;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).toLowerCase().replaceAll("[^a-z]", ""), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            validation.reject(1, "Missing columns " + missing + " in header");
+            return validation;
+        }
+
+        Map<String, Integer> lineByVoterId = new HashMap<>();
+        Set<String> emails = new HashSet<>();
+        int lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            validation.rows++;
+            List<String> fields;
+            try {
+                fields = Csv.parseLine(line);
+            } catch (IllegalArgumentException e) {
+                validation.reject(lineNumber, e.getMessage());
+                continue;
+            }
+
+            String voterId = VoterIds.canonical(field(fields, columns.get("voterid")));
+            String fullName = field(fields, columns.get("fullname")).trim();
+            String email = field(fields, columns.get("email")).trim().toLowerCase();
+            String extraField = field(fields, columns.get("extrafield")).trim();
+            String role = field(fields, columns.get("role")).trim().toUpperCase();
+
+            String error = null;
+            if (voterId.isEmpty() || fullName.isEmpty() || email.isEmpty() || extraField.isEmpty()) {
+                error = "voter_id, full_name, email and extra_field are required";
+            } else if (voterId.length() > MAX_VOTER_ID_LENGTH) {
+                error = "voter_id is longer than " + MAX_VOTER_ID_LENGTH + " characters";
+            } else if (fullName.length() > MAX_TEXT_LENGTH || email.length() > MAX_TEXT_LENGTH || extraField.length() > MAX_TEXT_LENGTH) {
+                error = "full_name, email and extra_field are limited to " + MAX_TEXT_LENGTH + " characters";
+            } else if (!role.isEmpty() && !isRole(role)) {
+                error = "Unknown role " + role;
+            } else if (lineByVoterId.containsKey(voterId)) {
+                error = "Voter ID " + voterId + " already appears on line " + lineByVoterId.get(voterId);
+            } else if (!emails.add(email)) {
+                error = "Email " + email + " appears more than once";
+            }
+            if (error != null) {
+                validation.reject(lineNumber, error);
+                continue;
+            }
+            lineByVoterId.put(voterId, lineNumber);
+            staged.write(Csv.formatLine(List.of(voterId, fullName, email, extraField, role.isEmpty() ? Voter.Role.VOTER.name() : role)));
+            staged.newLine();
+        }
+        return validation;
+    }
+
+    private static String field(List<String> fields, Integer column) {
+        return column != null && column < fields.size() ? fields.get(column) : "";
+    }
+
+    private static boolean isRole(String role) {
+        for (Voter.Role value : Voter.Role.values()) {
+            if (value.name().equals(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Validation {
+        long rows;
+        long invalidRows;
+        final List<String> errors = new ArrayList<>();
+
+        void reject(int lineNumber, String message) {
+            invalidRows++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + lineNumber + ": " + message);
+            }
+        }
+    }
+}
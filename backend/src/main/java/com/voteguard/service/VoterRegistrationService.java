@@ -1,13 +1,20 @@
 package com.voteguard.service;
 
+import com.voteguard.cache.VoterDirectory;
+import com.voteguard.event.VoterChangedEvent;
 import com.voteguard.model.Voter;
 import com.voteguard.model.Election;
+import com.voteguard.model.StoredImage;
+import com.voteguard.repository.FingerprintRepository;
+import com.voteguard.repository.MediaRepository;
+import com.voteguard.repository.VoterRepository;
+import com.voteguard.util.VoterIds;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpEntity;
@@ -17,14 +24,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
 import java.security.MessageDigest;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Base64;
 
 @Service
@@ -35,16 +41,31 @@ public class VoterRegistrationService {
     private final JdbcTemplate jdbcTemplate;
     private final AuditLogService auditLogService;
     private final ElectionService electionService;
+    private final MediaRepository mediaRepository;
+    private final FingerprintRepository fingerprintRepository;
+    private final VoterRepository voterRepository;
+    private final EligibilityService eligibilityService;
+    private final VoterDirectory voterDirectory;
+    private final ApplicationEventPublisher eventPublisher;
     private final RestTemplate restTemplate = new RestTemplate();
 
     @Value("${biometric.service.url:http://localhost:8001}")
     private String biometricServiceUrl;
 
     @Autowired
-    public VoterRegistrationService(JdbcTemplate jdbcTemplate, AuditLogService auditLogService, ElectionService electionService) {
+    public VoterRegistrationService(JdbcTemplate jdbcTemplate, AuditLogService auditLogService, ElectionService electionService,
+                                    MediaRepository mediaRepository, FingerprintRepository fingerprintRepository,
+                                    VoterRepository voterRepository, EligibilityService eligibilityService,
+                                    VoterDirectory voterDirectory, ApplicationEventPublisher eventPublisher) {
         this.jdbcTemplate = jdbcTemplate;
         this.auditLogService = auditLogService;
         this.electionService = electionService;
+        this.mediaRepository = mediaRepository;
+        this.fingerprintRepository = fingerprintRepository;
+        this.voterRepository = voterRepository;
+        this.eligibilityService = eligibilityService;
+        this.voterDirectory = voterDirectory;
+        this.eventPublisher = eventPublisher;
     }
 
     public Map<String, Object> registerVoter(
@@ -60,7 +81,7 @@ public class VoterRegistrationService {
         
         try {
             // Normalize and validate inputs
-            String normalizedVoterId = voterId != null ? voterId.trim().toUpperCase() : "";
+            String normalizedVoterId = voterId != null ? VoterIds.canonical(voterId) : "";
             String normalizedFullName = fullName != null ? fullName.trim() : "";
             String normalizedEmail = email != null ? email.trim().toLowerCase() : "";
             String normalizedExtraField = extraField != null ? extraField.trim() : "";
@@ -79,8 +100,8 @@ public class VoterRegistrationService {
                 throw new RuntimeException("Extra field (DOB/Department) is required");
             }
             
-            // Check if voter already exists (case-insensitive)
-            if (voterExists(normalizedVoterId)) {
+            // Check if voter already exists; IDs the directory has never seen need no query
+            if (voterDirectory.mightExist(normalizedVoterId) && voterRepository.existsByVoterId(normalizedVoterId)) {
                 throw new RuntimeException("Voter with ID " + normalizedVoterId + " already exists");
             }
 
@@ -100,32 +121,35 @@ public class VoterRegistrationService {
             }
 
             // Process profile photo
-            String profilePhotoBase64 = null;
+            byte[] profilePhotoData = null;
             if (profilePhotoFile != null && !profilePhotoFile.isEmpty()) {
-                profilePhotoBase64 = processProfilePhoto(profilePhotoFile);
+                profilePhotoData = profilePhotoFile.getBytes();
             }
 
             // Determine eligible elections for new voter
             List<Long> eligibleElections = determineEligibleElections(normalizedVoterId, role);
-            String eligibleElectionsJson = convertElectionsToJson(eligibleElections);
 
             // Insert voter into database
             String sql = """
-                INSERT INTO voters (voter_id, full_name, email, fingerprint_hash, extra_field, has_voted, is_active, role, eligible_elections)
-                VALUES (?, ?, ?, ?, ?, false, true, ?, ?::jsonb)
+                INSERT INTO voters (voter_id, full_name, email, fingerprint_hash, extra_field, has_voted, is_active, role)
+                VALUES (?, ?, ?, ?, ?, false, true, ?)
+                RETURNING id
                 """;
             
-            int rowsAffected = jdbcTemplate.update(sql, normalizedVoterId, normalizedFullName, normalizedEmail, fingerprintHash, normalizedExtraField, role, eligibleElectionsJson);
+            Long newVoterId = jdbcTemplate.queryForObject(sql, Long.class, normalizedVoterId, normalizedFullName, normalizedEmail, fingerprintHash, normalizedExtraField, role);
             
-            if (rowsAffected > 0) {
+            if (newVoterId != null) {
+                eventPublisher.publishEvent(new VoterChangedEvent(null, normalizedVoterId));
+                eligibilityService.grant(newVoterId, eligibleElections);
+
                 // Store fingerprint data in separate table if provided
                 if (fingerprintFile != null && !fingerprintFile.isEmpty()) {
                     insertFingerprintData(normalizedVoterId, fingerprintFile.getBytes());
                 }
                 
                 // Insert profile photo if provided
-                if (profilePhotoBase64 != null) {
-                    insertProfilePhoto(normalizedVoterId, profilePhotoBase64);
+                if (profilePhotoData != null) {
+                    insertProfilePhoto(normalizedVoterId, profilePhotoData);
                 }
 
                 // Log the registration
@@ -175,8 +199,8 @@ public class VoterRegistrationService {
 
     public Map<String, Object> getVoter(String voterId) {
         try {
-            String sql = "SELECT * FROM voters WHERE voter_id = ?";
-            Voter voter = jdbcTemplate.queryForObject(sql, new VoterRowMapper(), voterId);
+            Voter voter = voterRepository.findByVoterId(voterId)
+                    .orElseThrow(() -> new RuntimeException("Voter not found: " + voterId));
             
             Map<String, Object> voterData = new HashMap<>();
             voterData.put("voterId", voter.getVoterId());
@@ -197,11 +221,8 @@ public class VoterRegistrationService {
 
     public Map<String, Object> getAllVoters(int limit, int offset) {
         try {
-            String sql = "SELECT * FROM voters ORDER BY created_at DESC LIMIT ? OFFSET ?";
-            List<Voter> voters = jdbcTemplate.query(sql, new VoterRowMapper(), limit, offset);
-            
-            String countSql = "SELECT COUNT(*) FROM voters";
-            int totalCount = jdbcTemplate.queryForObject(countSql, Integer.class);
+            List<Voter> voters = voterRepository.findAllOrderByCreatedAtDesc(limit, offset);
+            long totalCount = voterRepository.count();
             
             return Map.of(
                 "success", true,
@@ -216,12 +237,6 @@ public class VoterRegistrationService {
         }
     }
 
-    private boolean voterExists(String voterId) {
-        String sql = "SELECT COUNT(*) FROM voters WHERE UPPER(voter_id) = UPPER(?)";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, voterId);
-        return count != null && count > 0;
-    }
-
     private boolean emailExists(String email) {
         String sql = "SELECT COUNT(*) FROM voters WHERE email = ?";
         Integer count = jdbcTemplate.queryForObject(sql, Integer.class, email);
@@ -236,42 +251,28 @@ public class VoterRegistrationService {
         return Base64.getEncoder().encodeToString(hashBytes);
     }
 
-    private String processProfilePhoto(MultipartFile profilePhotoFile) throws Exception {
-        // Convert profile photo to base64 for storage
-        byte[] fileBytes = profilePhotoFile.getBytes();
-        return Base64.getEncoder().encodeToString(fileBytes);
-    }
-
-    private void insertProfilePhoto(String voterId, String profilePhotoBase64) {
+    private void insertProfilePhoto(String voterId, byte[] profilePhotoData) {
         try {
-            // Check if profile_photos table exists, if not create it
-            String createTableSql = """
-                CREATE TABLE IF NOT EXISTS profile_photos (
-                    id BIGSERIAL PRIMARY KEY,
-                    voter_id VARCHAR(50) UNIQUE NOT NULL,
-                    photo_data TEXT NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (voter_id) REFERENCES voters(voter_id) ON DELETE CASCADE
-                )
-                """;
-            jdbcTemplate.execute(createTableSql);
-
-            String sql = "INSERT INTO profile_photos (voter_id, photo_data) VALUES (?, ?)";
-            jdbcTemplate.update(sql, voterId, profilePhotoBase64);
+            mediaRepository.saveProfilePhoto(voterId, profilePhotoData);
         } catch (Exception e) {
             log.warn("Failed to insert profile photo for voter {}: {}", voterId, e.getMessage());
         }
     }
 
+    public Optional<StoredImage> findVoterProfilePhoto(String voterId) {
+        return mediaRepository.findProfilePhoto(voterId);
+    }
+
     public Map<String, Object> getVoterProfilePhoto(String voterId) {
         try {
-            String sql = "SELECT photo_data FROM profile_photos WHERE voter_id = ?";
-            String photoData = jdbcTemplate.queryForObject(sql, String.class, voterId);
+            Optional<StoredImage> photo = mediaRepository.findProfilePhoto(voterId);
             
-            if (photoData != null) {
+            if (photo.isPresent()) {
                 return Map.of(
                     "success", true,
-                    "photoData", photoData,
+                    "photoData", Base64.getEncoder().encodeToString(photo.get().getData()),
+                    "contentType", photo.get().getContentType(),
+                    "imageUrl", "/api/voters/" + voterId + "/profile-photo/image?v=" + photo.get().getContentHash(),
                     "voterId", voterId
                 );
             } else {
@@ -321,88 +322,9 @@ public class VoterRegistrationService {
         }
     }
 
-    private static class VoterRowMapper implements RowMapper<Voter> {
-        private static final Logger log = LoggerFactory.getLogger(VoterRowMapper.class);
-        
-        @Override
-        public Voter mapRow(ResultSet rs, int rowNum) throws SQLException {
-            // Parse eligible_elections JSONB column
-            List<String> eligibleElections = parseEligibleElections(rs.getString("eligible_elections"));
-            
-            return Voter.builder()
-                .id(rs.getLong("id"))
-                .voterId(rs.getString("voter_id"))
-                .fullName(rs.getString("full_name"))
-                .email(rs.getString("email"))
-                .fingerprintHash(rs.getString("fingerprint_hash"))
-                .extraField(rs.getString("extra_field"))
-                .hasVoted(rs.getBoolean("has_voted"))
-                .isActive(rs.getBoolean("is_active"))
-                .role(Voter.Role.valueOf(rs.getString("role")))
-                .eligibleElections(eligibleElections)
-                .createdAt(rs.getTimestamp("created_at") != null ? 
-                    rs.getTimestamp("created_at").toLocalDateTime() : null)
-                .updatedAt(rs.getTimestamp("updated_at") != null ? 
-                    rs.getTimestamp("updated_at").toLocalDateTime() : null)
-                .build();
-        }
-        
-        private List<String> parseEligibleElections(String jsonString) {
-            if (jsonString == null || jsonString.trim().isEmpty() || jsonString.equals("[]")) {
-                return new ArrayList<>();
-            }
-            
-            try {
-                // Remove brackets and quotes, then split by comma
-                String cleaned = jsonString.trim();
-                if (cleaned.startsWith("[")) {
-                    cleaned = cleaned.substring(1);
-                }
-                if (cleaned.endsWith("]")) {
-                    cleaned = cleaned.substring(0, cleaned.length() - 1);
-                }
-                
-                if (cleaned.trim().isEmpty()) {
-                    return new ArrayList<>();
-                }
-                
-                // Split by comma and remove quotes
-                String[] parts = cleaned.split(",");
-                List<String> result = new ArrayList<>();
-                for (String part : parts) {
-                    String cleanedPart = part.trim();
-                    // Remove surrounding quotes if present
-                    if (cleanedPart.startsWith("\"") && cleanedPart.endsWith("\"")) {
-                        cleanedPart = cleanedPart.substring(1, cleanedPart.length() - 1);
-                    }
-                    if (!cleanedPart.isEmpty()) {
-                        result.add(cleanedPart);
-                    }
-                }
-                return result;
-            } catch (Exception e) {
-                log.warn("Failed to parse eligible_elections JSON: {}", jsonString, e);
-                return new ArrayList<>();
-            }
-        }
-    }
-
     private void insertFingerprintData(String voterId, byte[] fingerprintData) {
         try {
-            // Check if fingerprint_data table exists, if not create it
-            String createTableSql = """
-                CREATE TABLE IF NOT EXISTS fingerprint_data (
-                    id BIGSERIAL PRIMARY KEY,
-                    voter_id VARCHAR(50) UNIQUE NOT NULL,
-                    fingerprint_data BYTEA,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (voter_id) REFERENCES voters(voter_id) ON DELETE CASCADE
-                )
-                """;
-            jdbcTemplate.execute(createTableSql);
-
-            String sql = "INSERT INTO fingerprint_data (voter_id, fingerprint_data) VALUES (?, ?) ON CONFLICT (voter_id) DO UPDATE SET fingerprint_data = EXCLUDED.fingerprint_data";
-            jdbcTemplate.update(sql, voterId, fingerprintData);
+            fingerprintRepository.save(voterId, fingerprintData);
         } catch (Exception e) {
             log.warn("Failed to insert fingerprint data for voter {}: {}", voterId, e.getMessage());
         }
@@ -410,9 +332,7 @@ public class VoterRegistrationService {
 
     public byte[] getStoredFingerprintData(String voterId) {
         try {
-            String sql = "SELECT fingerprint_data FROM fingerprint_data WHERE voter_id = ?";
-            List<byte[]> results = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getBytes("fingerprint_data"), voterId);
-            return results.isEmpty() ? null : results.get(0);
+            return fingerprintRepository.findByVoterId(voterId).orElse(null);
         } catch (Exception e) {
             log.warn("Failed to retrieve fingerprint data for voter {}: {}", voterId, e.getMessage());
             return null;
@@ -447,29 +367,13 @@ public class VoterRegistrationService {
         }
     }
 
-    private String convertElectionsToJson(List<Long> electionIds) {
-        if (electionIds == null || electionIds.isEmpty()) {
-            return "[]";
-        }
-        
-        // Convert list to JSON array format
-        StringBuilder json = new StringBuilder("[");
-        for (int i = 0; i < electionIds.size(); i++) {
-            json.append("\"").append(electionIds.get(i)).append("\"");
-            if (i < electionIds.size() - 1) {
-                json.append(",");
-            }
-        }
-        json.append("]");
-        return json.toString();
-    }
-
     public List<Map<String, Object>> getEligibleElectionsForVoter(String voterId) {
         try {
             String sql = """
                 SELECT e.id, e.name, e.description, e.start_date, e.end_date, e.status
                 FROM elections e
-                INNER JOIN voters v ON v.eligible_elections ? e.id::text
+                INNER JOIN voter_election_eligibility ve ON ve.election_id = e.id
+                INNER JOIN voters v ON v.id = ve.voter_id
                 WHERE v.voter_id = ? AND v.is_active = true AND e.is_active = true
                 ORDER BY e.start_date ASC
                 """;
@@ -483,7 +387,7 @@ public class VoterRegistrationService {
                 election.put("endDate", rs.getTimestamp("end_date"));
                 election.put("status", rs.getString("status"));
                 return election;
-            }, voterId);
+            }, VoterIds.canonical(voterId));
         } catch (Exception e) {
             log.error("Failed to get eligible elections for voter {}: {}", voterId, e.getMessage());
             return List.of();
@@ -0,0 +1,73 @@
+package com.voteguard.service;
+
+import com.voteguard.event.VoterChangedEvent;
+import com.voteguard.model.VoterPatch;
+import com.voteguard.model.VoterPatchResult;
+import com.voteguard.repository.VoterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Partial updates of voters. Each patch is a single UPDATE of only the columns it sets and bumps
+ * the voter's version, so an admin editing a stale copy gets a conflict instead of silently
+ * overwriting someone else's change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VoterUpdateService {
+
+    // Above this many voters a batch reloads voter directories instead of announcing each voter
+    private static final int MAX_BATCH_EVENTS = 1_000;
+
+    private final VoterRepository voterRepository;
+    private final EligibilityService eligibilityService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Patch one voter, checking patch.version against the stored version when it is set.
+     *
+     * @return the change, or empty if there is no such voter or its version has moved on
+     */
+    public Optional<VoterPatchResult> patch(Long id, VoterPatch patch) {
+        patch.validate();
+        Optional<VoterPatchResult> result = voterRepository.patch(id, patch, patch.getVersion());
+        result.ifPresent(changed -> {
+            eventPublisher.publishEvent(new VoterChangedEvent(changed.previousVoterId(), changed.voterId()));
+            if (patch.getIsActive() != null) {
+                // The eligibility index only holds active voters
+                eligibilityService.syncVoter(id);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Apply one patch to many voters in a single statement.
+     *
+     * @return the voters that were changed; unknown voter IDs are skipped
+     */
+    public List<VoterPatchResult> patchAll(VoterPatch patch) {
+        patch.validateBatch();
+        long startTime = System.currentTimeMillis();
+        List<VoterPatchResult> results = voterRepository.patchAll(patch.getVoterIds(), patch);
+
+        if (results.size() > MAX_BATCH_EVENTS) {
+            eventPublisher.publishEvent(new VoterChangedEvent(null, null));
+        } else {
+            results.forEach(changed -> eventPublisher.publishEvent(new VoterChangedEvent(changed.voterId(), changed.voterId())));
+        }
+        if (Boolean.FALSE.equals(patch.getIsActive())) {
+            results.forEach(changed -> eligibilityService.removeVoter(changed.id()));
+        } else if (Boolean.TRUE.equals(patch.getIsActive())) {
+            results.forEach(changed -> eligibilityService.syncVoter(changed.id()));
+        }
+        log.info("Patched {} of {} voters in {} ms", results.size(), patch.getVoterIds().size(), System.currentTimeMillis() - startTime);
+        return results;
+    }
+}
@@ -1,19 +1,25 @@
 package com.voteguard.service;
 
+import com.voteguard.model.StationSyncResult;
 import com.voteguard.model.VotingStation;
 import com.voteguard.repository.VotingStationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.security.SecureRandom;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class VotingStationService {
 
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private final VotingStationRepository votingStationRepository;
 
     public List<VotingStation> getAllStations() {
@@ -51,6 +57,60 @@ public class VotingStationService {
         log.info("Station {} unlocked", stationCode);
     }
 
+    /**
+     * Give a station a new offline sync secret, replacing any previous one. The secret is only
+     * returned here, for loading onto the station's kiosks.
+     */
+    public String rotateSyncSecret(String stationCode) {
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String hex = HexFormat.of().formatHex(secret);
+        if (!votingStationRepository.updateSyncSecret(stationCode, hex)) {
+            throw new RuntimeException("Station not found: " + stationCode);
+        }
+        log.info("Sync secret rotated for station {}", stationCode);
+        return hex;
+    }
+
+    /**
+     * Highest sequence up to which every offline entry of the station has been processed;
+     * kiosks only need to upload entries after it.
+     */
+    public long getLastSyncedSequence(String stationCode) {
+        return getStationByCode(stationCode).getLastSyncedSequence();
+    }
+
+    /**
+     * Lock the station for an upload and report which sequences after its last synced one have
+     * been processed already.
+     */
+    public VotingStation lockForSync(String stationCode, Set<Long> syncedAfterWatermark) {
+        VotingStation station = votingStationRepository.findByStationCodeForUpdate(stationCode)
+            .orElseThrow(() -> new RuntimeException("Station not found: " + stationCode));
+        syncedAfterWatermark.addAll(votingStationRepository.findSyncedSequencesAfter(stationCode, station.getLastSyncedSequence()));
+        return station;
+    }
+
+    /**
+     * Store the outcome of processed entries and move the station's last synced sequence up over
+     * every sequence that is now contiguous.
+     */
+    public long recordSynced(VotingStation station, List<StationSyncResult> results, Set<Long> syncedAfterWatermark) {
+        votingStationRepository.saveSyncEntries(station.getStationCode(), results);
+        for (StationSyncResult result : results) {
+            syncedAfterWatermark.add(result.sequence());
+        }
+        long watermark = station.getLastSyncedSequence();
+        while (syncedAfterWatermark.contains(watermark + 1)) {
+            watermark++;
+        }
+        if (watermark > station.getLastSyncedSequence()) {
+            votingStationRepository.updateLastSyncedSequence(station.getStationCode(), watermark);
+            station.setLastSyncedSequence(watermark);
+        }
+        return watermark;
+    }
+
     public boolean isStationUnlocked(String stationCode) {
         Optional<VotingStation> station = votingStationRepository.findByStationCode(stationCode);
         return station.isPresent() && !station.get().getIsLocked();
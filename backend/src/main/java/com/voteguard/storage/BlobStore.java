@@ -0,0 +1,34 @@
+package com.voteguard.storage;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for large binary payloads (images, fingerprint scans).
+ * Blobs are keyed by the hex SHA-256 of their content, so identical payloads are stored once
+ * and database rows only need to keep the hash.
+ */
+public interface BlobStore {
+
+    /**
+     * Store the bytes and return their hex SHA-256 key. Storing content that already exists is a no-op.
+     */
+    String put(byte[] data);
+
+    /**
+     * Read-only view of the blob, or empty if no blob has this hash.
+     */
+    Optional<ByteBuffer> read(String hash);
+
+    boolean exists(String hash);
+
+    boolean delete(String hash);
+
+    default Optional<byte[]> readBytes(String hash) {
+        return read(hash).map(buffer -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        });
+    }
+}
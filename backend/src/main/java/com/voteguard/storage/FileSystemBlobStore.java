@@ -0,0 +1,265 @@
+package com.voteguard.storage;
+
+import com.voteguard.repository.BlobRepository;
+import com.voteguard.util.HashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Blob store on the local filesystem. A blob with hash {@code abcdef...} lives at
+ * {@code <root>/ab/cd/abcdef...}, so no directory grows beyond 65536 entries.
+ * Writes go to a temporary file that is synced and atomically renamed into place;
+ * reads are memory-mapped.
+ * <p>
+ * The rows referring to blobs are shared by all nodes while each node has its own disk, so every
+ * blob is also stored in the blobs table ({@link BlobRepository}). A node missing a blob locally
+ * reads that copy and keeps it on disk from then on. With storage.blob.database-copy off, root
+ * must be storage shared by all nodes. A periodic sweep deletes blobs, local and shared, that no
+ * row references any more.
+ */
+@Component
+@Slf4j
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final BlobRepository blobRepository;
+    private final Path root;
+    private final Path tmpDir;
+    private final boolean databaseCopy;
+    private final Duration sweepGrace;
+
+    public FileSystemBlobStore(BlobRepository blobRepository,
+                               @Value("${storage.blob.root:data/blobs}") String root,
+                               @Value("${storage.blob.database-copy:true}") boolean databaseCopy,
+                               @Value("${storage.blob.sweep-grace-minutes:60}") long sweepGraceMinutes) throws IOException {
+        this.blobRepository = blobRepository;
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmpDir = this.root.resolve("tmp");
+        this.databaseCopy = databaseCopy;
+        this.sweepGrace = Duration.ofMinutes(Math.max(1, sweepGraceMinutes));
+        Files.createDirectories(tmpDir);
+        log.info("Blob store root: {} (database copy {})", this.root, databaseCopy ? "on" : "off");
+    }
+
+    @Override
+    public String put(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Blob data is empty");
+        }
+        String hash = HashUtils.sha256Hex(data);
+        writeLocal(hash, data);
+        if (databaseCopy) {
+            blobRepository.save(hash, data);
+        }
+        return hash;
+    }
+
+    @Override
+    public Optional<ByteBuffer> read(String hash) {
+        Path path = pathFor(hash);
+        if (!Files.exists(path)) {
+            return readShared(hash);
+        }
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return Optional.of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read blob " + hash + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(pathFor(hash)) || (databaseCopy && blobRepository.exists(hash));
+    }
+
+    @Override
+    public boolean delete(String hash) {
+        boolean deleted;
+        try {
+            deleted = Files.deleteIfExists(pathFor(hash));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete blob " + hash + ": " + e.getMessage(), e);
+        }
+        if (databaseCopy) {
+            deleted |= blobRepository.delete(hash);
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete local blobs and shared copies that no row references, and copy referenced local
+     * blobs that predate the shared copy into it. Blobs stored within the grace period are kept,
+     * since the row referring to them may not be committed yet.
+     */
+    @Scheduled(initialDelayString = "${storage.blob.sweep-interval-ms:86400000}",
+               fixedDelayString = "${storage.blob.sweep-interval-ms:86400000}")
+    public void sweep() {
+        long startTime = System.currentTimeMillis();
+        FileTime cutoff = FileTime.from(Instant.now().minus(sweepGrace));
+        long[] counts = new long[3]; // deleted locally, copied to the shared store, stale temporary files
+        try (Stream<Path> files = Files.walk(root)) {
+            List<Path> batch = new ArrayList<>();
+            Iterator<Path> paths = files.iterator();
+            while (paths.hasNext()) {
+                Path path = paths.next();
+                if (!Files.isRegularFile(path) || Files.getLastModifiedTime(path).compareTo(cutoff) >= 0) {
+                    continue;
+                }
+                if (path.startsWith(tmpDir)) {
+                    // Left behind by a write that died before its rename
+                    if (Files.deleteIfExists(path)) {
+                        counts[2]++;
+                    }
+                } else if (HASH_PATTERN.matcher(path.getFileName().toString()).matches()) {
+                    batch.add(path);
+                    if (batch.size() == SWEEP_BATCH_SIZE) {
+                        sweepBatch(batch, counts);
+                        batch.clear();
+                    }
+                }
+            }
+            sweepBatch(batch, counts);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to sweep blob store: " + e.getMessage(), e);
+        }
+        int sharedDeleted = databaseCopy
+                ? blobRepository.deleteUnreferenced(LocalDateTime.now().minus(sweepGrace))
+                : 0;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("deletedLocal", counts[0]);
+        result.put("deletedShared", sharedDeleted);
+        result.put("copiedToShared", counts[1]);
+        result.put("deletedTemporary", counts[2]);
+        result.put("durationMs", System.currentTimeMillis() - startTime);
+        log.info("Blob store sweep completed: {}", result);
+    }
+
+    private void sweepBatch(List<Path> batch, long[] counts) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> hashes = batch.stream().map(path -> path.getFileName().toString()).toList();
+        Set<String> referenced = blobRepository.findReferenced(hashes);
+        Set<String> shared = databaseCopy ? blobRepository.findStored(referenced) : Set.of();
+        for (Path path : batch) {
+            String hash = path.getFileName().toString();
+            if (!referenced.contains(hash)) {
+                if (Files.deleteIfExists(path)) {
+                    counts[0]++;
+                }
+            } else if (databaseCopy && !shared.contains(hash)) {
+                blobRepository.save(hash, Files.readAllBytes(path));
+                counts[1]++;
+            }
+        }
+    }
+
+    /**
+     * Read the shared copy of a blob missing locally and keep it on this node's disk.
+     */
+    private Optional<ByteBuffer> readShared(String hash) {
+        if (!databaseCopy) {
+            return Optional.empty();
+        }
+        Optional<byte[]> shared = blobRepository.findData(hash);
+        if (shared.isEmpty()) {
+            return Optional.empty();
+        }
+        byte[] data = shared.get();
+        if (!HashUtils.sha256Hex(data).equals(hash)) {
+            throw new RuntimeException("Shared copy of blob " + hash + " does not match its hash");
+        }
+        try {
+            writeLocal(hash, data);
+        } catch (RuntimeException e) {
+            log.warn("Failed to keep blob {} locally: {}", hash, e.getMessage());
+        }
+        return Optional.of(ByteBuffer.wrap(data).asReadOnlyBuffer());
+    }
+
+    private void writeLocal(String hash, byte[] data) {
+        Path target = pathFor(hash);
+        if (Files.exists(target)) {
+            touch(target);
+            return;
+        }
+
+        Path tmp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            tmp = Files.createTempFile(tmpDir, hash, ".part");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently with identical content
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new RuntimeException("Failed to store blob " + hash + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Storing existing content again restarts its sweep grace period
+    private void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.warn("Failed to touch blob {}: {}", path, e.getMessage());
+        }
+    }
+
+    private Path pathFor(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary blob file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.voteguard.util;
+
+/**
+ * Bloom filter with 4-bit counters instead of bits, so keys can be removed as well as added.
+ * {@link #mightContain} never returns false for a key that was added and not removed; it returns
+ * true for a key that was never added with roughly the configured false-positive rate.
+ * A counter that reaches 15 sticks there, since its true count is no longer known; it only costs
+ * accuracy, never a false negative. Removing a key that was never added can cause false
+ * negatives, so callers must only remove keys they know were added.
+ * Not thread-safe; callers synchronize.
+ */
+public class CountingBloomFilter {
+
+    private static final int MAX_COUNT = 15;
+
+    private final byte[] counters; // two 4-bit counters per byte
+    private final long counterCount;
+    private final int hashCount;
+    private final long capacity;
+    private long size;
+
+    public CountingBloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedKeys must be positive and falsePositiveRate between 0 and 1");
+        }
+        // Optimal sizing: m = -n ln p / (ln 2)^2 counters, k = m / n ln 2 hash functions
+        long m = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        if (m > 2L * Integer.MAX_VALUE - 16) {
+            throw new IllegalArgumentException("Filter for " + expectedKeys + " keys does not fit in memory");
+        }
+        this.counterCount = Math.max(m + (m & 1), 64);
+        this.counters = new byte[(int) (counterCount / 2)];
+        this.hashCount = Math.max(1, (int) Math.round((double) counterCount / expectedKeys * Math.log(2)));
+        this.capacity = expectedKeys;
+    }
+
+    public void add(String key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash, i);
+            int count = get(index);
+            if (count < MAX_COUNT) {
+                set(index, count + 1);
+            }
+        }
+        size++;
+    }
+
+    public void remove(String key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash, i);
+            int count = get(index);
+            if (count > 0 && count < MAX_COUNT) {
+                set(index, count - 1);
+            }
+        }
+        size = Math.max(0, size - 1);
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashCount; i++) {
+            if (get(index(hash, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keys added and not removed.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Number of keys the filter was sized for; beyond it the false-positive rate climbs.
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    public long memoryBytes() {
+        return counters.length;
+    }
+
+    /**
+     * False-positive rate expected at the current size.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * size / counterCount), hashCount);
+    }
+
+    // Double hashing (Kirsch-Mitzenmacher): the i-th index is h1 + i * h2
+    private long index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + (long) i * h2, counterCount);
+    }
+
+    private int get(long index) {
+        int value = counters[(int) (index >>> 1)];
+        return (index & 1) == 0 ? value & 0x0f : (value >>> 4) & 0x0f;
+    }
+
+    private void set(long index, int count) {
+        int slot = (int) (index >>> 1);
+        int value = counters[slot];
+        value = (index & 1) == 0 ? (value & 0xf0) | count : (value & 0x0f) | (count << 4);
+        counters[slot] = (byte) value;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units, finished with the MurmurHash3 fmix64 avalanche step
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,62 @@
+package com.voteguard.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal CSV as read and written by Postgres COPY ... WITH (FORMAT csv): comma separated,
+ * fields optionally enclosed in double quotes, a double quote inside a quoted field doubled.
+ * Records are single lines; quoted fields may not span lines.
+ */
+public class Csv {
+
+    /**
+     * Split one line into fields.
+     *
+     * @throws IllegalArgumentException if a quoted field is not closed on this line
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Join fields into one line, quoting every field.
+     */
+    public static String formatLine(List<String> fields) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append('"').append(fields.get(i).replace("\"", "\"\"")).append('"');
+        }
+        return line.toString();
+    }
+}
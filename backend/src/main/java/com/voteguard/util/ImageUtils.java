@@ -0,0 +1,52 @@
+package com.voteguard.util;
+
+public class ImageUtils {
+
+    public static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    /**
+     * Detect the image content type from the leading magic bytes.
+     * Uploaded file names and client-supplied content types are not trusted.
+     */
+    public static String detectContentType(byte[] data) {
+        if (data == null || data.length < 4) {
+            return DEFAULT_CONTENT_TYPE;
+        }
+        if (startsWith(data, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(data, 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(data, 0x47, 0x49, 0x46, 0x38)) {
+            return "image/gif";
+        }
+        if (data.length >= 12 && startsWith(data, 0x52, 0x49, 0x46, 0x46)
+                && data[8] == 'W' && data[9] == 'E' && data[10] == 'B' && data[11] == 'P') {
+            return "image/webp";
+        }
+        if (startsWith(data, 0x49, 0x49, 0x2A, 0x00) || startsWith(data, 0x4D, 0x4D, 0x00, 0x2A)) {
+            return "image/tiff";
+        }
+        if (startsWith(data, 0x42, 0x4D)) {
+            return "image/bmp";
+        }
+        return DEFAULT_CONTENT_TYPE;
+    }
+
+    public static boolean isImage(String contentType) {
+        return contentType != null && contentType.startsWith("image/");
+    }
+
+    private static boolean startsWith(byte[] data, int... prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
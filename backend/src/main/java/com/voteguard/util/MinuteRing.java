@@ -0,0 +1,111 @@
+package com.voteguard.util;
+
+import java.util.Arrays;
+
+/**
+ * Ring of per-minute counters covering a sliding window of {@code size} minutes. Every slot also
+ * remembers how much of its count has been persisted, so only the outstanding part needs writing
+ * out. A slot is reused when a minute one window later arrives; the outstanding count of the
+ * minute it held is handed to the caller first. Minutes are numbered from the epoch.
+ * Not thread-safe; callers synchronize.
+ */
+public class MinuteRing {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /**
+     * Receives a minute and a count.
+     */
+    @FunctionalInterface
+    public interface MinuteCount {
+        void accept(long minute, long count);
+    }
+
+    private final long[] minutes; // minute held by each slot, EMPTY if none
+    private final long[] counts;
+    private final long[] persisted;
+    private long newest = EMPTY;
+
+    public MinuteRing(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("size must be at least 2");
+        }
+        this.minutes = new long[size];
+        this.counts = new long[size];
+        this.persisted = new long[size];
+        Arrays.fill(minutes, EMPTY);
+    }
+
+    /**
+     * Add to a minute's count. A minute that has already slid out of the window is not taken.
+     *
+     * @param evicted receives the outstanding count of a minute whose slot is reused
+     * @return whether the count was added
+     */
+    public boolean add(long minute, long count, MinuteCount evicted) {
+        if (newest != EMPTY && minute <= newest - minutes.length) {
+            return false;
+        }
+        int slot = slot(minute);
+        if (minutes[slot] != minute) {
+            if (minutes[slot] != EMPTY && counts[slot] > persisted[slot]) {
+                evicted.accept(minutes[slot], counts[slot] - persisted[slot]);
+            }
+            minutes[slot] = minute;
+            counts[slot] = 0;
+            persisted[slot] = 0;
+        }
+        counts[slot] += count;
+        newest = newest == EMPTY ? minute : Math.max(newest, minute);
+        return true;
+    }
+
+    /**
+     * Every minute with an outstanding count, and that count.
+     */
+    public void forEachOutstanding(MinuteCount action) {
+        for (int slot = 0; slot < minutes.length; slot++) {
+            if (minutes[slot] != EMPTY && counts[slot] > persisted[slot]) {
+                action.accept(minutes[slot], counts[slot] - persisted[slot]);
+            }
+        }
+    }
+
+    /**
+     * Record that part of a minute's count was persisted.
+     *
+     * @return false if the minute's slot has been reused since; its outstanding count was then
+     *         handed out on eviction
+     */
+    public boolean markPersisted(long minute, long count) {
+        int slot = slot(minute);
+        if (minutes[slot] != minute) {
+            return false;
+        }
+        persisted[slot] += count;
+        return true;
+    }
+
+    /**
+     * Whether nothing is outstanding and every minute held is before the window ending at now.
+     */
+    public boolean isSettled(long now) {
+        if (newest != EMPTY && newest > now - minutes.length) {
+            return false;
+        }
+        for (int slot = 0; slot < minutes.length; slot++) {
+            if (counts[slot] > persisted[slot]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return minutes.length;
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) minutes.length);
+    }
+}
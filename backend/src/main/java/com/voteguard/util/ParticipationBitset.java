@@ -0,0 +1,129 @@
+package com.voteguard.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.IntConsumer;
+
+/**
+ * Plain bitset of non-negative int values held in a direct buffer, outside the Java heap.
+ * A voter's bit is a single word read, so membership is O(1) whatever the number of voters;
+ * the buffer grows by doubling to cover the largest value set. Words are little-endian so the
+ * buffer can be written to and mapped back from a file unchanged.
+ * Not thread-safe.
+ */
+public class ParticipationBitset {
+
+    private static final int MIN_WORDS = 1024; // 64K values
+    private static final int MAX_WORDS = 1 << 25; // every non-negative int
+
+    private ByteBuffer words;
+    private long cardinality;
+
+    public ParticipationBitset() {
+        this.words = allocate(MIN_WORDS);
+    }
+
+    private ParticipationBitset(ByteBuffer words) {
+        this.words = words;
+        for (int i = 0; i < wordCount(); i++) {
+            cardinality += Long.bitCount(words.getLong(i * 8));
+        }
+    }
+
+    /**
+     * Copy wordCount words from the source's current position, e.g. a region of a mapped file.
+     */
+    public static ParticipationBitset copyOf(ByteBuffer source, int wordCount) {
+        ByteBuffer copy = allocate(Math.max(MIN_WORDS, wordCount));
+        ByteBuffer region = source.slice().limit(wordCount * 8);
+        copy.put(region).clear();
+        return new ParticipationBitset(copy);
+    }
+
+    public boolean get(int value) {
+        int word = value >>> 6;
+        return value >= 0 && word < wordCount() && (words.getLong(word * 8) & (1L << value)) != 0;
+    }
+
+    /**
+     * @return true if the value was not set before
+     */
+    public boolean set(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        int word = value >>> 6;
+        if (word >= wordCount()) {
+            grow(word + 1);
+        }
+        long bits = words.getLong(word * 8);
+        long updated = bits | (1L << value);
+        if (updated == bits) {
+            return false;
+        }
+        words.putLong(word * 8, updated);
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * @return true if the value was set before
+     */
+    public boolean clear(int value) {
+        int word = value >>> 6;
+        if (value < 0 || word >= wordCount()) {
+            return false;
+        }
+        long bits = words.getLong(word * 8);
+        long updated = bits & ~(1L << value);
+        if (updated == bits) {
+            return false;
+        }
+        words.putLong(word * 8, updated);
+        cardinality--;
+        return true;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int word = 0; word < wordCount(); word++) {
+            long bits = words.getLong(word * 8);
+            while (bits != 0) {
+                action.accept(word * 64 + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    public long cardinality() {
+        return cardinality;
+    }
+
+    public int wordCount() {
+        return words.capacity() / 8;
+    }
+
+    public long sizeInBytes() {
+        return words.capacity();
+    }
+
+    /**
+     * Read-only view of the words, for writing them out.
+     */
+    public ByteBuffer words() {
+        return words.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN).clear();
+    }
+
+    private void grow(int minWords) {
+        int newWords = wordCount();
+        while (newWords < minWords) {
+            newWords = Math.min(newWords * 2, MAX_WORDS);
+        }
+        ByteBuffer grown = allocate(newWords);
+        grown.put(words.clear()).clear();
+        words = grown;
+    }
+
+    private static ByteBuffer allocate(int wordCount) {
+        return ByteBuffer.allocateDirect(wordCount * 8).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
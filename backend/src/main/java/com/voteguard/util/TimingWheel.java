@@ -0,0 +1,119 @@
+package com.voteguard.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Each level has {@code wheelSize} buckets of {@code tickMillis};
+ * deadlines beyond a level's span go to a coarser overflow level (tick = span of the level below)
+ * and cascade down as time approaches them, so scheduling and expiring are O(1) no matter how far
+ * ahead a deadline is. Deadlines fire at tick granularity: never early, at most one tick late.
+ * Not thread-safe; callers synchronize.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long spanMillis;
+    private final List<List<Entry<T>>> buckets;
+    private long currentTime; // start of the current tick
+    private TimingWheel<T> overflow;
+    private int size;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMillis must be positive and wheelSize at least 2");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.spanMillis = tickMillis * wheelSize;
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedule an item.
+     *
+     * @return false if the deadline is already due; the item is then not scheduled and the caller
+     *         should handle it right away
+     */
+    public boolean schedule(long deadlineMillis, T item) {
+        // Round up to a tick boundary so items never fire before their deadline
+        long fireAt = deadlineMillis + Math.floorMod(-deadlineMillis, tickMillis);
+        if (!insert(new Entry<>(fireAt, item))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Move the wheel forward to {@code nowMillis}, handing every item whose deadline has passed to
+     * {@code onExpired} in deadline order (items in the same tick in no particular order).
+     */
+    public void advance(long nowMillis, Consumer<T> onExpired) {
+        advanceTo(nowMillis, entry -> {
+            size--;
+            onExpired.accept(entry.item());
+        });
+    }
+
+    /**
+     * Number of scheduled items across all levels.
+     */
+    public int size() {
+        return size;
+    }
+
+    private boolean insert(Entry<T> entry) {
+        if (entry.deadline() < currentTime + tickMillis) {
+            return false;
+        }
+        if (entry.deadline() < currentTime + spanMillis) {
+            buckets.get(bucketIndex(entry.deadline())).add(entry);
+        } else {
+            // The overflow's current tick is always covered by this level, so this cannot be rejected
+            overflow().insert(entry);
+        }
+        return true;
+    }
+
+    private void advanceTo(long nowMillis, Consumer<Entry<T>> onExpired) {
+        while (currentTime + tickMillis <= nowMillis) {
+            currentTime += tickMillis;
+            Consumer<Entry<T>> reinsert = entry -> {
+                if (!insert(entry)) {
+                    onExpired.accept(entry);
+                }
+            };
+            if (overflow != null) {
+                // Entries in the overflow bucket that just became current cascade into this level
+                overflow.advanceTo(currentTime, reinsert);
+            }
+            List<Entry<T>> bucket = buckets.get(bucketIndex(currentTime));
+            if (!bucket.isEmpty()) {
+                List<Entry<T>> due = new ArrayList<>(bucket);
+                bucket.clear();
+                due.forEach(reinsert);
+            }
+        }
+    }
+
+    private TimingWheel<T> overflow() {
+        if (overflow == null) {
+            overflow = new TimingWheel<>(spanMillis, wheelSize, currentTime);
+        }
+        return overflow;
+    }
+
+    private int bucketIndex(long timeMillis) {
+        return (int) Math.floorMod(Math.floorDiv(timeMillis, tickMillis), (long) wheelSize);
+    }
+
+    private record Entry<T>(long deadline, T item) {
+    }
+}
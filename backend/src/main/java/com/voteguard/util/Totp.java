@@ -0,0 +1,94 @@
+package com.voteguard.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Time-based one-time passwords as in RFC 6238 (HMAC-SHA1, dynamic truncation from RFC 4226).
+ * Codes are a pure function of the shared secret and the time step, so any node holding the
+ * secret generates and validates the same codes without storing them.
+ */
+public class Totp {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int[] POWERS_OF_TEN = { 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000 };
+
+    private final long stepSeconds;
+    private final int digits;
+
+    public Totp(long stepSeconds, int digits) {
+        if (stepSeconds <= 0 || digits < 6 || digits > 8) {
+            throw new IllegalArgumentException("stepSeconds must be positive and digits between 6 and 8");
+        }
+        this.stepSeconds = stepSeconds;
+        this.digits = digits;
+    }
+
+    /**
+     * New random 160-bit secret, the key size RFC 4226 recommends for HMAC-SHA1.
+     */
+    public static byte[] newSecret() {
+        byte[] secret = new byte[20];
+        RANDOM.nextBytes(secret);
+        return secret;
+    }
+
+    public long stepAt(long epochMillis) {
+        return Math.floorDiv(epochMillis, stepSeconds * 1000);
+    }
+
+    /**
+     * Start of the given step, in epoch milliseconds.
+     */
+    public long stepStartMillis(long step) {
+        return step * stepSeconds * 1000;
+    }
+
+    public String generate(byte[] secret, long step) {
+        byte[] counter = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            counter[i] = (byte) (step & 0xff);
+            step >>= 8;
+        }
+        byte[] hash = hmacSha1(secret, counter);
+        int offset = hash[hash.length - 1] & 0x0f;
+        int binary = ((hash[offset] & 0x7f) << 24)
+                | ((hash[offset + 1] & 0xff) << 16)
+                | ((hash[offset + 2] & 0xff) << 8)
+                | (hash[offset + 3] & 0xff);
+        String code = Integer.toString(binary % POWERS_OF_TEN[digits]);
+        return "0".repeat(digits - code.length()) + code;
+    }
+
+    /**
+     * Accept a code generated up to {@code skewSteps} steps before or after the step of {@code epochMillis}.
+     */
+    public boolean verify(byte[] secret, String code, long epochMillis, int skewSteps) {
+        if (code == null || code.length() != digits) {
+            return false;
+        }
+        byte[] candidate = code.getBytes(StandardCharsets.US_ASCII);
+        long current = stepAt(epochMillis);
+        boolean matched = false;
+        // Check every step in the window so timing does not reveal which one matched
+        for (long step = current - skewSteps; step <= current + skewSteps; step++) {
+            byte[] expected = generate(secret, step).getBytes(StandardCharsets.US_ASCII);
+            matched |= MessageDigest.isEqual(expected, candidate);
+        }
+        return matched;
+    }
+
+    private static byte[] hmacSha1(byte[] key, byte[] message) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(key, "HmacSHA1"));
+            return mac.doFinal(message);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA1 not available", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.voteguard.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+public class VoterIds {
+
+    /**
+     * Canonical form of a voter ID as stored in voters.voter_id: Unicode NFKC, trimmed, upper case.
+     * Every write stores this form and every lookup compares against it, so voter_id can be matched
+     * with plain equality on its unique index. Keep in sync with chk_voters_voter_id_canonical.
+     */
+    public static String canonical(String voterId) {
+        if (voterId == null) {
+            return null;
+        }
+        return Normalizer.normalize(voterId, Normalizer.Form.NFKC).trim().toUpperCase(Locale.ROOT);
+    }
+}
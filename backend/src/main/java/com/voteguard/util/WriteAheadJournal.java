@@ -0,0 +1,240 @@
+package com.voteguard.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of opaque records in a memory-mapped file.
+ * <p>
+ * The file starts with a header holding the current epoch and the offset of the first record not
+ * yet consumed. Each record is its payload length, the epoch it was written in, a CRC32C of epoch
+ * and payload, and the payload. On open the records from the consumed offset are scanned until
+ * one is empty, from another epoch or fails its CRC, which is where the next append goes; a
+ * record torn by a crash is therefore dropped rather than read back. Once every record has been
+ * consumed the journal is reset to empty by bumping the epoch, so stale records further on are
+ * never mistaken for new ones.
+ * <p>
+ * Appends are durable once {@link #sync()} returns; with {@link SyncPolicy#ALWAYS} every append
+ * syncs. The mapping grows by doubling up to the configured maximum size.
+ * Not thread-safe.
+ */
+public class WriteAheadJournal implements Closeable {
+
+    public enum SyncPolicy {
+        /** Force every append to disk before it returns. */
+        ALWAYS,
+        /** Leave forcing to periodic {@link #sync()} calls. */
+        INTERVAL,
+        /** Leave writing back to the operating system. */
+        NONE
+    }
+
+    private static final int MAGIC = 0x56474a4c; // "VGJL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORD_HEADER_BYTES = 12;
+    private static final long INITIAL_SIZE = 1L << 20;
+
+    private final FileChannel channel;
+    private final long maxSize;
+    private final SyncPolicy syncPolicy;
+
+    private MappedByteBuffer buffer;
+    private int epoch;
+    private long readOffset; // first record not yet consumed
+    private long writeOffset; // where the next record goes
+    private int pendingRecords;
+    private long syncedUpTo;
+
+    public WriteAheadJournal(Path file, long maxSize, SyncPolicy syncPolicy) throws IOException {
+        if (maxSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal cannot be larger than 2 GB");
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.maxSize = maxSize;
+        this.syncPolicy = syncPolicy;
+
+        long size = channel.size();
+        map(Math.max(INITIAL_SIZE, Math.min(size, maxSize)));
+        if (size == 0) {
+            epoch = 1;
+            readOffset = HEADER_BYTES;
+            writeHeader();
+            buffer.force();
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException(file + " is not a vote journal");
+        } else {
+            epoch = buffer.getInt(8);
+            readOffset = buffer.getLong(16);
+        }
+
+        writeOffset = readOffset;
+        while (true) {
+            int length = validRecordLength(writeOffset);
+            if (length < 0) {
+                break;
+            }
+            writeOffset += RECORD_HEADER_BYTES + length;
+            pendingRecords++;
+        }
+        syncedUpTo = writeOffset;
+    }
+
+    /**
+     * Append a record.
+     *
+     * @throws IOException if the journal is full
+     */
+    public void append(byte[] payload) throws IOException {
+        long needed = writeOffset + RECORD_HEADER_BYTES + payload.length + RECORD_HEADER_BYTES; // room for the end marker
+        if (needed > buffer.capacity()) {
+            grow(needed);
+        }
+        int position = (int) writeOffset;
+        // Payload and CRC first, length last, so a partial record reads as the end of the journal
+        buffer.putInt(position + 4, epoch);
+        buffer.put(position + RECORD_HEADER_BYTES, payload);
+        buffer.putInt(position + 8, crc(epoch, position + RECORD_HEADER_BYTES, payload.length));
+        buffer.putInt(position + RECORD_HEADER_BYTES + payload.length, 0);
+        buffer.putInt(position, payload.length);
+        writeOffset += RECORD_HEADER_BYTES + payload.length;
+        pendingRecords++;
+        if (syncPolicy == SyncPolicy.ALWAYS) {
+            sync();
+        }
+    }
+
+    /**
+     * Force appended records to disk.
+     */
+    public void sync() {
+        if (writeOffset > syncedUpTo) {
+            buffer.force((int) syncedUpTo, (int) (writeOffset - syncedUpTo + 4));
+            syncedUpTo = writeOffset;
+        }
+    }
+
+    /**
+     * Up to max records from the first one not yet consumed, oldest first.
+     */
+    public List<Entry> read(int max) {
+        List<Entry> records = new ArrayList<>();
+        long offset = readOffset;
+        while (records.size() < max && offset < writeOffset) {
+            int length = buffer.getInt((int) offset);
+            byte[] payload = new byte[length];
+            buffer.get((int) offset + RECORD_HEADER_BYTES, payload);
+            offset += RECORD_HEADER_BYTES + length;
+            records.add(new Entry(payload, offset));
+        }
+        return records;
+    }
+
+    /**
+     * Mark every record up to the given one as consumed, so it is not read again after a restart.
+     * The journal is reset once all records are consumed.
+     */
+    public void consumeThrough(Entry record) {
+        readOffset = record.nextOffset();
+        pendingRecords = 0;
+        for (long offset = readOffset; offset < writeOffset; offset += RECORD_HEADER_BYTES + buffer.getInt((int) offset)) {
+            pendingRecords++;
+        }
+        if (readOffset >= writeOffset) {
+            epoch++;
+            readOffset = HEADER_BYTES;
+            writeOffset = HEADER_BYTES;
+            syncedUpTo = HEADER_BYTES;
+        }
+        writeHeader();
+        buffer.force(0, HEADER_BYTES);
+    }
+
+    public int pendingRecords() {
+        return pendingRecords;
+    }
+
+    public long pendingBytes() {
+        return writeOffset - readOffset;
+    }
+
+    public long mappedBytes() {
+        return buffer.capacity();
+    }
+
+    public SyncPolicy syncPolicy() {
+        return syncPolicy;
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    private int validRecordLength(long offset) {
+        if (offset + RECORD_HEADER_BYTES > buffer.capacity()) {
+            return -1;
+        }
+        int position = (int) offset;
+        int length = buffer.getInt(position);
+        if (length <= 0 || offset + RECORD_HEADER_BYTES + length > buffer.capacity()) {
+            return -1;
+        }
+        if (buffer.getInt(position + 4) != epoch || buffer.getInt(position + 8) != crc(epoch, position + RECORD_HEADER_BYTES, length)) {
+            return -1;
+        }
+        return length;
+    }
+
+    private int crc(int recordEpoch, int payloadPosition, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(new byte[]{(byte) recordEpoch, (byte) (recordEpoch >>> 8), (byte) (recordEpoch >>> 16), (byte) (recordEpoch >>> 24)});
+        crc.update(buffer.slice(payloadPosition, length));
+        return (int) crc.getValue();
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, epoch);
+        buffer.putLong(16, readOffset);
+    }
+
+    private void grow(long needed) throws IOException {
+        if (needed > maxSize) {
+            throw new IOException("Journal is full (" + maxSize + " bytes)");
+        }
+        long size = buffer.capacity();
+        while (size < needed) {
+            size = Math.min(size * 2, maxSize);
+        }
+        buffer.force();
+        map(size);
+    }
+
+    private void map(long size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * A journaled payload and the offset just past it, to pass to {@link #consumeThrough}.
+     */
+    public record Entry(byte[] payload, long nextOffset) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.voteguard.service;
+
+import com.voteguard.model.VoteReceipt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoteSingleFlightTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 50;
+    private static final long PARK_TIMEOUT_MS = 10_000;
+
+    @Test
+    @Timeout(120)
+    void concurrentSubmissionsForOneVoterRunOnceAndShareTheResult() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            VoteSingleFlight singleFlight = new VoteSingleFlight();
+            AtomicInteger executions = new AtomicInteger();
+            Long[] ballots = ballots(1L, 2L);
+
+            Object[] results = submitConcurrently(singleFlight, ballots, candidateId ->
+                    new VoteReceipt((long) executions.incrementAndGet(), LocalDateTime.now(), "Center " + candidateId, null));
+
+            assertEquals(1, executions.get(), "executions in round " + round);
+            VoteReceipt receipt = assertInstanceOf(VoteReceipt.class, results[0]);
+            int sameBallot = 0;
+            for (int i = 1; i < THREADS; i++) {
+                if (ballots[i] == 1L) {
+                    assertSame(receipt, results[i], "same ballot gets the first receipt");
+                    sameBallot++;
+                } else {
+                    RuntimeException e = assertInstanceOf(RuntimeException.class, results[i]);
+                    assertEquals("Voter has already voted in this election", e.getMessage());
+                }
+            }
+            assertStats(singleFlight, 1, sameBallot, THREADS - 1 - sameBallot);
+        }
+    }
+
+    @Test
+    @Timeout(120)
+    void failedSubmissionIsSharedWithTheSameBallotAndLetsADifferentBallotCommitOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            VoteSingleFlight singleFlight = new VoteSingleFlight();
+            AtomicBoolean committed = new AtomicBoolean();
+            Long[] ballots = ballots(1L, 2L);
+
+            // Stands in for the database: the first ballot fails validation and the unique
+            // constraint turns away any second commit
+            Object[] results = submitConcurrently(singleFlight, ballots, candidateId -> {
+                if (candidateId == 1L) {
+                    throw new RuntimeException("Candidate not found");
+                }
+                if (!committed.compareAndSet(false, true)) {
+                    throw new RuntimeException("Voter has already voted in this election");
+                }
+                return new VoteReceipt(7L, LocalDateTime.now(), "Center", null);
+            });
+
+            RuntimeException failure = assertInstanceOf(RuntimeException.class, results[0]);
+            VoteReceipt receipt = null;
+            for (int i = 1; i < THREADS; i++) {
+                if (ballots[i] == 1L) {
+                    assertSame(failure, results[i], "same ballot gets the first error");
+                } else if (results[i] instanceof VoteReceipt shared) {
+                    // The second ballot's flight is shared by everyone who joined it in time
+                    if (receipt == null) {
+                        receipt = shared;
+                    }
+                    assertSame(receipt, shared, "second ballot's receipt");
+                } else {
+                    RuntimeException e = assertInstanceOf(RuntimeException.class, results[i]);
+                    assertEquals("Voter has already voted in this election", e.getMessage());
+                }
+            }
+            assertTrue(receipt != null, "no submission of the second ballot got a receipt in round " + round);
+            assertEquals(0, singleFlight.getStats().get("inFlight"));
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    void differentVotersDoNotWaitForEachOther() throws Exception {
+        VoteSingleFlight singleFlight = new VoteSingleFlight();
+        int voters = 8;
+        // Every call holds until all of them are running, so this only finishes if they overlap
+        CountDownLatch allRunning = new CountDownLatch(voters);
+        Object[] results = new Object[voters];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < voters; i++) {
+            int index = i;
+            threads.add(new Thread(() -> results[index] = submit(singleFlight, "V" + index, 1L, () -> {
+                allRunning.countDown();
+                await(allRunning);
+                return new VoteReceipt((long) index, LocalDateTime.now(), "Center", null);
+            })));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < voters; i++) {
+            assertEquals(Long.valueOf(i), assertInstanceOf(VoteReceipt.class, results[i]).voteId());
+        }
+        assertStats(singleFlight, voters, 0, 0);
+    }
+
+    /**
+     * Submits one ballot per thread for the same voter and election. The first thread's call is
+     * entered before the others start, and every call holds until all other submitters are
+     * either parked on it or finished, so each run exercises the waiting path.
+     */
+    private static Object[] submitConcurrently(VoteSingleFlight singleFlight, Long[] ballots,
+                                               Function<Long, VoteReceipt> castVote) throws InterruptedException {
+        Object[] results = new Object[ballots.length];
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch firstEntered = new CountDownLatch(1);
+        for (int i = 0; i < ballots.length; i++) {
+            int index = i;
+            // Differently written forms of one voter ID share a flight
+            String voterId = index % 2 == 0 ? "ab-1234" : " AB-1234 ";
+            threads.add(new Thread(() -> results[index] = submit(singleFlight, voterId, 1L, () -> {
+                firstEntered.countDown();
+                awaitOthersParked(threads);
+                return castVote.apply(ballots[index]);
+            }, ballots[index])));
+        }
+
+        threads.get(0).start();
+        assertTrue(firstEntered.await(PARK_TIMEOUT_MS, TimeUnit.MILLISECONDS), "first submission never ran");
+        for (int i = 1; i < threads.size(); i++) {
+            threads.get(i).start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return results;
+    }
+
+    private static Object submit(VoteSingleFlight singleFlight, String voterId, Long electionId,
+                                 Supplier<VoteReceipt> castVote) {
+        return submit(singleFlight, voterId, electionId, castVote, 1L);
+    }
+
+    private static Object submit(VoteSingleFlight singleFlight, String voterId, Long electionId,
+                                 Supplier<VoteReceipt> castVote, Long candidateId) {
+        try {
+            return singleFlight.castVote(voterId, electionId, candidateId, castVote);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private static void awaitOthersParked(List<Thread> threads) {
+        long deadline = System.currentTimeMillis() + PARK_TIMEOUT_MS;
+        for (Thread thread : threads) {
+            while (thread != Thread.currentThread()
+                    && thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new AssertionError(thread.getName() + " never reached the flight: " + thread.getState());
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(PARK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new AssertionError("calls for different voters did not run concurrently");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+
+    // The first ballot is first, then the two alternate
+    private static Long[] ballots(Long first, Long second) {
+        Long[] ballots = new Long[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            ballots[i] = i % 2 == 0 ? first : second;
+        }
+        return ballots;
+    }
+
+    private static void assertStats(VoteSingleFlight singleFlight, long executed, long shared, long rejected) {
+        Map<String, Object> stats = singleFlight.getStats();
+        assertEquals(0, stats.get("inFlight"));
+        assertEquals(executed, stats.get("executed"));
+        assertEquals(shared, stats.get("shared"));
+        assertEquals(rejected, stats.get("rejected"));
+    }
+}
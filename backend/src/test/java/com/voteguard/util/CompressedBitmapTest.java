@@ -0,0 +1,105 @@
+package com.voteguard.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedBitmapTest {
+
+    // Key array of the initial four containers, in bytes
+    private static final long KEYS_BYTES = 4 * Character.BYTES;
+
+    @Test
+    void addRemoveAndContainsAcrossContainers() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int[] values = { 0, 1, 65_535, 65_536, 1 << 20, Integer.MAX_VALUE };
+
+        for (int value : values) {
+            assertTrue(bitmap.add(value));
+            assertFalse(bitmap.add(value), "adding " + value + " twice");
+        }
+        for (int value : values) {
+            assertTrue(bitmap.contains(value), "contains " + value);
+        }
+        assertFalse(bitmap.contains(2));
+        assertFalse(bitmap.contains(65_537));
+        assertFalse(bitmap.contains(-1));
+        assertEquals(values.length, bitmap.cardinality());
+
+        for (int value : values) {
+            assertTrue(bitmap.remove(value));
+            assertFalse(bitmap.remove(value), "removing " + value + " twice");
+        }
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.cardinality());
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+        assertFalse(bitmap.remove(-1));
+    }
+
+    @Test
+    void switchesToBitmapContainerAboveArrayLimitAndBackWhenHalfEmpty() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        // Every other value, so the array container holds exactly 4096 values
+        for (int i = 0; i < 4096; i++) {
+            bitmap.add(i * 2);
+        }
+        assertEquals(KEYS_BYTES + 4096 * Character.BYTES, bitmap.sizeInBytes());
+
+        // The 4097th value converts the container to a fixed 8 KB bitmap
+        bitmap.add(1);
+        assertEquals(KEYS_BYTES + 1024 * Long.BYTES, bitmap.sizeInBytes());
+        assertEquals(4097, bitmap.cardinality());
+
+        // Stays a bitmap until at most half the array limit is left
+        for (int i = 0; i < 2048; i++) {
+            assertTrue(bitmap.remove(i * 2));
+        }
+        assertEquals(2049, bitmap.cardinality());
+        assertEquals(KEYS_BYTES + 1024 * Long.BYTES, bitmap.sizeInBytes());
+
+        assertTrue(bitmap.remove(1));
+        assertEquals(2048, bitmap.cardinality());
+        assertEquals(KEYS_BYTES + 2048 * Character.BYTES, bitmap.sizeInBytes());
+
+        // Contents survive both conversions
+        assertFalse(bitmap.contains(1));
+        for (int i = 0; i < 4096; i++) {
+            assertEquals(i >= 2048, bitmap.contains(i * 2), "contains " + i * 2);
+        }
+    }
+
+    @Test
+    void matchesBitSetUnderRandomChanges() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        Random random = new Random(42);
+        // Dense enough in the first container to cross the conversion threshold both ways
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextInt(4) == 0 ? random.nextInt(1 << 22) : random.nextInt(12_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.get(value), bitmap.remove(value));
+                expected.clear(value);
+            } else {
+                assertEquals(!expected.get(value), bitmap.add(value));
+                expected.set(value);
+            }
+        }
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+        for (int value = 0; value < 1 << 22; value++) {
+            if (expected.get(value) != bitmap.contains(value)) {
+                assertEquals(expected.get(value), bitmap.contains(value), "contains " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.voteguard.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountingBloomFilterTest {
+
+    @Test
+    void removedKeysAreNoLongerReported() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        filter.add("voter:1:election:1");
+        assertTrue(filter.mightContain("voter:1:election:1"));
+        assertEquals(1, filter.size());
+
+        filter.remove("voter:1:election:1");
+        assertFalse(filter.mightContain("voter:1:election:1"));
+        assertEquals(0, filter.size());
+
+        // size never goes negative
+        filter.remove("voter:1:election:1");
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    void removingSomeKeysNeverHidesTheOthers() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("key" + i);
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            filter.remove("key" + i);
+        }
+        assertEquals(5_000, filter.size());
+        for (int i = 1; i < 10_000; i += 2) {
+            assertTrue(filter.mightContain("key" + i), "false negative for key" + i);
+        }
+    }
+
+    @Test
+    void keyAddedRepeatedlyBelowSaturationIsRemovedByAsManyRemoves() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 14; i++) {
+            filter.add("repeated");
+        }
+        for (int i = 0; i < 13; i++) {
+            filter.remove("repeated");
+            assertTrue(filter.mightContain("repeated"), "gone after " + (i + 1) + " removes");
+        }
+        filter.remove("repeated");
+        assertFalse(filter.mightContain("repeated"));
+    }
+
+    @Test
+    void saturatedCountersStickSoRemovalNeverCausesFalseNegatives() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        // Push every counter of the key past the 4-bit maximum
+        for (int i = 0; i < 20; i++) {
+            filter.add("hot");
+        }
+        for (int i = 0; i < 20; i++) {
+            filter.remove("hot");
+        }
+        assertTrue(filter.mightContain("hot"), "saturated counters must not count down");
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredRateAtCapacity() {
+        CountingBloomFilter filter = new CountingBloomFilter(20_000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.add("member" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("stranger" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = falsePositives / 100_000.0;
+        assertTrue(rate < 0.02, "false-positive rate " + rate);
+        assertTrue(Math.abs(filter.expectedFalsePositiveRate() - 0.01) < 0.005,
+                "expected rate " + filter.expectedFalsePositiveRate());
+        assertEquals(20_000, filter.capacity());
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new CountingBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new CountingBloomFilter(1_000, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CountingBloomFilter(1_000, 1));
+    }
+}
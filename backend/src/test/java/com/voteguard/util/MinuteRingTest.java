@@ -0,0 +1,137 @@
+package com.voteguard.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinuteRingTest {
+
+    private static final MinuteRing.MinuteCount NO_EVICTION = (minute, count) -> {
+        throw new AssertionError("unexpected eviction of minute " + minute);
+    };
+
+    @Test
+    void rejectsTooSmallRings() {
+        assertThrows(IllegalArgumentException.class, () -> new MinuteRing(1));
+    }
+
+    @Test
+    void countsPerMinuteWithinTheWindow() {
+        MinuteRing ring = new MinuteRing(4);
+        assertTrue(ring.add(100, 2, NO_EVICTION));
+        assertTrue(ring.add(101, 1, NO_EVICTION));
+        assertTrue(ring.add(100, 3, NO_EVICTION));
+        // Late but still inside the window of four minutes ending at 101
+        assertTrue(ring.add(98, 1, NO_EVICTION));
+
+        assertEquals(Map.of(98L, 1L, 100L, 5L, 101L, 1L), outstanding(ring));
+    }
+
+    @Test
+    void minutesThatSlidOutOfTheWindowAreRefused() {
+        MinuteRing ring = new MinuteRing(4);
+        ring.add(100, 1, NO_EVICTION);
+        assertTrue(ring.add(97, 1, NO_EVICTION));
+        assertFalse(ring.add(96, 1, NO_EVICTION));
+        assertFalse(ring.add(50, 1, NO_EVICTION));
+        assertEquals(Map.of(97L, 1L, 100L, 1L), outstanding(ring));
+    }
+
+    @Test
+    void reusedSlotHandsOverTheOutstandingCountOfItsOldMinute() {
+        MinuteRing ring = new MinuteRing(4);
+        ring.add(100, 5, NO_EVICTION);
+        ring.add(101, 2, NO_EVICTION);
+        assertTrue(ring.markPersisted(100, 3));
+
+        Map<Long, Long> evicted = new HashMap<>();
+        // 104 lands in 100's slot, 105 in 101's
+        assertTrue(ring.add(104, 1, (minute, count) -> evicted.merge(minute, count, Long::sum)));
+        assertTrue(ring.add(105, 1, (minute, count) -> evicted.merge(minute, count, Long::sum)));
+
+        assertEquals(Map.of(100L, 2L, 101L, 2L), evicted);
+        assertEquals(Map.of(104L, 1L, 105L, 1L), outstanding(ring));
+        // Too late to record against the reused slot; the count was handed out on eviction
+        assertFalse(ring.markPersisted(100, 2));
+    }
+
+    @Test
+    void fullyPersistedMinutesAreNotHandedOutOnEviction() {
+        MinuteRing ring = new MinuteRing(2);
+        ring.add(10, 4, NO_EVICTION);
+        ring.markPersisted(10, 4);
+        assertTrue(ring.add(12, 1, NO_EVICTION));
+        assertEquals(Map.of(12L, 1L), outstanding(ring));
+    }
+
+    @Test
+    void wrapsAroundNegativeAndLargeMinuteNumbers() {
+        MinuteRing ring = new MinuteRing(3);
+        ring.add(-2, 1, NO_EVICTION);
+        ring.add(-1, 1, NO_EVICTION);
+        ring.add(0, 1, NO_EVICTION);
+        assertEquals(Map.of(-2L, 1L, -1L, 1L, 0L, 1L), outstanding(ring));
+
+        long late = Long.MAX_VALUE / 2;
+        Map<Long, Long> evicted = new TreeMap<>();
+        assertTrue(ring.add(late, 1, (minute, count) -> evicted.merge(minute, count, Long::sum)));
+        assertEquals(1, evicted.size());
+        assertFalse(ring.add(0, 1, NO_EVICTION), "window moved past minute 0");
+    }
+
+    @Test
+    void settledOnlyOnceEverythingIsPersistedAndTheWindowHasPassed() {
+        MinuteRing ring = new MinuteRing(4);
+        assertTrue(ring.isSettled(0));
+
+        ring.add(100, 2, NO_EVICTION);
+        assertFalse(ring.isSettled(200), "outstanding count");
+        ring.markPersisted(100, 2);
+        assertFalse(ring.isSettled(103), "minute 100 still inside the window ending at 103");
+        assertTrue(ring.isSettled(104));
+    }
+
+    @Test
+    void neverLosesOrDoubleCountsUnderRandomTraffic() {
+        Random random = new Random(11);
+        MinuteRing ring = new MinuteRing(5);
+        Map<Long, Long> added = new HashMap<>();
+        Map<Long, Long> flushed = new HashMap<>();
+        MinuteRing.MinuteCount flush = (minute, count) -> flushed.merge(minute, count, Long::sum);
+        long now = 1_000;
+
+        for (int step = 0; step < 20_000; step++) {
+            now += random.nextInt(10) == 0 ? random.nextInt(8) : 0;
+            long minute = now - random.nextInt(7);
+            long count = 1 + random.nextInt(3);
+            if (ring.add(minute, count, flush)) {
+                added.merge(minute, count, Long::sum);
+            }
+            if (random.nextInt(50) == 0) {
+                // Persist whatever is outstanding, as the flush job does
+                Map<Long, Long> pending = outstanding(ring);
+                for (Map.Entry<Long, Long> entry : pending.entrySet()) {
+                    assertTrue(ring.markPersisted(entry.getKey(), entry.getValue()));
+                    flushed.merge(entry.getKey(), entry.getValue(), Long::sum);
+                }
+            }
+        }
+        ring.forEachOutstanding(flush);
+
+        assertEquals(added, flushed);
+    }
+
+    private static Map<Long, Long> outstanding(MinuteRing ring) {
+        Map<Long, Long> outstanding = new TreeMap<>();
+        ring.forEachOutstanding(outstanding::put);
+        return outstanding;
+    }
+}
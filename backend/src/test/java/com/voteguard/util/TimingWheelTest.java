@@ -0,0 +1,124 @@
+package com.voteguard.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1_000;
+    private static final int WHEEL_SIZE = 8;
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(0, WHEEL_SIZE, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(TICK, 1, 0));
+    }
+
+    @Test
+    void refusesDeadlinesThatAreAlreadyDue() {
+        // The current tick is [5000, 6000)
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, 5_300);
+        assertFalse(wheel.schedule(4_000, "past"));
+        assertFalse(wheel.schedule(5_000, "start of current tick"));
+        assertTrue(wheel.schedule(5_300, "within current tick"));
+        assertTrue(wheel.schedule(6_000, "next tick"));
+        assertEquals(2, wheel.size());
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(6_000, expired::add);
+        assertEquals(2, expired.size());
+    }
+
+    @Test
+    void firesAtTheTickBoundaryOnOrAfterTheDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, 0);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule(2_500, "a");
+
+        wheel.advance(2_999, expired::add);
+        assertTrue(expired.isEmpty(), "fired before its deadline");
+
+        wheel.advance(3_000, expired::add);
+        assertEquals(List.of("a"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFarDeadlinesThroughOverflowLevelsAcrossWraparound() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, 0);
+        // One wheel spans 8 s, the first overflow 64 s; these need two overflow levels and wrap each level
+        long[] deadlines = { 7_000, 8_000, 9_500, 63_000, 64_000, 65_000, 200_000, 513_000 };
+        for (long deadline : deadlines) {
+            assertTrue(wheel.schedule(deadline, deadline));
+        }
+        assertEquals(deadlines.length, wheel.size());
+
+        List<Long> expired = new ArrayList<>();
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long now = 0; now <= 520_000; now += 500) {
+            long time = now;
+            wheel.advance(now, deadline -> {
+                expired.add(deadline);
+                firedAt.put(deadline, time);
+            });
+        }
+
+        List<Long> expected = new ArrayList<>();
+        for (long deadline : deadlines) {
+            expected.add(deadline);
+            long fireAt = (deadline + TICK - 1) / TICK * TICK;
+            assertEquals(fireAt, (long) firedAt.get(deadline), "fire time of " + deadline);
+        }
+        assertEquals(expected, expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesEveryItemExactlyOnceInDeadlineOrderUnderRandomSchedules() {
+        Random random = new Random(7);
+        long now = 12_345;
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, now);
+        Map<Integer, Long> fireAt = new HashMap<>();
+        List<Integer> expired = new ArrayList<>();
+        int next = 0;
+
+        for (int step = 0; step < 5_000; step++) {
+            for (int i = random.nextInt(3); i > 0; i--) {
+                long deadline = now + 1 + (long) random.nextInt(600_000);
+                if (wheel.schedule(deadline, next)) {
+                    fireAt.put(next, (deadline + TICK - 1) / TICK * TICK);
+                }
+                next++;
+            }
+            long previous = now;
+            now += random.nextInt(3_000);
+            long current = now;
+            int firstNew = expired.size();
+            wheel.advance(now, expired::add);
+            long lastFire = Long.MIN_VALUE;
+            for (int i = firstNew; i < expired.size(); i++) {
+                long due = fireAt.get(expired.get(i));
+                assertTrue(due <= current, "item fired early");
+                assertTrue(due > previous - previous % TICK, "item fired late");
+                assertTrue(due >= lastFire, "items out of deadline order");
+                lastFire = due;
+            }
+        }
+        wheel.advance(now + 700_000, expired::add);
+
+        assertEquals(fireAt.size(), expired.size());
+        assertEquals(fireAt.keySet(), new HashSet<>(expired));
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,76 @@
+package com.voteguard.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TotpTest {
+
+    // RFC 6238 Appendix B: HMAC-SHA1 seed, 30 s steps, 8 digits
+    private static final byte[] SEED = "12345678901234567890".getBytes(StandardCharsets.US_ASCII);
+    private static final long[] TIMES = { 59L, 1_111_111_109L, 1_111_111_111L, 1_234_567_890L, 2_000_000_000L, 20_000_000_000L };
+    private static final String[] CODES = { "94287082", "07081804", "14050471", "89005924", "69279037", "65353130" };
+
+    @Test
+    void matchesRfc6238TestVectors() {
+        Totp totp = new Totp(30, 8);
+        for (int i = 0; i < TIMES.length; i++) {
+            long step = totp.stepAt(TIMES[i] * 1000);
+            assertEquals(CODES[i], totp.generate(SEED, step), "code at T = " + TIMES[i]);
+            assertTrue(totp.verify(SEED, CODES[i], TIMES[i] * 1000, 0), "verify at T = " + TIMES[i]);
+        }
+    }
+
+    @Test
+    void sixDigitCodesAreTheLowDigitsOfTheTestVectors() {
+        Totp totp = new Totp(30, 6);
+        for (int i = 0; i < TIMES.length; i++) {
+            assertEquals(CODES[i].substring(2), totp.generate(SEED, totp.stepAt(TIMES[i] * 1000)));
+        }
+    }
+
+    @Test
+    void stepsStartOnMultiplesOfTheStepLength() {
+        Totp totp = new Totp(30, 6);
+        assertEquals(1, totp.stepAt(59_999));
+        assertEquals(2, totp.stepAt(60_000));
+        assertEquals(-1, totp.stepAt(-1));
+        assertEquals(60_000, totp.stepStartMillis(2));
+    }
+
+    @Test
+    void verifyAcceptsOnlyCodesWithinTheSkewWindow() {
+        Totp totp = new Totp(30, 8);
+        long now = 1_111_111_111_000L;
+        long step = totp.stepAt(now);
+        String previous = totp.generate(SEED, step - 1);
+        String twoAhead = totp.generate(SEED, step + 2);
+
+        assertTrue(totp.verify(SEED, previous, now, 1));
+        assertFalse(totp.verify(SEED, previous, now, 0));
+        assertFalse(totp.verify(SEED, twoAhead, now, 1));
+        assertTrue(totp.verify(SEED, twoAhead, now, 2));
+    }
+
+    @Test
+    void verifyRejectsMalformedCodes() {
+        Totp totp = new Totp(30, 8);
+        long now = 59_000;
+        assertFalse(totp.verify(SEED, null, now, 1));
+        assertFalse(totp.verify(SEED, "9428708", now, 1));
+        assertFalse(totp.verify(SEED, "942870820", now, 1));
+        assertFalse(totp.verify("another secret value".getBytes(StandardCharsets.US_ASCII), "94287082", now, 1));
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new Totp(0, 6));
+        assertThrows(IllegalArgumentException.class, () -> new Totp(30, 5));
+        assertThrows(IllegalArgumentException.class, () -> new Totp(30, 9));
+    }
+}
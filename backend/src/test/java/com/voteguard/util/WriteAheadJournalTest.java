@@ -0,0 +1,205 @@
+package com.voteguard.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteAheadJournalTest {
+
+    // Layout from WriteAheadJournal: 64-byte file header, then length, epoch and CRC ahead of each payload
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORD_HEADER_BYTES = 12;
+    private static final long MAX_SIZE = 4L << 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsSurviveReopen() throws IOException {
+        Path file = directory.resolve("votes.journal");
+        try (WriteAheadJournal journal = open(file)) {
+            journal.append(bytes("one"));
+            journal.append(bytes("two"));
+            journal.append(bytes("three"));
+        }
+
+        try (WriteAheadJournal journal = open(file)) {
+            assertEquals(List.of("one", "two", "three"), payloads(journal.read(10)));
+            assertEquals(3, journal.pendingRecords());
+            assertEquals(List.of("one", "two"), payloads(journal.read(2)));
+        }
+    }
+
+    @Test
+    void recordWithoutItsLengthIsDroppedAsATornTail() throws IOException {
+        Path file = directory.resolve("votes.journal");
+        try (WriteAheadJournal journal = open(file)) {
+            journal.append(bytes("one"));
+            journal.append(bytes("two"));
+            journal.append(bytes("torn"));
+        }
+        // The length is written last, so a crash before it leaves the record unreadable
+        writeInt(file, recordOffset("one", "two"), 0);
+
+        try (WriteAheadJournal journal = open(file)) {
+            assertEquals(List.of("one", "two"), payloads(journal.read(10)));
+            journal.append(bytes("after"));
+        }
+        try (WriteAheadJournal journal = open(file)) {
+            assertEquals(List.of("one", "two", "after"), payloads(journal.read(10)));
+        }
+    }
+
+    @Test
+    void recordFailingItsCrcEndsTheJournal() throws IOException {
+        Path file = directory.resolve("votes.journal");
+        try (WriteAheadJournal journal = open(file)) {
+            journal.append(bytes("one"));
+            journal.append(bytes("two"));
+            journal.append(bytes("three"));
+        }
+        // Length present but the payload only partly reached the disk
+        long second = recordOffset("one");
+        writeByte(file, second + RECORD_HEADER_BYTES + 1, (byte) 'X');
+
+        try (WriteAheadJournal journal = open(file)) {
+            assertEquals(List.of("one"), payloads(journal.read(10)));
+            assertEquals(1, journal.pendingRecords());
+            // The next append overwrites the damaged record
+            journal.append(bytes("four"));
+        }
+        try (WriteAheadJournal journal = open(file)) {
+            assertEquals(List.of("one", "four"), payloads(journal.read(10)));
+        }
+    }
+
+    @Test
+    void consumedRecordsAreNotReadAgainAfterReopen() throws IOException {
+        Path file = directory.resolve("votes.journal");
+        try (WriteAheadJournal journal = open(file)) {
+            journal.append(bytes("one"));
+            journal.append(bytes("two"));
+            journal.append(bytes("three"));
+            journal.consumeThrough(journal.read(2).get(1));
+            assertEquals(1, journal.pendingRecords());
+        }
+
+        try (WriteAheadJournal journal = open(file)) {
+            assertEquals(List.of("three"), payloads(journal.read(10)));
+            assertEquals(1, journal.pendingRecords());
+        }
+    }
+
+    @Test
+    void resetAfterConsumingEverythingNeverReadsStaleRecords() throws IOException {
+        Path file = directory.resolve("votes.journal");
+        try (WriteAheadJournal journal = open(file)) {
+            journal.append(bytes("old1"));
+            journal.append(bytes("old2"));
+            journal.append(bytes("old3"));
+            journal.consumeThrough(journal.read(3).get(2));
+            assertEquals(0, journal.pendingRecords());
+            assertEquals(0, journal.pendingBytes());
+
+            // Same length as old1, so old2 and old3 still follow it intact, but from the previous epoch
+            journal.append(bytes("new1"));
+        }
+
+        try (WriteAheadJournal journal = open(file)) {
+            assertEquals(List.of("new1"), payloads(journal.read(10)));
+            assertEquals(1, journal.pendingRecords());
+        }
+    }
+
+    @Test
+    void growsUpToTheMaximumSizeAndThenRefusesAppends() throws IOException {
+        Path file = directory.resolve("votes.journal");
+        byte[] payload = new byte[10_000];
+        int appended = 0;
+        try (WriteAheadJournal journal = open(file)) {
+            long initial = journal.mappedBytes();
+            while (true) {
+                payload[0] = (byte) appended;
+                try {
+                    journal.append(payload);
+                } catch (IOException e) {
+                    assertTrue(e.getMessage().contains("full"), e.getMessage());
+                    break;
+                }
+                appended++;
+            }
+            assertTrue(journal.mappedBytes() > initial, "mapping never grew");
+            assertEquals(MAX_SIZE, journal.mappedBytes());
+        }
+
+        try (WriteAheadJournal journal = open(file)) {
+            List<WriteAheadJournal.Entry> records = journal.read(Integer.MAX_VALUE);
+            assertEquals(appended, records.size());
+            for (int i = 0; i < appended; i++) {
+                assertEquals((byte) i, records.get(i).payload()[0]);
+            }
+        }
+    }
+
+    @Test
+    void refusesAFileThatIsNotAJournal() throws IOException {
+        Path file = directory.resolve("other.dat");
+        Files.write(file, bytes("not a vote journal at all"));
+        assertThrows(IOException.class, () -> open(file));
+    }
+
+    private static WriteAheadJournal open(Path file) throws IOException {
+        return new WriteAheadJournal(file, MAX_SIZE, WriteAheadJournal.SyncPolicy.ALWAYS);
+    }
+
+    // Offset of the record that follows the given ones
+    private static long recordOffset(String... before) {
+        long offset = HEADER_BYTES;
+        for (String payload : before) {
+            offset += RECORD_HEADER_BYTES + bytes(payload).length;
+        }
+        return offset;
+    }
+
+    private static void writeInt(Path file, long position, int value) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(value);
+        buffer.flip();
+        write(file, position, buffer);
+    }
+
+    private static void writeByte(Path file, long position, byte value) throws IOException {
+        write(file, position, ByteBuffer.wrap(new byte[]{ value }));
+    }
+
+    private static void write(Path file, long position, ByteBuffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(buffer, position);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<WriteAheadJournal.Entry> records) {
+        List<String> payloads = new ArrayList<>();
+        for (WriteAheadJournal.Entry record : records) {
+            payloads.add(new String(record.payload(), StandardCharsets.UTF_8));
+        }
+        return payloads;
+    }
+}
@@ -0,0 +1,53 @@
+-- Benchmark: bulk eligibility assignment on a synthetic 1M-voter roll
+-- Loads 1,000,000 synthetic voters (voter_id SYN0000001..), times the set-based
+-- statement a bulk eligibility job runs per chunk, then removes the synthetic data.
+-- Run against a scratch database after migration_voter_election_eligibility.sql:
+--   psql -d voteguard_bench -f benchmark_bulk_eligibility.sql
+-- The backend job splits the same INSERT ... SELECT into 50,000-id chunks of voters.id;
+-- compare the timing below with the rowsPerSecond reported by
+-- GET /api/elections/eligibility-jobs/{jobId}.
+
+\timing on
+
+-- Step 1: Synthetic roll (about 5% inactive, 0.1% admins)
+INSERT INTO voters (voter_id, full_name, is_active, role)
+SELECT 'SYN' || LPAD(g::text, 7, '0'),
+       'Synthetic Voter ' || g,
+       g % 20 <> 0,
+       CASE WHEN g % 1000 = 0 THEN 'ADMIN' ELSE 'VOTER' END
+FROM generate_series(1, 1000000) AS g
+ON CONFLICT (voter_id) DO NOTHING;
+
+ANALYZE voters;
+
+-- Step 2: Benchmark election
+INSERT INTO elections (name, description, start_date, end_date, status, is_active)
+VALUES ('Bulk eligibility benchmark', 'Synthetic election for benchmark_bulk_eligibility.sql',
+        CURRENT_TIMESTAMP, CURRENT_TIMESTAMP + INTERVAL '1 day', 'UPCOMING', false);
+
+-- Step 3: ALL_ACTIVE rule as a single statement
+INSERT INTO voter_election_eligibility (voter_id, election_id)
+SELECT v.id, (SELECT MAX(id) FROM elections WHERE name = 'Bulk eligibility benchmark')
+FROM voters v
+WHERE v.is_active = true AND v.voter_id LIKE 'SYN%'
+ON CONFLICT DO NOTHING;
+
+-- Step 4: Re-running the rule is a no-op (every row conflicts)
+INSERT INTO voter_election_eligibility (voter_id, election_id)
+SELECT v.id, (SELECT MAX(id) FROM elections WHERE name = 'Bulk eligibility benchmark')
+FROM voters v
+WHERE v.is_active = true AND v.voter_id LIKE 'SYN%'
+ON CONFLICT DO NOTHING;
+
+SELECT COUNT(*) AS eligible_rows
+FROM voter_election_eligibility
+WHERE election_id = (SELECT MAX(id) FROM elections WHERE name = 'Bulk eligibility benchmark');
+
+-- Step 5: Clean up (eligibility rows cascade)
+DELETE FROM elections WHERE name = 'Bulk eligibility benchmark';
+DELETE FROM voters WHERE voter_id LIKE 'SYN%';
+
+\timing off
+
+-- Verification
+SELECT 'Bulk eligibility benchmark completed successfully!' as status;
@@ -0,0 +1,70 @@
+-- Benchmark: parallel recount of an election with 10M synthetic votes
+-- Loads 10,000,000 synthetic voters (voter_id RCNT00000001..) and one vote each in a
+-- completed election spread over 8 candidates and 50 centers (1% without a center), times
+-- the single-statement count the recount replaces, then waits while the backend recounts.
+-- Run against a scratch database after migration_center_tally_index.sql, with the backend
+-- pointed at it:
+--   psql -d voteguard_bench -f benchmark_recount.sql
+-- When prompted, call POST /api/results/election/{electionId}/recount as an admin and note
+-- rowsScanned, elapsedMs and rowsPerSecond in the report; rowsScanned should be 10000000 and
+-- discrepancies empty. Repeat with results.recount.parallelism set to 1, 2, 4 and 8.
+
+\timing on
+
+-- Step 1: Synthetic roll
+INSERT INTO voters (voter_id, full_name, is_active)
+SELECT 'RCNT' || LPAD(g::text, 8, '0'),
+       'Recount Voter ' || g,
+       true
+FROM generate_series(1, 10000000) AS g
+ON CONFLICT (voter_id) DO NOTHING;
+
+-- Step 2: Benchmark election and candidates
+INSERT INTO elections (name, election_code, description, start_date, end_date, status, is_active)
+VALUES ('Recount benchmark', 'RCNT01', 'Synthetic election for benchmark_recount.sql',
+        CURRENT_TIMESTAMP - INTERVAL '1 day', CURRENT_TIMESTAMP - INTERVAL '1 hour', 'COMPLETED', false);
+
+INSERT INTO candidates (name, party, candidate_number, election_id, is_active)
+SELECT 'Recount Candidate ' || g, 'Party ' || g, g,
+       (SELECT MAX(id) FROM elections WHERE name = 'Recount benchmark'), true
+FROM generate_series(1, 8) AS g;
+
+-- Step 3: One vote per synthetic voter
+INSERT INTO votes (voter_id, voter_name, candidate_id, center_location, timestamp, fingerprint_verified, election_id)
+SELECT v.id,
+       v.full_name,
+       c.id,
+       CASE WHEN v.id % 100 = 0 THEN NULL ELSE 'Center ' || (v.id % 50) END,
+       CURRENT_TIMESTAMP - INTERVAL '2 hours',
+       true,
+       c.election_id
+FROM voters v
+JOIN candidates c
+  ON c.election_id = (SELECT MAX(id) FROM elections WHERE name = 'Recount benchmark')
+ AND c.candidate_number = (v.id * 7 % 8) + 1
+WHERE v.voter_id LIKE 'RCNT%';
+
+ANALYZE voters;
+ANALYZE votes;
+
+SELECT MAX(id) AS election_id FROM elections WHERE name = 'Recount benchmark';
+
+-- Step 4: Single-statement count per center and candidate, for comparison
+SELECT center_location, candidate_id, COUNT(*) AS votes
+FROM votes
+WHERE election_id = (SELECT MAX(id) FROM elections WHERE name = 'Recount benchmark')
+GROUP BY center_location, candidate_id
+ORDER BY center_location, candidate_id
+LIMIT 10;
+
+-- Step 5: Recount through the backend
+\prompt 'Run the recount for the election_id above, then press Enter to clean up ' done
+
+-- Step 6: Clean up (candidates, votes, snapshot and turnout rows cascade)
+DELETE FROM elections WHERE name = 'Recount benchmark';
+DELETE FROM voters WHERE voter_id LIKE 'RCNT%';
+
+\timing off
+
+-- Verification
+SELECT 'Recount benchmark completed successfully!' as status;
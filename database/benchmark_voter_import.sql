@@ -0,0 +1,40 @@
+-- Benchmark: bulk voter import and roll export
+-- Writes a synthetic 100k-voter file for POST /api/admin/voters/import, then times the same
+-- COPY + INSERT ... SELECT the import runs. Run against a scratch database:
+--   psql -d voteguard_bench -f benchmark_voter_import.sql
+-- To time the endpoint itself with the generated file:
+--   curl -F file=@/tmp/voteguard_import_bench.csv http://localhost:8080/api/admin/voters/import
+--   curl -o /tmp/voters.csv http://localhost:8080/api/admin/voters/export
+
+\timing on
+
+-- Step 1: Synthetic import file (same columns the import expects)
+\copy (SELECT 'IMPORT' || LPAD(g::text, 7, '0') AS voter_id, 'Import Voter ' || g AS full_name, 'import' || g || '@bench.local' AS email, '2000-01-' || LPAD((g % 28 + 1)::text, 2, '0') AS extra_field, 'VOTER' AS role FROM generate_series(1, 100000) AS g) TO '/tmp/voteguard_import_bench.csv' WITH (FORMAT csv, HEADER)
+
+-- Step 2: Staging COPY, as done by VoterRepository.importVoters
+BEGIN;
+CREATE TEMP TABLE voter_import (voter_id VARCHAR(50), full_name VARCHAR(100),
+    email VARCHAR(100), extra_field VARCHAR(100), role VARCHAR(20)) ON COMMIT DROP;
+\copy voter_import FROM '/tmp/voteguard_import_bench.csv' WITH (FORMAT csv, HEADER)
+
+-- Step 3: Duplicate check against the roll
+SELECT COUNT(*) AS conflicts FROM (
+    SELECT i.voter_id FROM voter_import i JOIN voters v ON v.voter_id = i.voter_id
+    UNION ALL
+    SELECT i.email FROM voter_import i JOIN voters v ON v.email = i.email
+) c;
+
+-- Step 4: Insert
+INSERT INTO voters (voter_id, full_name, email, extra_field, has_voted, is_active, role)
+SELECT voter_id, full_name, email, extra_field, false, true, role FROM voter_import
+ON CONFLICT DO NOTHING;
+COMMIT;
+
+-- Step 5: Export, as streamed by GET /api/admin/voters/export
+\copy (SELECT voter_id, full_name, email, extra_field, role, is_active, has_voted, created_at, updated_at FROM voters ORDER BY id) TO '/dev/null' WITH (FORMAT csv, HEADER)
+
+-- Step 6: Clean up
+DELETE FROM voters WHERE voter_id LIKE 'IMPORT%';
+
+-- Verification
+SELECT 'Voter import benchmark completed successfully!' as status;
@@ -0,0 +1,31 @@
+-- Benchmark: kiosk login lookup on a synthetic 1M-voter roll
+-- Compares the old case-insensitive lookup with the canonical-form lookup used after
+-- migration_canonical_voter_ids.sql. Run against a scratch database:
+--   psql -d voteguard_bench -f benchmark_voter_lookup.sql
+-- Expect a Seq Scan over the whole roll for the first query and an Index Scan on
+-- voters_voter_id_key for the second.
+
+-- Step 1: Synthetic roll
+INSERT INTO voters (voter_id, full_name, extra_field, is_active)
+SELECT 'BENCH' || LPAD(g::text, 7, '0'),
+       'Benchmark Voter ' || g,
+       '2000-01-' || LPAD((g % 28 + 1)::text, 2, '0'),
+       true
+FROM generate_series(1, 1000000) AS g
+ON CONFLICT (voter_id) DO NOTHING;
+
+ANALYZE voters;
+
+-- Step 2: Old lookup (function on the indexed column)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM voters WHERE UPPER(voter_id) = UPPER('bench0765432') AND extra_field = '2000-01-13';
+
+-- Step 3: Canonical lookup (plain equality, unique index)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM voters WHERE voter_id = 'BENCH0765432' AND extra_field = '2000-01-13';
+
+-- Step 4: Clean up
+DELETE FROM voters WHERE voter_id LIKE 'BENCH%';
+
+-- Verification
+SELECT 'Voter lookup benchmark completed successfully!' as status;
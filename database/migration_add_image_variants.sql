@@ -0,0 +1,24 @@
+-- Migration: Add pre-rendered image variants for ballot images
+-- Kiosk ballots show candidate photos and party logos at small sizes. Resized variants
+-- are generated at upload time and served with ?size=ballot|list; the original upload
+-- stays in candidate_photos / party_logos and is served as size=full.
+-- Run this after migration_binary_media_storage.sql
+
+CREATE TABLE IF NOT EXISTS image_variants (
+    owner_type VARCHAR(30) NOT NULL CHECK (owner_type IN ('CANDIDATE_PHOTO', 'PARTY_LOGO')),
+    owner_id BIGINT NOT NULL REFERENCES candidates(id) ON DELETE CASCADE,
+    variant VARCHAR(20) NOT NULL CHECK (variant IN ('BALLOT', 'LIST')),
+    image_data BYTEA NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    source_hash CHAR(64) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (owner_type, owner_id, variant)
+);
+
+-- Add comments for documentation
+COMMENT ON TABLE image_variants IS 'Resized renditions of candidate photos and party logos';
+COMMENT ON COLUMN image_variants.source_hash IS 'content_hash of the original the variant was rendered from; stale variants are re-rendered by the backfill job';
+
+-- Verification
+SELECT 'Image variants migration completed successfully!' as status;
@@ -0,0 +1,104 @@
+-- Migration: Store candidate photos, party logos and profile photos as binary
+-- Images were previously stored as Base64 TEXT, which made every image 33% larger
+-- and forced the backend to wrap them in JSON. This converts the payload columns to
+-- BYTEA and records the detected content type and a SHA-256 content hash, which the
+-- image endpoints use as a strong ETag.
+
+-- Step 1: Create the media tables if they were never created by the backend
+CREATE TABLE IF NOT EXISTS candidate_photos (
+    id BIGSERIAL PRIMARY KEY,
+    candidate_id BIGINT UNIQUE NOT NULL REFERENCES candidates(id) ON DELETE CASCADE,
+    photo_data BYTEA NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS party_logos (
+    id BIGSERIAL PRIMARY KEY,
+    candidate_id BIGINT UNIQUE NOT NULL REFERENCES candidates(id) ON DELETE CASCADE,
+    logo_data BYTEA NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS profile_photos (
+    id BIGSERIAL PRIMARY KEY,
+    voter_id VARCHAR(50) UNIQUE NOT NULL REFERENCES voters(voter_id) ON DELETE CASCADE,
+    photo_data BYTEA NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Step 2: Convert existing Base64 TEXT payloads to BYTEA in place
+DO $$
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_name = 'candidate_photos' AND column_name = 'photo_data') = 'text' THEN
+        ALTER TABLE candidate_photos ALTER COLUMN photo_data TYPE BYTEA USING decode(photo_data, 'base64');
+    END IF;
+
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_name = 'party_logos' AND column_name = 'logo_data') = 'text' THEN
+        ALTER TABLE party_logos ALTER COLUMN logo_data TYPE BYTEA USING decode(logo_data, 'base64');
+    END IF;
+
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_name = 'profile_photos' AND column_name = 'photo_data') = 'text' THEN
+        ALTER TABLE profile_photos ALTER COLUMN photo_data TYPE BYTEA USING decode(photo_data, 'base64');
+    END IF;
+END $$;
+
+-- Step 3: Add content type and content hash columns
+ALTER TABLE candidate_photos
+ADD COLUMN IF NOT EXISTS content_type VARCHAR(100),
+ADD COLUMN IF NOT EXISTS content_hash CHAR(64);
+
+ALTER TABLE party_logos
+ADD COLUMN IF NOT EXISTS content_type VARCHAR(100),
+ADD COLUMN IF NOT EXISTS content_hash CHAR(64);
+
+ALTER TABLE profile_photos
+ADD COLUMN IF NOT EXISTS content_type VARCHAR(100),
+ADD COLUMN IF NOT EXISTS content_hash CHAR(64);
+
+-- Step 4: Backfill hashes and content types for existing rows
+UPDATE candidate_photos SET content_hash = encode(sha256(photo_data), 'hex') WHERE content_hash IS NULL;
+UPDATE party_logos SET content_hash = encode(sha256(logo_data), 'hex') WHERE content_hash IS NULL;
+UPDATE profile_photos SET content_hash = encode(sha256(photo_data), 'hex') WHERE content_hash IS NULL;
+
+UPDATE candidate_photos SET content_type = CASE
+        WHEN substring(photo_data from 1 for 3) = '\xffd8ff'::bytea THEN 'image/jpeg'
+        WHEN substring(photo_data from 1 for 8) = '\x89504e470d0a1a0a'::bytea THEN 'image/png'
+        WHEN substring(photo_data from 1 for 4) = '\x47494638'::bytea THEN 'image/gif'
+        WHEN substring(photo_data from 1 for 4) = '\x52494646'::bytea THEN 'image/webp'
+        ELSE 'application/octet-stream'
+    END
+WHERE content_type IS NULL;
+
+UPDATE party_logos SET content_type = CASE
+        WHEN substring(logo_data from 1 for 3) = '\xffd8ff'::bytea THEN 'image/jpeg'
+        WHEN substring(logo_data from 1 for 8) = '\x89504e470d0a1a0a'::bytea THEN 'image/png'
+        WHEN substring(logo_data from 1 for 4) = '\x47494638'::bytea THEN 'image/gif'
+        WHEN substring(logo_data from 1 for 4) = '\x52494646'::bytea THEN 'image/webp'
+        ELSE 'application/octet-stream'
+    END
+WHERE content_type IS NULL;
+
+UPDATE profile_photos SET content_type = CASE
+        WHEN substring(photo_data from 1 for 3) = '\xffd8ff'::bytea THEN 'image/jpeg'
+        WHEN substring(photo_data from 1 for 8) = '\x89504e470d0a1a0a'::bytea THEN 'image/png'
+        WHEN substring(photo_data from 1 for 4) = '\x47494638'::bytea THEN 'image/gif'
+        WHEN substring(photo_data from 1 for 4) = '\x52494646'::bytea THEN 'image/webp'
+        ELSE 'application/octet-stream'
+    END
+WHERE content_type IS NULL;
+
+-- Add comments for documentation
+COMMENT ON COLUMN candidate_photos.content_hash IS 'Hex SHA-256 of photo_data, served as the image ETag';
+COMMENT ON COLUMN party_logos.content_hash IS 'Hex SHA-256 of logo_data, served as the image ETag';
+COMMENT ON COLUMN profile_photos.content_hash IS 'Hex SHA-256 of photo_data, served as the image ETag';
+
+-- Verification
+SELECT 'Binary media storage migration completed successfully!' as status;
+SELECT 'candidate_photos' AS table_name, COUNT(*) AS rows, SUM(octet_length(photo_data)) AS bytes FROM candidate_photos
+UNION ALL
+SELECT 'party_logos', COUNT(*), SUM(octet_length(logo_data)) FROM party_logos
+UNION ALL
+SELECT 'profile_photos', COUNT(*), SUM(octet_length(photo_data)) FROM profile_photos;
@@ -0,0 +1,50 @@
+-- Migration: Move large binary payloads out of PostgreSQL into the content-addressed blob store
+-- Photos, logos, image variants and fingerprint scans are written to the filesystem blob store
+-- (storage.blob.root) keyed by their SHA-256. Rows keep only the hash; the BYTEA columns stay
+-- nullable so rows written before this migration keep working until they are moved with
+-- POST /api/admin/internal/migrate-blobs.
+-- Run this after migration_add_image_variants.sql
+
+-- Step 1: Allow payload columns to be empty once the blob store holds the content
+ALTER TABLE candidate_photos ALTER COLUMN photo_data DROP NOT NULL;
+ALTER TABLE party_logos ALTER COLUMN logo_data DROP NOT NULL;
+ALTER TABLE profile_photos ALTER COLUMN photo_data DROP NOT NULL;
+ALTER TABLE image_variants ALTER COLUMN image_data DROP NOT NULL;
+
+-- Step 2: Fingerprint tables get a hash column
+CREATE TABLE IF NOT EXISTS fingerprint_data (
+    id BIGSERIAL PRIMARY KEY,
+    voter_id VARCHAR(50) UNIQUE NOT NULL REFERENCES voters(voter_id) ON DELETE CASCADE,
+    fingerprint_data BYTEA,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER TABLE fingerprint_data
+ADD COLUMN IF NOT EXISTS fingerprint_hash CHAR(64);
+
+ALTER TABLE admin_users
+ADD COLUMN IF NOT EXISTS fingerprint_data BYTEA,
+ADD COLUMN IF NOT EXISTS fingerprint_hash CHAR(64);
+
+-- Step 3: Every row must have either its payload or a blob hash
+ALTER TABLE fingerprint_data DROP CONSTRAINT IF EXISTS chk_fingerprint_data_payload;
+ALTER TABLE fingerprint_data ADD CONSTRAINT chk_fingerprint_data_payload
+    CHECK (fingerprint_data IS NOT NULL OR fingerprint_hash IS NOT NULL);
+
+-- Add comments for documentation
+COMMENT ON COLUMN fingerprint_data.fingerprint_hash IS 'Hex SHA-256 of the scan; key of the blob in the blob store';
+COMMENT ON COLUMN admin_users.fingerprint_hash IS 'Hex SHA-256 of the scan; key of the blob in the blob store';
+
+-- Verification: rows still holding inline payloads
+SELECT 'Blob store migration completed successfully!' as status;
+SELECT 'candidate_photos' AS table_name, COUNT(*) AS inline_rows FROM candidate_photos WHERE photo_data IS NOT NULL
+UNION ALL
+SELECT 'party_logos', COUNT(*) FROM party_logos WHERE logo_data IS NOT NULL
+UNION ALL
+SELECT 'profile_photos', COUNT(*) FROM profile_photos WHERE photo_data IS NOT NULL
+UNION ALL
+SELECT 'image_variants', COUNT(*) FROM image_variants WHERE image_data IS NOT NULL
+UNION ALL
+SELECT 'fingerprint_data', COUNT(*) FROM fingerprint_data WHERE fingerprint_data IS NOT NULL
+UNION ALL
+SELECT 'admin_users', COUNT(*) FROM admin_users WHERE fingerprint_data IS NOT NULL;
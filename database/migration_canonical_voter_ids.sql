@@ -0,0 +1,67 @@
+-- Migration: Store voter IDs in canonical form
+-- Logins used UPPER(voter_id) = UPPER(?), which cannot use the unique index on voter_id and
+-- scans the whole roll. The backend now writes voter IDs trimmed and upper-cased (VoterIds.canonical)
+-- and looks them up with plain equality. This migration normalizes existing rows and enforces the
+-- canonical form so the unique index on voter_id is also the case-insensitive uniqueness check.
+-- Run this after migration_blob_store.sql
+
+-- Step 1: Refuse to run if two voter IDs differ only by case or surrounding spaces
+DO $$
+DECLARE
+    collision TEXT;
+BEGIN
+    SELECT UPPER(TRIM(voter_id)) INTO collision
+    FROM voters
+    GROUP BY UPPER(TRIM(voter_id))
+    HAVING COUNT(*) > 1
+    LIMIT 1;
+
+    IF collision IS NOT NULL THEN
+        RAISE EXCEPTION 'Voter IDs collide after normalization (e.g. %); merge or rename them first', collision;
+    END IF;
+END $$;
+
+-- Step 2: Let voter_id changes cascade to tables keyed by it
+-- (fingerprint_templates, fingerprint_data, profile_photos)
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN
+        SELECT c.conname, c.conrelid::regclass AS table_name, a.attname AS column_name
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.contype = 'f'
+          AND c.confrelid = 'voters'::regclass
+          AND c.confkey = ARRAY[(SELECT attnum FROM pg_attribute WHERE attrelid = 'voters'::regclass AND attname = 'voter_id')]
+          AND c.confupdtype <> 'c'
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+        EXECUTE format('ALTER TABLE %s ADD CONSTRAINT %I FOREIGN KEY (%I) REFERENCES voters(voter_id) ON UPDATE CASCADE ON DELETE CASCADE',
+                       fk.table_name, fk.conname, fk.column_name);
+        RAISE NOTICE 'Foreign key % on % now cascades updates', fk.conname, fk.table_name;
+    END LOOP;
+END $$;
+
+-- verification_logs.voter_id has no foreign key; keep its history in step by hand
+UPDATE verification_logs SET voter_id = UPPER(TRIM(voter_id))
+WHERE voter_id IS NOT NULL AND voter_id <> UPPER(TRIM(voter_id));
+
+-- Step 3: Normalize existing voter IDs
+UPDATE voters SET voter_id = UPPER(TRIM(voter_id))
+WHERE voter_id <> UPPER(TRIM(voter_id));
+
+-- Step 4: Enforce the canonical form on every future write
+ALTER TABLE voters DROP CONSTRAINT IF EXISTS chk_voters_voter_id_canonical;
+ALTER TABLE voters ADD CONSTRAINT chk_voters_voter_id_canonical CHECK (voter_id = UPPER(TRIM(voter_id)));
+
+-- Step 5: The UNIQUE constraint's index serves all lookups; drop the duplicate plain index
+DROP INDEX IF EXISTS idx_voters_voter_id;
+
+-- Add comments for documentation
+COMMENT ON COLUMN voters.voter_id IS 'Canonical voter ID: trimmed and upper case; compare with plain equality';
+
+ANALYZE voters;
+
+-- Verification
+SELECT 'Canonical voter IDs migration completed successfully!' as status;
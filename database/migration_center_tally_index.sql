@@ -0,0 +1,8 @@
+-- Migration: Per-center tally index
+-- Results are kept per (election, center, candidate). Reloading them, or recounting one center
+-- after an audit, groups votes by those columns; this index lets both run as index-only scans
+-- instead of reading every vote row of the election.
+-- Run this after migration_station_sync.sql
+
+CREATE INDEX IF NOT EXISTS idx_votes_election_center_candidate
+    ON votes(election_id, center_location, candidate_id, id);
@@ -0,0 +1,18 @@
+-- Migration: Derive election center OTPs from a per-election TOTP secret
+-- Center setup codes are now computed in the backend (RFC 6238) from elections.otp_secret
+-- instead of being generated and stored by generate_election_otp(). Validation needs no
+-- database writes, so every backend node accepts the same codes.
+-- Elections without a secret get one the first time a code is generated for them.
+-- Run this after fix_otp_timezone.sql
+
+-- Step 1: Add the secret column
+ALTER TABLE elections
+ADD COLUMN IF NOT EXISTS otp_secret VARCHAR(64);
+
+-- Add comments for documentation
+COMMENT ON COLUMN elections.otp_secret IS 'Hex-encoded HMAC-SHA1 secret for time-based center setup codes; never exposed through the API';
+COMMENT ON COLUMN elections.election_otp IS 'Deprecated: no longer written; codes are derived from otp_secret';
+COMMENT ON COLUMN elections.otp_expires_at IS 'Deprecated: no longer written; codes are derived from otp_secret';
+
+-- Verification
+SELECT 'Election TOTP migration completed successfully!' as status;
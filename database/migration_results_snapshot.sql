@@ -0,0 +1,14 @@
+-- Migration: Frozen results snapshots
+-- Once an election is COMPLETED and its last votes have settled, the backend computes its results
+-- once and stores them here as canonical JSON with the body's SHA-256. The row is written once and
+-- served byte for byte from then on; the same bytes are kept in the local blob store. A snapshot
+-- is only dropped if the election is moved out of COMPLETED again.
+-- Run this after migration_turnout_rollup.sql
+
+CREATE TABLE IF NOT EXISTS results_snapshot (
+    election_id BIGINT PRIMARY KEY REFERENCES elections(id) ON DELETE CASCADE,
+    content_hash CHAR(64) NOT NULL,
+    body BYTEA NOT NULL,
+    total_votes BIGINT NOT NULL,
+    finalized_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
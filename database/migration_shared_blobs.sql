@@ -0,0 +1,31 @@
+-- Migration: Shared copy of the blob store
+-- Each backend node keeps blobs on its own disk (storage.blob.root) while the rows referring to
+-- them are shared, so a blob written on one node was missing on the others. Every blob is now
+-- also stored here once, keyed by its SHA-256; nodes read it when their disk lacks a blob and keep
+-- it locally from then on. Blobs written before this migration are copied here by the first sweep
+-- of the node holding them. The sweep also deletes blobs that no row references any more, which
+-- the indexes below keep cheap.
+-- Run this after migration_results_snapshot.sql
+
+CREATE TABLE IF NOT EXISTS blobs (
+    hash CHAR(64) PRIMARY KEY,
+    data BYTEA NOT NULL,
+    size INTEGER NOT NULL,
+    stored_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP -- refreshed whenever the blob is stored again
+);
+
+CREATE INDEX IF NOT EXISTS idx_blobs_stored_at ON blobs(stored_at);
+
+-- Hash lookups for the orphan sweep
+CREATE INDEX IF NOT EXISTS idx_candidate_photos_content_hash ON candidate_photos(content_hash);
+CREATE INDEX IF NOT EXISTS idx_party_logos_content_hash ON party_logos(content_hash);
+CREATE INDEX IF NOT EXISTS idx_profile_photos_content_hash ON profile_photos(content_hash);
+CREATE INDEX IF NOT EXISTS idx_image_variants_content_hash ON image_variants(content_hash);
+CREATE INDEX IF NOT EXISTS idx_fingerprint_data_fingerprint_hash ON fingerprint_data(fingerprint_hash);
+CREATE INDEX IF NOT EXISTS idx_admin_users_fingerprint_hash ON admin_users(fingerprint_hash);
+CREATE INDEX IF NOT EXISTS idx_results_snapshot_content_hash ON results_snapshot(content_hash);
+
+COMMENT ON TABLE blobs IS 'Copy of every blob store entry, read by nodes whose local disk lacks it';
+
+-- Verification
+SELECT 'Shared blob migration completed successfully!' as status;
@@ -0,0 +1,31 @@
+-- Migration: Offline vote sync for voting stations
+-- Kiosks at centers with intermittent connectivity capture votes locally and upload them later
+-- as a bundle. Each entry carries a per-station sequence number and an HMAC-SHA256 signature
+-- made with the station's sync secret. voting_stations.last_synced_sequence is the highest
+-- sequence below which every entry has been processed, so re-uploaded entries are skipped
+-- without verifying them again; entries processed above it are kept in station_sync_entries.
+-- Run this after migration_vote_idempotency_keys.sql
+
+-- Step 1: Sync state per station
+ALTER TABLE voting_stations
+ADD COLUMN IF NOT EXISTS sync_secret VARCHAR(64),
+ADD COLUMN IF NOT EXISTS last_synced_sequence BIGINT NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS last_synced_at TIMESTAMP;
+
+-- Step 2: Outcome of every processed entry
+CREATE TABLE IF NOT EXISTS station_sync_entries (
+    station_code VARCHAR(50) NOT NULL REFERENCES voting_stations(station_code) ON DELETE CASCADE,
+    sequence BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL, -- ACCEPTED, ALREADY_VOTED or REJECTED
+    vote_id BIGINT REFERENCES votes(id) ON DELETE SET NULL,
+    synced_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (station_code, sequence)
+);
+
+-- Add comments for documentation
+COMMENT ON COLUMN voting_stations.sync_secret IS 'Hex-encoded HMAC-SHA256 key kiosks sign offline votes with; never exposed through the API after provisioning';
+COMMENT ON COLUMN voting_stations.last_synced_sequence IS 'Every entry up to this sequence has been processed';
+COMMENT ON TABLE station_sync_entries IS 'Processed offline vote entries by (station, sequence), so re-uploads are not applied twice';
+
+-- Verification
+SELECT 'Station sync migration completed successfully!' as status;
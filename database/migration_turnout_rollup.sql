@@ -0,0 +1,26 @@
+-- Migration: Pre-aggregated turnout time series
+-- Each backend node counts the votes it commits per minute, election and center and periodically
+-- adds them to the minute, hour and day rows below, so a turnout curve is read from one bucket
+-- per point instead of counting votes. Votes cast without a center use the empty center_location.
+-- Minute rows are pruned by the backend after turnout.minute-retention-days.
+-- Run this after migration_center_tally_index.sql, together with deploying the backend that
+-- writes the table, so no vote is left out of the backfill below.
+
+-- Step 1: Rollup table
+CREATE TABLE IF NOT EXISTS turnout_rollup (
+    election_id BIGINT NOT NULL REFERENCES elections(id) ON DELETE CASCADE,
+    resolution VARCHAR(6) NOT NULL CHECK (resolution IN ('MINUTE', 'HOUR', 'DAY')),
+    center_location VARCHAR(255) NOT NULL DEFAULT '',
+    bucket_start TIMESTAMP NOT NULL,
+    votes BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, resolution, center_location, bucket_start)
+);
+
+-- Step 2: Backfill from the votes already cast
+INSERT INTO turnout_rollup (election_id, resolution, center_location, bucket_start, votes)
+SELECT v.election_id, r.resolution, COALESCE(v.center_location, ''), date_trunc(r.unit, v.timestamp), COUNT(*)
+FROM votes v
+CROSS JOIN (VALUES ('MINUTE', 'minute'), ('HOUR', 'hour'), ('DAY', 'day')) AS r(resolution, unit)
+WHERE v.election_id IS NOT NULL
+GROUP BY 1, 2, 3, 4
+ON CONFLICT (election_id, resolution, center_location, bucket_start) DO NOTHING;
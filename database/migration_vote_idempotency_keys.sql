@@ -0,0 +1,27 @@
+-- Migration: Idempotency keys for vote submission
+-- Kiosks send an Idempotency-Key header with /api/vote/cast. The receipt of the vote is stored
+-- under the key in the same transaction as the vote, so a retried submission is answered with
+-- the original vote ID instead of an "already voted" error. Rows expire after
+-- vote.idempotency.ttl-hours and are purged by the backend.
+-- Run this after migration_voter_version.sql
+
+-- Step 1: Create the key table
+CREATE TABLE IF NOT EXISTS vote_idempotency_keys (
+    idempotency_key VARCHAR(100) PRIMARY KEY,
+    request_fingerprint VARCHAR(200) NOT NULL, -- voter ID, election and candidate the key was used for
+    vote_id BIGINT NOT NULL REFERENCES votes(id) ON DELETE CASCADE,
+    voted_at TIMESTAMP NOT NULL,
+    center_location VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Step 2: Purging scans by expiry
+CREATE INDEX IF NOT EXISTS idx_vote_idempotency_keys_expires_at ON vote_idempotency_keys(expires_at);
+
+-- Add comments for documentation
+COMMENT ON TABLE vote_idempotency_keys IS 'Receipts of votes by client idempotency key, for answering retried submissions';
+COMMENT ON COLUMN vote_idempotency_keys.request_fingerprint IS 'Ballot the key was first used for; reusing the key for another ballot is rejected';
+
+-- Verification
+SELECT 'Vote idempotency keys migration completed successfully!' as status;
@@ -0,0 +1,114 @@
+-- Migration: Normalize voter eligibility into voter_election_eligibility
+-- Eligibility used to live in the voters.eligible_elections JSONB array, stored inconsistently
+-- as numbers or strings and checked with two @> probes per lookup. This creates one row per
+-- (voter, election), copies the existing arrays into it and points the eligibility functions
+-- and views at the new table. The backend keeps an in-memory bitmap index of this table.
+
+-- Step 1: Create the eligibility table
+CREATE TABLE IF NOT EXISTS voter_election_eligibility (
+    voter_id BIGINT NOT NULL REFERENCES voters(id) ON DELETE CASCADE,
+    election_id BIGINT NOT NULL REFERENCES elections(id) ON DELETE CASCADE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (voter_id, election_id)
+);
+
+-- The primary key serves per-voter lookups; this one serves per-election scans
+CREATE INDEX IF NOT EXISTS idx_voter_election_eligibility_election ON voter_election_eligibility(election_id, voter_id);
+
+-- Step 2: Copy existing JSONB eligibility (both number and string elements)
+INSERT INTO voter_election_eligibility (voter_id, election_id)
+SELECT v.id, (elem #>> '{}')::BIGINT
+FROM voters v
+CROSS JOIN LATERAL jsonb_array_elements(COALESCE(v.eligible_elections, '[]'::jsonb)) AS elem
+WHERE jsonb_typeof(v.eligible_elections) = 'array'
+  AND (elem #>> '{}') ~ '^[0-9]+$'
+  AND EXISTS (SELECT 1 FROM elections e WHERE e.id = (elem #>> '{}')::BIGINT)
+ON CONFLICT DO NOTHING;
+
+-- Step 3: Point database functions and views at the new table
+CREATE OR REPLACE FUNCTION is_voter_eligible(voter_id_param BIGINT, election_id_param BIGINT)
+RETURNS BOOLEAN AS $$
+BEGIN
+    RETURN EXISTS (
+        SELECT 1
+        FROM voter_election_eligibility ve
+        JOIN voters v ON v.id = ve.voter_id
+        WHERE ve.voter_id = voter_id_param
+        AND ve.election_id = election_id_param
+        AND v.is_active = true
+    );
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION add_voter_to_election(voter_id BIGINT, election_id BIGINT)
+RETURNS BOOLEAN AS $$
+BEGIN
+    -- Check if voter and election exist
+    IF NOT EXISTS (SELECT 1 FROM voters WHERE id = voter_id AND is_active = true) THEN
+        RAISE EXCEPTION 'Voter with id % not found or inactive', voter_id;
+    END IF;
+    
+    IF NOT EXISTS (SELECT 1 FROM elections WHERE id = election_id AND is_active = true) THEN
+        RAISE EXCEPTION 'Election with id % not found or inactive', election_id;
+    END IF;
+    
+    INSERT INTO voter_election_eligibility (voter_id, election_id)
+    VALUES (add_voter_to_election.voter_id, add_voter_to_election.election_id)
+    ON CONFLICT DO NOTHING;
+    
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION get_voter_active_elections(voter_id BIGINT)
+RETURNS TABLE(
+    election_id BIGINT,
+    election_name VARCHAR(200),
+    start_date TIMESTAMP,
+    end_date TIMESTAMP,
+    status VARCHAR(20),
+    has_voted BOOLEAN
+) AS $$
+BEGIN
+    RETURN QUERY
+    SELECT 
+        e.id,
+        e.name,
+        e.start_date,
+        e.end_date,
+        e.status,
+        (votes.id IS NOT NULL) as has_voted
+    FROM elections e
+    INNER JOIN voter_election_eligibility ve ON ve.election_id = e.id
+    INNER JOIN voters v ON v.id = ve.voter_id
+    LEFT JOIN votes ON votes.voter_id = v.id AND votes.election_id = e.id
+    WHERE v.id = get_voter_active_elections.voter_id 
+    AND v.is_active = true 
+    AND e.is_active = true
+    AND e.status IN ('ACTIVE', 'UPCOMING')
+    ORDER BY e.start_date;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE VIEW voter_statistics AS
+SELECT 
+    e.id as election_id,
+    e.name as election_name,
+    COUNT(ve.voter_id) as eligible_voters,
+    COUNT(votes.voter_id) as voters_who_voted,
+    ROUND(COUNT(votes.voter_id) * 100.0 / NULLIF(COUNT(ve.voter_id), 0), 2) as voting_percentage
+FROM elections e
+LEFT JOIN voter_election_eligibility ve ON ve.election_id = e.id
+    AND EXISTS (SELECT 1 FROM voters v WHERE v.id = ve.voter_id AND v.is_active = true)
+LEFT JOIN votes ON votes.voter_id = ve.voter_id AND votes.election_id = e.id
+WHERE e.is_active = true
+GROUP BY e.id, e.name
+ORDER BY e.id;
+
+-- Step 4: The JSONB column is no longer written by the backend
+COMMENT ON COLUMN voters.eligible_elections IS 'DEPRECATED: superseded by voter_election_eligibility, no longer maintained';
+COMMENT ON TABLE voter_election_eligibility IS 'Elections each voter may vote in, one row per (voter, election)';
+
+-- Verification
+SELECT 'Voter election eligibility migration completed successfully!' as status;
+SELECT election_id, COUNT(*) AS eligible_voters FROM voter_election_eligibility GROUP BY election_id ORDER BY election_id;
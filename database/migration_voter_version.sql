@@ -0,0 +1,15 @@
+-- Migration: Optimistic concurrency for voter updates
+-- Every update of a voter now bumps voters.version. PATCH /api/admin/voters/{id} accepts the
+-- version the change was based on and is rejected with 409 if the row has moved on since,
+-- instead of silently overwriting a concurrent edit.
+-- Run this after migration_canonical_voter_ids.sql
+
+-- Step 1: Add the version column (existing rows start at 0)
+ALTER TABLE voters
+ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Add comments for documentation
+COMMENT ON COLUMN voters.version IS 'Incremented by every update; compared by partial updates to detect concurrent edits';
+
+-- Verification
+SELECT 'Voter version migration completed successfully!' as status;